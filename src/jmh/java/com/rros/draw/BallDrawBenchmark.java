@@ -0,0 +1,50 @@
+package com.rros.draw;
+
+import com.rros.silanislottery.SilanisLottery;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Draw of NB_WINNERS balls: a fresh DrawableInteger per draw against the allocation-free FloydSampler
+ * <p>
+ * java -jar target/benchmarks.jar BallDrawBenchmark -prof gc
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BallDrawBenchmark {
+
+    @Param({"50", "10000000"})
+    public int nbBalls;
+
+    @Param({"SPLITTABLE"})
+    public RandomSource randomSource;
+
+    private final int[] drawResults = new int[SilanisLottery.NB_WINNERS];
+
+    private FloydSampler sampler;
+
+    @Setup
+    public void setUp() {
+        this.sampler = new FloydSampler(this.randomSource);
+    }
+
+    /**
+     * Path used by SingleLottery.drawLottery() up to user-003: a new bag of balls per draw
+     */
+    @Benchmark
+    public int[] drawableInteger() throws NoAvailableDrawWithoutReplacementException {
+        new DrawableInteger(this.nbBalls, this.randomSource).drawWithoutReplacement(SilanisLottery.NB_WINNERS, this.drawResults, 0);
+        return this.drawResults;
+    }
+
+    @Benchmark
+    public int[] floydSampler() {
+        this.sampler.sample(this.nbBalls, SilanisLottery.NB_WINNERS, this.drawResults, 0);
+        return this.drawResults;
+    }
+}
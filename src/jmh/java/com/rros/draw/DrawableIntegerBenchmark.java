@@ -0,0 +1,74 @@
+package com.rros.draw;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Draw throughput of DrawableInteger and ConcurrentDrawableInteger by pool size
+ * <p>
+ * An exhausted pool is reset (DrawableInteger) or replaced (ConcurrentDrawableInteger), which is amortized over the
+ * pool size.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DrawableIntegerBenchmark {
+
+    @State(Scope.Thread)
+    public static class SequentialPool {
+
+        @Param({"50", "1000000", "10000000"})
+        public int poolSize;
+
+        private DrawableInteger drawableInteger;
+
+        @Setup
+        public void setUp() {
+            this.drawableInteger = new DrawableInteger(this.poolSize, RandomSource.SPLITTABLE);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class SharedPool {
+
+        @Param({"50", "1000000", "10000000"})
+        public int poolSize;
+
+        private volatile ConcurrentDrawableInteger drawableInteger;
+
+        @Setup
+        public void setUp() {
+            this.drawableInteger = new ConcurrentDrawableInteger(this.poolSize);
+        }
+    }
+
+    @Benchmark
+    public int drawWithoutReplacement(final SequentialPool pool) {
+        int draw = pool.drawableInteger.tryDraw();
+        if (draw == DrawableInteger.NO_DRAW) {
+            pool.drawableInteger.reset();
+            draw = pool.drawableInteger.tryDraw();
+        }
+        return draw;
+    }
+
+    /**
+     * Draws of all the benchmark threads from a single pool
+     */
+    @Benchmark
+    public int concurrentDrawWithoutReplacement(final SharedPool pool) {
+        final ConcurrentDrawableInteger drawableInteger = pool.drawableInteger;
+        final int draw = drawableInteger.tryDraw();
+        if (draw == ConcurrentDrawableInteger.NO_DRAW) {
+            synchronized (pool) {
+                if (pool.drawableInteger == drawableInteger) {
+                    pool.drawableInteger = new ConcurrentDrawableInteger(pool.poolSize);
+                }
+            }
+        }
+        return draw;
+    }
+}
@@ -0,0 +1,43 @@
+package com.rros.draw;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Draw throughput of DrawableInteger for each built-in random source
+ * <p>
+ * Each benchmark thread owns its pool, run with -t to compare the sources under concurrent load:
+ * java -jar target/benchmarks.jar RandomSourceBenchmark -t 4
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RandomSourceBenchmark {
+
+    /**
+     * Pool size: large enough for the pool creation to be amortized
+     */
+    private static final int POOL_SIZE = 1 << 20;
+
+    @Param({"LEGACY", "SPLITTABLE", "L64X128_MIX", "L64X128_STAR_STAR", "THREAD_LOCAL", "SECURE"})
+    public RandomSource randomSource;
+
+    private DrawableInteger drawableInteger;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        this.drawableInteger = new DrawableInteger(POOL_SIZE, this.randomSource);
+    }
+
+    @Benchmark
+    public int drawWithoutReplacement() throws NoAvailableDrawWithoutReplacementException {
+        if (!this.drawableInteger.isDrawWithoutReplacementAvailable()) {
+            this.drawableInteger = new DrawableInteger(POOL_SIZE, this.randomSource);
+        }
+        return this.drawableInteger.drawWithoutReplacement();
+    }
+}
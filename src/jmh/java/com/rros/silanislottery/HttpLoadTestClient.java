@@ -0,0 +1,106 @@
+package com.rros.silanislottery;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Load test of LotteryHttpServer: client threads purchase tickets, drawing the lottery whenever it is sold out
+ * <p>
+ * Reports the throughput and the latency percentiles of all the requests. Without URI, the lottery is served
+ * in-process on an ephemeral port.
+ * <p>
+ * java -cp target/benchmarks.jar com.rros.silanislottery.HttpLoadTestClient [client threads] [requests per thread]
+ * [server threads] [URI]
+ */
+public class HttpLoadTestClient {
+
+    private static final int HTTP_CONFLICT = 409;
+
+    private HttpLoadTestClient() {
+        // private so this class cannot be instantiated
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final int nbClientThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        final int nbRequests = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        final int nbServerThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        LotteryHttpServer server = null;
+        final URI uri;
+        if (args.length > 3) {
+            uri = URI.create(args[3]);
+        } else {
+            // as Main does for -http
+            if (System.getProperty(LotteryHttpServer.NODELAY_PROPERTY) == null) {
+                System.setProperty(LotteryHttpServer.NODELAY_PROPERTY, "true");
+            }
+            server = LotteryHttpServer.start(new ConcurrentSilanisLottery(), new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), nbServerThreads);
+            uri = URI.create("http://localhost:" + server.getAddress().getPort());
+        }
+
+        final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        final HttpRequest purchase = HttpRequest.newBuilder(uri.resolve(LotteryHttpServer.TICKETS_PATH))
+                .POST(HttpRequest.BodyPublishers.ofString("Load test")).build();
+        final HttpRequest draw = HttpRequest.newBuilder(uri.resolve(LotteryHttpServer.DRAW_PATH))
+                .POST(HttpRequest.BodyPublishers.noBody()).build();
+
+        // warm up
+        HttpLoadTestClient.run(client, purchase, draw, nbRequests / 10);
+
+        final ExecutorService clients = Executors.newFixedThreadPool(nbClientThreads);
+        final long start = System.nanoTime();
+        final Future<?>[] futures = new Future<?>[nbClientThreads];
+        for (int i = 0; i < nbClientThreads; i++) {
+            futures[i] = clients.submit(() -> HttpLoadTestClient.run(client, purchase, draw, nbRequests));
+        }
+        final long[] latencies = new long[nbClientThreads * nbRequests];
+        for (int i = 0; i < nbClientThreads; i++) {
+            System.arraycopy((long[]) futures[i].get(), 0, latencies, i * nbRequests, nbRequests);
+        }
+        final long elapsed = System.nanoTime() - start;
+        clients.shutdown();
+        if (server != null) {
+            server.close();
+        }
+
+        Arrays.sort(latencies);
+        System.out.printf("%d requests, %d client threads: %.0f requests/s, p50: %.1f us, p99: %.1f us, max: %.1f us%n",
+                latencies.length, nbClientThreads, latencies.length * 1e9 / elapsed,
+                HttpLoadTestClient.percentile(latencies, 50) / 1e3, HttpLoadTestClient.percentile(latencies, 99) / 1e3,
+                latencies[latencies.length - 1] / 1e3);
+    }
+
+    /**
+     * Send nbRequests requests: purchases, or a draw after a sold out purchase
+     *
+     * @return the latency of each request, in nanoseconds
+     */
+    private static long[] run(final HttpClient client, final HttpRequest purchase, final HttpRequest draw, final int nbRequests) throws Exception {
+        final long[] latencies = new long[nbRequests];
+        boolean soldOut = false;
+        for (int i = 0; i < nbRequests; i++) {
+            final long start = System.nanoTime();
+            final HttpResponse<Void> response = client.send(soldOut ? draw : purchase, HttpResponse.BodyHandlers.discarding());
+            latencies[i] = System.nanoTime() - start;
+            soldOut = !soldOut && response.statusCode() == HTTP_CONFLICT;
+        }
+        return latencies;
+    }
+
+    /**
+     * @param sortedValues values in ascending order
+     * @return the percentile of the values, nearest-rank method
+     */
+    private static long percentile(final long[] sortedValues, final double percentile) {
+        final int rank = (int) Math.ceil(percentile / 100 * sortedValues.length);
+        return sortedValues[Math.max(0, rank - 1)];
+    }
+}
@@ -0,0 +1,54 @@
+package com.rros.silanislottery;
+
+import com.rros.draw.RandomSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Journaled purchases per second by number of events per fsync
+ * <p>
+ * A batch size of 1 syncs every purchase: throughput is then bound by the latency of the storage.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class JournalBenchmark {
+
+    private static final String BUYER_NAME = "Dave";
+
+    @Param({"1", "8", "64", "512", "4096"})
+    public int batchSize;
+
+    private Path path;
+
+    private JournaledLottery lottery;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.path = Files.createTempFile("lottery", ".journal");
+        Files.delete(this.path);
+        this.lottery = JournaledLottery.open(this.path, SilanisLottery.INITIAL_POT, 1_000_000, RandomSource.SPLITTABLE, this.batchSize);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        this.lottery.close();
+        Files.deleteIfExists(this.path);
+    }
+
+    @Benchmark
+    public int purchaseTicket() {
+        final int ticket = this.lottery.tryPurchaseTicket(BUYER_NAME);
+        if (ticket == PurchaseStatus.NO_AVAILABLE_TICKET) {
+            this.lottery.drawLottery();
+        }
+        return ticket;
+    }
+}
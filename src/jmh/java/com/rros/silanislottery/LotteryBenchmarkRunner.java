@@ -0,0 +1,51 @@
+package com.rros.silanislottery;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the lottery benchmark suite once per thread count, writing one JSON result file per run
+ * <p>
+ * The JSON files (target/jmh-VERSION-tTHREADS.json) can be kept per release to track regressions, e.g. with
+ * https://jmh.morethan.io
+ * <p>
+ * java -cp target/benchmarks.jar com.rros.silanislottery.LotteryBenchmarkRunner [include regexp] [thread counts...]
+ */
+public class LotteryBenchmarkRunner {
+
+    /**
+     * Benchmarks run by default
+     */
+    private static final String DEFAULT_INCLUDE = "DrawableIntegerBenchmark|SingleLotteryBenchmark|LotteryCycleBenchmark";
+
+    private LotteryBenchmarkRunner() {
+        // private so this class cannot be instantiated
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        final String include = args.length > 0 ? args[0] : DEFAULT_INCLUDE;
+        final String version = LotteryBenchmarkRunner.class.getPackage().getImplementationVersion();
+        final int[] threadCounts;
+        if (args.length > 1) {
+            threadCounts = new int[args.length - 1];
+            for (int i = 1; i < args.length; i++) {
+                threadCounts[i - 1] = Integer.parseInt(args[i]);
+            }
+        } else {
+            threadCounts = new int[]{1, Runtime.getRuntime().availableProcessors()};
+        }
+
+        for (final int threads : threadCounts) {
+            final Options options = new OptionsBuilder()
+                    .include(include)
+                    .threads(threads)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("target/jmh-" + (version == null ? "dev" : version) + "-t" + threads + ".json")
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
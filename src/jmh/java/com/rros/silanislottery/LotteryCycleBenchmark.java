@@ -0,0 +1,78 @@
+package com.rros.silanislottery;
+
+import com.rros.draw.RandomSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full purchase-to-draw cycles
+ * <p>
+ * silanisLotteryCycle runs a whole round per invocation on a SilanisLottery. concurrentPurchase has every benchmark
+ * thread buy tickets from a single ConcurrentSilanisLottery, drawing it when it is sold out: use the thread count
+ * (-t, or LotteryBenchmarkRunner) to measure how purchases scale.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LotteryCycleBenchmark {
+
+    private static final String BUYER_NAME = "Dave";
+
+    @State(Scope.Thread)
+    public static class Sequential {
+
+        @Param({"50", "1000000", "10000000"})
+        public int nbTickets;
+
+        /**
+         * Number of tickets purchased per round, capped by nbTickets
+         */
+        @Param({"50"})
+        public int ticketsPerRound;
+
+        private SilanisLottery lottery;
+
+        @Setup
+        public void setUp() {
+            this.lottery = new SilanisLottery(SilanisLottery.INITIAL_POT, this.nbTickets, RandomSource.SPLITTABLE);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+
+        @Param({"50", "1000000", "10000000"})
+        public int nbTickets;
+
+        private ConcurrentSilanisLottery lottery;
+
+        @Setup
+        public void setUp() {
+            this.lottery = new ConcurrentSilanisLottery(SilanisLottery.INITIAL_POT, this.nbTickets);
+        }
+    }
+
+    @Benchmark
+    public String silanisLotteryCycle(final Sequential state) throws NoPreviousDrawException {
+        final int nbPurchases = Math.min(state.ticketsPerRound, state.nbTickets);
+        for (int i = 0; i < nbPurchases; i++) {
+            state.lottery.tryPurchaseTicket(BUYER_NAME);
+        }
+        state.lottery.drawLottery();
+        return state.lottery.generateWinnersMessage();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int concurrentPurchase(final Shared state) {
+        final int ticket = state.lottery.tryPurchaseTicket(BUYER_NAME);
+        if (ticket == PurchaseStatus.NO_AVAILABLE_TICKET) {
+            // several threads may find it sold out: the extra draws only close empty rounds
+            state.lottery.drawLottery();
+        }
+        return ticket;
+    }
+}
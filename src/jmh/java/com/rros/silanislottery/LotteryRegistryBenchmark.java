@@ -0,0 +1,66 @@
+package com.rros.silanislottery;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * drawAll() on a LotteryRegistry holding many lotteries, for several partition counts
+ * <p>
+ * Every lottery is sold out before each draw, so that the draws pay winners; the gain of more partitions follows the
+ * number of cores.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LotteryRegistryBenchmark {
+
+    private static final String BUYER_NAME = "Dave";
+
+    @Param({"1", "4", "16"})
+    public int nbPartitions;
+
+    @Param({"1000"})
+    public int nbLotteries;
+
+    @Param({"1000"})
+    public int nbTickets;
+
+    private LotteryRegistry registry;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.registry = new LotteryRegistry(this.nbPartitions);
+        for (int i = 0; i < this.nbLotteries; i++) {
+            this.registry.createLottery("lottery-" + i, SilanisLottery.INITIAL_POT, this.nbTickets).join();
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void sellOut() {
+        for (int i = 0; i < this.nbLotteries; i++) {
+            this.registry.submit("lottery-" + i, lottery -> {
+                while (lottery.tryPurchaseTicket(BUYER_NAME) > 0) {
+                    // buy every ticket
+                }
+                return null;
+            });
+        }
+        // the partition queues are FIFO: once the size is known, every lottery is sold out
+        this.registry.size().join();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.registry.close();
+    }
+
+    @Benchmark
+    public Map<String, int[]> drawAll() {
+        return this.registry.drawAll().join();
+    }
+}
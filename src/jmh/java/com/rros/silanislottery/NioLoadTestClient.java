@@ -0,0 +1,118 @@
+package com.rros.silanislottery;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Loopback load test of LotteryNioServer: purchases per second versus pipeline depth
+ * <p>
+ * For each depth, the client sends depth purchases at once, then reads their replies, until nbPurchases purchases were
+ * made. The lottery is drawn whenever it is sold out. The in-process server runs a lottery of 2^20 tickets, so that
+ * draws stay rare.
+ * <p>
+ * java -cp target/benchmarks.jar com.rros.silanislottery.NioLoadTestClient [purchases] [depths...]
+ */
+public class NioLoadTestClient {
+
+    private static final int NB_TICKETS = 1 << 20;
+
+    private static final byte[] BUYER_NAME = "Load test".getBytes(StandardCharsets.UTF_8);
+
+    private NioLoadTestClient() {
+        // private so this class cannot be instantiated
+    }
+
+    public static void main(final String[] args) throws IOException {
+        final int nbPurchases = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        final int[] depths;
+        if (args.length > 1) {
+            depths = new int[args.length - 1];
+            for (int i = 1; i < args.length; i++) {
+                depths[i - 1] = Integer.parseInt(args[i]);
+            }
+        } else {
+            depths = new int[]{1, 8, 64, 512, 4096};
+        }
+
+        try (LotteryNioServer server = LotteryNioServer.start(new SilanisLottery(SilanisLottery.INITIAL_POT, NB_TICKETS),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+             SocketChannel channel = SocketChannel.open(server.getAddress())) {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            final int maxDepth = Arrays.stream(depths).max().orElse(1);
+            final ByteBuffer requests = ByteBuffer.allocateDirect(maxDepth * (LotteryProtocol.FRAME_HEADER_LENGTH + BUYER_NAME.length));
+            // replies are kept in read mode
+            final ByteBuffer replies = ByteBuffer.allocateDirect(1 << 16).flip();
+
+            // warm up
+            NioLoadTestClient.run(channel, requests, replies, maxDepth, nbPurchases / 10);
+
+            for (final int depth : depths) {
+                final long start = System.nanoTime();
+                NioLoadTestClient.run(channel, requests, replies, depth, nbPurchases);
+                final long elapsed = System.nanoTime() - start;
+                System.out.printf("depth %5d: %,12.0f purchases/s%n", depth, nbPurchases * 1e9 / elapsed);
+            }
+        }
+    }
+
+    /**
+     * Make nbPurchases purchases, depth at a time
+     */
+    private static void run(final SocketChannel channel, final ByteBuffer requests, final ByteBuffer replies, final int depth, final int nbPurchases) throws IOException {
+        for (int done = 0; done < nbPurchases; done += depth) {
+            requests.clear();
+            for (int i = 0; i < depth; i++) {
+                LotteryProtocol.putPurchase(requests, BUYER_NAME);
+            }
+            NioLoadTestClient.writeFully(channel, requests.flip());
+
+            boolean soldOut = false;
+            int nbResults = 0;
+            while (nbResults < depth) {
+                final ByteBuffer frame = NioLoadTestClient.readFrame(channel, replies);
+                final int count = frame.getInt(frame.position() + LotteryProtocol.FRAME_HEADER_LENGTH);
+                for (int i = 0; i < count; i++) {
+                    soldOut |= frame.getInt(frame.position() + LotteryProtocol.FRAME_HEADER_LENGTH + (i + 1) * Integer.BYTES) == PurchaseStatus.NO_AVAILABLE_TICKET;
+                }
+                nbResults += count;
+                replies.position(replies.position() + Integer.BYTES + replies.getInt(replies.position()));
+            }
+
+            if (soldOut) {
+                requests.clear();
+                LotteryProtocol.putRequest(requests, LotteryProtocol.DRAW);
+                NioLoadTestClient.writeFully(channel, requests.flip());
+                NioLoadTestClient.readFrame(channel, replies);
+                replies.position(replies.position() + Integer.BYTES + replies.getInt(replies.position()));
+            }
+        }
+    }
+
+    private static void writeFully(final SocketChannel channel, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Read until replies, in read mode, starts with a complete frame
+     *
+     * @return replies
+     */
+    private static ByteBuffer readFrame(final SocketChannel channel, final ByteBuffer replies) throws IOException {
+        while (replies.remaining() < Integer.BYTES || replies.remaining() < Integer.BYTES + replies.getInt(replies.position())) {
+            replies.compact();
+            if (channel.read(replies) < 0) {
+                throw new IOException("Connection closed by the server");
+            }
+            replies.flip();
+        }
+        return replies;
+    }
+}
@@ -0,0 +1,68 @@
+package com.rros.silanislottery;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scoring of a pick-k draw: all the tickets of a store against a drawn mask, on 1 or all the processors
+ * <p>
+ * java -jar target/benchmarks.jar PickMatchEngineBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PickMatchEngineBenchmark {
+
+    private static final int NB_PICKS = 6;
+
+    @Param({"10000000"})
+    public int nbTickets;
+
+    /**
+     * Parallelism of the pool, 0 for the common pool
+     */
+    @Param({"1", "0"})
+    public int parallelism;
+
+    private PickTicketStore store;
+
+    private PickMatchEngine engine;
+
+    private ForkJoinPool pool;
+
+    private long drawnMask;
+
+    @Setup
+    public void setUp() throws InvalidBuyerNameException {
+        this.store = new PickTicketStore(NB_PICKS, SilanisLottery.MAX_BALL);
+        final SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < this.nbTickets; i++) {
+            this.store.purchase("Buyer", random.ints(1, SilanisLottery.MAX_BALL + 1).distinct().limit(NB_PICKS).toArray());
+        }
+        this.drawnMask = this.store.toCombination(random.ints(1, SilanisLottery.MAX_BALL + 1).distinct().limit(NB_PICKS).toArray());
+        if (this.parallelism == 0) {
+            this.engine = new PickMatchEngine();
+        } else {
+            this.pool = new ForkJoinPool(this.parallelism);
+            this.engine = new PickMatchEngine(this.pool);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (this.pool != null) {
+            this.pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public PrizeTiers match() {
+        return this.engine.match(this.store, this.drawnMask, SilanisLottery.NB_WINNERS);
+    }
+}
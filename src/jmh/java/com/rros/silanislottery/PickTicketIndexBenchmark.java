@@ -0,0 +1,68 @@
+package com.rros.silanislottery;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolution of a pick-k draw through the inverted index, to be compared with PickMatchEngineBenchmark, and cost of
+ * indexing a sale
+ * <p>
+ * java -jar target/benchmarks.jar PickTicketIndexBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PickTicketIndexBenchmark {
+
+    private static final int NB_PICKS = 6;
+
+    @Param({"10000000"})
+    public int nbTickets;
+
+    private PickTicketIndex index;
+
+    private int[] balls;
+
+    private long[] combinations;
+
+    private PickTicketIndex salesIndex;
+
+    private int nbSales;
+
+    @Setup
+    public void setUp() {
+        final PickTicketStore store = new PickTicketStore(NB_PICKS, SilanisLottery.MAX_BALL);
+        final SplittableRandom random = new SplittableRandom(42);
+        this.combinations = new long[1 << 16];
+        for (int i = 0; i < this.combinations.length; i++) {
+            this.combinations[i] = store.toCombination(random.ints(1, SilanisLottery.MAX_BALL + 1).distinct().limit(NB_PICKS).toArray());
+        }
+        this.index = new PickTicketIndex(NB_PICKS, SilanisLottery.MAX_BALL);
+        for (int ticket = 1; ticket <= this.nbTickets; ticket++) {
+            this.index.add(ticket, this.combinations[ticket & (this.combinations.length - 1)]);
+        }
+        this.balls = random.ints(1, SilanisLottery.MAX_BALL + 1).distinct().limit(NB_PICKS).toArray();
+        this.salesIndex = new PickTicketIndex(NB_PICKS, SilanisLottery.MAX_BALL);
+    }
+
+    @Benchmark
+    public PrizeTiers match() {
+        return this.index.match(this.balls, SilanisLottery.NB_WINNERS);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void add() {
+        if (this.nbSales == this.nbTickets) {
+            this.salesIndex.clear();
+            this.nbSales = 0;
+        }
+        this.nbSales++;
+        this.salesIndex.add(this.nbSales, this.combinations[this.nbSales & (this.combinations.length - 1)]);
+    }
+}
@@ -0,0 +1,45 @@
+package com.rros.silanislottery;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of rejected purchases on a sold-out lottery: exceptions against PurchaseStatus codes
+ * <p>
+ * java -jar target/benchmarks.jar PurchaseRejectionBenchmark -t 4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PurchaseRejectionBenchmark {
+
+    private static final String BUYER_NAME = "Dave";
+
+    private ConcurrentSilanisLottery lottery;
+
+    @Setup
+    public void setUp() {
+        this.lottery = new ConcurrentSilanisLottery();
+        while (this.lottery.isTicketAvailable()) {
+            this.lottery.tryPurchaseTicket(BUYER_NAME);
+        }
+    }
+
+    @Benchmark
+    public int purchaseTicket() {
+        try {
+            return this.lottery.purchaseTicket(BUYER_NAME);
+        } catch (NoAvailableTicketException | InvalidBuyerNameException e) {
+            return PurchaseStatus.NO_AVAILABLE_TICKET;
+        }
+    }
+
+    @Benchmark
+    public int tryPurchaseTicket() {
+        return this.lottery.tryPurchaseTicket(BUYER_NAME);
+    }
+}
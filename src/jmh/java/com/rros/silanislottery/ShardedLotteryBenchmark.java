@@ -0,0 +1,71 @@
+package com.rros.silanislottery;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Purchases on a ShardedLottery versus a ConcurrentSilanisLottery
+ * <p>
+ * Every benchmark thread buys tickets from one shared lottery, drawing it when it is sold out: use the thread count
+ * (-t, or LotteryBenchmarkRunner) to compare how both scale with the number of shards.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShardedLotteryBenchmark {
+
+    private static final String BUYER_NAME = "Dave";
+
+    @State(Scope.Benchmark)
+    public static class Sharded {
+
+        @Param({"1000000"})
+        public int nbTickets;
+
+        @Param({"1", "8", "64"})
+        public int nbShards;
+
+        private ShardedLottery lottery;
+
+        @Setup
+        public void setUp() {
+            this.lottery = new ShardedLottery(SilanisLottery.INITIAL_POT, this.nbTickets, this.nbShards);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Concurrent {
+
+        @Param({"1000000"})
+        public int nbTickets;
+
+        private ConcurrentSilanisLottery lottery;
+
+        @Setup
+        public void setUp() {
+            this.lottery = new ConcurrentSilanisLottery(SilanisLottery.INITIAL_POT, this.nbTickets);
+        }
+    }
+
+    @Benchmark
+    public int shardedPurchase(final Sharded state) {
+        final int ticket = state.lottery.tryPurchaseTicket(BUYER_NAME);
+        if (ticket == PurchaseStatus.NO_AVAILABLE_TICKET) {
+            // several threads may find it sold out: the extra draws only close empty rounds
+            state.lottery.drawLottery();
+        }
+        return ticket;
+    }
+
+    @Benchmark
+    public int concurrentPurchase(final Concurrent state) {
+        final int ticket = state.lottery.tryPurchaseTicket(BUYER_NAME);
+        if (ticket == PurchaseStatus.NO_AVAILABLE_TICKET) {
+            state.lottery.drawLottery();
+        }
+        return ticket;
+    }
+}
@@ -0,0 +1,62 @@
+package com.rros.silanislottery;
+
+import com.rros.draw.RandomSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Purchase, draw and winners message of a SingleLottery by number of tickets
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SingleLotteryBenchmark {
+
+    private static final String BUYER_NAME = "Dave";
+
+    @Param({"50", "1000000", "10000000"})
+    public int nbTickets;
+
+    private SingleLottery lottery;
+
+    private SingleLottery drawnLottery;
+
+    @Setup
+    public void setUp() {
+        this.lottery = new SingleLottery(SilanisLottery.INITIAL_POT, this.nbTickets, RandomSource.SPLITTABLE);
+        this.drawnLottery = new SingleLottery(SilanisLottery.INITIAL_POT, this.nbTickets, RandomSource.SPLITTABLE);
+        this.drawnLottery.drawLottery();
+    }
+
+    /**
+     * Purchase of a ticket, the lottery being reset once sold out
+     */
+    @Benchmark
+    public int purchaseTicket() {
+        int ticket = this.lottery.tryPurchaseTicket(BUYER_NAME);
+        if (ticket == PurchaseStatus.NO_AVAILABLE_TICKET) {
+            this.lottery.reset(SilanisLottery.INITIAL_POT);
+            ticket = this.lottery.tryPurchaseTicket(BUYER_NAME);
+        }
+        return ticket;
+    }
+
+    /**
+     * Draw of a lottery with a single ticket sold, including the reset needed to draw it again
+     */
+    @Benchmark
+    public int[] drawLottery() {
+        this.lottery.reset(SilanisLottery.INITIAL_POT);
+        this.lottery.tryPurchaseTicket(BUYER_NAME);
+        return this.lottery.drawLottery();
+    }
+
+    @Benchmark
+    public String generateWinnersMessage() {
+        return this.drawnLottery.generateWinnersMessage();
+    }
+}
@@ -0,0 +1,114 @@
+package com.rros.silanislottery;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Purchases through a SingleWriterLottery versus a SilanisLottery guarded by a lock
+ * <p>
+ * Every benchmark thread buys tickets from one shared lottery, drawing it when it is sold out: use the thread count
+ * (-t, or LotteryBenchmarkRunner) to compare how both scale. The *Purchase benchmarks wait for each purchase, the
+ * *Burst ones submit BURST_SIZE purchases before waiting for the last one, so that the engine applies them in batches.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SingleWriterLotteryBenchmark {
+
+    private static final String BUYER_NAME = "Dave";
+
+    private static final int BURST_SIZE = 64;
+
+    @State(Scope.Benchmark)
+    public static class Locked {
+
+        @Param({"1000000"})
+        public int nbTickets;
+
+        private SilanisLottery lottery;
+
+        @Setup
+        public void setUp() {
+            this.lottery = new SilanisLottery(SilanisLottery.INITIAL_POT, this.nbTickets);
+        }
+
+        private int purchase() {
+            synchronized (this.lottery) {
+                final int ticket = this.lottery.tryPurchaseTicket(BUYER_NAME);
+                if (ticket == PurchaseStatus.NO_AVAILABLE_TICKET) {
+                    this.lottery.drawLottery();
+                }
+                return ticket;
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class SingleWriter {
+
+        @Param({"1000000"})
+        public int nbTickets;
+
+        @Param({"1024"})
+        public int capacity;
+
+        @Param({"YIELDING", "BLOCKING"})
+        public SingleWriterLottery.WaitStrategy waitStrategy;
+
+        private SingleWriterLottery engine;
+
+        @Setup
+        public void setUp() {
+            this.engine = SingleWriterLottery.start(new SilanisLottery(SilanisLottery.INITIAL_POT, this.nbTickets), this.capacity, this.waitStrategy);
+        }
+
+        @TearDown
+        public void tearDown() {
+            this.engine.close();
+        }
+
+        private int awaitPurchase(final CompletableFuture<Integer> purchase) {
+            final int ticket = purchase.join();
+            if (ticket == PurchaseStatus.NO_AVAILABLE_TICKET) {
+                // several threads may find it sold out: the extra draws only close empty rounds
+                this.engine.drawLottery();
+            }
+            return ticket;
+        }
+    }
+
+    @Benchmark
+    public int lockedPurchase(final Locked state) {
+        return state.purchase();
+    }
+
+    @Benchmark
+    public int singleWriterPurchase(final SingleWriter state) {
+        return state.awaitPurchase(state.engine.purchaseTicket(BUYER_NAME));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST_SIZE)
+    public int lockedBurst(final Locked state) {
+        int ticket = 0;
+        for (int i = 0; i < BURST_SIZE; i++) {
+            ticket = state.purchase();
+        }
+        return ticket;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST_SIZE)
+    public int singleWriterBurst(final SingleWriter state) {
+        CompletableFuture<Integer> purchase = null;
+        for (int i = 0; i < BURST_SIZE; i++) {
+            purchase = state.engine.purchaseTicket(BUYER_NAME);
+        }
+        // commands are applied in order: the previous purchases are done once the last one is
+        return state.awaitPurchase(purchase);
+    }
+}
@@ -0,0 +1,229 @@
+package com.rros.draw;
+
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe drawable integer values between 1 and size
+ * <p>
+ * Where DrawableInteger swaps slots of a single array, this pool keeps one availability bit per value and claims
+ * values with compare-and-set, so concurrent draws do not need any lock:
+ * <ul>
+ * <li>a draw first reserves one of the remaining values by decrementing the root of a count tree: it fails at once
+ * if none is left, so the pool never hands out more than size values;</li>
+ * <li>it then picks the k-th still available value (k being uniform) by walking down the tree of available counts
+ * to a 64 bits word, and claims the value by clearing its bit with compare-and-set;</li>
+ * <li>the counts along the path are decremented once the bit is claimed. A walk based on counts that are not
+ * up-to-date yet can end on a word with too few available bits: the draw then starts over with a new k.</li>
+ * </ul>
+ * Sequential draws are uniform over the remaining values, as DrawableInteger ones. The pool takes size / 4 bytes and
+ * its creation is O(size): it is dense, unlike DrawableInteger.
+ * <p>
+ * Draws use ThreadLocalRandom: each thread draws from its own generator without contention.
+ */
+public class ConcurrentDrawableInteger {
+
+    /**
+     * Value returned by tryDraw() when there is no more available draw (drawn values are 1-indexed)
+     */
+    public static final int NO_DRAW = 0;
+
+    /**
+     * Number of drawable values
+     */
+    private final int size;
+
+    /**
+     * Availability bits: bit b of word w is set if value w * 64 + b + 1 has not been drawn
+     */
+    private final AtomicLongArray available;
+
+    /**
+     * Number of leaves of the count tree, a power of two not lesser than 2. Leaf i is available word i (words past
+     * the last one are empty).
+     */
+    private final int nbLeaves;
+
+    /**
+     * Count tree, indexed as a binary heap: node n has children 2n and 2n + 1, nodes from nbLeaves up are the words
+     * themselves.
+     * <p>
+     * Node 1 (root) holds the number of values not reserved yet. Other nodes hold the number of available bits of
+     * their subtree, which may be temporarily higher than the bits count while a claim is ongoing.
+     */
+    private final AtomicIntegerArray counts;
+
+    /**
+     * @param size number of drawable values, not negative
+     */
+    public ConcurrentDrawableInteger(final int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("The number of drawable values is expected to be positive or zero");
+        }
+        this.size = size;
+
+        final int nbWords = (size + Long.SIZE - 1) / Long.SIZE;
+        this.available = new AtomicLongArray(nbWords);
+        for (int w = 0; w < nbWords; w++) {
+            final int nbBits = Math.min(Long.SIZE, size - w * Long.SIZE);
+            this.available.set(w, nbBits == Long.SIZE ? -1L : (1L << nbBits) - 1);
+        }
+
+        this.nbLeaves = Math.max(2, Integer.highestOneBit(Math.max(1, nbWords - 1)) << 1);
+        this.counts = new AtomicIntegerArray(this.nbLeaves);
+        for (int node = this.nbLeaves - 1; node >= 1; node--) {
+            this.counts.set(node, this.count(2 * node) + this.count(2 * node + 1));
+        }
+    }
+
+    /**
+     * Select the k-th set bit of a word
+     *
+     * @param bits input word
+     * @param k    rank of the bit, lesser than Long.bitCount(bits)
+     * @return index of the bit
+     */
+    private static int select(long bits, final int k) {
+        for (int i = 0; i < k; i++) {
+            bits &= bits - 1; // clear lowest set bit
+        }
+        return Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * Draw one element in the bag, without replacement. Safe to call from any thread.
+     *
+     * @return drawn value
+     * @throws NoAvailableDrawWithoutReplacementException no more available draw
+     */
+    public int drawWithoutReplacement() throws NoAvailableDrawWithoutReplacementException {
+        final int draw = this.tryDraw();
+        if (draw == NO_DRAW) {
+            throw new NoAvailableDrawWithoutReplacementException();
+        }
+        return draw;
+    }
+
+    /**
+     * Draw one element in the bag, without replacement and without throwing. Safe to call from any thread.
+     *
+     * @return drawn value, NO_DRAW if there is no more available draw
+     */
+    public int tryDraw() {
+        return this.reserve(1) ? this.claim() : NO_DRAW;
+    }
+
+    /**
+     * Draw k elements in the bag, without replacement, in a single call. Safe to call from any thread.
+     * <p>
+     * The k values are reserved at once: either they are all drawn, or none is.
+     *
+     * @param k      number of elements to draw, not negative
+     * @param out    array receiving the drawn values
+     * @param offset index of out receiving the first drawn value
+     * @throws NoAvailableDrawWithoutReplacementException less than k draws are available, nothing is drawn
+     */
+    public void drawWithoutReplacement(final int k, final int[] out, final int offset) throws NoAvailableDrawWithoutReplacementException {
+        Objects.checkFromIndexSize(offset, k, out.length);
+        if (!this.reserve(k)) {
+            throw new NoAvailableDrawWithoutReplacementException();
+        }
+        for (int i = offset; i < offset + k; i++) {
+            out[i] = this.claim();
+        }
+    }
+
+    /**
+     * @return true if a draw without replacement is available, false otherwise
+     */
+    public boolean isDrawWithoutReplacementAvailable() {
+        return this.counts.get(1) > 0;
+    }
+
+    /**
+     * @return the number of drawable values, drawn or not
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * @return the number of values that can still be drawn
+     */
+    public int getRemaining() {
+        return this.counts.get(1);
+    }
+
+    /**
+     * Reserve some of the remaining values
+     *
+     * @param k number of values to reserve
+     * @return false if less than k values are left, in which case nothing is reserved
+     */
+    private boolean reserve(final int k) {
+        int remaining;
+        do {
+            remaining = this.counts.get(1);
+            if (remaining < k) {
+                return false;
+            }
+        } while (!this.counts.compareAndSet(1, remaining, remaining - k));
+        return true;
+    }
+
+    /**
+     * Claim one available value, a reservation guarantees there is one
+     *
+     * @return claimed value
+     */
+    private int claim() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            // counts are never lower than the available bits, and this thread has reserved one of them
+            int k = random.nextInt(Math.max(1, this.count(2) + this.count(3)));
+            int node = 1;
+            while (node < this.nbLeaves) {
+                final int left = this.count(2 * node);
+                if (k < left) {
+                    node = 2 * node;
+                } else {
+                    k -= left;
+                    node = 2 * node + 1;
+                }
+            }
+
+            final int word = node - this.nbLeaves;
+            if (word >= this.available.length()) {
+                // outdated counts on the way down led past the last word: start over
+                continue;
+            }
+            final long bits = this.available.get(word);
+            if (k >= Long.bitCount(bits)) {
+                // outdated counts on the way down: start over
+                continue;
+            }
+
+            final int bit = select(bits, k);
+            if (this.available.compareAndSet(word, bits, bits & ~(1L << bit))) {
+                for (int parent = node >>> 1; parent > 1; parent >>>= 1) {
+                    this.counts.decrementAndGet(parent);
+                }
+                return word * Long.SIZE + bit + 1;
+            }
+        }
+    }
+
+    /**
+     * @param node node of the count tree, not the root
+     * @return number of available values of the node subtree
+     */
+    private int count(final int node) {
+        if (node >= this.nbLeaves) {
+            final int word = node - this.nbLeaves;
+            return word < this.available.length() ? Long.bitCount(this.available.get(word)) : 0;
+        }
+        return this.counts.get(node);
+    }
+}
@@ -2,76 +2,275 @@ package com.rros.draw;
 
 import com.rros.silanislottery.SilanisLottery;
 
+import java.util.Objects;
 import java.util.Random;
+import java.util.random.RandomGenerator;
 
 /**
- * Drawable integer values between 1 and SilanisLottery.MAX_BALL
+ * Drawable integer values between 1 and size (SilanisLottery.MAX_BALL by default)
+ * <p>
+ * The draws run over a virtual identity array: slot i holds i + 1 unless it has been displaced by a previous draw.
+ * Only displaced slots are stored, so creating a pool is O(1) whatever its size and the memory used is proportional
+ * to the number of draws.
+ * <p>
+ * A given value can be taken out of the pool in O(1) as well (see remove()), through the inverse index of the displaced
+ * slots (value to slot). As it costs a second map update per draw, this index is only built on the first remove() and
+ * kept up to date from then on, until the next reset: pools that are only drawn at random do not pay for it.
  */
 public class DrawableInteger {
 
     /**
-     * Current drawables, currentMax is the index of the last drawn element if there is one (otherwise its value is drawables.length)
+     * Value returned by tryDraw() when there is no more available draw (drawn values are 1-indexed)
      */
-    private final int[] drawables = new int[SilanisLottery.MAX_BALL];
+    public static final int NO_DRAW = 0;
+
+    /**
+     * Values of the displaced slots of the virtual array, indexed by slot.
+     * <p>
+     * A slot absent from this map holds its initial value (slot + 1). Only slots in [0, currentMax[ are kept.
+     */
+    private final IntIntHashMap displaced = new IntIntHashMap();
+    /**
+     * Slots of the displaced values, indexed by value - 1: the inverse of displaced.
+     * <p>
+     * A value absent from this map is either in its initial slot (value - 1) or not drawable anymore. Only meaningful
+     * when indexed is true.
+     */
+    private final IntIntHashMap positions = new IntIntHashMap();
+    /**
+     * true if positions is up to date, i.e. once remove() has been called since the creation or the last reset
+     */
+    private boolean indexed;
+    /**
+     * Number of drawable values
+     */
+    private final int size;
     /**
      * Random used for the draws.
      * <p>
-     * Nota: java.util.Random is not cryptographically secure, but we assume Tommy is ok with that for the Silanis lottery, otherwise use SecureRandom
+     * Nota: java.util.Random (the default) is not cryptographically secure, but we assume Tommy is ok with that for the
+     * Silanis lottery, otherwise use RandomSource.SECURE
      */
-    private final Random random;
+    private final RandomGenerator random;
     /**
      * Current max index for the draw
      * <p>
-     * Draws are indices in [O, currentMax[ elements of this.drawables.
+     * Draws are indices in [O, currentMax[ elements of the virtual array.
      */
-    private int currentMax = SilanisLottery.MAX_BALL;
+    private int currentMax;
 
     /**
-     * Initialize the drawable collection of integer values
+     * Initialize the drawable collection of integer values between 1 and SilanisLottery.MAX_BALL
      */
     public DrawableInteger() {
-        this(new Random());
+        this(SilanisLottery.MAX_BALL);
     }
 
     /**
-     * Initialize the drawable collection of integer values
+     * Initialize the drawable collection of integer values between 1 and size
+     *
+     * @param size number of drawable values, not negative
+     */
+    public DrawableInteger(final int size) {
+        this(size, new Random());
+    }
+
+    /**
+     * Initialize the drawable collection of integer values between 1 and size
+     *
+     * @param size         number of drawable values, not negative
+     * @param randomSource source of the generator used for the draws
+     */
+    public DrawableInteger(final int size, final RandomSource randomSource) {
+        this(size, randomSource.create());
+    }
+
+    /**
+     * Initialize the drawable collection of integer values between 1 and SilanisLottery.MAX_BALL
      *
      * @param random input random, used for debugging (reproducible draws)
      */
-    DrawableInteger(final Random random) {
-        this.random = random;
+    DrawableInteger(final RandomGenerator random) {
+        this(SilanisLottery.MAX_BALL, random);
+    }
 
-        for (int i = 0; i < SilanisLottery.MAX_BALL; i++) {
-            this.drawables[i] = i + 1; // tickets and ball are 1-indexed collections
+    /**
+     * Initialize the drawable collection of integer values between 1 and size
+     *
+     * @param size   number of drawable values, not negative
+     * @param random generator used for the draws, e.g. a seeded one for reproducible draws
+     */
+    public DrawableInteger(final int size, final RandomGenerator random) {
+        if (size < 0) {
+            throw new IllegalArgumentException("The number of drawable values is expected to be positive or zero");
         }
+        this.size = size;
+        this.currentMax = size;
+        this.random = random;
     }
 
     /**
      * Draw one element in the bag and prepare the next draw is without replacement.
      * <p>
-     * Ref: This method implements the algorithm described in http://stackoverflow.com/a/196065
+     * Delegates to tryDraw().
      *
      * @return drawn object, in this case an integer value
      * @throws NoAvailableDrawWithoutReplacementException no more available draw
      */
     public int drawWithoutReplacement() throws NoAvailableDrawWithoutReplacementException {
+        final int currentDraw = this.tryDraw();
+        if (currentDraw == NO_DRAW) {
+            throw new NoAvailableDrawWithoutReplacementException();
+        }
+        return currentDraw;
+    }
+
+    /**
+     * Draw one element in the bag and prepare the next draw is without replacement, without throwing.
+     * <p>
+     * Ref: This method implements the algorithm described in http://stackoverflow.com/a/196065
+     *
+     * @return drawn value, NO_DRAW if there is no more available draw
+     */
+    public int tryDraw() {
         // pick an index between 0 (included) and this.currentMax (excluded)
         if (!isDrawWithoutReplacementAvailable()) {
+            return NO_DRAW;
+        }
+
+        return this.removeAt(this.random.nextInt(this.currentMax));
+    }
+
+    /**
+     * Draw k elements in the bag, without replacement, in a single call.
+     * <p>
+     * Same algorithm as drawWithoutReplacement(): availability is checked once for the k draws, which then run in a
+     * single loop.
+     *
+     * @param k      number of elements to draw, not negative
+     * @param out    array receiving the drawn values, in draw order
+     * @param offset index of out receiving the first drawn value
+     * @throws NoAvailableDrawWithoutReplacementException less than k draws are available, nothing is drawn
+     */
+    public void drawWithoutReplacement(final int k, final int[] out, final int offset) throws NoAvailableDrawWithoutReplacementException {
+        Objects.checkFromIndexSize(offset, k, out.length);
+        if (k > this.currentMax) {
             throw new NoAvailableDrawWithoutReplacementException();
         }
 
-        final int currentDrawIndex = this.random.nextInt(this.currentMax);
-        final int currentDraw = this.drawables[currentDrawIndex];
+        for (int i = offset; i < offset + k; i++) {
+            out[i] = this.removeAt(this.random.nextInt(this.currentMax));
+        }
+    }
+
+    /**
+     * Take a given value out of the bag, as if it had been drawn.
+     * <p>
+     * The slot of the value is found through the inverse index, then filled with the value of the last slot as a draw
+     * does: O(1) whatever the size and the number of draws (the first call since the last reset builds the index from
+     * the draws made so far), and the remaining draws stay uniform over the remaining values.
+     *
+     * @param value value to take out, between 1 and size
+     * @return true if the value was taken out, false if it was not drawable anymore
+     * @throws IllegalArgumentException the value is out of range
+     */
+    public boolean remove(final int value) {
+        if (value < 1 || value > this.size) {
+            throw new IllegalArgumentException("Value " + value + " is not between 1 and " + this.size);
+        }
+        final int index = this.slotOf(value);
+        // a drawn value is either out of the draw range or its initial slot holds another value
+        if (index >= this.currentMax || this.valueAt(index) != value) {
+            return false;
+        }
+        this.removeAt(index);
+        return true;
+    }
+
+    /**
+     * @param value value between 1 and size
+     * @return true if the value can still be drawn
+     */
+    public boolean isDrawable(final int value) {
+        if (value < 1 || value > this.size) {
+            return false;
+        }
+        final int index = this.slotOf(value);
+        return index < this.currentMax && this.valueAt(index) == value;
+    }
 
-        // swap this.drawables[currentDrawIndex] and this.drawables[this.currentMax-1]
-        final int tmp = this.drawables[currentDrawIndex];
-        this.drawables[currentDrawIndex] = this.drawables[this.currentMax - 1];
-        this.drawables[this.currentMax - 1] = tmp;
+    /**
+     * @param value value between 1 and size
+     * @return the slot holding the value if it is still drawable, any other slot otherwise
+     */
+    private int slotOf(final int value) {
+        if (!this.indexed) {
+            this.displaced.forEach((slot, displacedValue) -> this.positions.put(displacedValue - 1, slot));
+            this.indexed = true;
+        }
+        return this.positions.get(value - 1, value - 1);
+    }
 
-        // decrease this.currentMax: this way the last elements from this.drawables are left untouched.
-        this.currentMax--;
+    /**
+     * Take given values out of a bag that has not been drawn yet, e.g. to restore the state of a pool after a restart.
+     * <p>
+     * Excluded values in the head of the virtual array leave holes, which are filled with the available values of its
+     * tail: this costs O(count) whatever the size. The remaining draws are uniform over the remaining values.
+     *
+     * @param values values to exclude, distinct and between 1 and size
+     * @param offset index of values of the first value to exclude
+     * @param count  number of values to exclude
+     * @throws IllegalStateException    a value has already been drawn since the creation or the last reset
+     * @throws IllegalArgumentException a value is out of range or is excluded twice
+     */
+    public void exclude(final int[] values, final int offset, final int count) {
+        Objects.checkFromIndexSize(offset, count, values.length);
+        if (this.currentMax != this.size) {
+            throw new IllegalStateException("Values can only be excluded from a bag that has not been drawn yet");
+        }
 
-        return currentDraw;
+        // slots of the excluded values (value - 1)
+        final IntIntHashMap excluded = new IntIntHashMap();
+        for (int i = offset; i < offset + count; i++) {
+            final int value = values[i];
+            if (value < 1 || value > this.size) {
+                throw new IllegalArgumentException("Value " + value + " is not between 1 and " + this.size);
+            }
+            if (excluded.get(value - 1, 0) != 0) {
+                throw new IllegalArgumentException("Value " + value + " is excluded twice");
+            }
+            excluded.put(value - 1, 1);
+        }
+
+        // there are as many holes in [0, max[ as available values in [max, size[
+        final int max = this.size - count;
+        int tail = max;
+        for (int i = offset; i < offset + count; i++) {
+            final int hole = values[i] - 1;
+            if (hole < max) {
+                while (excluded.get(tail, 0) != 0) {
+                    tail++;
+                }
+                this.displaced.put(hole, tail + 1);
+                if (this.indexed) {
+                    this.positions.put(tail, hole);
+                }
+                tail++;
+            }
+        }
+        this.currentMax = max;
+    }
+
+    /**
+     * Put every drawn value back in the bag, as if this was a new instance (the random generator is kept).
+     * <p>
+     * Only the displaced slots are undone, so resetting costs as much as the draws did and allocates nothing.
+     */
+    public void reset() {
+        this.displaced.clear();
+        this.positions.clear();
+        this.indexed = false;
+        this.currentMax = this.size;
     }
 
     /**
@@ -82,4 +281,63 @@ public class DrawableInteger {
         return this.currentMax > 0;
     }
 
+    /**
+     * @return the number of drawable values, drawn or not
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * @return the number of values that can still be drawn
+     */
+    public int getRemaining() {
+        return this.currentMax;
+    }
+
+    /**
+     * Take the value of a slot out of the draw range: the value of the last slot moves to it, the last slot being out
+     * of the draw range from now on, so it does not need to be stored anymore
+     *
+     * @param index slot of the virtual array, in [0, currentMax[
+     * @return the value taken out
+     */
+    private int removeAt(final int index) {
+        final int value = this.valueAt(index);
+        final int lastIndex = this.currentMax - 1;
+        if (index != lastIndex) {
+            // the last value is out of its initial slot (which is out of the draw range) from now on
+            final int lastValue = this.valueAt(lastIndex);
+            this.displaced.put(index, lastValue);
+            if (this.indexed) {
+                this.positions.put(lastValue - 1, index);
+            }
+        }
+        this.displaced.remove(lastIndex);
+        if (this.indexed) {
+            this.positions.remove(value - 1);
+        }
+
+        // decrease this.currentMax: this way the last elements from the virtual array are left untouched.
+        this.currentMax--;
+        return value;
+    }
+
+    /**
+     * @param index slot of the virtual array
+     * @return the value currently held by the slot
+     */
+    private int valueAt(final int index) {
+        return this.displaced.get(index, index + 1); // tickets and ball are 1-indexed collections
+    }
+
+    /**
+     * Used for test purposes
+     *
+     * @return the number of stored displaced slots
+     */
+    int getDisplacedCount() {
+        return this.displaced.size();
+    }
+
 }
@@ -0,0 +1,77 @@
+package com.rros.draw;
+
+import java.util.Objects;
+import java.util.random.RandomGenerator;
+
+/**
+ * Draws of a few distinct integer values between 1 and n, without any pool
+ * <p>
+ * Where DrawableInteger keeps the state of a bag to be drawn until it is empty, this sampler draws k values at once
+ * and keeps nothing between two calls: drawing NB_WINNERS balls out of the tickets range costs k random numbers and
+ * allocates nothing, whatever n.
+ * <p>
+ * Ref: Floyd's permutation algorithm, as described by Jon Bentley and Bob Floyd in "Programming pearls: a sample of
+ * brilliance" (CACM, 1987). Every ordered sequence of k distinct values is equally likely, so the draw order can be
+ * used to rank the balls.
+ */
+public class FloydSampler {
+
+    /**
+     * Random used for the draws
+     */
+    private final RandomGenerator random;
+
+    /**
+     * @param randomSource source of the generator used for the draws
+     */
+    public FloydSampler(final RandomSource randomSource) {
+        this(randomSource.create());
+    }
+
+    /**
+     * @param random generator used for the draws, e.g. a seeded one for reproducible draws
+     */
+    public FloydSampler(final RandomGenerator random) {
+        this.random = random;
+    }
+
+    /**
+     * Draw k distinct values between 1 and n, in draw order.
+     * <p>
+     * Each step draws one random number and looks it up among the values already drawn: this is meant for small k,
+     * the lookups and insertions being O(k) each.
+     *
+     * @param n      largest drawable value
+     * @param k      number of values to draw, between 0 and n
+     * @param out    array receiving the drawn values
+     * @param offset index of out receiving the first drawn value
+     */
+    public void sample(final int n, final int k, final int[] out, final int offset) {
+        Objects.checkFromIndexSize(offset, k, out.length);
+        if (k > n) {
+            throw new IllegalArgumentException("Cannot draw " + k + " distinct values between 1 and " + n);
+        }
+
+        // out[offset, end[ holds the values drawn so far
+        int end = offset;
+        for (int j = n - k + 1; j <= n; j++) {
+            final int t = 1 + this.random.nextInt(j);
+
+            int position = offset;
+            while (position < end && out[position] != t) {
+                position++;
+            }
+
+            if (position == end) {
+                // t is new: prepend it
+                System.arraycopy(out, offset, out, offset + 1, end - offset);
+                out[offset] = t;
+            } else {
+                // t already drawn: j cannot have been drawn yet, insert it right after t
+                System.arraycopy(out, position + 1, out, position + 2, end - position - 1);
+                out[position + 1] = j;
+            }
+            end++;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.rros.draw;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressed hash map from non-negative int keys to int values
+ * <p>
+ * Primitive keys and values avoid the boxing and entry nodes of java.util.HashMap. Collisions are resolved with
+ * linear probing, removals use backward shift deletion so no tombstone is ever left in the table.
+ * <p>
+ * Keys are stored shifted by one so that 0 marks an empty slot and a freshly allocated table needs no filling.
+ */
+class IntIntHashMap {
+
+    /**
+     * Initial capacity, has to be a power of two
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Stored keys (key + 1), 0 for an empty slot
+     */
+    private int[] keys;
+    /**
+     * Stored values, meaningful only where keys is not 0
+     */
+    private int[] values;
+    /**
+     * Number of stored entries
+     */
+    private int size;
+    /**
+     * capacity - 1, used to wrap probe indices
+     */
+    private int mask;
+
+    IntIntHashMap() {
+        this.allocate(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Spread the key bits (murmur3 finalizer), consecutive keys are frequent here
+     *
+     * @param key input key
+     * @return hash value
+     */
+    private static int mix(final int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private void allocate(final int capacity) {
+        this.keys = new int[capacity];
+        this.values = new int[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * @param key          input key, non-negative
+     * @param defaultValue value returned if the key is absent
+     * @return the value mapped to key, defaultValue otherwise
+     */
+    int get(final int key, final int defaultValue) {
+        final int stored = key + 1;
+        for (int i = mix(key) & this.mask; ; i = (i + 1) & this.mask) {
+            final int k = this.keys[i];
+            if (k == stored) {
+                return this.values[i];
+            }
+            if (k == 0) {
+                return defaultValue;
+            }
+        }
+    }
+
+    /**
+     * Map key to value, replacing the previous value if there was one
+     *
+     * @param key   input key, non-negative
+     * @param value input value
+     */
+    void put(final int key, final int value) {
+        final int stored = key + 1;
+        int i = mix(key) & this.mask;
+        while (this.keys[i] != 0) {
+            if (this.keys[i] == stored) {
+                this.values[i] = value;
+                return;
+            }
+            i = (i + 1) & this.mask;
+        }
+        this.keys[i] = stored;
+        this.values[i] = value;
+        // keep the load factor under 1/2 so probe sequences stay short
+        if (++this.size > (this.mask + 1) >>> 1) {
+            this.rehash((this.mask + 1) << 1);
+        }
+    }
+
+    /**
+     * Remove key if present
+     *
+     * @param key input key, non-negative
+     */
+    void remove(final int key) {
+        final int stored = key + 1;
+        int i = mix(key) & this.mask;
+        while (this.keys[i] != stored) {
+            if (this.keys[i] == 0) {
+                return;
+            }
+            i = (i + 1) & this.mask;
+        }
+        this.size--;
+
+        // backward shift: move up every following entry of the cluster that would not be reachable anymore
+        int hole = i;
+        for (int j = (i + 1) & this.mask; this.keys[j] != 0; j = (j + 1) & this.mask) {
+            final int home = mix(this.keys[j] - 1) & this.mask;
+            // the entry at j can fill the hole if its home slot is not in ]hole, j] (cyclically)
+            if (((j - home) & this.mask) >= ((j - hole) & this.mask)) {
+                this.keys[hole] = this.keys[j];
+                this.values[hole] = this.values[j];
+                hole = j;
+            }
+        }
+        this.keys[hole] = 0;
+    }
+
+    /**
+     * Remove every entry, the capacity is kept so the map can be reused without allocating
+     * <p>
+     * The cost is proportional to the capacity, that is to the largest number of entries the map ever held.
+     */
+    void clear() {
+        if (this.size > 0) {
+            Arrays.fill(this.keys, 0);
+            this.size = 0;
+        }
+    }
+
+    /**
+     * Call action for every entry, in no particular order
+     *
+     * @param action action receiving each key and its value, not modifying this map
+     */
+    void forEach(final EntryConsumer action) {
+        for (int i = 0; i < this.keys.length; i++) {
+            if (this.keys[i] != 0) {
+                action.accept(this.keys[i] - 1, this.values[i]);
+            }
+        }
+    }
+
+    /**
+     * @return number of stored entries
+     */
+    int size() {
+        return this.size;
+    }
+
+    private void rehash(final int capacity) {
+        final int[] oldKeys = this.keys;
+        final int[] oldValues = this.values;
+        this.allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int j = mix(oldKeys[i] - 1) & this.mask;
+                while (this.keys[j] != 0) {
+                    j = (j + 1) & this.mask;
+                }
+                this.keys[j] = oldKeys[i];
+                this.values[j] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Action on an entry, see forEach()
+     */
+    @FunctionalInterface
+    interface EntryConsumer {
+        void accept(int key, int value);
+    }
+}
@@ -0,0 +1,128 @@
+package com.rros.draw;
+
+import java.security.SecureRandom;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Built-in random sources for the draws
+ * <p>
+ * Each DrawableInteger owns its generator and is not meant to be shared between threads: the sources below avoid the
+ * compare-and-set java.util.Random performs on its shared seed for every nextInt call.
+ */
+public enum RandomSource {
+
+    /**
+     * java.util.Random, historical default: one CAS on the seed per draw
+     */
+    LEGACY {
+        @Override
+        public RandomGenerator create() {
+            return new Random();
+        }
+    },
+    /**
+     * java.util.SplittableRandom: plain (non atomic) state, not thread-safe
+     */
+    SPLITTABLE {
+        @Override
+        public RandomGenerator create() {
+            return new SplittableRandom();
+        }
+    },
+    /**
+     * L64X128MixRandom from the LXM family: plain state, better statistical quality than SplittableRandom
+     */
+    L64X128_MIX {
+        @Override
+        public RandomGenerator create() {
+            return RandomGenerator.of("L64X128MixRandom");
+        }
+    },
+    /**
+     * L64X128StarStarRandom from the LXM family: same as L64X128_MIX with a cheaper output scrambler
+     */
+    L64X128_STAR_STAR {
+        @Override
+        public RandomGenerator create() {
+            return RandomGenerator.of("L64X128StarStarRandom");
+        }
+    },
+    /**
+     * java.util.concurrent.ThreadLocalRandom: the returned generator calls ThreadLocalRandom.current() on each use, so
+     * that it draws from the seeded state of the calling thread and can be used from any thread without contention
+     */
+    THREAD_LOCAL {
+        @Override
+        public RandomGenerator create() {
+            return CurrentThreadRandom.INSTANCE;
+        }
+    },
+    /**
+     * java.security.SecureRandom: cryptographically secure, synchronized and much slower
+     */
+    SECURE {
+        @Override
+        public RandomGenerator create() {
+            return new SecureRandom();
+        }
+    };
+
+    /**
+     * @return a new generator of this source (THREAD_LOCAL returns a shared stateless one)
+     */
+    public abstract RandomGenerator create();
+
+    /**
+     * Generator delegating to the ThreadLocalRandom of the calling thread
+     * <p>
+     * The ThreadLocalRandom instance must not be kept and used by another thread: a thread which never called
+     * current() has no seed, and draws the same values on every run.
+     */
+    private static final class CurrentThreadRandom implements RandomGenerator {
+
+        private static final CurrentThreadRandom INSTANCE = new CurrentThreadRandom();
+
+        @Override
+        public int nextInt() {
+            return ThreadLocalRandom.current().nextInt();
+        }
+
+        @Override
+        public int nextInt(final int bound) {
+            return ThreadLocalRandom.current().nextInt(bound);
+        }
+
+        @Override
+        public int nextInt(final int origin, final int bound) {
+            return ThreadLocalRandom.current().nextInt(origin, bound);
+        }
+
+        @Override
+        public long nextLong() {
+            return ThreadLocalRandom.current().nextLong();
+        }
+
+        @Override
+        public long nextLong(final long bound) {
+            return ThreadLocalRandom.current().nextLong(bound);
+        }
+
+        @Override
+        public long nextLong(final long origin, final long bound) {
+            return ThreadLocalRandom.current().nextLong(origin, bound);
+        }
+
+        @Override
+        public double nextDouble() {
+            return ThreadLocalRandom.current().nextDouble();
+        }
+
+        @Override
+        public boolean nextBoolean() {
+            return ThreadLocalRandom.current().nextBoolean();
+        }
+    }
+}
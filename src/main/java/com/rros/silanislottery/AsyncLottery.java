@@ -0,0 +1,242 @@
+package com.rros.silanislottery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Asynchronous facade of a lottery: every call returns a CompletableFuture at once, the lottery being called on an
+ * executor
+ * <p>
+ * Calls are queued and applied in order by a single drain task at a time, so the lottery does not have to be
+ * thread-safe. The drain task coalesces consecutive single purchases into one purchaseTickets() call: the more
+ * concurrent callers, the larger the batches, instead of more contention on the lottery. If a batch is refused (an
+ * invalid name, or not enough tickets left), its purchases are applied one by one so that each gets its own result.
+ * Any other failure of a batch fails each of its purchases: the lottery may have sold the tickets already (e.g. a
+ * JournaledLottery failing to write its journal), so they are not purchased again.
+ * <p>
+ * Futures are completed by the drain task, on the executor.
+ */
+public class AsyncLottery {
+
+    private static final int PURCHASE = 1;
+    private static final int PURCHASES = 2;
+    private static final int DRAW = 3;
+    private static final int WINNERS = 4;
+    private static final int POT = 5;
+
+    /**
+     * Largest number of purchases per batch
+     */
+    private static final int MAX_BATCH_SIZE = 1024;
+
+    private final Lottery lottery;
+
+    private final Executor executor;
+
+    private final Queue<Request> requests = new ConcurrentLinkedQueue<>();
+
+    /**
+     * True while a drain task is scheduled or running
+     */
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    /**
+     * Buyers' names and requests of the purchase batch being applied, only used by the drain task
+     */
+    private final List<String> batchNames = new ArrayList<>();
+    private final List<Request> batchRequests = new ArrayList<>();
+
+    /**
+     * Number of purchaseTickets() calls made for batches of single purchases, used for test purposes
+     */
+    private long nbBatches;
+
+    /**
+     * Facade calling the lottery on the common fork/join pool
+     *
+     * @param lottery lottery, only called through this facade from now on
+     */
+    public AsyncLottery(final Lottery lottery) {
+        this(lottery, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param lottery  lottery, only called through this facade from now on
+     * @param executor executor of the drain tasks
+     */
+    public AsyncLottery(final Lottery lottery, final Executor executor) {
+        this.lottery = lottery;
+        this.executor = executor;
+    }
+
+    /**
+     * Purchase a ticket for the current draw, see Lottery.purchaseTicket()
+     *
+     * @param buyerName ticket buyer's first name
+     * @return the ticket number, or InvalidBuyerNameException or NoAvailableTicketException
+     */
+    public CompletableFuture<Integer> purchaseTicketAsync(final String buyerName) {
+        return this.submit(new Request(PURCHASE, buyerName, null));
+    }
+
+    /**
+     * Purchase one ticket per buyer for the current draw, all or none of them, see Lottery.purchaseTickets()
+     *
+     * @param buyerNames ticket buyers' first names
+     * @return the ticket numbers, or InvalidBuyerNameException or NoAvailableTicketException
+     */
+    public CompletableFuture<int[]> purchaseTicketsAsync(final List<String> buyerNames) {
+        return this.submit(new Request(PURCHASES, null, new ArrayList<>(buyerNames)));
+    }
+
+    /**
+     * Draw the current lottery and start the next one, after the calls made before
+     *
+     * @return the values of the drawn balls
+     */
+    public CompletableFuture<int[]> drawLotteryAsync() {
+        return this.submit(new Request(DRAW, null, null));
+    }
+
+    /**
+     * @return the winners message of the latest draw, or NoPreviousDrawException
+     */
+    public CompletableFuture<String> winnersAsync() {
+        return this.submit(new Request(WINNERS, null, null));
+    }
+
+    /**
+     * @return the pot once the calls made before are applied
+     */
+    public CompletableFuture<Integer> getPotAsync() {
+        return this.submit(new Request(POT, null, null));
+    }
+
+    /**
+     * Used for test purposes
+     *
+     * @return the number of batches of single purchases applied
+     */
+    long getNbBatches() {
+        return this.nbBatches;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> submit(final Request request) {
+        this.requests.add(request);
+        this.scheduleDrain();
+        return (CompletableFuture<T>) request.future;
+    }
+
+    private void scheduleDrain() {
+        if (this.draining.compareAndSet(false, true)) {
+            try {
+                this.executor.execute(this::drain);
+            } catch (RuntimeException e) {
+                // rejected: the queued requests wait for the next submission
+                this.draining.set(false);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Apply the queued requests, until there is none left
+     */
+    private void drain() {
+        Request request;
+        while ((request = this.requests.poll()) != null) {
+            if (request.type == PURCHASE) {
+                this.batchNames.add(request.buyerName);
+                this.batchRequests.add(request);
+                if (this.batchRequests.size() == MAX_BATCH_SIZE) {
+                    this.applyBatch();
+                }
+            } else {
+                this.applyBatch();
+                this.apply(request);
+            }
+        }
+        this.applyBatch();
+
+        this.draining.set(false);
+        // a request queued after the last poll but before the flag was cleared found a drain running
+        if (!this.requests.isEmpty()) {
+            this.scheduleDrain();
+        }
+    }
+
+    /**
+     * Apply the pending single purchases with one purchaseTickets() call
+     */
+    private void applyBatch() {
+        if (this.batchRequests.isEmpty()) {
+            return;
+        }
+        this.nbBatches++;
+        try {
+            final int[] tickets = this.lottery.purchaseTickets(this.batchNames);
+            for (int i = 0; i < tickets.length; i++) {
+                this.batchRequests.get(i).future.complete(tickets[i]);
+            }
+        } catch (NoAvailableTicketException | InvalidBuyerNameException e) {
+            // the batch was refused before any purchase: one by one, so that only the faulty purchases fail
+            for (final Request request : this.batchRequests) {
+                this.apply(request);
+            }
+        } catch (RuntimeException e) {
+            for (final Request request : this.batchRequests) {
+                request.future.completeExceptionally(e);
+            }
+        }
+        this.batchNames.clear();
+        this.batchRequests.clear();
+    }
+
+    private void apply(final Request request) {
+        try {
+            switch (request.type) {
+                case PURCHASE:
+                    request.future.complete(this.lottery.purchaseTicket(request.buyerName));
+                    break;
+                case PURCHASES:
+                    request.future.complete(this.lottery.purchaseTickets(request.buyerNames));
+                    break;
+                case DRAW:
+                    request.future.complete(this.lottery.drawLottery());
+                    break;
+                case WINNERS:
+                    request.future.complete(this.lottery.generateWinnersMessage());
+                    break;
+                default:
+                    request.future.complete(this.lottery.getPot());
+                    break;
+            }
+        } catch (NoAvailableTicketException | InvalidBuyerNameException | NoPreviousDrawException | RuntimeException e) {
+            request.future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Queued call
+     */
+    private static final class Request {
+
+        private final int type;
+        private final String buyerName;
+        private final List<String> buyerNames;
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+
+        private Request(final int type, final String buyerName, final List<String> buyerNames) {
+            this.type = type;
+            this.buyerName = buyerName;
+            this.buyerNames = buyerNames;
+        }
+    }
+}
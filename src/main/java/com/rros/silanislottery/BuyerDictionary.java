@@ -0,0 +1,60 @@
+package com.rros.silanislottery;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buyers' names restored from a snapshot, each one being decoded on its first use
+ * <p>
+ * The names stay encoded (UTF-8, concatenated) in the snapshot buffer, typically a memory-mapped file: restoring a
+ * ledger of millions of buyers does not create any String until a winner is looked up.
+ */
+class BuyerDictionary {
+
+    /**
+     * Concatenated UTF-8 names
+     */
+    private final ByteBuffer names;
+
+    /**
+     * Start of each name in names, followed by the end of the last one
+     */
+    private final int[] offsets;
+
+    /**
+     * Names decoded so far, indexed by buyer id - 1
+     */
+    private final String[] decoded;
+
+    /**
+     * @param names   concatenated UTF-8 names, read with absolute gets only
+     * @param offsets start of each name in names, followed by the end of the last one
+     */
+    BuyerDictionary(final ByteBuffer names, final int[] offsets) {
+        this.names = names;
+        this.offsets = offsets;
+        this.decoded = new String[offsets.length - 1];
+    }
+
+    /**
+     * @param buyerId buyer id, between 1 and size()
+     * @return the buyer's name
+     */
+    String get(final int buyerId) {
+        String name = this.decoded[buyerId - 1];
+        if (name == null) {
+            final byte[] bytes = new byte[this.offsets[buyerId] - this.offsets[buyerId - 1]];
+            this.names.get(this.offsets[buyerId - 1], bytes);
+            name = new String(bytes, StandardCharsets.UTF_8);
+            this.decoded[buyerId - 1] = name;
+        }
+        return name;
+    }
+
+    /**
+     * @return number of buyers
+     */
+    int size() {
+        return this.decoded.length;
+    }
+}
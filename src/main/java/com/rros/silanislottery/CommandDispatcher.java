@@ -0,0 +1,222 @@
+package com.rros.silanislottery;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Interpreter of the text commands of a lottery, shared by every front-end (console, script, servers)
+ * <p>
+ * A line is made of a command name and an optional argument, separated by white spaces. Commands are looked up in a
+ * registry by comparing the name in place (no regular expression, no split), only the argument is extracted as a
+ * String, when there is one. Each line results in at most one call to the lottery.
+ * <p>
+ * Answers are appended to a StringBuilder given by the front-end, which reuses it from one line to the next. The
+ * dispatcher has no state besides its registry: once its commands are registered, it is thread-safe as soon as its
+ * lottery is.
+ */
+public class CommandDispatcher {
+
+    /**
+     * Action of a command
+     */
+    @FunctionalInterface
+    public interface Command {
+
+        /**
+         * @param lottery  lottery the command applies to
+         * @param argument text following the command name, without leading nor trailing white spaces, empty if none
+         * @param out      buffer the answer is appended to
+         * @return true if the session goes on, false if it has to be closed
+         */
+        boolean execute(Lottery lottery, String argument, StringBuilder out);
+    }
+
+    public static final String HELP_COMMAND = "help";
+    public static final String PURCHASE_COMMAND = "purchase";
+    public static final String DRAW_COMMAND = "draw";
+    public static final String WINNERS_COMMAND = "winners";
+    public static final String EXIT_COMMAND = "exit";
+
+    private static final String NEW_LINE = System.lineSeparator();
+
+    private final Lottery lottery;
+
+    /**
+     * Registered commands, in the order of the help message
+     */
+    private final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * Create a dispatcher knowing the lottery commands: help, purchase, draw, winners and exit
+     *
+     * @param lottery lottery the commands apply to
+     */
+    public CommandDispatcher(final Lottery lottery) {
+        this.lottery = lottery;
+        this.register(HELP_COMMAND, "", "Get this help message", (l, argument, out) -> {
+            this.appendHelp(out);
+            return true;
+        });
+        this.register(PURCHASE_COMMAND, "%buyer's first name%", "Purchase a ticket (" + SilanisLottery.TICKET_PRICE + "$)", CommandDispatcher::purchase);
+        this.register(DRAW_COMMAND, "", "Draw lottery", CommandDispatcher::draw);
+        this.register(WINNERS_COMMAND, "", "Display winners", CommandDispatcher::winners);
+        this.register(EXIT_COMMAND, "", "Exit this application", (l, argument, out) -> {
+            out.append("Closing the application, the current pot is: ").append(l.getPot()).append('$').append(NEW_LINE);
+            return false;
+        });
+    }
+
+    /**
+     * Register a command, replacing the one of the same name if any
+     *
+     * @param name        command name, without white space
+     * @param usage       argument of the command, displayed by the help, empty if none
+     * @param description description of the command, displayed by the help
+     * @param command     action of the command
+     */
+    public void register(final String name, final String usage, final String description, final Command command) {
+        if (name.isEmpty() || name.chars().anyMatch(Character::isWhitespace)) {
+            throw new IllegalArgumentException("The command name is expected to be a non-empty String without white space");
+        }
+        final Entry entry = new Entry(name, usage, description, command);
+        for (int i = 0; i < this.entries.size(); i++) {
+            if (this.entries.get(i).name.equals(name)) {
+                this.entries.set(i, entry);
+                return;
+            }
+        }
+        this.entries.add(entry);
+    }
+
+    /**
+     * Interpret one line
+     *
+     * @param line input line, null standing for the end of the input (handled as the exit command)
+     * @param out  buffer the answer is appended to
+     * @return true if the session goes on, false if it has to be closed
+     */
+    public boolean dispatch(final String line, final StringBuilder out) {
+        if (line == null) {
+            return this.dispatch(EXIT_COMMAND, out);
+        }
+
+        // tokenize: name in [nameStart, nameEnd), argument in [argumentStart, end)
+        int end = line.length();
+        while (end > 0 && Character.isWhitespace(line.charAt(end - 1))) {
+            end--;
+        }
+        int nameStart = 0;
+        while (nameStart < end && Character.isWhitespace(line.charAt(nameStart))) {
+            nameStart++;
+        }
+        if (nameStart == end) {
+            // empty line
+            return true;
+        }
+        int nameEnd = nameStart;
+        while (nameEnd < end && !Character.isWhitespace(line.charAt(nameEnd))) {
+            nameEnd++;
+        }
+        int argumentStart = nameEnd;
+        while (argumentStart < end && Character.isWhitespace(line.charAt(argumentStart))) {
+            argumentStart++;
+        }
+
+        final Entry entry = this.lookup(line, nameStart, nameEnd - nameStart);
+        if (entry == null) {
+            out.append("Unknown command: \"").append(line).append('"').append(NEW_LINE);
+            return true;
+        }
+        return entry.command.execute(this.lottery, argumentStart == end ? "" : line.substring(argumentStart, end), out);
+    }
+
+    /**
+     * Append the description of every registered command
+     *
+     * @param out buffer the help is appended to
+     */
+    public void appendHelp(final StringBuilder out) {
+        out.append("Type one of the following commands in the prompt to execute it:").append(NEW_LINE);
+        for (final Entry entry : this.entries) {
+            out.append(entry.name);
+            if (!entry.usage.isEmpty()) {
+                out.append(' ').append(entry.usage);
+            }
+            out.append('\t').append(entry.description).append(NEW_LINE);
+        }
+    }
+
+    /**
+     * @return the command which name is line[start, start + length), null if there is none
+     */
+    private Entry lookup(final String line, final int start, final int length) {
+        for (final Entry entry : this.entries) {
+            if (entry.name.length() == length && line.startsWith(entry.name, start)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private static boolean purchase(final Lottery lottery, final String buyerName, final StringBuilder out) {
+        final int result = lottery.tryPurchaseTicket(buyerName);
+        switch (result) {
+            case PurchaseStatus.INVALID_BUYER_NAME:
+                out.append("The buyer's name is expected to be a non-empty String");
+                break;
+            case PurchaseStatus.NO_AVAILABLE_TICKET:
+                out.append("There is no more available ticket for the current draw.");
+                break;
+            case PurchaseStatus.ALREADY_DRAWN:
+                out.append("The current draw is closed.");
+                break;
+            default:
+                out.append("Ticket ").append(result).append(" was purchased by ").append(buyerName).append('.');
+                break;
+        }
+        out.append(NEW_LINE);
+        return true;
+    }
+
+    private static boolean draw(final Lottery lottery, final String argument, final StringBuilder out) {
+        final int[] drawResults = lottery.drawLottery();
+        out.append("Lottery draw: [");
+        for (int i = 0; i < drawResults.length; i++) {
+            if (i > 0) {
+                out.append(", ");
+            }
+            out.append(drawResults[i]);
+        }
+        out.append(']').append(NEW_LINE);
+        out.append("The prizes of the winners (if there are any) are now subtracted from the pot.").append(NEW_LINE);
+        return true;
+    }
+
+    private static boolean winners(final Lottery lottery, final String argument, final StringBuilder out) {
+        try {
+            out.append(lottery.generateWinnersMessage());
+        } catch (NoPreviousDrawException e) {
+            out.append(e.getMessage());
+        }
+        out.append(NEW_LINE);
+        return true;
+    }
+
+    /**
+     * Registered command
+     */
+    private static final class Entry {
+
+        private final String name;
+        private final String usage;
+        private final String description;
+        private final Command command;
+
+        private Entry(final String name, final String usage, final String description, final Command command) {
+            this.name = name;
+            this.usage = usage;
+            this.description = description;
+            this.command = command;
+        }
+    }
+}
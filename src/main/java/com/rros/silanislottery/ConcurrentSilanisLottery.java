@@ -0,0 +1,211 @@
+package com.rros.silanislottery;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Thread-safe Silanis Lottery
+ * <p>
+ * Same behaviour as SilanisLottery, every method being safe to call from any thread: purchases run concurrently on
+ * the current ConcurrentSingleLottery, draws are serialized.
+ * <p>
+ * Draws do not stall purchases: the next lottery is published before the current one is closed, so new purchases land
+ * in the next lottery at once while the closing one waits for its ongoing purchases and computes its winners. The
+ * results of the closed lottery are then published as an immutable RoundResult.
+ */
+public class ConcurrentSilanisLottery implements Lottery {
+
+    /**
+     * Number of tickets (and balls) of each lottery
+     */
+    private final int nbTickets;
+    /**
+     * History the results of each drawn lottery are recorded to, null if there is none
+     */
+    private final DrawHistory drawHistory;
+    /**
+     * Current lottery, the one purchases go to
+     */
+    private final AtomicReference<ConcurrentSingleLottery> currentLottery = new AtomicReference<>();
+    /**
+     * Results of the previous lottery, null if there was no draw yet
+     */
+    private volatile RoundResult previousResult;
+    /**
+     * Number of draws so far, only updated by drawLottery()
+     */
+    private long round;
+
+    /**
+     * Default behaviour: pot is INITIAL_POT
+     */
+    public ConcurrentSilanisLottery() {
+        this(SilanisLottery.INITIAL_POT);
+    }
+
+    /**
+     * @param pot input pot
+     */
+    public ConcurrentSilanisLottery(final int pot) {
+        this(pot, SilanisLottery.MAX_BALL);
+    }
+
+    /**
+     * @param pot       input pot
+     * @param nbTickets number of tickets (and balls) of each lottery, at least NB_WINNERS
+     */
+    public ConcurrentSilanisLottery(final int pot, final int nbTickets) {
+        this(pot, nbTickets, null);
+    }
+
+    /**
+     * @param pot         input pot
+     * @param nbTickets   number of tickets (and balls) of each lottery, at least NB_WINNERS
+     * @param drawHistory history the results of each drawn lottery are recorded to, null for none
+     */
+    public ConcurrentSilanisLottery(final int pot, final int nbTickets, final DrawHistory drawHistory) {
+        this.nbTickets = nbTickets;
+        this.drawHistory = drawHistory;
+        this.currentLottery.set(new ConcurrentSingleLottery(pot, nbTickets));
+    }
+
+    /**
+     * Purchase a ticket.
+     * <p>
+     * Delegates to tryPurchaseTicket(): if the current lottery is closed meanwhile, the purchase is made in the next
+     * one, which is already open.
+     *
+     * @param buyerName ticket buyer's first name, has to be not null, not empty, not a white-space only String.
+     * @return the ticket number
+     * @throws InvalidBuyerNameException  the provided buyer's name is invalid
+     * @throws NoAvailableTicketException no more ticket is available for this draw
+     */
+    @Override
+    public int purchaseTicket(final String buyerName) throws NoAvailableTicketException, InvalidBuyerNameException {
+        final int result = this.tryPurchaseTicket(buyerName);
+        switch (result) {
+            case PurchaseStatus.INVALID_BUYER_NAME:
+                throw new InvalidBuyerNameException("The buyer's name is expected to be a non-empty String");
+            case PurchaseStatus.NO_AVAILABLE_TICKET:
+                throw new NoAvailableTicketException();
+            default:
+                return result;
+        }
+    }
+
+    /**
+     * Purchase a ticket without throwing.
+     * <p>
+     * Delegates to ConcurrentSingleLottery.tryPurchaseTicket() for the current lottery, moving on to the next one if
+     * that lottery is closed meanwhile.
+     *
+     * @param buyerName ticket buyer's first name, has to be not null, not empty, not a white-space only String.
+     * @return the ticket number if the purchase succeeded, a negative PurchaseStatus code otherwise
+     */
+    @Override
+    public int tryPurchaseTicket(final String buyerName) {
+        int result;
+        do {
+            result = this.currentLottery.get().tryPurchaseTicket(buyerName);
+        } while (result == PurchaseStatus.ALREADY_DRAWN);
+        return result;
+    }
+
+    /**
+     * Purchase one ticket per buyer in a single call.
+     * <p>
+     * Delegates to ConcurrentSingleLottery.purchaseTickets() for the current lottery. If that lottery is closed
+     * meanwhile, the purchase is made in the next one, which is already open.
+     *
+     * @param buyerNames ticket buyers' first names, each one has to be not null, not empty, not a white-space only String.
+     * @return the ticket numbers, in the order of buyerNames
+     * @throws InvalidBuyerNameException  one of the provided buyers' names is invalid
+     * @throws NoAvailableTicketException not enough tickets are available for this draw
+     */
+    @Override
+    public int[] purchaseTickets(final List<String> buyerNames) throws NoAvailableTicketException, InvalidBuyerNameException {
+        while (true) {
+            try {
+                return this.currentLottery.get().purchaseTickets(buyerNames);
+            } catch (SingleLotteryAlreadyDrawnException e) {
+                // the lottery was closed after being read: the next one has been published since
+            }
+        }
+    }
+
+    /**
+     * Draw lottery.
+     * <p>
+     * Publishes the next lottery, then delegates to ConcurrentSingleLottery.drawLottery() for the closing one,
+     * carries its pot over to the next one and publishes its results.
+     *
+     * @return the values of the drawn balls
+     */
+    @Override
+    public synchronized int[] drawLottery() {
+        final ConcurrentSingleLottery closingLottery = this.currentLottery.get();
+        final ConcurrentSingleLottery nextLottery = new ConcurrentSingleLottery(closingLottery);
+        this.currentLottery.set(nextLottery);
+
+        final int[] lotteryResults = closingLottery.drawLottery();
+        nextLottery.carryOverPot();
+        this.previousResult = new RoundResult(++this.round, lotteryResults, closingLottery.getWinners(),
+                SingleLottery.computePrizes(closingLottery.getPot()), closingLottery.getPot());
+        if (this.drawHistory != null) {
+            try {
+                this.drawHistory.record(lotteryResults, closingLottery.getWinners(), closingLottery.getPot());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return lotteryResults;
+    }
+
+    /**
+     * Produce the string displaying the winners of the latest draw
+     *
+     * @return string displaying the winners of the latest draw
+     * @throws NoPreviousDrawException if there was no previous draw
+     */
+    @Override
+    public String generateWinnersMessage() throws NoPreviousDrawException {
+        return this.getPreviousResult().generateWinnersMessage();
+    }
+
+    /**
+     * @return the previous lottery winners
+     * @throws NoPreviousDrawException if there was no previous draw
+     */
+    public Winner[] getWinners() throws NoPreviousDrawException {
+        return this.getPreviousResult().getWinners();
+    }
+
+    /**
+     * @return the results of the latest draw
+     * @throws NoPreviousDrawException if there was no previous draw
+     */
+    public RoundResult getPreviousResult() throws NoPreviousDrawException {
+        final RoundResult result = this.previousResult;
+        if (result == null) {
+            throw new NoPreviousDrawException();
+        }
+        return result;
+    }
+
+    /**
+     * @return the current pot value
+     */
+    @Override
+    public int getPot() {
+        return this.currentLottery.get().getPot();
+    }
+
+    /**
+     * @return true if tickets are available for the current lottery, false otherwise
+     */
+    public boolean isTicketAvailable() {
+        return this.currentLottery.get().isTicketAvailable();
+    }
+}
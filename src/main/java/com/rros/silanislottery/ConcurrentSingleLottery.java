@@ -0,0 +1,276 @@
+package com.rros.silanislottery;
+
+import com.rros.draw.ConcurrentDrawableInteger;
+import com.rros.draw.FloydSampler;
+import com.rros.draw.NoAvailableDrawWithoutReplacementException;
+import com.rros.draw.RandomSource;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe counterpart of SingleLottery
+ * <p>
+ * Purchases can be made from any number of threads without locking: tickets are claimed with compare-and-set in a
+ * ConcurrentDrawableInteger, recorded in a ConcurrentTicketLedger, and the pot is a LongAdder. The draw closes a
+ * PurchaseGate first, so it sees every purchase that got a ticket and no purchase can get one afterwards.
+ * <p>
+ * A lottery can be opened before its predecessor is drawn: its pot then includes the predecessor one, which becomes
+ * final once the predecessor is drawn and carryOverPot() is called.
+ */
+public class ConcurrentSingleLottery {
+
+    /**
+     * Number of tickets (and balls) of this lottery
+     */
+    private final int nbTickets;
+
+    private final ConcurrentDrawableInteger drawableTickets;
+
+    /**
+     * Ledger from ticket to buyer's name
+     */
+    private final ConcurrentTicketLedger ticketLedger;
+
+    /**
+     * Ticket sales minus the prizes paid by this lottery
+     */
+    private final LongAdder pot = new LongAdder();
+
+    /**
+     * Pot carried over from the predecessor, once it is known
+     */
+    private volatile long carriedPot;
+
+    /**
+     * Lottery this one follows while it is being drawn, null once its pot has been carried over
+     */
+    private volatile ConcurrentSingleLottery predecessor;
+
+    /**
+     * Closed when this is drawn
+     */
+    private final PurchaseGate purchaseGate = new PurchaseGate();
+
+    /**
+     * Sampler drawing the NB_WINNERS balls
+     */
+    private final FloydSampler ballSampler = new FloydSampler(RandomSource.THREAD_LOCAL);
+
+    /**
+     * Lottery winners, null until this is drawn
+     */
+    private volatile Winner[] winners;
+
+    public ConcurrentSingleLottery(final int pot) {
+        this(pot, SilanisLottery.MAX_BALL);
+    }
+
+    /**
+     * @param pot       input pot
+     * @param nbTickets number of tickets (and balls), numbered from 1 to nbTickets, at least NB_WINNERS
+     */
+    public ConcurrentSingleLottery(final int pot, final int nbTickets) {
+        if (nbTickets < SilanisLottery.NB_WINNERS) {
+            throw new IllegalArgumentException("The number of tickets is expected to be at least " + SilanisLottery.NB_WINNERS);
+        }
+        this.carriedPot = pot;
+        this.nbTickets = nbTickets;
+        this.drawableTickets = new ConcurrentDrawableInteger(nbTickets);
+        this.ticketLedger = new ConcurrentTicketLedger(nbTickets);
+    }
+
+    /**
+     * Open the lottery following predecessor, which may not be drawn yet
+     *
+     * @param predecessor lottery this one follows, same number of tickets
+     */
+    ConcurrentSingleLottery(final ConcurrentSingleLottery predecessor) {
+        this(0, predecessor.getNbTickets());
+        this.predecessor = predecessor;
+    }
+
+    /**
+     * Carry over the pot of the predecessor, which has to be drawn
+     */
+    void carryOverPot() {
+        final ConcurrentSingleLottery drawnPredecessor = this.predecessor;
+        if (drawnPredecessor != null) {
+            // carriedPot is set before predecessor is cleared: getPot() always sees one of them
+            this.carriedPot = drawnPredecessor.getPot();
+            this.predecessor = null;
+        }
+    }
+
+    /**
+     * Purchase a ticket. This will also update the pot. Safe to call from any thread.
+     *
+     * @param buyerName ticket buyer's first name, has to be not null, not empty, not a white-space only String.
+     * @return the ticket number
+     * @throws InvalidBuyerNameException          the provided buyer's name is invalid
+     * @throws NoAvailableTicketException         no more ticket is available for this draw
+     * @throws SingleLotteryAlreadyDrawnException this lottery has been drawn (or is being drawn)
+     * @see SingleLottery#purchaseTicket(String)
+     */
+    public int purchaseTicket(final String buyerName) throws NoAvailableTicketException, InvalidBuyerNameException {
+        final int result = this.tryPurchaseTicket(buyerName);
+        switch (result) {
+            case PurchaseStatus.ALREADY_DRAWN:
+                throw new SingleLotteryAlreadyDrawnException();
+            case PurchaseStatus.INVALID_BUYER_NAME:
+                throw new InvalidBuyerNameException("The buyer's name is expected to be a non-empty String");
+            case PurchaseStatus.NO_AVAILABLE_TICKET:
+                throw new NoAvailableTicketException();
+            default:
+                return result;
+        }
+    }
+
+    /**
+     * Purchase a ticket without throwing: same as purchaseTicket(), failures being reported as PurchaseStatus codes.
+     * Safe to call from any thread.
+     *
+     * @param buyerName ticket buyer's first name, has to be not null, not empty, not a white-space only String.
+     * @return the ticket number if the purchase succeeded, a negative PurchaseStatus code otherwise
+     */
+    public int tryPurchaseTicket(final String buyerName) {
+        if (!SingleLottery.isValidBuyerName(buyerName)) {
+            return PurchaseStatus.INVALID_BUYER_NAME;
+        }
+
+        if (!this.purchaseGate.enter()) {
+            return PurchaseStatus.ALREADY_DRAWN;
+        }
+        try {
+            final int ticket = this.drawableTickets.tryDraw();
+            if (ticket == ConcurrentDrawableInteger.NO_DRAW) {
+                return PurchaseStatus.NO_AVAILABLE_TICKET;
+            }
+
+            this.ticketLedger.record(ticket, buyerName);
+            this.pot.add(SilanisLottery.TICKET_PRICE);
+            return ticket;
+        } finally {
+            this.purchaseGate.exit();
+        }
+    }
+
+    /**
+     * Purchase one ticket per buyer in a single call. This will also update the pot. Safe to call from any thread.
+     *
+     * @param buyerNames ticket buyers' first names, each one has to be not null, not empty, not a white-space only String.
+     * @return the ticket numbers, in the order of buyerNames
+     * @throws InvalidBuyerNameException          one of the provided buyers' names is invalid
+     * @throws NoAvailableTicketException         not enough tickets are available for this draw
+     * @throws SingleLotteryAlreadyDrawnException this lottery has been drawn (or is being drawn)
+     * @see SingleLottery#purchaseTickets(List)
+     */
+    public int[] purchaseTickets(final List<String> buyerNames) throws NoAvailableTicketException, InvalidBuyerNameException {
+        for (final String buyerName : buyerNames) {
+            if (!SingleLottery.isValidBuyerName(buyerName)) {
+                throw new InvalidBuyerNameException("The buyer's name is expected to be a non-empty String");
+            }
+        }
+
+        if (!this.purchaseGate.enter()) {
+            throw new SingleLotteryAlreadyDrawnException();
+        }
+        try {
+            // draw tickets
+            final int[] tickets = new int[buyerNames.size()];
+            try {
+                this.drawableTickets.drawWithoutReplacement(tickets.length, tickets, 0);
+            } catch (NoAvailableDrawWithoutReplacementException e) {
+                throw new NoAvailableTicketException();
+            }
+
+            int i = 0;
+            for (final String buyerName : buyerNames) {
+                this.ticketLedger.record(tickets[i++], buyerName);
+            }
+            this.pot.add((long) SilanisLottery.TICKET_PRICE * tickets.length);
+            return tickets;
+        } finally {
+            this.purchaseGate.exit();
+        }
+    }
+
+    /**
+     * Draw lottery. Safe to call from any thread, only possible once.
+     * <p>
+     * Purchases are closed first: the draw waits for the ongoing ones, later ones throw
+     * SingleLotteryAlreadyDrawnException.
+     *
+     * @return the values of the drawn balls
+     * @see SingleLottery#drawLottery()
+     */
+    public int[] drawLottery() {
+        if (!this.purchaseGate.close()) {
+            throw new SingleLotteryAlreadyDrawnException();
+        }
+
+        final int[] drawResults = new int[SilanisLottery.NB_WINNERS];
+        this.ballSampler.sample(this.nbTickets, SilanisLottery.NB_WINNERS, drawResults, 0);
+
+        final Winner[] drawWinners = new Winner[SilanisLottery.NB_WINNERS];
+        final int[] prizes = SingleLottery.computePrizes(this.getPot());
+        for (int i = 0; i < SilanisLottery.NB_WINNERS; i++) {
+            final String buyerName = this.ticketLedger.getBuyerName(drawResults[i]);
+            if (buyerName != null) {
+                drawWinners[i] = new Winner(buyerName, prizes[i]);
+                this.pot.add(-prizes[i]);
+            }
+        }
+        this.winners = drawWinners;
+        return drawResults;
+    }
+
+    /**
+     * Get the winners of this lottery.
+     *
+     * @return Array of NB_WINNERS Winner, one or more element might be null
+     * if the corresponding winning ball's ticket has not been
+     * purchased.
+     * @throws SingleLotteryNotDrawnException the lottery has not been drawn
+     */
+    public Winner[] getWinners() throws SingleLotteryNotDrawnException {
+        final Winner[] drawWinners = this.winners;
+        if (drawWinners == null) {
+            throw new SingleLotteryNotDrawnException();
+        }
+        return drawWinners;
+    }
+
+    /**
+     * Produce the string displaying the winners of this lottery
+     *
+     * @return string displaying the winners
+     * @throws SingleLotteryNotDrawnException the lottery has not been drawn
+     * @see SingleLottery#generateWinnersMessage()
+     */
+    public String generateWinnersMessage() throws SingleLotteryNotDrawnException {
+        return SingleLottery.formatWinnersMessage(this.getWinners(), SingleLottery.computePrizes(this.getPot()));
+    }
+
+    /**
+     * @return the current pot value
+     */
+    public int getPot() {
+        final ConcurrentSingleLottery currentPredecessor = this.predecessor;
+        return (int) (this.pot.sum() + (currentPredecessor == null ? this.carriedPot : currentPredecessor.getPot()));
+    }
+
+    /**
+     * @return the number of tickets (and balls) of this lottery
+     */
+    public int getNbTickets() {
+        return nbTickets;
+    }
+
+    /**
+     * @return true if a ticket is available for the current draw, false otherwise
+     */
+    public boolean isTicketAvailable() {
+        return !this.purchaseGate.isClosed() && this.drawableTickets.isDrawWithoutReplacementAvailable();
+    }
+}
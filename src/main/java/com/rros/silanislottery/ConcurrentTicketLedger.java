@@ -0,0 +1,64 @@
+package com.rros.silanislottery;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Thread-safe ledger from ticket number to buyer's name
+ * <p>
+ * Each ticket holds a reference to its buyer's name, names being stored once per buyer in a concurrent dictionary.
+ * A ticket is drawn by a single thread, so recording it never contends with another sale.
+ */
+class ConcurrentTicketLedger {
+
+    /**
+     * Buyers' names indexed by ticket number, null for a ticket that has not been sold
+     */
+    private final AtomicReferenceArray<String> buyerNames;
+
+    /**
+     * Canonical instance of each buyer's name
+     */
+    private final ConcurrentMap<String, String> buyers = new ConcurrentHashMap<>();
+
+    /**
+     * @param nbTickets number of tickets, numbered from 1 to nbTickets
+     */
+    ConcurrentTicketLedger(final int nbTickets) {
+        this.buyerNames = new AtomicReferenceArray<>(nbTickets + 1);
+    }
+
+    /**
+     * Record the sale of a ticket
+     *
+     * @param ticket    ticket number
+     * @param buyerName buyer's name
+     * @throws IllegalStateException the ticket has already been sold
+     */
+    void record(final int ticket, final String buyerName) {
+        String canonicalName = this.buyers.get(buyerName);
+        if (canonicalName == null) {
+            final String previousName = this.buyers.putIfAbsent(buyerName, buyerName);
+            canonicalName = previousName == null ? buyerName : previousName;
+        }
+        if (!this.buyerNames.compareAndSet(ticket, null, canonicalName)) {
+            throw new IllegalStateException("Ticket " + ticket + " has already been bought.");
+        }
+    }
+
+    /**
+     * @param ticket ticket number
+     * @return the name of the ticket buyer, null if the ticket has not been sold
+     */
+    String getBuyerName(final int ticket) {
+        return this.buyerNames.get(ticket);
+    }
+
+    /**
+     * @return number of distinct buyers
+     */
+    int getNbBuyers() {
+        return this.buyers.size();
+    }
+}
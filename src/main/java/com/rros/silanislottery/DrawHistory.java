@@ -0,0 +1,455 @@
+package com.rros.silanislottery;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Results of the latest rounds of a lottery, within a fixed memory budget
+ * <p>
+ * Each round is kept as a few ints in a ring buffer of capacity rounds: its balls, the ids of its winners and the pot
+ * before its draw, from which the prizes are computed again. Winners' names are stored once per buyer, together with
+ * the rounds the buyer won: "winners of round N" and "rounds buyer X won" are both O(1) lookups.
+ * <p>
+ * Once the ring buffer is full, recording a round evicts the oldest one. Evicted rounds are either lost or spilled to
+ * disk: a file of fixed-length records (round N is at offset (N - 1) * RECORD_LENGTH) and a file of winners' names.
+ * Spilled rounds can still be read by round number, but are not in the buyer index. The spill files are not synced:
+ * the rounds spilled just before a crash may be lost.
+ * <p>
+ * Rounds are numbered from 1 in recording order. Every method is synchronized, so a history can be read from any
+ * thread while rounds are recorded.
+ */
+public class DrawHistory implements Closeable {
+
+    /**
+     * Length of a spilled round: round number, pot before the draw, then per ball its value and the offset and
+     * length of the winner's name (NO_NAME_LENGTH if none)
+     */
+    static final int RECORD_LENGTH = Long.BYTES + Integer.BYTES + SilanisLottery.NB_WINNERS * (2 * Integer.BYTES + Long.BYTES);
+
+    /**
+     * Winner id of a ball which ticket was not purchased
+     */
+    private static final int NO_WINNER = 0;
+
+    /**
+     * Name length of a spilled ball which ticket was not purchased
+     */
+    private static final int NO_NAME_LENGTH = -1;
+
+    /**
+     * Number of rounds kept in memory
+     */
+    private final int capacity;
+
+    /**
+     * Balls of the rounds in memory, NB_WINNERS per round, round r being at (r - 1) % capacity
+     */
+    private final int[] balls;
+
+    /**
+     * Winner ids of the rounds in memory, NB_WINNERS per round, NO_WINNER for a ball which ticket was not purchased
+     */
+    private final int[] winnerIds;
+
+    /**
+     * Pots before the draws of the rounds in memory, one per round
+     */
+    private final int[] potsBeforeDraw;
+
+    /**
+     * Winners' ids indexed by name
+     */
+    private final Map<String, Integer> buyerIds = new HashMap<>();
+
+    /**
+     * Winners' names indexed by id - 1, null for a free id
+     */
+    private String[] buyerNames = new String[16];
+
+    /**
+     * Rounds in memory won by each winner, indexed by id - 1
+     */
+    private WonRounds[] wonRounds = new WonRounds[16];
+
+    /**
+     * Ids released by winners of evicted rounds only, reused before new ones
+     */
+    private int[] freeIds = new int[16];
+    private int nbFreeIds;
+
+    /**
+     * Number of ids given so far, free or not
+     */
+    private int nbIds;
+
+    /**
+     * Latest recorded round, 0 if there is none
+     */
+    private long latestRound;
+
+    /**
+     * Spilled rounds, null if evicted rounds are lost
+     */
+    private final FileChannel spillRounds;
+
+    /**
+     * Names of the winners of the spilled rounds
+     */
+    private final FileChannel spillNames;
+
+    /**
+     * History keeping the latest capacity rounds only
+     *
+     * @param capacity number of rounds kept in memory, at least 1
+     */
+    public DrawHistory(final int capacity) {
+        this(capacity, null, null);
+    }
+
+    /**
+     * History keeping the latest capacity rounds in memory and spilling the older ones to disk
+     *
+     * @param capacity       number of rounds kept in memory, at least 1
+     * @param spillDirectory directory of the spill files (rounds.bin and names.bin), replaced if they exist
+     * @throws IOException the spill files could not be created
+     */
+    public DrawHistory(final int capacity, final Path spillDirectory) throws IOException {
+        this(capacity,
+                FileChannel.open(spillDirectory.resolve("rounds.bin"), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING),
+                FileChannel.open(spillDirectory.resolve("names.bin"), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+    }
+
+    private DrawHistory(final int capacity, final FileChannel spillRounds, final FileChannel spillNames) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The history capacity is expected to be at least 1");
+        }
+        this.capacity = capacity;
+        this.balls = new int[capacity * SilanisLottery.NB_WINNERS];
+        this.winnerIds = new int[capacity * SilanisLottery.NB_WINNERS];
+        this.potsBeforeDraw = new int[capacity];
+        this.spillRounds = spillRounds;
+        this.spillNames = spillNames;
+    }
+
+    /**
+     * Record the results of a drawn round, evicting the oldest round in memory if the history is full
+     * <p>
+     * Only the pot before the draw is kept: the prizes are expected to have been paid as SingleLottery.drawLottery()
+     * does, so that they can be computed again from it.
+     *
+     * @param drawResults values of the drawn balls, NB_WINNERS of them
+     * @param winners     winners, null elements for the balls which ticket was not purchased
+     * @param pot         pot after the prizes have been paid
+     * @return the round number
+     * @throws IOException the evicted round could not be spilled
+     */
+    public synchronized long record(final int[] drawResults, final Winner[] winners, final int pot) throws IOException {
+        final long round = this.latestRound + 1;
+        if (round > this.capacity) {
+            this.evict(round - this.capacity);
+        }
+
+        final int slot = this.slot(round);
+        int potBeforeDraw = pot;
+        for (int i = 0; i < SilanisLottery.NB_WINNERS; i++) {
+            this.balls[slot * SilanisLottery.NB_WINNERS + i] = drawResults[i];
+            if (winners[i] == null) {
+                this.winnerIds[slot * SilanisLottery.NB_WINNERS + i] = NO_WINNER;
+            } else {
+                final int buyerId = this.buyerId(winners[i].getFirstName());
+                this.winnerIds[slot * SilanisLottery.NB_WINNERS + i] = buyerId;
+                this.wonRounds[buyerId - 1].add(round);
+                potBeforeDraw += winners[i].getPrize();
+            }
+        }
+        this.potsBeforeDraw[slot] = potBeforeDraw;
+        this.latestRound = round;
+        return round;
+    }
+
+    /**
+     * @param round round number
+     * @return the results of the round, null if it has not been recorded or is not available anymore
+     * @throws IOException the spilled round could not be read
+     */
+    public synchronized RoundResult getRound(final long round) throws IOException {
+        if (round < 1 || round > this.latestRound) {
+            return null;
+        }
+        if (round >= this.getOldestRound()) {
+            final int slot = this.slot(round);
+            final int[] drawResults = Arrays.copyOfRange(this.balls, slot * SilanisLottery.NB_WINNERS, (slot + 1) * SilanisLottery.NB_WINNERS);
+            final String[] names = new String[SilanisLottery.NB_WINNERS];
+            for (int i = 0; i < SilanisLottery.NB_WINNERS; i++) {
+                final int buyerId = this.winnerIds[slot * SilanisLottery.NB_WINNERS + i];
+                names[i] = buyerId == NO_WINNER ? null : this.buyerNames[buyerId - 1];
+            }
+            return DrawHistory.roundResult(round, drawResults, names, this.potsBeforeDraw[slot]);
+        }
+        return this.spillRounds == null ? null : this.readSpilled(round);
+    }
+
+    /**
+     * @param buyerName buyer's name
+     * @return the rounds in memory the buyer won, in increasing order (once per round even with several winning tickets)
+     */
+    public synchronized long[] getRoundsWonBy(final String buyerName) {
+        final Integer buyerId = this.buyerIds.get(buyerName);
+        return buyerId == null ? new long[0] : this.wonRounds[buyerId - 1].toArray();
+    }
+
+    /**
+     * @return the latest recorded round, 0 if there is none
+     */
+    public synchronized long getLatestRound() {
+        return this.latestRound;
+    }
+
+    /**
+     * @return the oldest round in memory, latest round + 1 if there is none
+     */
+    public synchronized long getOldestRound() {
+        return Math.max(1, this.latestRound - this.capacity + 1);
+    }
+
+    /**
+     * @return the number of rounds kept in memory
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Close the spill files, if any
+     *
+     * @throws IOException the files could not be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.spillRounds != null) {
+            try {
+                this.spillRounds.close();
+            } finally {
+                this.spillNames.close();
+            }
+        }
+    }
+
+    /**
+     * Used for test purposes
+     *
+     * @return the number of winners in the buyer index
+     */
+    synchronized int getNbIndexedBuyers() {
+        return this.buyerIds.size();
+    }
+
+    /**
+     * @param round         round number
+     * @param drawResults   drawn balls
+     * @param winnerNames   winners' names, null for the balls which ticket was not purchased
+     * @param potBeforeDraw pot before the draw
+     * @return the results of the round, prizes being computed as SingleLottery.drawLottery() does
+     */
+    private static RoundResult roundResult(final long round, final int[] drawResults, final String[] winnerNames, final int potBeforeDraw) {
+        final int[] paidPrizes = SingleLottery.computePrizes(potBeforeDraw);
+        final Winner[] winners = new Winner[SilanisLottery.NB_WINNERS];
+        int pot = potBeforeDraw;
+        for (int i = 0; i < SilanisLottery.NB_WINNERS; i++) {
+            if (winnerNames[i] != null) {
+                winners[i] = new Winner(winnerNames[i], paidPrizes[i]);
+                pot -= paidPrizes[i];
+            }
+        }
+        return new RoundResult(round, drawResults, winners, SingleLottery.computePrizes(pot), pot);
+    }
+
+    private int slot(final long round) {
+        return (int) ((round - 1) % this.capacity);
+    }
+
+    /**
+     * Remove the oldest round from memory, spilling it if enabled, and release its winners from the buyer index
+     *
+     * @param round oldest round in memory
+     */
+    private void evict(final long round) throws IOException {
+        final int slot = this.slot(round);
+        if (this.spillRounds != null) {
+            this.spill(round, slot);
+        }
+        for (int i = 0; i < SilanisLottery.NB_WINNERS; i++) {
+            final int buyerId = this.winnerIds[slot * SilanisLottery.NB_WINNERS + i];
+            if (buyerId != NO_WINNER) {
+                // a buyer winning several balls of the round is released once, by the removal of the round
+                final WonRounds rounds = this.wonRounds[buyerId - 1];
+                if (rounds.removeFirst(round) && rounds.isEmpty()) {
+                    this.releaseBuyerId(buyerId);
+                }
+            }
+        }
+    }
+
+    private void spill(final long round, final int slot) throws IOException {
+        final ByteBuffer record = ByteBuffer.allocate(RECORD_LENGTH);
+        record.putLong(round).putInt(this.potsBeforeDraw[slot]);
+        for (int i = 0; i < SilanisLottery.NB_WINNERS; i++) {
+            record.putInt(this.balls[slot * SilanisLottery.NB_WINNERS + i]);
+            final int buyerId = this.winnerIds[slot * SilanisLottery.NB_WINNERS + i];
+            if (buyerId == NO_WINNER) {
+                record.putLong(0).putInt(NO_NAME_LENGTH);
+            } else {
+                final ByteBuffer name = ByteBuffer.wrap(this.buyerNames[buyerId - 1].getBytes(StandardCharsets.UTF_8));
+                final long offset = this.spillNames.size();
+                record.putLong(offset).putInt(name.remaining());
+                DrawHistory.write(this.spillNames, name, offset);
+            }
+        }
+        record.flip();
+        DrawHistory.write(this.spillRounds, record, (round - 1) * RECORD_LENGTH);
+    }
+
+    private RoundResult readSpilled(final long round) throws IOException {
+        final ByteBuffer record = ByteBuffer.allocate(RECORD_LENGTH);
+        DrawHistory.read(this.spillRounds, record, (round - 1) * RECORD_LENGTH);
+        record.flip();
+        if (record.getLong() != round) {
+            throw new IOException("Unexpected record for round " + round);
+        }
+        final int potBeforeDraw = record.getInt();
+        final int[] drawResults = new int[SilanisLottery.NB_WINNERS];
+        final String[] names = new String[SilanisLottery.NB_WINNERS];
+        for (int i = 0; i < SilanisLottery.NB_WINNERS; i++) {
+            drawResults[i] = record.getInt();
+            final long offset = record.getLong();
+            final int length = record.getInt();
+            if (length != NO_NAME_LENGTH) {
+                final ByteBuffer name = ByteBuffer.allocate(length);
+                DrawHistory.read(this.spillNames, name, offset);
+                names[i] = new String(name.array(), StandardCharsets.UTF_8);
+            }
+        }
+        return DrawHistory.roundResult(round, drawResults, names, potBeforeDraw);
+    }
+
+    private static void write(final FileChannel channel, final ByteBuffer source, final long position) throws IOException {
+        long offset = position;
+        while (source.hasRemaining()) {
+            offset += channel.write(source, offset);
+        }
+    }
+
+    private static void read(final FileChannel channel, final ByteBuffer destination, final long position) throws IOException {
+        long offset = position;
+        while (destination.hasRemaining()) {
+            final int read = channel.read(destination, offset);
+            if (read < 0) {
+                throw new IOException("Truncated spill file");
+            }
+            offset += read;
+        }
+    }
+
+    /**
+     * @param buyerName winner's name
+     * @return the id of the winner, a new one (or a released one) if the winner is not in the index
+     */
+    private int buyerId(final String buyerName) {
+        final Integer buyerId = this.buyerIds.get(buyerName);
+        if (buyerId != null) {
+            return buyerId;
+        }
+
+        final int newBuyerId;
+        if (this.nbFreeIds > 0) {
+            newBuyerId = this.freeIds[--this.nbFreeIds];
+        } else {
+            newBuyerId = ++this.nbIds;
+            if (newBuyerId > this.buyerNames.length) {
+                this.buyerNames = Arrays.copyOf(this.buyerNames, this.buyerNames.length * 2);
+                this.wonRounds = Arrays.copyOf(this.wonRounds, this.wonRounds.length * 2);
+            }
+            this.wonRounds[newBuyerId - 1] = new WonRounds();
+        }
+        this.buyerNames[newBuyerId - 1] = buyerName;
+        this.buyerIds.put(buyerName, newBuyerId);
+        return newBuyerId;
+    }
+
+    private void releaseBuyerId(final int buyerId) {
+        this.buyerIds.remove(this.buyerNames[buyerId - 1]);
+        this.buyerNames[buyerId - 1] = null;
+        if (this.nbFreeIds == this.freeIds.length) {
+            this.freeIds = Arrays.copyOf(this.freeIds, this.nbFreeIds * 2);
+        }
+        this.freeIds[this.nbFreeIds++] = buyerId;
+    }
+
+    /**
+     * Rounds won by a buyer, in increasing order: a FIFO queue over a circular array, since rounds are recorded and
+     * evicted in increasing order
+     */
+    private static final class WonRounds {
+
+        private long[] rounds = new long[4];
+
+        /**
+         * Index of the oldest round
+         */
+        private int head;
+
+        private int size;
+
+        /**
+         * @param round round to add, not lesser than the latest added one (added once only)
+         */
+        void add(final long round) {
+            if (this.size > 0 && this.rounds[(this.head + this.size - 1) % this.rounds.length] == round) {
+                return;
+            }
+            if (this.size == this.rounds.length) {
+                final long[] grown = new long[this.rounds.length * 2];
+                for (int i = 0; i < this.size; i++) {
+                    grown[i] = this.rounds[(this.head + i) % this.rounds.length];
+                }
+                this.rounds = grown;
+                this.head = 0;
+            }
+            this.rounds[(this.head + this.size) % this.rounds.length] = round;
+            this.size++;
+        }
+
+        /**
+         * @param round evicted round: removed if it is the oldest one (it is not if it has already been removed)
+         * @return true if the round was removed
+         */
+        boolean removeFirst(final long round) {
+            if (this.size > 0 && this.rounds[this.head] == round) {
+                this.head = (this.head + 1) % this.rounds.length;
+                this.size--;
+                return true;
+            }
+            return false;
+        }
+
+        boolean isEmpty() {
+            return this.size == 0;
+        }
+
+        long[] toArray() {
+            final long[] array = new long[this.size];
+            for (int i = 0; i < this.size; i++) {
+                array[i] = this.rounds[(this.head + i) % this.rounds.length];
+            }
+            return array;
+        }
+    }
+}
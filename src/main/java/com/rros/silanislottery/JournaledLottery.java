@@ -0,0 +1,216 @@
+package com.rros.silanislottery;
+
+import com.rros.draw.RandomSource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Silanis Lottery which purchases and draws are journaled to a file, so its state survives a restart
+ * <p>
+ * Opening an existing journal replays it to rebuild the lottery (pot, tickets sold in the current round, previous
+ * winners); new events are then appended to it. See LotteryJournal for the file format and the group commit.
+ * <p>
+ * The lottery can also be snapshotted next to its journal (journal file name + ".snapshot"), periodically or on
+ * demand: the next opening then restores the snapshot and replays only the events journaled after it. See
+ * LotterySnapshot for the snapshot format.
+ * <p>
+ * Journal write failures are reported as UncheckedIOException, the in-memory lottery having been updated already.
+ * This class is not thread-safe, as SilanisLottery.
+ */
+public class JournaledLottery implements Lottery, Closeable {
+
+    /**
+     * Journaled lottery
+     */
+    private final SilanisLottery lottery;
+
+    private final LotteryJournal journal;
+
+    /**
+     * Snapshot file
+     */
+    private final Path snapshotPath;
+
+    /**
+     * Number of events between two snapshots, 0 if snapshots are only taken on demand
+     */
+    private final int snapshotInterval;
+
+    /**
+     * Number of events journaled since the last snapshot
+     */
+    private int nbEventsSinceSnapshot;
+
+    private JournaledLottery(final SilanisLottery lottery, final LotteryJournal journal, final Path snapshotPath, final int snapshotInterval) {
+        this.lottery = lottery;
+        this.journal = journal;
+        this.snapshotPath = snapshotPath;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * Open a journaled lottery: replay the journal if the file exists and is not empty, create it otherwise
+     *
+     * @param path         journal file
+     * @param pot          initial pot of a new journal (the one of an existing journal is kept)
+     * @param nbTickets    number of tickets of a new journal (the one of an existing journal is kept)
+     * @param randomSource source of the generators used by each lottery
+     * @param batchSize    number of events per fsync, at least 1: 1 syncs every event
+     * @return the journaled lottery, to be closed so that the pending events are committed
+     * @throws IOException the journal could not be read or created
+     */
+    public static JournaledLottery open(final Path path, final int pot, final int nbTickets, final RandomSource randomSource, final int batchSize) throws IOException {
+        return JournaledLottery.open(path, pot, nbTickets, randomSource, batchSize, 0);
+    }
+
+    /**
+     * Open a journaled lottery, see open(Path, int, int, RandomSource, int), snapshotting it periodically
+     *
+     * @param path             journal file
+     * @param pot              initial pot of a new journal (the one of an existing journal is kept)
+     * @param nbTickets        number of tickets of a new journal (the one of an existing journal is kept)
+     * @param randomSource     source of the generators used by each lottery
+     * @param batchSize        number of events per fsync, at least 1: 1 syncs every event
+     * @param snapshotInterval number of events between two snapshots, 0 to snapshot on demand only
+     * @return the journaled lottery, to be closed so that the pending events are committed
+     * @throws IOException the journal or the snapshot could not be read, or the journal could not be created
+     */
+    public static JournaledLottery open(final Path path, final int pot, final int nbTickets, final RandomSource randomSource, final int batchSize, final int snapshotInterval) throws IOException {
+        if (snapshotInterval < 0) {
+            throw new IllegalArgumentException("The snapshot interval is expected to be positive or zero");
+        }
+        final Path snapshotPath = path.resolveSibling(path.getFileName() + ".snapshot");
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            final SilanisLottery lottery;
+            if (channel.size() == 0) {
+                lottery = new SilanisLottery(pot, nbTickets, randomSource);
+                LotteryJournal.writeHeader(channel, pot, nbTickets);
+                // a snapshot left by a previous journal does not cover this one
+                Files.deleteIfExists(snapshotPath);
+            } else {
+                final LotterySnapshot.Restored snapshot = Files.exists(snapshotPath) ? LotterySnapshot.read(snapshotPath, randomSource) : null;
+                final LotteryJournal.Replay replay = LotteryJournal.replay(channel, randomSource, snapshot);
+                lottery = replay.getLottery();
+                // drop a record cut by a crash, if any
+                channel.truncate(replay.getValidLength());
+                channel.position(replay.getValidLength());
+            }
+            return new JournaledLottery(lottery, new LotteryJournal(channel, batchSize), snapshotPath, snapshotInterval);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public int purchaseTicket(final String buyerName) throws NoAvailableTicketException, InvalidBuyerNameException {
+        final int ticket = this.lottery.purchaseTicket(buyerName);
+        this.journalPurchase(ticket, buyerName);
+        return ticket;
+    }
+
+    @Override
+    public int tryPurchaseTicket(final String buyerName) {
+        final int result = this.lottery.tryPurchaseTicket(buyerName);
+        if (PurchaseStatus.isTicket(result)) {
+            this.journalPurchase(result, buyerName);
+        }
+        return result;
+    }
+
+    @Override
+    public int[] purchaseTickets(final List<String> buyerNames) throws NoAvailableTicketException, InvalidBuyerNameException {
+        final int[] tickets = this.lottery.purchaseTickets(buyerNames);
+        int i = 0;
+        for (final String buyerName : buyerNames) {
+            this.journalPurchase(tickets[i++], buyerName);
+        }
+        return tickets;
+    }
+
+    @Override
+    public int[] drawLottery() {
+        final int[] drawResults = this.lottery.drawLottery();
+        try {
+            this.journal.appendDraw(drawResults);
+            this.snapshotIfDue();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return drawResults;
+    }
+
+    @Override
+    public String generateWinnersMessage() throws NoPreviousDrawException {
+        return this.lottery.generateWinnersMessage();
+    }
+
+    @Override
+    public int getPot() {
+        return this.lottery.getPot();
+    }
+
+    /**
+     * Write and sync the pending events without waiting for the batch to be complete
+     *
+     * @throws IOException the events could not be committed
+     */
+    public void commit() throws IOException {
+        this.journal.commit();
+    }
+
+    /**
+     * Commit the pending events and write a snapshot of the lottery, replacing the previous one
+     *
+     * @throws IOException the events could not be committed or the snapshot could not be written
+     */
+    public void snapshot() throws IOException {
+        LotterySnapshot.write(this.lottery, this.journal.length(), this.snapshotPath);
+        this.nbEventsSinceSnapshot = 0;
+    }
+
+    /**
+     * Commit the pending events and close the journal
+     *
+     * @throws IOException the events could not be committed
+     */
+    @Override
+    public void close() throws IOException {
+        this.journal.close();
+    }
+
+    /**
+     * Used for test purposes
+     *
+     * @return the journaled lottery
+     */
+    SilanisLottery getLottery() {
+        return this.lottery;
+    }
+
+    private void journalPurchase(final int ticket, final String buyerName) {
+        try {
+            this.journal.appendPurchase(ticket, buyerName);
+            this.snapshotIfDue();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Take a snapshot once every snapshotInterval events
+     */
+    private void snapshotIfDue() throws IOException {
+        if (this.snapshotInterval > 0 && ++this.nbEventsSinceSnapshot >= this.snapshotInterval) {
+            this.snapshot();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.rros.silanislottery;
+
+import java.util.List;
+
+/**
+ * Silanis-style lottery: consecutive draws sharing a pot
+ * <p>
+ * Implemented by SilanisLottery (single-threaded) and ConcurrentSilanisLottery (thread-safe).
+ */
+public interface Lottery {
+
+    /**
+     * Purchase a ticket for the current draw.
+     *
+     * @param buyerName ticket buyer's first name, has to be not null, not empty, not a white-space only String.
+     * @return the ticket number
+     * @throws InvalidBuyerNameException  the provided buyer's name is invalid
+     * @throws NoAvailableTicketException no more ticket is available for this draw
+     */
+    int purchaseTicket(String buyerName) throws NoAvailableTicketException, InvalidBuyerNameException;
+
+    /**
+     * Purchase a ticket for the current draw without throwing: failures are reported as PurchaseStatus codes, so
+     * rejecting a purchase (e.g. once the draw is sold out) costs neither an exception nor a stack trace.
+     *
+     * @param buyerName ticket buyer's first name, has to be not null, not empty, not a white-space only String.
+     * @return the ticket number if the purchase succeeded, a negative PurchaseStatus code otherwise
+     */
+    int tryPurchaseTicket(String buyerName);
+
+    /**
+     * Purchase one ticket per buyer for the current draw: either every buyer gets a ticket, or none does.
+     *
+     * @param buyerNames ticket buyers' first names, each one has to be not null, not empty, not a white-space only String.
+     * @return the ticket numbers, in the order of buyerNames
+     * @throws InvalidBuyerNameException  one of the provided buyers' names is invalid
+     * @throws NoAvailableTicketException not enough tickets are available for this draw
+     */
+    int[] purchaseTickets(List<String> buyerNames) throws NoAvailableTicketException, InvalidBuyerNameException;
+
+    /**
+     * Draw the current lottery and start the next one.
+     *
+     * @return the values of the drawn balls
+     */
+    int[] drawLottery();
+
+    /**
+     * Produce the string displaying the winners of the latest draw
+     *
+     * @return string displaying the winners of the latest draw
+     * @throws NoPreviousDrawException there was no previous draw
+     */
+    String generateWinnersMessage() throws NoPreviousDrawException;
+
+    /**
+     * @return the current pot value
+     */
+    int getPot();
+}
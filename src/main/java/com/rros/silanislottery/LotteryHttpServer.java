@@ -0,0 +1,241 @@
+package com.rros.silanislottery;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * HTTP API of a lottery, served by the JDK HttpServer
+ * <p>
+ * Endpoints, answering JSON:
+ * <ul>
+ * <li>POST /tickets, the body being the buyer's first name (UTF-8): {"ticket":12}, 400 if the name is invalid, 409 if
+ * no ticket is left;</li>
+ * <li>POST /draw: {"balls":[4,8,15]};</li>
+ * <li>GET /winners: {"winners":"..."}, the winners message, 409 if there was no draw yet;</li>
+ * <li>GET /pot: {"pot":200}.</li>
+ * </ul>
+ * Requests are handled concurrently by the executor of the server, so the lottery has to be thread-safe (e.g.
+ * ConcurrentSilanisLottery). The executor is configurable: a fixed pool by default, or any executor such as a
+ * virtual-thread-per-task one on runtimes providing it.
+ * <p>
+ * The server writes the headers and the body of a response separately: without TCP_NODELAY, Nagle's algorithm and
+ * delayed ACKs hold each response for tens of milliseconds. The JDK HttpServer only sets it when the JVM-wide
+ * NODELAY_PROPERTY is true (-Dsun.net.httpserver.nodelay=true, read once, before the first server is created): this
+ * is left to the application, Main sets it for -http.
+ */
+public class LotteryHttpServer implements Closeable {
+
+    public static final String TICKETS_PATH = "/tickets";
+    public static final String DRAW_PATH = "/draw";
+    public static final String WINNERS_PATH = "/winners";
+    public static final String POT_PATH = "/pot";
+
+    /**
+     * System property enabling TCP_NODELAY on the connections of every JDK HttpServer of the JVM
+     */
+    public static final String NODELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+    private static final int HTTP_OK = 200;
+    private static final int HTTP_BAD_REQUEST = 400;
+    private static final int HTTP_NOT_FOUND = 404;
+    private static final int HTTP_METHOD_NOT_ALLOWED = 405;
+    private static final int HTTP_CONFLICT = 409;
+
+    private final Lottery lottery;
+
+    private final HttpServer server;
+
+    /**
+     * Executor created by this server, shut down on close, null if it was given
+     */
+    private final ExecutorService ownedExecutor;
+
+    private LotteryHttpServer(final Lottery lottery, final HttpServer server, final ExecutorService ownedExecutor) {
+        this.lottery = lottery;
+        this.server = server;
+        this.ownedExecutor = ownedExecutor;
+    }
+
+    /**
+     * Start a server handling requests on a fixed pool of threads
+     *
+     * @param lottery   thread-safe lottery
+     * @param address   address to listen to, port 0 for an ephemeral port
+     * @param nbThreads number of request threads, at least 1
+     * @return the started server, to be closed
+     * @throws IOException the server could not be bound
+     */
+    public static LotteryHttpServer start(final Lottery lottery, final InetSocketAddress address, final int nbThreads) throws IOException {
+        if (nbThreads < 1) {
+            throw new IllegalArgumentException("The number of threads is expected to be at least 1");
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+        try {
+            return LotteryHttpServer.start(lottery, address, executor, executor);
+        } catch (IOException | RuntimeException e) {
+            executor.shutdown();
+            throw e;
+        }
+    }
+
+    /**
+     * Start a server handling requests on a given executor
+     *
+     * @param lottery  thread-safe lottery
+     * @param address  address to listen to, port 0 for an ephemeral port
+     * @param executor executor of the requests, left running on close
+     * @return the started server, to be closed
+     * @throws IOException the server could not be bound
+     */
+    public static LotteryHttpServer start(final Lottery lottery, final InetSocketAddress address, final Executor executor) throws IOException {
+        return LotteryHttpServer.start(lottery, address, executor, null);
+    }
+
+    private static LotteryHttpServer start(final Lottery lottery, final InetSocketAddress address, final Executor executor, final ExecutorService ownedExecutor) throws IOException {
+        final HttpServer server = HttpServer.create(address, 0);
+        final LotteryHttpServer lotteryServer = new LotteryHttpServer(lottery, server, ownedExecutor);
+        server.createContext(TICKETS_PATH, lotteryServer.handler("POST", lotteryServer::purchase));
+        server.createContext(DRAW_PATH, lotteryServer.handler("POST", lotteryServer::draw));
+        server.createContext(WINNERS_PATH, lotteryServer.handler("GET", lotteryServer::winners));
+        server.createContext(POT_PATH, lotteryServer.handler("GET", lotteryServer::pot));
+        server.setExecutor(executor);
+        server.start();
+        return lotteryServer;
+    }
+
+    /**
+     * @return the address the server listens to
+     */
+    public InetSocketAddress getAddress() {
+        return this.server.getAddress();
+    }
+
+    /**
+     * Stop the server, without waiting for the exchanges in progress
+     */
+    @Override
+    public void close() {
+        this.server.stop(0);
+        if (this.ownedExecutor != null) {
+            this.ownedExecutor.shutdown();
+        }
+    }
+
+    /**
+     * @return a handler checking the path and method of the exchange before calling handler
+     */
+    private HttpHandler handler(final String method, final HttpHandler handler) {
+        return exchange -> {
+            try {
+                // contexts also match sub-paths
+                if (!exchange.getRequestURI().getPath().equals(exchange.getHttpContext().getPath())) {
+                    LotteryHttpServer.send(exchange, HTTP_NOT_FOUND, "{\"error\":\"Not found\"}");
+                } else if (!method.equals(exchange.getRequestMethod())) {
+                    exchange.getResponseHeaders().set("Allow", method);
+                    LotteryHttpServer.send(exchange, HTTP_METHOD_NOT_ALLOWED, "{\"error\":\"Method not allowed\"}");
+                } else {
+                    handler.handle(exchange);
+                }
+            } finally {
+                exchange.close();
+            }
+        };
+    }
+
+    private void purchase(final HttpExchange exchange) throws IOException {
+        final String buyerName = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        final int result = this.lottery.tryPurchaseTicket(buyerName);
+        switch (result) {
+            case PurchaseStatus.INVALID_BUYER_NAME:
+                LotteryHttpServer.send(exchange, HTTP_BAD_REQUEST, "{\"error\":\"The buyer's name is expected to be a non-empty String\"}");
+                break;
+            case PurchaseStatus.NO_AVAILABLE_TICKET:
+            case PurchaseStatus.ALREADY_DRAWN:
+                LotteryHttpServer.send(exchange, HTTP_CONFLICT, "{\"error\":\"There is no more available ticket for the current draw.\"}");
+                break;
+            default:
+                LotteryHttpServer.send(exchange, HTTP_OK, "{\"ticket\":" + result + "}");
+                break;
+        }
+    }
+
+    private void draw(final HttpExchange exchange) throws IOException {
+        final int[] drawResults = this.lottery.drawLottery();
+        final StringBuilder body = new StringBuilder("{\"balls\":[");
+        for (int i = 0; i < drawResults.length; i++) {
+            if (i > 0) {
+                body.append(',');
+            }
+            body.append(drawResults[i]);
+        }
+        LotteryHttpServer.send(exchange, HTTP_OK, body.append("]}").toString());
+    }
+
+    private void winners(final HttpExchange exchange) throws IOException {
+        try {
+            final String message = this.lottery.generateWinnersMessage();
+            LotteryHttpServer.send(exchange, HTTP_OK, "{\"winners\":" + LotteryHttpServer.toJsonString(message) + "}");
+        } catch (NoPreviousDrawException e) {
+            LotteryHttpServer.send(exchange, HTTP_CONFLICT, "{\"error\":" + LotteryHttpServer.toJsonString(e.getMessage()) + "}");
+        }
+    }
+
+    private void pot(final HttpExchange exchange) throws IOException {
+        LotteryHttpServer.send(exchange, HTTP_OK, "{\"pot\":" + this.lottery.getPot() + "}");
+    }
+
+    private static void send(final HttpExchange exchange, final int status, final String body) throws IOException {
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(bytes);
+        }
+    }
+
+    /**
+     * @param value any String
+     * @return value as a quoted and escaped JSON string
+     */
+    static String toJsonString(final String value) {
+        final StringBuilder json = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                    break;
+            }
+        }
+        return json.append('"').toString();
+    }
+}
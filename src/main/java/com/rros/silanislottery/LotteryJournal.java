@@ -0,0 +1,380 @@
+package com.rros.silanislottery;
+
+import com.rros.draw.RandomSource;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of the purchases and draws of a SilanisLottery
+ * <p>
+ * The file starts with a header (magic number, initial pot, number of tickets) followed by records, each one being
+ * its payload length, the CRC32C of its payload and the payload:
+ * <ul>
+ * <li>purchase: PURCHASE, ticket number, buyer's name length and UTF-8 bytes;</li>
+ * <li>draw: DRAW, number of balls and their values.</li>
+ * </ul>
+ * Records are buffered and the file is written and synced (fsync) once per batch of events (group commit): a crash
+ * loses at most the events of the ongoing batch. A draw always commits the batch.
+ * <p>
+ * A record cut by a crash (or any corrupted record) ends the journal: replay stops there and the file is truncated
+ * so that appends start right after the last valid record.
+ * <p>
+ * This class is not thread-safe, as SilanisLottery.
+ */
+class LotteryJournal implements Closeable {
+
+    /**
+     * First bytes of a journal file ("SLJ1")
+     */
+    static final int MAGIC = 0x534c4a31;
+
+    /**
+     * Length of the header: magic number, initial pot and number of tickets
+     */
+    static final int HEADER_LENGTH = 3 * Integer.BYTES;
+
+    /**
+     * Length of a record prefix: payload length and CRC32C
+     */
+    private static final int RECORD_PREFIX_LENGTH = 2 * Integer.BYTES;
+
+    /**
+     * Largest valid payload length, anything larger is considered as a corrupted record
+     */
+    private static final int MAX_PAYLOAD_LENGTH = 1 << 20;
+
+    private static final byte PURCHASE = 1;
+    private static final byte DRAW = 2;
+
+    /**
+     * Capacity of the buffer of pending records
+     */
+    private static final int BUFFER_CAPACITY = 64 * 1024;
+
+    private final FileChannel channel;
+
+    /**
+     * Number of events per fsync
+     */
+    private final int batchSize;
+
+    /**
+     * Records not written yet
+     */
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_CAPACITY);
+
+    private final CRC32C crc = new CRC32C();
+
+    /**
+     * Number of events appended since the last commit
+     */
+    private int nbPendingEvents;
+
+    /**
+     * @param channel   journal file, positioned after its last valid record
+     * @param batchSize number of events per fsync, at least 1
+     */
+    LotteryJournal(final FileChannel channel, final int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size is expected to be at least 1");
+        }
+        this.channel = channel;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Write the header of a new journal and sync it
+     *
+     * @param channel   empty journal file
+     * @param pot       initial pot
+     * @param nbTickets number of tickets (and balls) of each lottery
+     * @throws IOException the header could not be written
+     */
+    static void writeHeader(final FileChannel channel, final int pot, final int nbTickets) throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        header.putInt(MAGIC).putInt(pot).putInt(nbTickets).flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        channel.force(true);
+    }
+
+    /**
+     * Rebuild a lottery from a journal
+     * <p>
+     * Purchases are gathered per round and restored at once, so the cost of a replay is proportional to the number of
+     * events, not to the number of tickets.
+     *
+     * @param channel      journal file, read from its start
+     * @param randomSource source of the generators used by the rebuilt lottery
+     * @return the rebuilt lottery and the length of the valid part of the journal
+     * @throws IOException the file could not be read, or is not a journal
+     */
+    static Replay replay(final FileChannel channel, final RandomSource randomSource) throws IOException {
+        return LotteryJournal.replay(channel, randomSource, null);
+    }
+
+    /**
+     * Rebuild a lottery from a snapshot and the part of the journal written after it
+     * <p>
+     * Only the events following the snapshot are read: the cost of a replay depends on the snapshot size and on the
+     * number of events since the snapshot, not on the whole history of the lottery.
+     *
+     * @param channel      journal file
+     * @param randomSource source of the generators used by the rebuilt lottery (if snapshot is null)
+     * @param snapshot     snapshot covering the start of the journal, null to replay the journal from its start
+     * @return the rebuilt lottery and the length of the valid part of the journal
+     * @throws IOException the file could not be read, is not a journal, or is shorter than the snapshot coverage
+     */
+    static Replay replay(final FileChannel channel, final RandomSource randomSource, final LotterySnapshot.Restored snapshot) throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                throw new IOException("Truncated lottery journal header");
+            }
+        }
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException("Not a lottery journal");
+        }
+
+        final SilanisLottery lottery;
+        // purchases of the current round, restored on its draw or at the end of the journal
+        final RestoredRound round;
+        long validLength;
+        if (snapshot == null) {
+            lottery = new SilanisLottery(header.getInt(Integer.BYTES), header.getInt(2 * Integer.BYTES), randomSource);
+            round = new RestoredRound();
+            validLength = HEADER_LENGTH;
+        } else {
+            if (snapshot.getJournalLength() > channel.size()) {
+                throw new IOException("The snapshot covers " + snapshot.getJournalLength() + " bytes of a journal of " + channel.size());
+            }
+            lottery = snapshot.getLottery();
+            round = snapshot.getRound();
+            validLength = snapshot.getJournalLength();
+        }
+
+        channel.position(validLength);
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), BUFFER_CAPACITY));
+        final CRC32C crc = new CRC32C();
+        long nbEvents = 0;
+        byte[] payload = new byte[64];
+        while (true) {
+            final int length;
+            final int expectedCrc;
+            try {
+                length = in.readInt();
+                expectedCrc = in.readInt();
+                if (length <= 0 || length > MAX_PAYLOAD_LENGTH) {
+                    break;
+                }
+                if (payload.length < length) {
+                    payload = new byte[Math.max(length, payload.length * 2)];
+                }
+                in.readFully(payload, 0, length);
+            } catch (EOFException e) {
+                break;
+            }
+            crc.reset();
+            crc.update(payload, 0, length);
+            if ((int) crc.getValue() != expectedCrc) {
+                break;
+            }
+
+            final ByteBuffer record = ByteBuffer.wrap(payload, 0, length);
+            switch (record.get()) {
+                case PURCHASE:
+                    final int ticket = record.getInt();
+                    final int nameLength = record.getInt();
+                    if (nameLength < 0 || nameLength > record.remaining()) {
+                        throw new IOException("Invalid purchase record at offset " + validLength);
+                    }
+                    round.addPurchase(ticket, new String(payload, record.position(), nameLength, StandardCharsets.UTF_8));
+                    break;
+                case DRAW:
+                    final int[] drawResults = new int[record.getInt()];
+                    for (int i = 0; i < drawResults.length; i++) {
+                        drawResults[i] = record.getInt();
+                    }
+                    lottery.restorePurchases(round);
+                    lottery.restoreDraw(drawResults);
+                    round.clear();
+                    break;
+                default:
+                    throw new IOException("Unknown record type at offset " + validLength);
+            }
+            validLength += RECORD_PREFIX_LENGTH + length;
+            nbEvents++;
+        }
+        lottery.restorePurchases(round);
+
+        return new Replay(lottery, validLength, nbEvents);
+    }
+
+    /**
+     * Append a purchase, committed with its batch
+     *
+     * @param ticket    ticket number
+     * @param buyerName buyer's name
+     * @throws IOException the batch could not be committed
+     */
+    void appendPurchase(final int ticket, final String buyerName) throws IOException {
+        final byte[] name = buyerName.getBytes(StandardCharsets.UTF_8);
+        final int length = 1 + 2 * Integer.BYTES + name.length;
+        final ByteBuffer record = this.startRecord(length);
+        record.put(PURCHASE).putInt(ticket).putInt(name.length).put(name);
+        this.endRecord(record, length);
+    }
+
+    /**
+     * Append a draw and commit it with the pending events
+     *
+     * @param drawResults values of the drawn balls
+     * @throws IOException the batch could not be committed
+     */
+    void appendDraw(final int[] drawResults) throws IOException {
+        final int length = 1 + Integer.BYTES * (1 + drawResults.length);
+        final ByteBuffer record = this.startRecord(length);
+        record.put(DRAW).putInt(drawResults.length);
+        for (final int drawResult : drawResults) {
+            record.putInt(drawResult);
+        }
+        this.endRecord(record, length);
+        this.commit();
+    }
+
+    /**
+     * Write the pending events and sync the file
+     *
+     * @throws IOException the events could not be written or synced
+     */
+    void commit() throws IOException {
+        this.drain();
+        this.channel.force(false);
+        this.nbPendingEvents = 0;
+    }
+
+    /**
+     * Commit the pending events, so that the whole journal is on disk
+     *
+     * @return the length of the journal
+     * @throws IOException the events could not be committed
+     */
+    long length() throws IOException {
+        this.commit();
+        return this.channel.size();
+    }
+
+    /**
+     * Commit the pending events and close the file
+     *
+     * @throws IOException the events could not be committed
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            this.commit();
+        } finally {
+            this.channel.close();
+        }
+    }
+
+    /**
+     * @param length payload length
+     * @return the buffer the record has to be written to, positioned at its payload
+     */
+    private ByteBuffer startRecord(final int length) throws IOException {
+        if (length > MAX_PAYLOAD_LENGTH) {
+            throw new IllegalArgumentException("Journal record too large: " + length + " bytes");
+        }
+        final int recordLength = RECORD_PREFIX_LENGTH + length;
+        if (this.buffer.remaining() < recordLength) {
+            this.drain();
+        }
+        // a record larger than the buffer is written on its own
+        final ByteBuffer record = recordLength <= this.buffer.capacity() ? this.buffer : ByteBuffer.allocate(recordLength);
+        record.position(record.position() + RECORD_PREFIX_LENGTH);
+        return record;
+    }
+
+    /**
+     * Write the prefix of the record ending at the buffer position, and commit if the batch is complete
+     *
+     * @param record buffer returned by startRecord()
+     * @param length payload length
+     */
+    private void endRecord(final ByteBuffer record, final int length) throws IOException {
+        final int start = record.position() - length - RECORD_PREFIX_LENGTH;
+        this.crc.reset();
+        this.crc.update(record.duplicate().position(start + RECORD_PREFIX_LENGTH).limit(start + RECORD_PREFIX_LENGTH + length));
+        record.putInt(start, length).putInt(start + Integer.BYTES, (int) this.crc.getValue());
+        if (record != this.buffer) {
+            record.flip();
+            this.write(record);
+        }
+
+        if (++this.nbPendingEvents >= this.batchSize) {
+            this.commit();
+        }
+    }
+
+    /**
+     * Write the buffered records, without syncing
+     */
+    private void drain() throws IOException {
+        this.buffer.flip();
+        this.write(this.buffer);
+        this.buffer.clear();
+    }
+
+    private void write(final ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            this.channel.write(source);
+        }
+    }
+
+    /**
+     * Result of a replay
+     */
+    static final class Replay {
+
+        private final SilanisLottery lottery;
+
+        /**
+         * Length of the journal up to its last valid record
+         */
+        private final long validLength;
+
+        /**
+         * Number of replayed events
+         */
+        private final long nbEvents;
+
+        private Replay(final SilanisLottery lottery, final long validLength, final long nbEvents) {
+            this.lottery = lottery;
+            this.validLength = validLength;
+            this.nbEvents = nbEvents;
+        }
+
+        SilanisLottery getLottery() {
+            return this.lottery;
+        }
+
+        long getValidLength() {
+            return this.validLength;
+        }
+
+        long getNbEvents() {
+            return this.nbEvents;
+        }
+    }
+}
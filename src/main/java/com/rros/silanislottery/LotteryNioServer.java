@@ -0,0 +1,321 @@
+package com.rros.silanislottery;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+/**
+ * Server of the binary protocol of a lottery (see LotteryProtocol), run by a single NIO selector thread
+ * <p>
+ * Each connection has a direct input and a direct output buffer. Every complete request frame read at once is handled
+ * before replying, consecutive purchases being answered by a single TICKETS frame, and the replies are written with one
+ * write call. When the output buffer is full (the client does not read its replies), the connection stops being read
+ * until the replies are written.
+ * <p>
+ * As the lottery is only called by the selector thread, it does not have to be thread-safe.
+ */
+public class LotteryNioServer implements Closeable {
+
+    /**
+     * Size of the input and output buffers of each connection
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Largest reply to a DRAW or POT request
+     */
+    private static final int MAX_SINGLE_REPLY_LENGTH = LotteryProtocol.FRAME_HEADER_LENGTH + Integer.BYTES + SilanisLottery.NB_WINNERS * Integer.BYTES;
+
+    private final Lottery lottery;
+
+    private final Selector selector;
+
+    private final ServerSocketChannel serverChannel;
+
+    private final Thread thread;
+
+    private volatile boolean running = true;
+
+    private LotteryNioServer(final Lottery lottery, final Selector selector, final ServerSocketChannel serverChannel) {
+        this.lottery = lottery;
+        this.selector = selector;
+        this.serverChannel = serverChannel;
+        this.thread = new Thread(this::run, "lottery-nio-server");
+    }
+
+    /**
+     * Start a server on its own selector thread
+     *
+     * @param lottery lottery, only called by the selector thread
+     * @param address address to listen to, port 0 for an ephemeral port
+     * @return the started server, to be closed
+     * @throws IOException the server could not be bound
+     */
+    public static LotteryNioServer start(final Lottery lottery, final InetSocketAddress address) throws IOException {
+        final Selector selector = Selector.open();
+        final ServerSocketChannel serverChannel = ServerSocketChannel.open();
+        try {
+            serverChannel.bind(address);
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException | RuntimeException e) {
+            serverChannel.close();
+            selector.close();
+            throw e;
+        }
+        final LotteryNioServer server = new LotteryNioServer(lottery, selector, serverChannel);
+        server.thread.start();
+        return server;
+    }
+
+    /**
+     * @return the address the server listens to
+     * @throws IOException the address could not be read
+     */
+    public InetSocketAddress getAddress() throws IOException {
+        return (InetSocketAddress) this.serverChannel.getLocalAddress();
+    }
+
+    /**
+     * Stop the selector thread and close every connection, the lottery being no longer called once this returns
+     */
+    @Override
+    public void close() {
+        this.running = false;
+        this.selector.wakeup();
+        if (Thread.currentThread() != this.thread) {
+            try {
+                this.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Selector loop
+     */
+    private void run() {
+        try {
+            while (this.running) {
+                this.selector.select();
+                final Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    final SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        this.accept();
+                    } else {
+                        final Connection connection = (Connection) key.attachment();
+                        try {
+                            if (key.isReadable()) {
+                                connection.read();
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                connection.write();
+                            }
+                        } catch (IOException | RuntimeException e) {
+                            // broken connection, protocol error or lottery failure (e.g. journal write, closed
+                            // engine): drop the client, the server keeps serving the others
+                            connection.close();
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Lottery server stopped: " + e.getMessage());
+        } finally {
+            for (final SelectionKey key : this.selector.keys()) {
+                try {
+                    key.channel().close();
+                } catch (IOException e) {
+                    // ignored: closing anyway
+                }
+            }
+            try {
+                this.selector.close();
+            } catch (IOException e) {
+                // ignored: closing anyway
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        final SocketChannel channel = this.serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        final SelectionKey key = channel.register(this.selector, SelectionKey.OP_READ);
+        key.attach(new Connection(channel, key));
+    }
+
+    /**
+     * Write the length and count of a TICKETS frame
+     */
+    private static void endBatch(final ByteBuffer out, final int batchPosition, final int batchCount) {
+        out.putInt(batchPosition, Byte.BYTES + Integer.BYTES + batchCount * Integer.BYTES);
+        out.putInt(batchPosition + LotteryProtocol.FRAME_HEADER_LENGTH, batchCount);
+    }
+
+    /**
+     * State of a client connection
+     */
+    private final class Connection {
+
+        private final SocketChannel channel;
+        private final SelectionKey key;
+
+        /**
+         * Bytes read and not handled yet, in write mode between two events
+         */
+        private final ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        /**
+         * Replies not written yet, in write mode between two events
+         */
+        private final ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        /**
+         * Buyer's name of the current purchase
+         */
+        private final byte[] buyerName = new byte[LotteryProtocol.MAX_REQUEST_LENGTH];
+
+        /**
+         * True if complete requests are waiting for room in the output buffer
+         */
+        private boolean stalled;
+
+        private Connection(final SocketChannel channel, final SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+
+        private void read() throws IOException {
+            if (this.channel.read(this.in) < 0) {
+                this.close();
+                return;
+            }
+            this.serve();
+        }
+
+        private void write() throws IOException {
+            if (!this.flush() && this.stalled) {
+                this.serve();
+            }
+        }
+
+        /**
+         * Handle the requests read and write their replies, until no request waits for room in the output buffer
+         */
+        private void serve() throws IOException {
+            boolean pending;
+            do {
+                this.handleRequests();
+                pending = this.flush();
+            } while (this.stalled && !pending);
+        }
+
+        /**
+         * Handle the complete requests of the input buffer, as long as their replies fit in the output buffer
+         *
+         * @throws IOException invalid request
+         */
+        private void handleRequests() throws IOException {
+            final ByteBuffer in = this.in.flip();
+            final ByteBuffer out = this.out;
+            int batchPosition = -1;
+            int batchCount = 0;
+            this.stalled = false;
+            while (in.remaining() >= Integer.BYTES) {
+                final int length = in.getInt(in.position());
+                if (length < Byte.BYTES || length > LotteryProtocol.MAX_REQUEST_LENGTH) {
+                    throw new IOException("Invalid frame length: " + length);
+                }
+                if (in.remaining() < Integer.BYTES + length) {
+                    break;
+                }
+                final byte opcode = in.get(in.position() + Integer.BYTES);
+                if (opcode == LotteryProtocol.PURCHASE) {
+                    if (out.remaining() < (batchPosition < 0 ? LotteryProtocol.FRAME_HEADER_LENGTH + 2 * Integer.BYTES : Integer.BYTES)) {
+                        this.stalled = true;
+                        break;
+                    }
+                    if (batchPosition < 0) {
+                        // count and length are written once the batch is complete
+                        batchPosition = out.position();
+                        batchCount = 0;
+                        out.putInt(0).put(LotteryProtocol.TICKETS).putInt(0);
+                    }
+                    in.position(in.position() + LotteryProtocol.FRAME_HEADER_LENGTH);
+                    in.get(this.buyerName, 0, length - Byte.BYTES);
+                    out.putInt(LotteryNioServer.this.lottery.tryPurchaseTicket(new String(this.buyerName, 0, length - Byte.BYTES, StandardCharsets.UTF_8)));
+                    batchCount++;
+                } else if (opcode == LotteryProtocol.DRAW || opcode == LotteryProtocol.POT) {
+                    if (out.remaining() < MAX_SINGLE_REPLY_LENGTH) {
+                        this.stalled = true;
+                        break;
+                    }
+                    if (batchPosition >= 0) {
+                        LotteryNioServer.endBatch(out, batchPosition, batchCount);
+                        batchPosition = -1;
+                    }
+                    in.position(in.position() + Integer.BYTES + length);
+                    if (opcode == LotteryProtocol.DRAW) {
+                        final int[] drawResults = LotteryNioServer.this.lottery.drawLottery();
+                        out.putInt(Byte.BYTES + Integer.BYTES + drawResults.length * Integer.BYTES).put(LotteryProtocol.BALLS).putInt(drawResults.length);
+                        for (final int drawResult : drawResults) {
+                            out.putInt(drawResult);
+                        }
+                    } else {
+                        out.putInt(Byte.BYTES + Integer.BYTES).put(LotteryProtocol.POT).putInt(LotteryNioServer.this.lottery.getPot());
+                    }
+                } else {
+                    throw new IOException("Unknown opcode: " + opcode);
+                }
+            }
+            if (batchPosition >= 0) {
+                LotteryNioServer.endBatch(out, batchPosition, batchCount);
+            }
+            in.compact();
+        }
+
+        /**
+         * Write as many replies as possible, then select the events to wait for
+         *
+         * @return true if replies are still to be written
+         */
+        private boolean flush() throws IOException {
+            this.out.flip();
+            if (this.out.hasRemaining()) {
+                this.channel.write(this.out);
+            }
+            final boolean pending = this.out.hasRemaining();
+            this.out.compact();
+            // a stalled connection is not read until its replies are written
+            this.key.interestOps((this.stalled ? 0 : SelectionKey.OP_READ) | (pending ? SelectionKey.OP_WRITE : 0));
+            return pending;
+        }
+
+        private void close() {
+            this.key.cancel();
+            try {
+                this.channel.close();
+            } catch (IOException e) {
+                // ignored: closing anyway
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.rros.silanislottery;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Binary protocol of LotteryNioServer
+ * <p>
+ * Every message is a frame: the length of the rest of the frame (int, big-endian), an opcode (byte) and a payload.
+ * Requests:
+ * <ul>
+ * <li>PURCHASE: the buyer's first name, UTF-8;</li>
+ * <li>DRAW: empty;</li>
+ * <li>POT: empty.</li>
+ * </ul>
+ * Replies, in the order of the requests:
+ * <ul>
+ * <li>TICKETS: count (int) and as many results (int): the ticket number, or a negative PurchaseStatus code. Consecutive
+ * purchases read at once are answered by a single TICKETS frame;</li>
+ * <li>BALLS: count (int) and the drawn balls (int);</li>
+ * <li>POT: the current pot (int).</li>
+ * </ul>
+ * Requests can be pipelined: a client does not have to wait for a reply before sending the next requests.
+ */
+public final class LotteryProtocol {
+
+    public static final byte PURCHASE = 1;
+    public static final byte DRAW = 2;
+    public static final byte POT = 3;
+
+    public static final byte TICKETS = 1;
+    public static final byte BALLS = 2;
+
+    /**
+     * Largest request frame, length field excluded
+     */
+    public static final int MAX_REQUEST_LENGTH = 1024;
+
+    /**
+     * Length of the length field and opcode of a frame
+     */
+    public static final int FRAME_HEADER_LENGTH = Integer.BYTES + Byte.BYTES;
+
+    private LotteryProtocol() {
+        // private so this class cannot be instantiated
+    }
+
+    /**
+     * Write a purchase request
+     *
+     * @param buffer    buffer with at least FRAME_HEADER_LENGTH + buyerName.length bytes remaining
+     * @param buyerName buyer's first name, UTF-8
+     */
+    public static void putPurchase(final ByteBuffer buffer, final byte[] buyerName) {
+        if (Byte.BYTES + buyerName.length > MAX_REQUEST_LENGTH) {
+            throw new IllegalArgumentException("The buyer's name is too long: " + buyerName.length + " bytes");
+        }
+        buffer.putInt(Byte.BYTES + buyerName.length).put(PURCHASE).put(buyerName);
+    }
+
+    /**
+     * Write a request without payload
+     *
+     * @param buffer buffer with at least FRAME_HEADER_LENGTH bytes remaining
+     * @param opcode DRAW or POT
+     */
+    public static void putRequest(final ByteBuffer buffer, final byte opcode) {
+        buffer.putInt(Byte.BYTES).put(opcode);
+    }
+}
@@ -0,0 +1,263 @@
+package com.rros.silanislottery;
+
+import com.rros.draw.RandomSource;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Independent lotteries keyed by id, e.g. one per region and product, each one pinned to one of N single-threaded
+ * partitions
+ * <p>
+ * The partition of a lottery is a function of its id: the lottery, and the map of its partition, are only touched by
+ * the thread of that partition, so SilanisLottery is used as is, without any lock. Calls on lotteries of different
+ * partitions run in parallel, and drawAll() draws every partition at once. Results come back through
+ * CompletableFutures completed by the partition threads, so callers should neither run long actions nor block on
+ * another call in their non-async dependent stages.
+ * <p>
+ * Calls on unknown lotteries complete exceptionally with IllegalArgumentException.
+ */
+public class LotteryRegistry implements Closeable {
+
+    private final Partition[] partitions;
+
+    private final RandomSource randomSource;
+
+    /**
+     * Registry using SPLITTABLE generators, each lottery being only used by one thread
+     *
+     * @param nbPartitions number of partitions (and threads), e.g. the number of processors
+     */
+    public LotteryRegistry(final int nbPartitions) {
+        this(nbPartitions, RandomSource.SPLITTABLE);
+    }
+
+    /**
+     * @param nbPartitions number of partitions (and threads), at least 1
+     * @param randomSource source of the generators of the lotteries
+     */
+    public LotteryRegistry(final int nbPartitions, final RandomSource randomSource) {
+        if (nbPartitions < 1) {
+            throw new IllegalArgumentException("The number of partitions is expected to be at least 1");
+        }
+        this.randomSource = randomSource;
+        this.partitions = new Partition[nbPartitions];
+        for (int i = 0; i < nbPartitions; i++) {
+            this.partitions[i] = new Partition("lottery-partition-" + i);
+        }
+    }
+
+    /**
+     * Create a lottery
+     *
+     * @param id        lottery id
+     * @param pot       input pot
+     * @param nbTickets number of tickets (and balls) of each draw, at least NB_WINNERS
+     * @return true if the lottery was created, false if there already was one with this id
+     */
+    public CompletableFuture<Boolean> createLottery(final String id, final int pot, final int nbTickets) {
+        // fails at once on an invalid number of tickets
+        final SilanisLottery lottery = new SilanisLottery(pot, nbTickets, this.randomSource);
+        final Partition partition = this.partitionOf(id);
+        return partition.submit(() -> partition.lotteries.putIfAbsent(id, lottery) == null);
+    }
+
+    /**
+     * Remove a lottery
+     *
+     * @param id lottery id
+     * @return true if the lottery was removed, false if there was none with this id
+     */
+    public CompletableFuture<Boolean> removeLottery(final String id) {
+        final Partition partition = this.partitionOf(id);
+        return partition.submit(() -> partition.lotteries.remove(id) != null);
+    }
+
+    /**
+     * Purchase a ticket for the current draw of a lottery, see Lottery.tryPurchaseTicket()
+     *
+     * @param id        lottery id
+     * @param buyerName ticket buyer's first name
+     * @return the ticket number if the purchase succeeded, a negative PurchaseStatus code otherwise
+     */
+    public CompletableFuture<Integer> purchaseTicket(final String id, final String buyerName) {
+        return this.submit(id, lottery -> lottery.tryPurchaseTicket(buyerName));
+    }
+
+    /**
+     * Draw a lottery and start its next draw
+     *
+     * @param id lottery id
+     * @return the values of the drawn balls
+     */
+    public CompletableFuture<int[]> drawLottery(final String id) {
+        return this.submit(id, SilanisLottery::drawLottery);
+    }
+
+    /**
+     * @param id lottery id
+     * @return the winners message of the latest draw of a lottery, completed exceptionally with
+     * NoPreviousDrawException if there was none
+     */
+    public CompletableFuture<String> generateWinnersMessage(final String id) {
+        return this.submit(id, SilanisLottery::generateWinnersMessage);
+    }
+
+    /**
+     * @param id lottery id
+     * @return the current pot of a lottery
+     */
+    public CompletableFuture<Integer> getPot(final String id) {
+        return this.submit(id, SilanisLottery::getPot);
+    }
+
+    /**
+     * Run any call on a lottery, on the thread of its partition
+     *
+     * @param id   lottery id
+     * @param call call on the lottery, which must not be kept for use outside of the call
+     * @return the result of the call
+     */
+    public <T> CompletableFuture<T> submit(final String id, final LotteryCall<T> call) {
+        final Partition partition = this.partitionOf(id);
+        return partition.submit(() -> {
+            final SilanisLottery lottery = partition.lotteries.get(id);
+            if (lottery == null) {
+                throw new IllegalArgumentException("Unknown lottery: " + id);
+            }
+            return call.apply(lottery);
+        });
+    }
+
+    /**
+     * Draw every lottery, the partitions running in parallel
+     *
+     * @return the drawn balls indexed by lottery id
+     */
+    public CompletableFuture<Map<String, int[]>> drawAll() {
+        final List<CompletableFuture<Map<String, int[]>>> partitionDraws = new ArrayList<>(this.partitions.length);
+        for (final Partition partition : this.partitions) {
+            partitionDraws.add(partition.submit(() -> {
+                final Map<String, int[]> draws = new HashMap<>();
+                for (final Map.Entry<String, SilanisLottery> entry : partition.lotteries.entrySet()) {
+                    draws.put(entry.getKey(), entry.getValue().drawLottery());
+                }
+                return draws;
+            }));
+        }
+        return CompletableFuture.allOf(partitionDraws.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+            final Map<String, int[]> draws = new HashMap<>();
+            for (final CompletableFuture<Map<String, int[]>> partitionDraw : partitionDraws) {
+                draws.putAll(partitionDraw.join());
+            }
+            return draws;
+        });
+    }
+
+    /**
+     * @return the number of lotteries
+     */
+    public CompletableFuture<Integer> size() {
+        CompletableFuture<Integer> size = CompletableFuture.completedFuture(0);
+        for (final Partition partition : this.partitions) {
+            size = size.thenCombine(partition.submit(partition.lotteries::size), Integer::sum);
+        }
+        return size;
+    }
+
+    public int getNbPartitions() {
+        return this.partitions.length;
+    }
+
+    /**
+     * Stop the partition threads once the calls submitted so far are done
+     */
+    @Override
+    public void close() {
+        for (final Partition partition : this.partitions) {
+            partition.executor.shutdown();
+        }
+        try {
+            for (final Partition partition : this.partitions) {
+                partition.executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Used for test purposes
+     *
+     * @param id lottery id
+     * @return the index of the partition of the lottery
+     */
+    int partitionIndexOf(final String id) {
+        // spread the hash bits, ids of a family often share their first characters
+        final int hash = id.hashCode() * 0x9E3779B9;
+        return Math.floorMod(hash ^ (hash >>> 16), this.partitions.length);
+    }
+
+    private Partition partitionOf(final String id) {
+        return this.partitions[this.partitionIndexOf(id)];
+    }
+
+    /**
+     * Call on a lottery, run by its partition thread
+     */
+    @FunctionalInterface
+    public interface LotteryCall<T> {
+        T apply(SilanisLottery lottery) throws Exception;
+    }
+
+    /**
+     * Call on a partition, run by its thread
+     */
+    @FunctionalInterface
+    private interface PartitionCall<T> {
+        T call() throws Exception;
+    }
+
+    /**
+     * Lotteries of a partition and their thread
+     */
+    private static final class Partition {
+
+        private final ExecutorService executor;
+
+        /**
+         * Lotteries indexed by id, only touched by the partition thread
+         */
+        private final Map<String, SilanisLottery> lotteries = new HashMap<>();
+
+        private Partition(final String threadName) {
+            this.executor = Executors.newSingleThreadExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, threadName);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        /**
+         * @throws java.util.concurrent.RejectedExecutionException the registry is closed
+         */
+        private <T> CompletableFuture<T> submit(final PartitionCall<T> call) {
+            final CompletableFuture<T> future = new CompletableFuture<>();
+            this.executor.execute(() -> {
+                try {
+                    future.complete(call.call());
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                }
+            });
+            return future;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.rros.silanislottery;
+
+import com.rros.draw.RandomSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary snapshot of a SilanisLottery
+ * <p>
+ * A snapshot holds the state needed to go on with the lottery, its size depending on the current round only:
+ * <ul>
+ * <li>header: magic number, number of tickets, length of the journal covered by the snapshot;</li>
+ * <li>previous round, if any: pot before its draw, drawn balls and the name of each winner (-1 if none);</li>
+ * <li>current round: pot before its sales, sold tickets and their buyer ids, buyers' names offsets and UTF-8
+ * bytes;</li>
+ * <li>CRC32C of all of the above.</li>
+ * </ul>
+ * The drawable pool is not written as such: it is rebuilt from the sold tickets, the draws being uniform over the
+ * remaining tickets whatever their order in the pool.
+ * <p>
+ * A snapshot is read through a memory mapping: tickets and buyer ids are bulk copied, while buyers' names stay in the
+ * mapping until they are needed (see BuyerDictionary).
+ */
+final class LotterySnapshot {
+
+    /**
+     * First bytes of a snapshot file ("SLS1")
+     */
+    static final int MAGIC = 0x534c5331;
+
+    private static final int NO_WINNER = -1;
+
+    private LotterySnapshot() {
+        // private so this class cannot be instantiated
+    }
+
+    /**
+     * Write a snapshot of a lottery, replacing the previous one atomically
+     *
+     * @param lottery       lottery to snapshot
+     * @param journalLength length of the journal covered by the snapshot
+     * @param path          snapshot file
+     * @throws IOException the snapshot could not be written
+     */
+    static void write(final SilanisLottery lottery, final long journalLength, final Path path) throws IOException {
+        final SingleLottery current = lottery.getCurrentLottery();
+        final SingleLottery previous = lottery.getPreviousLottery();
+
+        // previous round
+        byte[][] winnerNames = null;
+        int previousLength = Integer.BYTES;
+        if (previous != null) {
+            final Winner[] winners = previous.getWinners();
+            winnerNames = new byte[winners.length][];
+            previousLength += 2 * Integer.BYTES + winners.length * 2 * Integer.BYTES;
+            for (int i = 0; i < winners.length; i++) {
+                if (winners[i] != null) {
+                    winnerNames[i] = winners[i].getFirstName().getBytes(StandardCharsets.UTF_8);
+                    previousLength += winnerNames[i].length;
+                }
+            }
+        }
+
+        // current round
+        final TicketLedger ledger = current.getTicketLedger();
+        final int nbSold = ledger.getNbSold();
+        final int[] tickets = new int[nbSold];
+        final int[] buyerIds = new int[nbSold];
+        ledger.exportSales(tickets, buyerIds);
+        final int nbBuyers = ledger.getNbBuyers();
+        final byte[][] buyerNames = new byte[nbBuyers][];
+        int namesLength = 0;
+        for (int i = 0; i < nbBuyers; i++) {
+            buyerNames[i] = ledger.getBuyerNameById(i + 1).getBytes(StandardCharsets.UTF_8);
+            namesLength += buyerNames[i].length;
+        }
+
+        final long length = 2 * Integer.BYTES + Long.BYTES
+                + previousLength
+                + 3 * Integer.BYTES + 2L * nbSold * Integer.BYTES + (nbBuyers + 1L) * Integer.BYTES + namesLength
+                + Integer.BYTES;
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot too large: " + length + " bytes");
+        }
+
+        final Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            buffer.putInt(MAGIC).putInt(current.getNbTickets()).putLong(journalLength);
+
+            if (previous == null) {
+                buffer.putInt(0);
+            } else {
+                final Winner[] winners = previous.getWinners();
+                int potBeforeDraw = previous.getPot();
+                for (final Winner winner : winners) {
+                    potBeforeDraw += winner == null ? 0 : winner.getPrize();
+                }
+                buffer.putInt(1).putInt(potBeforeDraw);
+                final int[] drawResults = previous.getDrawResults();
+                buffer.putInt(drawResults.length);
+                for (int i = 0; i < drawResults.length; i++) {
+                    buffer.putInt(drawResults[i]);
+                    if (winnerNames[i] == null) {
+                        buffer.putInt(NO_WINNER);
+                    } else {
+                        buffer.putInt(winnerNames[i].length).put(winnerNames[i]);
+                    }
+                }
+            }
+
+            buffer.putInt(current.getPot() - SilanisLottery.TICKET_PRICE * nbSold).putInt(nbSold).putInt(nbBuyers);
+            buffer.asIntBuffer().put(tickets).put(buyerIds);
+            buffer.position(buffer.position() + 2 * nbSold * Integer.BYTES);
+            int offset = 0;
+            buffer.putInt(offset);
+            for (final byte[] buyerName : buyerNames) {
+                offset += buyerName.length;
+                buffer.putInt(offset);
+            }
+            for (final byte[] buyerName : buyerNames) {
+                buffer.put(buyerName);
+            }
+
+            final CRC32C crc = new CRC32C();
+            crc.update(buffer.duplicate().flip());
+            buffer.putInt((int) crc.getValue());
+            buffer.force();
+        }
+        Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Read a snapshot
+     * <p>
+     * The previous round is restored at once, the sales of the current round are gathered in the returned round so
+     * that the purchases journaled after the snapshot can be added before restoring them all.
+     *
+     * @param path         snapshot file
+     * @param randomSource source of the generators used by the restored lottery
+     * @return the restored lottery and round
+     * @throws IOException the file could not be read, or is not a valid snapshot
+     */
+    static Restored read(final Path path, final RandomSource randomSource) throws IOException {
+        final MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // the mapping stays valid once the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.limit() < 2 * Integer.BYTES + Long.BYTES + Integer.BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a lottery snapshot");
+        }
+        final CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().limit(buffer.limit() - Integer.BYTES));
+        if ((int) crc.getValue() != buffer.getInt(buffer.limit() - Integer.BYTES)) {
+            throw new IOException("Corrupted lottery snapshot");
+        }
+
+        final int nbTickets = buffer.getInt(Integer.BYTES);
+        final long journalLength = buffer.getLong(2 * Integer.BYTES);
+        buffer.position(2 * Integer.BYTES + Long.BYTES);
+
+        final RestoredRound round = new RestoredRound();
+        final SilanisLottery lottery;
+        if (buffer.getInt() == 0) {
+            lottery = null;
+        } else {
+            // the previous round is restored as its winning purchases followed by its draw
+            final int potBeforeDraw = buffer.getInt();
+            final int[] drawResults = new int[buffer.getInt()];
+            for (int i = 0; i < drawResults.length; i++) {
+                drawResults[i] = buffer.getInt();
+                final int nameLength = buffer.getInt();
+                if (nameLength != NO_WINNER) {
+                    final byte[] name = new byte[nameLength];
+                    buffer.get(name);
+                    round.addPurchase(drawResults[i], new String(name, StandardCharsets.UTF_8));
+                }
+            }
+            final SilanisLottery previous = new SilanisLottery(potBeforeDraw - SilanisLottery.TICKET_PRICE * round.getCount(), nbTickets, randomSource);
+            previous.restorePurchases(round);
+            previous.restoreDraw(drawResults);
+            round.clear();
+            lottery = previous;
+        }
+
+        final int basePot = buffer.getInt();
+        final int nbSold = buffer.getInt();
+        final int nbBuyers = buffer.getInt();
+        final int[] tickets = new int[nbSold];
+        final int[] buyerIds = new int[nbSold];
+        final int[] offsets = new int[nbBuyers + 1];
+        buffer.asIntBuffer().get(tickets).get(buyerIds).get(offsets);
+        buffer.position(buffer.position() + (2 * nbSold + nbBuyers + 1) * Integer.BYTES);
+        final ByteBuffer names = buffer.slice(buffer.position(), offsets[nbBuyers]);
+        round.setSnapshotPurchases(tickets, buyerIds, new BuyerDictionary(names, offsets));
+
+        return new Restored(lottery == null ? new SilanisLottery(basePot, nbTickets, randomSource) : lottery, round, journalLength);
+    }
+
+    /**
+     * Result of a snapshot read
+     */
+    static final class Restored {
+
+        private final SilanisLottery lottery;
+
+        /**
+         * Sales of the current round, not restored in the lottery yet
+         */
+        private final RestoredRound round;
+
+        /**
+         * Length of the journal covered by the snapshot
+         */
+        private final long journalLength;
+
+        private Restored(final SilanisLottery lottery, final RestoredRound round, final long journalLength) {
+            this.lottery = lottery;
+            this.round = round;
+            this.journalLength = journalLength;
+        }
+
+        SilanisLottery getLottery() {
+            return this.lottery;
+        }
+
+        RestoredRound getRound() {
+            return this.round;
+        }
+
+        long getJournalLength() {
+            return this.journalLength;
+        }
+    }
+}
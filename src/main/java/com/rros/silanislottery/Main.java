@@ -1,9 +1,19 @@
 package com.rros.silanislottery;
 
+import com.rros.draw.RandomSource;
 import org.apache.commons.cli.*;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.Console;
-import java.util.Arrays;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
 /**
  * Entry point for running the application
@@ -12,6 +22,37 @@ public class Main {
 
     public static final String POT_CLI_OPTION = "pot";
     public static final String HELP_CLI_OPTION = "help";
+    public static final String JOURNAL_CLI_OPTION = "journal";
+    public static final String FSYNC_BATCH_CLI_OPTION = "fsyncbatch";
+    public static final String SNAPSHOT_INTERVAL_CLI_OPTION = "snapshotinterval";
+    public static final String SIMULATE_CLI_OPTION = "simulate";
+    public static final String ROUNDS_CLI_OPTION = "rounds";
+    public static final String SALES_RATE_CLI_OPTION = "salesrate";
+    public static final String SEED_CLI_OPTION = "seed";
+    public static final String SCRIPT_CLI_OPTION = "script";
+    public static final String HTTP_CLI_OPTION = "http";
+    public static final String HTTP_THREADS_CLI_OPTION = "httpthreads";
+    public static final String BINARY_CLI_OPTION = "binary";
+    /**
+     * Script file name standing for the standard input
+     */
+    private static final String STANDARD_INPUT_SCRIPT = "-";
+    /**
+     * Size of the buffers of the batch mode
+     */
+    private static final int BATCH_BUFFER_SIZE = 1 << 16;
+    /**
+     * Default number of journaled events between two snapshots
+     */
+    private static final int DEFAULT_SNAPSHOT_INTERVAL = 10_000;
+    /**
+     * Default number of rounds of each simulated trajectory
+     */
+    private static final int DEFAULT_SIMULATED_ROUNDS = 12;
+    /**
+     * Default probability for each ticket to be sold in a simulated round
+     */
+    private static final double DEFAULT_SALES_RATE = 0.5;
     /**
      * System console
      * <p>
@@ -26,7 +67,19 @@ public class Main {
     /**
      * Silanis Lottery
      */
-    private static SilanisLottery LOTTERY;
+    private static Lottery LOTTERY;
+    /**
+     * Output of the commands: the console, or a buffered standard output in batch mode
+     */
+    private static PrintWriter OUT;
+    /**
+     * Interpreter of the input lines
+     */
+    private static CommandDispatcher DISPATCHER;
+    /**
+     * Answer of the current line, reused from one line to the next
+     */
+    private static final StringBuilder ANSWER = new StringBuilder();
     private static CommandLineParser parser = new DefaultParser();
     private static HelpFormatter helpFormatter = new HelpFormatter();
 
@@ -34,6 +87,17 @@ public class Main {
         CLI_OPTIONS = new Options();
         Main.CLI_OPTIONS.addOption(Main.HELP_CLI_OPTION, false, "display this help");
         Main.CLI_OPTIONS.addOption(Main.POT_CLI_OPTION, true, "initial pot value (default: " + SilanisLottery.INITIAL_POT + ")");
+        Main.CLI_OPTIONS.addOption(Main.JOURNAL_CLI_OPTION, true, "journal file: the lottery is restored from it if it exists, and every purchase and draw is written to it");
+        Main.CLI_OPTIONS.addOption(Main.FSYNC_BATCH_CLI_OPTION, true, "number of journaled events per fsync (default: 1)");
+        Main.CLI_OPTIONS.addOption(Main.SNAPSHOT_INTERVAL_CLI_OPTION, true, "number of journaled events between two snapshots, 0 for none (default: " + DEFAULT_SNAPSHOT_INTERVAL + ")");
+        Main.CLI_OPTIONS.addOption(Main.SIMULATE_CLI_OPTION, true, "simulate the given number of lottery trajectories and print the statistics of their final pot, instead of opening the prompt");
+        Main.CLI_OPTIONS.addOption(Main.ROUNDS_CLI_OPTION, true, "number of rounds of each simulated trajectory (default: " + DEFAULT_SIMULATED_ROUNDS + ")");
+        Main.CLI_OPTIONS.addOption(Main.SALES_RATE_CLI_OPTION, true, "probability for each ticket to be sold in a simulated round (default: " + DEFAULT_SALES_RATE + ")");
+        Main.CLI_OPTIONS.addOption(Main.SEED_CLI_OPTION, true, "seed of the simulation (default: random)");
+        Main.CLI_OPTIONS.addOption(Main.HTTP_CLI_OPTION, true, "serve a thread-safe lottery over HTTP on the given port instead of opening the prompt");
+        Main.CLI_OPTIONS.addOption(Main.HTTP_THREADS_CLI_OPTION, true, "number of threads handling the HTTP requests (default: number of processors)");
+        Main.CLI_OPTIONS.addOption(Main.BINARY_CLI_OPTION, true, "serve the lottery over the binary protocol on the given port instead of opening the prompt");
+        Main.CLI_OPTIONS.addOption(Main.SCRIPT_CLI_OPTION, true, "run the commands of the given file (\"" + STANDARD_INPUT_SCRIPT + "\" for the standard input) without prompt, then exit (default when no console is available)");
     }
 
     private Main() {
@@ -41,30 +105,69 @@ public class Main {
     }
 
     public static void main(final String[] args) {
-        if (SYSTEM_CONSOLE == null) {
-            System.err.println("No console available.");
-            System.exit(1);
-        }
-
         final CommandLine line;
         try {
             line = parser.parse(CLI_OPTIONS, args, false);
             if (line.hasOption(HELP_CLI_OPTION)) {
                 commandLineHelp();
                 System.exit(0);
-            } else if (line.hasOption(POT_CLI_OPTION)) {
+            }
+
+            int initialPot = SilanisLottery.INITIAL_POT;
+            if (line.hasOption(POT_CLI_OPTION)) {
                 try {
-                    int initialPot = Integer.valueOf(line.getOptionValue(POT_CLI_OPTION));
-                    LOTTERY = new SilanisLottery(initialPot);
+                    initialPot = Integer.valueOf(line.getOptionValue(POT_CLI_OPTION));
                 } catch (NumberFormatException e) {
                     System.err.println("Unexpected " + POT_CLI_OPTION + " option value: expects an integer");
                     System.exit(1);
                 }
+            }
+
+            if (line.hasOption(SIMULATE_CLI_OPTION)) {
+                simulate(line, initialPot);
+                System.exit(0);
+            }
+
+            if (line.hasOption(HTTP_CLI_OPTION)) {
+                serveHttp(line, initialPot);
+                return;
+            }
+
+            if (line.hasOption(JOURNAL_CLI_OPTION)) {
+                int fsyncBatch = 1;
+                int snapshotInterval = DEFAULT_SNAPSHOT_INTERVAL;
+                try {
+                    if (line.hasOption(FSYNC_BATCH_CLI_OPTION)) {
+                        fsyncBatch = Integer.valueOf(line.getOptionValue(FSYNC_BATCH_CLI_OPTION));
+                    }
+                    if (line.hasOption(SNAPSHOT_INTERVAL_CLI_OPTION)) {
+                        snapshotInterval = Integer.valueOf(line.getOptionValue(SNAPSHOT_INTERVAL_CLI_OPTION));
+                    }
+                } catch (NumberFormatException e) {
+                    System.err.println("Unexpected " + FSYNC_BATCH_CLI_OPTION + " or " + SNAPSHOT_INTERVAL_CLI_OPTION + " option value: expects an integer");
+                    System.exit(1);
+                }
+                try {
+                    LOTTERY = JournaledLottery.open(Paths.get(line.getOptionValue(JOURNAL_CLI_OPTION)), initialPot,
+                            SilanisLottery.MAX_BALL, RandomSource.LEGACY, fsyncBatch, snapshotInterval);
+                } catch (IOException | IllegalArgumentException e) {
+                    System.err.println("Cannot open the journal: " + e.getMessage());
+                    System.exit(1);
+                }
             } else {
-                LOTTERY = new SilanisLottery();
+                LOTTERY = new SilanisLottery(initialPot);
             }
+            if (line.hasOption(BINARY_CLI_OPTION)) {
+                serveBinary(line);
+                return;
+            }
+            DISPATCHER = new CommandDispatcher(LOTTERY);
 
+            if (line.hasOption(SCRIPT_CLI_OPTION) || SYSTEM_CONSOLE == null) {
+                runBatch(line.getOptionValue(SCRIPT_CLI_OPTION, STANDARD_INPUT_SCRIPT));
+            }
 
+            OUT = SYSTEM_CONSOLE.writer();
             splash();
 
             // Ignored warning: infinite loop statement is desired.
@@ -84,106 +187,172 @@ public class Main {
     }
 
     /**
-     * Handles input command
+     * Run the commands of a script, without prompt nor splash, then exit
+     * <p>
+     * Commands are read through a buffered reader and their output goes to a single buffered writer, flushed whenever
+     * the input has no more buffered lines (so that a piped session still gets its answers) and on exit.
      *
-     * @param inputCommand input command
+     * @param script script file, or STANDARD_INPUT_SCRIPT
      */
-    private static void interpretCommand(final String inputCommand) {
-        if (inputCommand == null) {
-            // handles Ctrl-D input
-            exit();
-        }
-
-        // Ignored IDE warning: if inputCommand is null, the application should have exited above
-        //noinspection ConstantConditions
-        switch (inputCommand) {
-            // list commands here
-            // nice-to-have commands as enum
-            case "help":
-                getHelp();
-                break;
-            case "draw":
-                draw();
-                break;
-            case "winners":
-                winners();
-                break;
-            case "exit":
-                exit();
-                break;
-            default:
-                if (inputCommand.matches("purchase.*")) {
-                    // buyerName obtained from removing the prefix to input command
-                    final String buyerName = inputCommand.replaceFirst("purchase\\s*", "");
-                    purchase(buyerName);
-                } else if (!inputCommand.isEmpty()) {
-                    SYSTEM_CONSOLE.format("Unknown command: \"%s\"%n", inputCommand);
+    private static void runBatch(final String script) {
+        OUT = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), BATCH_BUFFER_SIZE), false);
+        try (BufferedReader reader = STANDARD_INPUT_SCRIPT.equals(script)
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), BATCH_BUFFER_SIZE)
+                : Files.newBufferedReader(Paths.get(script), StandardCharsets.UTF_8)) {
+            String inputCommand;
+            while ((inputCommand = reader.readLine()) != null) {
+                interpretCommand(inputCommand);
+                if (!reader.ready()) {
+                    OUT.flush();
                 }
-                // else inputCommand is empty: display a new prompt
-                break;
+            }
+        } catch (IOException e) {
+            OUT.flush();
+            System.err.println("Cannot read the script: " + e.getMessage());
+            System.exit(1);
         }
-
+        // end of the script
+        interpretCommand(null);
     }
 
     /**
-     * Handle purchase command
+     * Serve a ConcurrentSilanisLottery over HTTP until the process is stopped
      *
-     * @param buyerName input buyer name
+     * @param line       parsed command line
+     * @param initialPot initial pot of the lottery
      */
-    private static void purchase(final String buyerName) {
+    private static void serveHttp(final CommandLine line, final int initialPot) {
+        if (line.hasOption(JOURNAL_CLI_OPTION)) {
+            // JournaledLottery is not thread-safe
+            System.err.println("The " + JOURNAL_CLI_OPTION + " option is not supported with " + HTTP_CLI_OPTION);
+            System.exit(1);
+        }
+        final int port;
+        final int nbThreads;
         try {
-            SYSTEM_CONSOLE.format("Ticket %d was purchased by %s.%n", LOTTERY.purchaseTicket(buyerName), buyerName);
-        } catch (NoAvailableTicketException | InvalidBuyerNameException e) {
-            SYSTEM_CONSOLE.format("%s%n", e.getMessage());
+            port = Integer.parseInt(line.getOptionValue(HTTP_CLI_OPTION));
+            nbThreads = line.hasOption(HTTP_THREADS_CLI_OPTION) ? Integer.parseInt(line.getOptionValue(HTTP_THREADS_CLI_OPTION)) : Runtime.getRuntime().availableProcessors();
+        } catch (NumberFormatException e) {
+            System.err.println("Unexpected " + HTTP_CLI_OPTION + " or " + HTTP_THREADS_CLI_OPTION + " option value: expects an integer");
+            System.exit(1);
+            return;
+        }
+        // no server was created before this one: an explicit -D setting is kept
+        if (System.getProperty(LotteryHttpServer.NODELAY_PROPERTY) == null) {
+            System.setProperty(LotteryHttpServer.NODELAY_PROPERTY, "true");
+        }
+        try {
+            final LotteryHttpServer server = LotteryHttpServer.start(new ConcurrentSilanisLottery(initialPot), new InetSocketAddress(port), nbThreads);
+            Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+            System.out.println("Silanis Lottery listening on port " + server.getAddress().getPort());
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Cannot start the HTTP server: " + e.getMessage());
+            System.exit(1);
         }
     }
 
     /**
-     * Handle exit command
+     * Serve the lottery over the binary protocol until the process is stopped
+     *
+     * @param line parsed command line
      */
-    private static void exit() {
-        // TODO if lottery is ongoing: are you sure?
-        SYSTEM_CONSOLE.format("Closing the application, the current pot is: %d$%n", LOTTERY.getPot());
-        System.exit(0);
+    private static void serveBinary(final CommandLine line) {
+        final int port;
+        try {
+            port = Integer.parseInt(line.getOptionValue(BINARY_CLI_OPTION));
+        } catch (NumberFormatException e) {
+            System.err.println("Unexpected " + BINARY_CLI_OPTION + " option value: expects an integer");
+            System.exit(1);
+            return;
+        }
+        try {
+            // the lottery is only called by the selector thread, so a journaled lottery can be served as well
+            final LotteryNioServer server = LotteryNioServer.start(LOTTERY, new InetSocketAddress(port));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.close();
+                if (LOTTERY instanceof JournaledLottery) {
+                    try {
+                        ((JournaledLottery) LOTTERY).close();
+                    } catch (IOException e) {
+                        System.err.println("Cannot close the journal: " + e.getMessage());
+                    }
+                }
+            }));
+            System.out.println("Silanis Lottery listening on port " + server.getAddress().getPort());
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Cannot start the server: " + e.getMessage());
+            System.exit(1);
+        }
     }
 
     /**
-     * Handle winners command
+     * Run a Monte Carlo simulation of the pot and print its statistics
+     *
+     * @param line       parsed command line
+     * @param initialPot initial pot of each trajectory
      */
-    private static void winners() {
+    private static void simulate(final CommandLine line, final int initialPot) {
+        final long nbTrajectories;
+        final int nbRounds;
+        final double salesRate;
+        final long seed;
+        try {
+            nbTrajectories = Long.parseLong(line.getOptionValue(SIMULATE_CLI_OPTION));
+            nbRounds = line.hasOption(ROUNDS_CLI_OPTION) ? Integer.parseInt(line.getOptionValue(ROUNDS_CLI_OPTION)) : DEFAULT_SIMULATED_ROUNDS;
+            salesRate = line.hasOption(SALES_RATE_CLI_OPTION) ? Double.parseDouble(line.getOptionValue(SALES_RATE_CLI_OPTION)) : DEFAULT_SALES_RATE;
+            seed = line.hasOption(SEED_CLI_OPTION) ? Long.parseLong(line.getOptionValue(SEED_CLI_OPTION)) : System.nanoTime();
+        } catch (NumberFormatException e) {
+            System.err.println("Unexpected simulation option value: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
         try {
-            SYSTEM_CONSOLE.format("%s%n", LOTTERY.generateWinnersMessage());
-        } catch (NoPreviousDrawException e) {
-            SYSTEM_CONSOLE.format("%s%n", e.getMessage());
+            final PotSimulation simulation = new PotSimulation(initialPot, SilanisLottery.MAX_BALL, nbRounds, salesRate, PotSimulation.Engine.MODEL);
+            System.out.println(simulation.run(nbTrajectories, seed));
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
         }
     }
 
     /**
-     * Handle draw command
+     * Handle an input line: run its command, write its answer, exit if it asks to
+     *
+     * @param inputCommand input line, null at the end of the input (e.g. Ctrl-D)
      */
-    private static void draw() {
-        SYSTEM_CONSOLE.format("Lottery draw: %s%n", Arrays.toString(LOTTERY.drawLottery()));
-        SYSTEM_CONSOLE.format("The prizes of the winners (if there are any) are now subtracted from the pot.%n", Arrays.toString(LOTTERY.drawLottery()));
+    private static void interpretCommand(final String inputCommand) {
+        final boolean goOn = DISPATCHER.dispatch(inputCommand, ANSWER);
+        OUT.append(ANSWER);
+        ANSWER.setLength(0);
+        if (!goOn) {
+            exit();
+        }
     }
 
     /**
-     * Display splash
+     * Close the lottery and exit, once the exit command has been answered
      */
-    private static void splash() {
-        SYSTEM_CONSOLE.format("Welcome to the Silanis Lottery!%nThe current pot is: %d$%n", LOTTERY.getPot());
-        getHelp();
+    private static void exit() {
+        // TODO if lottery is ongoing: are you sure?
+        OUT.flush();
+        if (LOTTERY instanceof JournaledLottery) {
+            try {
+                ((JournaledLottery) LOTTERY).close();
+            } catch (IOException e) {
+                System.err.println("Cannot close the journal: " + e.getMessage());
+                System.exit(1);
+            }
+        }
+        System.exit(0);
     }
 
     /**
-     * Handle help command
+     * Display splash
      */
-    private static void getHelp() {
-
-        SYSTEM_CONSOLE.format("Type one of the following commands in the prompt to execute it:%n");
-        SYSTEM_CONSOLE.format("help\tGet this help message%n");
-        SYSTEM_CONSOLE.format("purchase %%buyer's first name%%\tPurchase a ticket (%d$)%n", SilanisLottery.TICKET_PRICE);
-        SYSTEM_CONSOLE.format("draw\tDraw lottery%n");
-        SYSTEM_CONSOLE.format("winners\tDisplay winners%n");
-        SYSTEM_CONSOLE.format("exit\tExit this application%n");
+    private static void splash() {
+        OUT.format("Welcome to the Silanis Lottery!%nThe current pot is: %d$%n", LOTTERY.getPot());
+        DISPATCHER.appendHelp(ANSWER);
+        OUT.append(ANSWER);
+        ANSWER.setLength(0);
     }
 }
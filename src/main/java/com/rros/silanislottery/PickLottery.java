@@ -0,0 +1,209 @@
+package com.rros.silanislottery;
+
+import com.rros.draw.FloydSampler;
+import com.rros.draw.RandomSource;
+
+import java.util.Arrays;
+import java.util.StringJoiner;
+import java.util.random.RandomGenerator;
+
+/**
+ * Pick-k game: each buyer chooses nbPicks numbers between 1 and maxNumber, then nbPicks balls are drawn
+ * <p>
+ * The winners are the tickets matching all the balls but a few, grouped into min(NB_WINNERS, nbPicks) tiers (see
+ * PrizeTiers). Tickets cost TICKET_PRICE; once drawn, the next round starts with the remaining pot and a new store of
+ * tickets, the tickets of the drawn round being kept until the next draw to name its winners (the two stores are
+ * swapped at each draw, as SilanisLottery does with its lotteries).
+ */
+public class PickLottery {
+
+    /**
+     * How winners are found at draw time
+     */
+    public enum Resolution {
+        /**
+         * Score every ticket against the draw (see PickMatchEngine): nothing to maintain on sales, O(tickets) per draw
+         */
+        SCAN,
+        /**
+         * Intersect the posting lists of the drawn balls (see PickTicketIndex): each sale updates nbPicks lists, the
+         * draw only reads the lists of the drawn balls
+         */
+        INVERTED_INDEX
+    }
+
+    /**
+     * Tickets of the current round
+     */
+    private PickTicketStore store;
+
+    /**
+     * Tickets of the latest draw, empty if there was none
+     */
+    private PickTicketStore drawnStore;
+
+    private final FloydSampler ballSampler;
+
+    /**
+     * Engine scoring the tickets, null unless resolution is SCAN
+     */
+    private final PickMatchEngine matchEngine;
+
+    /**
+     * Index of the tickets, null unless resolution is INVERTED_INDEX
+     */
+    private final PickTicketIndex index;
+
+    private final int nbTiers;
+
+    private int pot;
+
+    /**
+     * Balls of the latest draw, null if there was none
+     */
+    private int[] drawResults;
+
+    /**
+     * Tiers of the latest draw, null if there was none
+     */
+    private PrizeTiers prizeTiers;
+
+    /**
+     * Pick-k game out of MAX_BALL numbers, resolved through an inverted index
+     *
+     * @param pot     initial pot
+     * @param nbPicks number of numbers of each ticket, between 1 and MAX_BALL
+     */
+    public PickLottery(final int pot, final int nbPicks) {
+        this(pot, nbPicks, SilanisLottery.MAX_BALL, RandomSource.LEGACY.create(), Resolution.INVERTED_INDEX);
+    }
+
+    /**
+     * @param pot        initial pot
+     * @param nbPicks    number of numbers of each ticket, at least 1
+     * @param maxNumber  largest number, between nbPicks and PickTicketStore.MAX_NUMBER
+     * @param random     generator used to draw the balls
+     * @param resolution how winners are found at draw time
+     */
+    public PickLottery(final int pot, final int nbPicks, final int maxNumber, final RandomGenerator random, final Resolution resolution) {
+        this.store = new PickTicketStore(nbPicks, maxNumber);
+        this.drawnStore = new PickTicketStore(nbPicks, maxNumber);
+        this.ballSampler = new FloydSampler(random);
+        this.matchEngine = resolution == Resolution.SCAN ? new PickMatchEngine() : null;
+        this.index = resolution == Resolution.INVERTED_INDEX ? new PickTicketIndex(nbPicks, maxNumber) : null;
+        this.nbTiers = Math.min(SilanisLottery.NB_WINNERS, nbPicks);
+        this.pot = pot;
+    }
+
+    /**
+     * Purchase a ticket for the current draw
+     *
+     * @param buyerName ticket buyer's first name
+     * @param numbers   the numbers chosen by the buyer
+     * @return the ticket number
+     * @throws InvalidBuyerNameException if buyerName is null or blank
+     */
+    public int purchaseTicket(final String buyerName, final int... numbers) throws InvalidBuyerNameException {
+        final int ticket = this.store.purchase(buyerName, numbers);
+        if (this.index != null) {
+            this.index.add(ticket, this.store.getCombination(ticket));
+        }
+        this.pot += SilanisLottery.TICKET_PRICE;
+        return ticket;
+    }
+
+    /**
+     * Draw the current round, pay its winners and start the next one
+     *
+     * @return the values of the drawn balls, in draw order
+     */
+    public int[] drawLottery() {
+        final int[] balls = new int[this.store.getNbPicks()];
+        this.ballSampler.sample(this.store.getMaxNumber(), balls.length, balls, 0);
+
+        final PrizeTiers tiers;
+        if (this.index != null) {
+            tiers = this.index.match(balls, this.nbTiers);
+            this.index.clear();
+        } else {
+            tiers = this.matchEngine.match(this.store, this.store.toCombination(balls), this.nbTiers);
+        }
+        this.pot -= tiers.award(this.pot);
+
+        // the drawn tickets are kept to name the winners, the store of the draw before is reused for the next round
+        final PickTicketStore drawnStore = this.store;
+        this.store = this.drawnStore;
+        this.store.clear();
+        this.drawnStore = drawnStore;
+
+        this.drawResults = balls;
+        this.prizeTiers = tiers;
+        return balls.clone();
+    }
+
+    /**
+     * @return the winners of the latest draw
+     * @throws NoPreviousDrawException if there was no draw yet
+     */
+    public PrizeTiers getPrizeTiers() throws NoPreviousDrawException {
+        if (this.prizeTiers == null) {
+            throw new NoPreviousDrawException();
+        }
+        return this.prizeTiers;
+    }
+
+    /**
+     * @param tier tier, 0 for the tickets matching every drawn number
+     * @return the buyers' names of the winning tickets of the tier of the latest draw, in ticket order
+     * @throws NoPreviousDrawException if there was no draw yet
+     */
+    public String[] getWinnerNames(final int tier) throws NoPreviousDrawException {
+        final int[] tickets = this.getPrizeTiers().getWinningTickets(tier);
+        final String[] names = new String[tickets.length];
+        for (int i = 0; i < tickets.length; i++) {
+            names[i] = this.drawnStore.getBuyerName(tickets[i]);
+        }
+        return names;
+    }
+
+    /**
+     * Produce the string displaying the tiers of the latest draw
+     *
+     * @return e.g. "Balls: 3 17 42 - 3 matches: 1 winner(s), 112$ each (Dave) - 2 matches: none"
+     * @throws NoPreviousDrawException if there was no draw yet
+     */
+    public String generateWinnersMessage() throws NoPreviousDrawException {
+        final PrizeTiers tiers = this.getPrizeTiers();
+        final int[] sortedBalls = this.drawResults.clone();
+        Arrays.sort(sortedBalls);
+        final StringJoiner balls = new StringJoiner(" ", "Balls: ", "");
+        for (final int ball : sortedBalls) {
+            balls.add(Integer.toString(ball));
+        }
+
+        final StringJoiner message = new StringJoiner(" - ");
+        message.add(balls.toString());
+        for (int tier = 0; tier < tiers.getNbTiers(); tier++) {
+            final String matches = (sortedBalls.length - tier) + " matches: ";
+            message.add(tiers.getNbWinners(tier) == 0
+                    ? matches + "none"
+                    : matches + tiers.getNbWinners(tier) + " winner(s), " + tiers.getPrize(tier) + "$ each ("
+                    + String.join(", ", this.getWinnerNames(tier)) + ")");
+        }
+        return message.toString();
+    }
+
+    /**
+     * @return the tickets of the current round
+     */
+    public PickTicketStore getStore() {
+        return this.store;
+    }
+
+    /**
+     * @return the current pot value
+     */
+    public int getPot() {
+        return this.pot;
+    }
+}
@@ -0,0 +1,150 @@
+package com.rros.silanislottery;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Scores every ticket of a PickTicketStore against a draw
+ * <p>
+ * The drawn numbers are packed in a mask like the combinations: the number of matches of a ticket is
+ * Long.bitCount(combination &amp; drawnMask), a single POPCNT instruction on x86-64 and ARMv8, with no branch but the
+ * tier test. The tickets are split in ranges scored in parallel on a fork/join pool, each range collecting its own
+ * winners; ranges are merged in order, so the winning tickets of each tier come out sorted whatever the parallelism.
+ */
+public class PickMatchEngine {
+
+    /**
+     * Number of tickets under which a task scores them sequentially instead of splitting
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 16;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Engine scoring on the common fork/join pool
+     */
+    public PickMatchEngine() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool pool scoring the tickets
+     */
+    public PickMatchEngine(final ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Group the winning tickets of a store into tiers
+     *
+     * @param store     tickets, not modified while scoring
+     * @param drawnMask drawn numbers, packed like the combinations of the store
+     * @param nbTiers   number of tiers, between 1 and the number of picks of the store
+     * @return the winners of each tier, without prize
+     */
+    public PrizeTiers match(final PickTicketStore store, final long drawnMask, final int nbTiers) {
+        if (nbTiers < 1 || nbTiers > store.getNbPicks()) {
+            throw new IllegalArgumentException("Expected between 1 and " + store.getNbPicks() + " tiers, got " + nbTiers);
+        }
+        final MatchTask task = new MatchTask(store.getCombinations(), store.getNbPicks(), drawnMask, nbTiers, 0, store.getSize());
+        return new PrizeTiers(this.pool.invoke(task).toArrays());
+    }
+
+    /**
+     * Winning tickets of a range, one growable array per tier
+     */
+    private static final class Winners {
+
+        private final int[][] tickets;
+        private final int[] sizes;
+
+        private Winners(final int nbTiers) {
+            this.tickets = new int[nbTiers][];
+            this.sizes = new int[nbTiers];
+            Arrays.fill(this.tickets, new int[0]);
+        }
+
+        private void add(final int tier, final int ticket) {
+            final int size = this.sizes[tier];
+            if (size == this.tickets[tier].length) {
+                this.tickets[tier] = Arrays.copyOf(this.tickets[tier], Math.max(16, size << 1));
+            }
+            this.tickets[tier][size] = ticket;
+            this.sizes[tier] = size + 1;
+        }
+
+        /**
+         * Append the winners of the following range
+         */
+        private Winners merge(final Winners next) {
+            for (int tier = 0; tier < this.tickets.length; tier++) {
+                final int size = this.sizes[tier];
+                final int nextSize = next.sizes[tier];
+                if (size + nextSize > this.tickets[tier].length) {
+                    this.tickets[tier] = Arrays.copyOf(this.tickets[tier], size + nextSize);
+                }
+                System.arraycopy(next.tickets[tier], 0, this.tickets[tier], size, nextSize);
+                this.sizes[tier] = size + nextSize;
+            }
+            return this;
+        }
+
+        private int[][] toArrays() {
+            final int[][] arrays = new int[this.tickets.length][];
+            for (int tier = 0; tier < arrays.length; tier++) {
+                arrays[tier] = Arrays.copyOf(this.tickets[tier], this.sizes[tier]);
+            }
+            return arrays;
+        }
+    }
+
+    /**
+     * Tickets of a range, split in two halves while it is large enough
+     */
+    private static final class MatchTask extends RecursiveTask<Winners> {
+
+        private final long[] combinations;
+        private final int nbPicks;
+        private final long drawnMask;
+        private final int nbTiers;
+        private final int from;
+        private final int to;
+
+        /**
+         * @param from first ticket index (included)
+         * @param to   last ticket index (excluded)
+         */
+        MatchTask(final long[] combinations, final int nbPicks, final long drawnMask, final int nbTiers, final int from, final int to) {
+            this.combinations = combinations;
+            this.nbPicks = nbPicks;
+            this.drawnMask = drawnMask;
+            this.nbTiers = nbTiers;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Winners compute() {
+            if (this.to - this.from <= SEQUENTIAL_THRESHOLD) {
+                final Winners winners = new Winners(this.nbTiers);
+                final long[] combinations = this.combinations;
+                final long drawnMask = this.drawnMask;
+                for (int i = this.from; i < this.to; i++) {
+                    final int misses = this.nbPicks - Long.bitCount(combinations[i] & drawnMask);
+                    if (misses < this.nbTiers) {
+                        winners.add(misses, i + 1);
+                    }
+                }
+                return winners;
+            }
+
+            final int middle = (this.from + this.to) >>> 1;
+            final MatchTask left = new MatchTask(this.combinations, this.nbPicks, this.drawnMask, this.nbTiers, this.from, middle);
+            final MatchTask right = new MatchTask(this.combinations, this.nbPicks, this.drawnMask, this.nbTiers, middle, this.to);
+            right.fork();
+            final Winners winners = left.compute();
+            return winners.merge(right.join());
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.rros.silanislottery;
+
+import java.util.Arrays;
+
+/**
+ * Inverted index of the tickets of a pick-k game: for each number, the posting list of the tickets holding it
+ * <p>
+ * The index is updated on each sale, tickets being numbered in sale order so that the lists are only appended to.
+ * Winners are resolved at draw time from the lists of the drawn balls only: the tickets missing exactly the balls of
+ * a set S are the intersection of the lists of the other balls, minus the lists of S. These sets are disjoint, so a
+ * tier is the union of the results of its C(nbPicks, tier) sets. Intersections start from the shortest list and stop
+ * as soon as they are empty, so the cost follows the sizes of the drawn lists and of the matches, not the number of
+ * tickets sold.
+ * <p>
+ * Each ticket takes room in nbPicks lists: ~2 bytes per number in sparse lists, 1 bit per ticket id in dense ones
+ * (see PostingList).
+ */
+public class PickTicketIndex {
+
+    private final int nbPicks;
+
+    /**
+     * Posting lists indexed by number - 1
+     */
+    private final PostingList[] postings;
+
+    /**
+     * @param nbPicks   number of numbers of each ticket
+     * @param maxNumber largest number, at most PickTicketStore.MAX_NUMBER
+     */
+    public PickTicketIndex(final int nbPicks, final int maxNumber) {
+        if (nbPicks < 1 || nbPicks > maxNumber || maxNumber > PickTicketStore.MAX_NUMBER) {
+            throw new IllegalArgumentException("Expected 1 <= nbPicks <= maxNumber <= " + PickTicketStore.MAX_NUMBER + ", got " + nbPicks + " and " + maxNumber);
+        }
+        this.nbPicks = nbPicks;
+        this.postings = new PostingList[maxNumber];
+        for (int i = 0; i < maxNumber; i++) {
+            this.postings[i] = new PostingList();
+        }
+    }
+
+    /**
+     * Index a ticket, numbered after every ticket indexed before
+     *
+     * @param ticket      ticket number
+     * @param combination numbers of the ticket, see PickTicketStore.toCombination()
+     */
+    public void add(final int ticket, final long combination) {
+        if (Long.bitCount(combination) != this.nbPicks || Long.numberOfLeadingZeros(combination) < Long.SIZE - this.postings.length) {
+            throw new IllegalArgumentException("Invalid combination: " + Arrays.toString(PickTicketStore.toNumbers(combination)));
+        }
+        long remaining = combination;
+        while (remaining != 0) {
+            this.postings[Long.numberOfTrailingZeros(remaining)].add(ticket);
+            remaining &= remaining - 1;
+        }
+    }
+
+    /**
+     * Group the winning tickets into tiers
+     *
+     * @param balls   the nbPicks distinct drawn balls
+     * @param nbTiers number of tiers, between 1 and nbPicks
+     * @return the winners of each tier, without prize
+     */
+    public PrizeTiers match(final int[] balls, final int nbTiers) {
+        if (balls.length != this.nbPicks) {
+            throw new IllegalArgumentException("Expected " + this.nbPicks + " balls");
+        }
+        if (nbTiers < 1 || nbTiers > this.nbPicks) {
+            throw new IllegalArgumentException("Expected between 1 and " + this.nbPicks + " tiers, got " + nbTiers);
+        }
+
+        // drawn lists, shortest first so that intersections shrink as fast as possible
+        final PostingList[] drawn = new PostingList[balls.length];
+        for (int i = 0; i < balls.length; i++) {
+            drawn[i] = this.postings[balls[i] - 1];
+        }
+        Arrays.sort(drawn, (a, b) -> Integer.compare(a.getCardinality(), b.getCardinality()));
+
+        final int[][] winningTickets = new int[nbTiers][];
+        for (int tier = 0; tier < nbTiers; tier++) {
+            final TierCollector collector = new TierCollector();
+            this.collectMisses(drawn, new boolean[drawn.length], 0, tier, collector);
+            winningTickets[tier] = collector.toSortedArray();
+        }
+        return new PrizeTiers(winningTickets);
+    }
+
+    /**
+     * Remove every ticket
+     */
+    public void clear() {
+        for (final PostingList posting : this.postings) {
+            posting.clear();
+        }
+    }
+
+    /**
+     * Collect the tickets missing exactly nbMisses more balls among drawn[from..], the balls flagged in missed
+     * being missed too
+     */
+    private void collectMisses(final PostingList[] drawn, final boolean[] missed, final int from, final int nbMisses, final TierCollector collector) {
+        if (nbMisses == 0) {
+            collector.add(PickTicketIndex.missingExactly(drawn, missed));
+            return;
+        }
+        for (int i = from; i <= drawn.length - nbMisses; i++) {
+            missed[i] = true;
+            this.collectMisses(drawn, missed, i + 1, nbMisses - 1, collector);
+            missed[i] = false;
+        }
+    }
+
+    /**
+     * @return the tickets holding every drawn ball but the missed ones
+     */
+    private static PostingList missingExactly(final PostingList[] drawn, final boolean[] missed) {
+        PostingList result = null;
+        for (int i = 0; i < drawn.length; i++) {
+            if (!missed[i]) {
+                result = result == null ? drawn[i] : PostingList.and(result, drawn[i]);
+                if (result.getCardinality() == 0) {
+                    return result;
+                }
+            }
+        }
+        for (int i = 0; i < drawn.length; i++) {
+            if (missed[i]) {
+                result = PostingList.andNot(result, drawn[i]);
+                if (result.getCardinality() == 0) {
+                    return result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Winning tickets of a tier, gathered from disjoint posting lists
+     */
+    private static final class TierCollector {
+
+        private int[] tickets = new int[0];
+        private int size;
+
+        private void add(final PostingList list) {
+            if (list.getCardinality() == 0) {
+                return;
+            }
+            final int[] listTickets = list.toArray();
+            if (this.size + listTickets.length > this.tickets.length) {
+                this.tickets = Arrays.copyOf(this.tickets, Math.max(this.size + listTickets.length, this.tickets.length << 1));
+            }
+            System.arraycopy(listTickets, 0, this.tickets, this.size, listTickets.length);
+            this.size += listTickets.length;
+        }
+
+        private int[] toSortedArray() {
+            final int[] sorted = Arrays.copyOf(this.tickets, this.size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
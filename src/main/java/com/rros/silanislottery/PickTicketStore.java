@@ -0,0 +1,188 @@
+package com.rros.silanislottery;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tickets of a pick-k game: each ticket holds nbPicks distinct numbers chosen between 1 and maxNumber
+ * <p>
+ * A combination is packed in a long, number n being bit n - 1, so maxNumber is at most 64. Combinations and buyer ids
+ * are kept in two parallel primitive arrays indexed by ticket number - 1: a ticket costs 12 bytes, and scoring all of
+ * them against a draw is a scan of a long[] (see PickMatchEngine). Buyers' names are stored once per buyer in a
+ * dictionary, as in TicketLedger.
+ */
+public class PickTicketStore {
+
+    /**
+     * Largest number a combination can hold
+     */
+    public static final int MAX_NUMBER = Long.SIZE;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final int nbPicks;
+    private final int maxNumber;
+
+    /**
+     * Combinations indexed by ticket number - 1
+     */
+    private long[] combinations = new long[INITIAL_CAPACITY];
+
+    /**
+     * Buyer ids indexed by ticket number - 1
+     */
+    private int[] buyerIds = new int[INITIAL_CAPACITY];
+
+    /**
+     * Number of tickets sold
+     */
+    private int size;
+
+    /**
+     * Buyers' names indexed by buyer id
+     */
+    private final List<String> buyerNames = new ArrayList<>();
+
+    /**
+     * Buyer ids indexed by buyers' names
+     */
+    private final Map<String, Integer> buyerIdsByName = new HashMap<>();
+
+    /**
+     * @param nbPicks   number of numbers of each ticket, at least 1
+     * @param maxNumber largest number, between nbPicks and MAX_NUMBER
+     */
+    public PickTicketStore(final int nbPicks, final int maxNumber) {
+        if (nbPicks < 1 || nbPicks > maxNumber || maxNumber > MAX_NUMBER) {
+            throw new IllegalArgumentException("Expected 1 <= nbPicks <= maxNumber <= " + MAX_NUMBER + ", got " + nbPicks + " and " + maxNumber);
+        }
+        this.nbPicks = nbPicks;
+        this.maxNumber = maxNumber;
+    }
+
+    /**
+     * Record the sale of a ticket
+     *
+     * @param buyerName ticket buyer's first name
+     * @param numbers   the nbPicks distinct numbers chosen by the buyer, between 1 and maxNumber
+     * @return the ticket number, tickets being numbered from 1 in sale order
+     * @throws InvalidBuyerNameException if buyerName is null or blank
+     */
+    public int purchase(final String buyerName, final int... numbers) throws InvalidBuyerNameException {
+        if (!SingleLottery.isValidBuyerName(buyerName)) {
+            throw new InvalidBuyerNameException("The buyer's name is expected to be a non-empty String");
+        }
+        final long combination = this.toCombination(numbers);
+
+        if (this.size == this.combinations.length) {
+            final int capacity = this.size + (this.size >> 1);
+            this.combinations = Arrays.copyOf(this.combinations, capacity);
+            this.buyerIds = Arrays.copyOf(this.buyerIds, capacity);
+        }
+        this.combinations[this.size] = combination;
+        this.buyerIds[this.size] = this.buyerIdsByName.computeIfAbsent(buyerName, name -> {
+            this.buyerNames.add(name);
+            return this.buyerNames.size() - 1;
+        });
+        return ++this.size;
+    }
+
+    /**
+     * Pack numbers of this game in a combination
+     *
+     * @param numbers nbPicks distinct numbers between 1 and maxNumber
+     * @return the combination, bit n - 1 being set for each number n
+     */
+    public long toCombination(final int... numbers) {
+        if (numbers == null || numbers.length != this.nbPicks) {
+            throw new IllegalArgumentException("Expected " + this.nbPicks + " numbers");
+        }
+        long combination = 0;
+        for (final int number : numbers) {
+            if (number < 1 || number > this.maxNumber) {
+                throw new IllegalArgumentException("Expected numbers between 1 and " + this.maxNumber + ", got " + number);
+            }
+            final long bit = 1L << (number - 1);
+            if ((combination & bit) != 0) {
+                throw new IllegalArgumentException("Expected distinct numbers, got " + number + " twice");
+            }
+            combination |= bit;
+        }
+        return combination;
+    }
+
+    /**
+     * Unpack a combination
+     *
+     * @param combination combination, bit n - 1 being set for each number n
+     * @return its numbers, in increasing order
+     */
+    public static int[] toNumbers(final long combination) {
+        final int[] numbers = new int[Long.bitCount(combination)];
+        long remaining = combination;
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = Long.numberOfTrailingZeros(remaining) + 1;
+            remaining &= remaining - 1;
+        }
+        return numbers;
+    }
+
+    /**
+     * @param ticket ticket number, between 1 and getSize()
+     * @return the combination of the ticket
+     */
+    public long getCombination(final int ticket) {
+        return this.combinations[this.checkTicket(ticket)];
+    }
+
+    /**
+     * @param ticket ticket number, between 1 and getSize()
+     * @return the buyer's name of the ticket
+     */
+    public String getBuyerName(final int ticket) {
+        return this.buyerNames.get(this.buyerIds[this.checkTicket(ticket)]);
+    }
+
+    /**
+     * @return the number of tickets sold
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    public int getNbPicks() {
+        return this.nbPicks;
+    }
+
+    public int getMaxNumber() {
+        return this.maxNumber;
+    }
+
+    /**
+     * Remove every ticket, keeping the arrays for the next round
+     */
+    public void clear() {
+        this.size = 0;
+        this.buyerNames.clear();
+        this.buyerIdsByName.clear();
+    }
+
+    /**
+     * Used by PickMatchEngine: only the first getSize() combinations are meaningful
+     *
+     * @return the combinations indexed by ticket number - 1
+     */
+    long[] getCombinations() {
+        return this.combinations;
+    }
+
+    private int checkTicket(final int ticket) {
+        if (ticket < 1 || ticket > this.size) {
+            throw new IllegalArgumentException("Unknown ticket: " + ticket);
+        }
+        return ticket - 1;
+    }
+}
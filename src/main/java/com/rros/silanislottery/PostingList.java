@@ -0,0 +1,297 @@
+package com.rros.silanislottery;
+
+import java.util.Arrays;
+
+/**
+ * Compressed sorted set of ticket ids, appended in increasing order
+ * <p>
+ * Ids are split in chunks of 2^16 by their high 16 bits. A chunk holds its low 16 bits either in a sorted char[] (up
+ * to ARRAY_MAX_CARDINALITY ids, 2 bytes per id) or in a bitmap of 2^16 bits (8 KiB whatever the number of ids), the
+ * smaller of the two. Intersections and differences work chunk by chunk: merges of sorted arrays, bit tests of an
+ * array against a bitmap, or word-wise AND of two bitmaps.
+ * <p>
+ * Ref: "Better bitmap performance with Roaring bitmaps", Chambi, Lemire, Kaser and Godin (2016). This is the subset
+ * needed by PickTicketIndex: append only, no run container.
+ */
+final class PostingList {
+
+    /**
+     * Largest number of ids of an array chunk: 4096 chars take as much room as a bitmap
+     */
+    static final int ARRAY_MAX_CARDINALITY = 1 << 12;
+
+    private static final int CHUNK_SHIFT = 16;
+
+    private static final int BITMAP_WORDS = (1 << CHUNK_SHIFT) / Long.SIZE;
+
+    private static final int INITIAL_ARRAY_LENGTH = 8;
+
+    /**
+     * High 16 bits of the ids of each chunk, in increasing order
+     */
+    private int[] keys = new int[1];
+
+    /**
+     * Low 16 bits of the ids of each chunk in sorted order, null for a bitmap chunk
+     */
+    private char[][] arrays = new char[1][];
+
+    /**
+     * Bitmap of the low 16 bits of the ids of each chunk, null for an array chunk
+     */
+    private long[][] bitmaps = new long[1][];
+
+    /**
+     * Number of ids of each chunk
+     */
+    private int[] cardinalities = new int[1];
+
+    private int nbChunks;
+
+    /**
+     * Number of ids
+     */
+    private int cardinality;
+
+    /**
+     * Last id added by add(), meaningful if cardinality is not 0
+     */
+    private int lastId;
+
+    /**
+     * Add an id, greater than every id added before
+     *
+     * @param id id, not negative
+     */
+    void add(final int id) {
+        if (id < 0 || this.cardinality > 0 && id <= this.lastId) {
+            throw new IllegalArgumentException("Ids are expected to be added in increasing order, got " + id);
+        }
+        final int key = id >>> CHUNK_SHIFT;
+        final char low = (char) id;
+        if (this.nbChunks == 0 || this.keys[this.nbChunks - 1] != key) {
+            this.appendChunk(key, new char[INITIAL_ARRAY_LENGTH], null, 0);
+        }
+        final int chunk = this.nbChunks - 1;
+
+        final int chunkCardinality = this.cardinalities[chunk];
+        if (this.bitmaps[chunk] == null && chunkCardinality == ARRAY_MAX_CARDINALITY) {
+            this.bitmaps[chunk] = PostingList.toBitmap(this.arrays[chunk], chunkCardinality);
+            this.arrays[chunk] = null;
+        }
+        if (this.bitmaps[chunk] != null) {
+            this.bitmaps[chunk][low >>> 6] |= 1L << low;
+        } else {
+            char[] array = this.arrays[chunk];
+            if (chunkCardinality == array.length) {
+                array = Arrays.copyOf(array, Math.min(ARRAY_MAX_CARDINALITY, chunkCardinality << 1));
+                this.arrays[chunk] = array;
+            }
+            array[chunkCardinality] = low;
+        }
+        this.cardinalities[chunk] = chunkCardinality + 1;
+        this.cardinality++;
+        this.lastId = id;
+    }
+
+    /**
+     * @return the number of ids
+     */
+    int getCardinality() {
+        return this.cardinality;
+    }
+
+    /**
+     * @return the ids, in increasing order
+     */
+    int[] toArray() {
+        final int[] ids = new int[this.cardinality];
+        int size = 0;
+        for (int chunk = 0; chunk < this.nbChunks; chunk++) {
+            final int high = this.keys[chunk] << CHUNK_SHIFT;
+            if (this.bitmaps[chunk] != null) {
+                final long[] bitmap = this.bitmaps[chunk];
+                for (int word = 0; word < BITMAP_WORDS; word++) {
+                    long bits = bitmap[word];
+                    while (bits != 0) {
+                        ids[size++] = high | (word << 6) | Long.numberOfTrailingZeros(bits);
+                        bits &= bits - 1;
+                    }
+                }
+            } else {
+                final char[] array = this.arrays[chunk];
+                for (int i = 0; i < this.cardinalities[chunk]; i++) {
+                    ids[size++] = high | array[i];
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Remove every id, keeping the chunk tables for reuse
+     */
+    void clear() {
+        Arrays.fill(this.arrays, 0, this.nbChunks, null);
+        Arrays.fill(this.bitmaps, 0, this.nbChunks, null);
+        this.nbChunks = 0;
+        this.cardinality = 0;
+    }
+
+    /**
+     * @return the ids of both a and b
+     */
+    static PostingList and(final PostingList a, final PostingList b) {
+        final PostingList result = new PostingList();
+        int i = 0;
+        int j = 0;
+        while (i < a.nbChunks && j < b.nbChunks) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                if (a.bitmaps[i] != null && b.bitmaps[j] != null) {
+                    final long[] bitmap = new long[BITMAP_WORDS];
+                    int cardinality = 0;
+                    for (int word = 0; word < BITMAP_WORDS; word++) {
+                        bitmap[word] = a.bitmaps[i][word] & b.bitmaps[j][word];
+                        cardinality += Long.bitCount(bitmap[word]);
+                    }
+                    result.appendBitmapOrArray(a.keys[i], bitmap, cardinality);
+                } else if (a.bitmaps[i] != null) {
+                    result.appendFiltered(b.keys[j], b.arrays[j], b.cardinalities[j], a.bitmaps[i], true);
+                } else if (b.bitmaps[j] != null) {
+                    result.appendFiltered(a.keys[i], a.arrays[i], a.cardinalities[i], b.bitmaps[j], true);
+                } else {
+                    result.appendMerged(a.keys[i], a.arrays[i], a.cardinalities[i], b.arrays[j], b.cardinalities[j], true);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the ids of a that are not in b
+     */
+    static PostingList andNot(final PostingList a, final PostingList b) {
+        final PostingList result = new PostingList();
+        int j = 0;
+        for (int i = 0; i < a.nbChunks; i++) {
+            while (j < b.nbChunks && b.keys[j] < a.keys[i]) {
+                j++;
+            }
+            final boolean shared = j < b.nbChunks && b.keys[j] == a.keys[i];
+            if (a.bitmaps[i] != null) {
+                final long[] bitmap = a.bitmaps[i].clone();
+                if (shared) {
+                    if (b.bitmaps[j] != null) {
+                        for (int word = 0; word < BITMAP_WORDS; word++) {
+                            bitmap[word] &= ~b.bitmaps[j][word];
+                        }
+                    } else {
+                        for (int k = 0; k < b.cardinalities[j]; k++) {
+                            final char low = b.arrays[j][k];
+                            bitmap[low >>> 6] &= ~(1L << low);
+                        }
+                    }
+                }
+                int cardinality = 0;
+                for (final long word : bitmap) {
+                    cardinality += Long.bitCount(word);
+                }
+                result.appendBitmapOrArray(a.keys[i], bitmap, cardinality);
+            } else if (!shared) {
+                result.appendChunk(a.keys[i], Arrays.copyOf(a.arrays[i], a.cardinalities[i]), null, a.cardinalities[i]);
+            } else if (b.bitmaps[j] != null) {
+                result.appendFiltered(a.keys[i], a.arrays[i], a.cardinalities[i], b.bitmaps[j], false);
+            } else {
+                result.appendMerged(a.keys[i], a.arrays[i], a.cardinalities[i], b.arrays[j], b.cardinalities[j], false);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Append the values of a sorted array that are (keep) or are not (!keep) in a bitmap
+     */
+    private void appendFiltered(final int key, final char[] array, final int cardinality, final long[] bitmap, final boolean keep) {
+        final char[] filtered = new char[cardinality];
+        int size = 0;
+        for (int k = 0; k < cardinality; k++) {
+            final char low = array[k];
+            if (((bitmap[low >>> 6] & (1L << low)) != 0) == keep) {
+                filtered[size++] = low;
+            }
+        }
+        this.appendArray(key, filtered, size);
+    }
+
+    /**
+     * Append the values of sorted array a that are (keep) or are not (!keep) in sorted array b
+     */
+    private void appendMerged(final int key, final char[] a, final int aCardinality, final char[] b, final int bCardinality, final boolean keep) {
+        final char[] merged = new char[aCardinality];
+        int size = 0;
+        int j = 0;
+        for (int i = 0; i < aCardinality; i++) {
+            final char low = a[i];
+            while (j < bCardinality && b[j] < low) {
+                j++;
+            }
+            if ((j < bCardinality && b[j] == low) == keep) {
+                merged[size++] = low;
+            }
+        }
+        this.appendArray(key, merged, size);
+    }
+
+    private void appendArray(final int key, final char[] array, final int cardinality) {
+        if (cardinality > 0) {
+            this.appendChunk(key, array, null, cardinality);
+        }
+    }
+
+    private void appendBitmapOrArray(final int key, final long[] bitmap, final int cardinality) {
+        if (cardinality > ARRAY_MAX_CARDINALITY) {
+            this.appendChunk(key, null, bitmap, cardinality);
+        } else if (cardinality > 0) {
+            final char[] array = new char[cardinality];
+            int size = 0;
+            for (int word = 0; word < BITMAP_WORDS; word++) {
+                long bits = bitmap[word];
+                while (bits != 0) {
+                    array[size++] = (char) ((word << 6) | Long.numberOfTrailingZeros(bits));
+                    bits &= bits - 1;
+                }
+            }
+            this.appendChunk(key, array, null, cardinality);
+        }
+    }
+
+    private void appendChunk(final int key, final char[] array, final long[] bitmap, final int cardinality) {
+        if (this.nbChunks == this.keys.length) {
+            final int length = this.nbChunks << 1;
+            this.keys = Arrays.copyOf(this.keys, length);
+            this.arrays = Arrays.copyOf(this.arrays, length);
+            this.bitmaps = Arrays.copyOf(this.bitmaps, length);
+            this.cardinalities = Arrays.copyOf(this.cardinalities, length);
+        }
+        this.keys[this.nbChunks] = key;
+        this.arrays[this.nbChunks] = array;
+        this.bitmaps[this.nbChunks] = bitmap;
+        this.cardinalities[this.nbChunks] = cardinality;
+        this.nbChunks++;
+        this.cardinality += cardinality;
+    }
+
+    private static long[] toBitmap(final char[] array, final int cardinality) {
+        final long[] bitmap = new long[BITMAP_WORDS];
+        for (int k = 0; k < cardinality; k++) {
+            bitmap[array[k] >>> 6] |= 1L << array[k];
+        }
+        return bitmap;
+    }
+}
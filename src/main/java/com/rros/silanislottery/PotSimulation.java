@@ -0,0 +1,211 @@
+package com.rros.silanislottery;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Monte Carlo simulation of the pot of a Silanis Lottery over many rounds
+ * <p>
+ * Each trajectory starts from the same pot and runs nbRounds rounds: every ticket is sold with probability salesRate,
+ * then the lottery is drawn. Trajectories run in parallel on a fork/join pool and only their aggregated statistics are
+ * kept (see PotStatistics).
+ * <p>
+ * Random streams are split from a single seeded SplittableRandom: the task tree always splits the trajectories range
+ * at the same points and each trajectory gets its own split stream, so a given seed gives the same statistics whatever
+ * the parallelism.
+ * <p>
+ * Two engines give the same distribution:
+ * <ul>
+ * <li>LOTTERY drives an actual SilanisLottery per trajectory (purchases, draws, recycled rounds): the reference,
+ * O(sold tickets) per round;</li>
+ * <li>MODEL only samples what the pot depends on: the number of sold tickets, then whether each ball hits a sold
+ * ticket (drawing balls without replacement out of nbTickets tickets, soldTickets of which are sold). O(nbTickets) per
+ * round for the sales, nothing allocated, the prizes being computed by SingleLottery.computePrize().</li>
+ * </ul>
+ */
+public class PotSimulation {
+
+    /**
+     * Simulation engine
+     */
+    public enum Engine {
+        LOTTERY,
+        MODEL
+    }
+
+    /**
+     * Number of trajectories under which a task runs them sequentially instead of splitting
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 256;
+
+    private static final String BUYER_NAME = "Simulated buyer";
+
+    private final int initialPot;
+    private final int nbTickets;
+    private final int nbRounds;
+
+    /**
+     * Probability for each ticket to be sold in a round
+     */
+    private final double salesRate;
+
+    private final Engine engine;
+
+    /**
+     * @param initialPot initial pot of each trajectory, not negative
+     * @param nbTickets  number of tickets (and balls) of each round, at least NB_WINNERS
+     * @param nbRounds   number of rounds of each trajectory, not negative
+     * @param salesRate  probability for each ticket to be sold in a round, between 0 and 1
+     * @param engine     simulation engine
+     */
+    public PotSimulation(final int initialPot, final int nbTickets, final int nbRounds, final double salesRate, final Engine engine) {
+        if (initialPot < 0) {
+            throw new IllegalArgumentException("The initial pot is expected to be positive or zero");
+        }
+        if (nbTickets < SilanisLottery.NB_WINNERS) {
+            throw new IllegalArgumentException("The number of tickets is expected to be at least " + SilanisLottery.NB_WINNERS);
+        }
+        if (nbRounds < 0) {
+            throw new IllegalArgumentException("The number of rounds is expected to be positive or zero");
+        }
+        if (!(salesRate >= 0 && salesRate <= 1)) {
+            throw new IllegalArgumentException("The sales rate is expected to be between 0 and 1");
+        }
+        this.initialPot = initialPot;
+        this.nbTickets = nbTickets;
+        this.nbRounds = nbRounds;
+        this.salesRate = salesRate;
+        this.engine = engine;
+    }
+
+    /**
+     * Run trajectories on the common fork/join pool
+     *
+     * @param nbTrajectories number of trajectories, at least 1
+     * @param seed           seed of the random streams
+     * @return the statistics of the trajectories
+     */
+    public PotStatistics run(final long nbTrajectories, final long seed) {
+        return this.run(nbTrajectories, seed, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Run trajectories on a given fork/join pool
+     *
+     * @param nbTrajectories number of trajectories, at least 1
+     * @param seed           seed of the random streams
+     * @param pool           pool running the trajectories
+     * @return the statistics of the trajectories
+     */
+    public PotStatistics run(final long nbTrajectories, final long seed, final ForkJoinPool pool) {
+        if (nbTrajectories < 1) {
+            throw new IllegalArgumentException("The number of trajectories is expected to be at least 1");
+        }
+        return pool.invoke(new TrajectoriesTask(0, nbTrajectories, new SplittableRandom(seed)));
+    }
+
+    /**
+     * @param random generator of the trajectory
+     * @return the number of tickets sold in a round
+     */
+    private int sampleSoldTickets(final SplittableRandom random) {
+        int soldTickets = 0;
+        for (int i = 0; i < this.nbTickets; i++) {
+            if (random.nextDouble() < this.salesRate) {
+                soldTickets++;
+            }
+        }
+        return soldTickets;
+    }
+
+    /**
+     * Run one trajectory on a SilanisLottery
+     */
+    private void runLotteryTrajectory(final SplittableRandom random, final PotStatistics statistics) {
+        final SilanisLottery lottery = new SilanisLottery(this.initialPot, this.nbTickets, random);
+        for (int round = 0; round < this.nbRounds; round++) {
+            final int soldTickets = this.sampleSoldTickets(random);
+            for (int i = 0; i < soldTickets; i++) {
+                lottery.tryPurchaseTicket(BUYER_NAME);
+            }
+            lottery.drawLottery();
+            statistics.addRound(lottery.getWinners()[0] == null);
+        }
+        statistics.addTrajectory(lottery.getPot());
+    }
+
+    /**
+     * Run one trajectory on the model of the lottery
+     */
+    private void runModelTrajectory(final SplittableRandom random, final PotStatistics statistics) {
+        int pot = this.initialPot;
+        for (int round = 0; round < this.nbRounds; round++) {
+            final int soldTickets = this.sampleSoldTickets(random);
+            pot += SilanisLottery.TICKET_PRICE * soldTickets;
+
+            // balls are drawn without replacement: each one hits one of the remaining sold tickets with probability
+            // remainingSold / remainingTickets
+            final int potBeforeDraw = pot;
+            int remainingTickets = this.nbTickets;
+            int remainingSold = soldTickets;
+            boolean jackpotUnclaimed = true;
+            for (int rank = 0; rank < SilanisLottery.NB_WINNERS; rank++) {
+                if (random.nextInt(remainingTickets) < remainingSold) {
+                    pot -= SingleLottery.computePrize(potBeforeDraw, rank);
+                    remainingSold--;
+                    if (rank == 0) {
+                        jackpotUnclaimed = false;
+                    }
+                }
+                remainingTickets--;
+            }
+            statistics.addRound(jackpotUnclaimed);
+        }
+        statistics.addTrajectory(pot);
+    }
+
+    /**
+     * Trajectories of a range, split in two halves while it is large enough
+     */
+    private final class TrajectoriesTask extends RecursiveTask<PotStatistics> {
+
+        private final long from;
+        private final long to;
+        private final SplittableRandom random;
+
+        /**
+         * @param from   first trajectory (included)
+         * @param to     last trajectory (excluded)
+         * @param random stream of this range
+         */
+        TrajectoriesTask(final long from, final long to, final SplittableRandom random) {
+            this.from = from;
+            this.to = to;
+            this.random = random;
+        }
+
+        @Override
+        protected PotStatistics compute() {
+            if (this.to - this.from <= SEQUENTIAL_THRESHOLD) {
+                final PotStatistics statistics = new PotStatistics();
+                for (long trajectory = this.from; trajectory < this.to; trajectory++) {
+                    final SplittableRandom trajectoryRandom = this.random.split();
+                    if (PotSimulation.this.engine == Engine.LOTTERY) {
+                        PotSimulation.this.runLotteryTrajectory(trajectoryRandom, statistics);
+                    } else {
+                        PotSimulation.this.runModelTrajectory(trajectoryRandom, statistics);
+                    }
+                }
+                return statistics;
+            }
+
+            final long middle = (this.from + this.to) >>> 1;
+            final TrajectoriesTask left = new TrajectoriesTask(this.from, middle, this.random.split());
+            final TrajectoriesTask right = new TrajectoriesTask(middle, this.to, this.random);
+            left.fork();
+            final PotStatistics statistics = right.compute();
+            return statistics.merge(left.join());
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.rros.silanislottery;
+
+/**
+ * Streaming statistics of simulated pots, in constant memory
+ * <p>
+ * Final pots are counted in a log-linear histogram: values under 2^SUB_BUCKET_BITS are exact, larger ones share a
+ * bucket with values within 1 / 2^(SUB_BUCKET_BITS - 1) of them (under 1.6%). Percentiles are read from the histogram,
+ * so the trajectories themselves are never stored. Two instances can be merged, e.g. once per fork/join task.
+ * <p>
+ * This class is not thread-safe: each task fills its own instance.
+ */
+public class PotStatistics {
+
+    /**
+     * log2 of the number of exact values, each further power of two is split in 2^(SUB_BUCKET_BITS - 1) buckets
+     */
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKET_COUNT = SUB_BUCKET_COUNT >>> 1;
+
+    /**
+     * Enough buckets for any non-negative int
+     */
+    private static final int NB_BUCKETS = SUB_BUCKET_COUNT + (Integer.SIZE - 1 - SUB_BUCKET_BITS) * HALF_SUB_BUCKET_COUNT;
+
+    /**
+     * Number of final pots per bucket
+     */
+    private final long[] counts = new long[NB_BUCKETS];
+
+    private long nbTrajectories;
+    private double potSum;
+    private int minPot = Integer.MAX_VALUE;
+    private int maxPot = Integer.MIN_VALUE;
+
+    /**
+     * Number of rounds drawn, and number of them which jackpot (1st ball) had no winner
+     */
+    private long nbRounds;
+    private long nbUnclaimedJackpots;
+
+    /**
+     * @param pot non-negative value
+     * @return index of its bucket
+     */
+    static int bucket(final int pot) {
+        if (pot < SUB_BUCKET_COUNT) {
+            return pot;
+        }
+        final int shift = Integer.SIZE - Integer.numberOfLeadingZeros(pot) - SUB_BUCKET_BITS;
+        return SUB_BUCKET_COUNT + (shift - 1) * HALF_SUB_BUCKET_COUNT + (pot >>> shift) - HALF_SUB_BUCKET_COUNT;
+    }
+
+    /**
+     * @param bucket bucket index
+     * @return the smallest value of the bucket
+     */
+    static int lowestValue(final int bucket) {
+        if (bucket < SUB_BUCKET_COUNT) {
+            return bucket;
+        }
+        final int shift = (bucket - SUB_BUCKET_COUNT) / HALF_SUB_BUCKET_COUNT + 1;
+        final int subBucket = (bucket - SUB_BUCKET_COUNT) % HALF_SUB_BUCKET_COUNT + HALF_SUB_BUCKET_COUNT;
+        return subBucket << shift;
+    }
+
+    /**
+     * Count one round
+     *
+     * @param jackpotUnclaimed true if the ticket of the 1st ball was not purchased
+     */
+    void addRound(final boolean jackpotUnclaimed) {
+        this.nbRounds++;
+        if (jackpotUnclaimed) {
+            this.nbUnclaimedJackpots++;
+        }
+    }
+
+    /**
+     * Count the final pot of one trajectory
+     *
+     * @param pot final pot, non-negative
+     */
+    void addTrajectory(final int pot) {
+        this.counts[bucket(pot)]++;
+        this.nbTrajectories++;
+        this.potSum += pot;
+        this.minPot = Math.min(this.minPot, pot);
+        this.maxPot = Math.max(this.maxPot, pot);
+    }
+
+    /**
+     * Add the counts of other to this
+     *
+     * @param other statistics of other trajectories
+     * @return this
+     */
+    PotStatistics merge(final PotStatistics other) {
+        for (int i = 0; i < NB_BUCKETS; i++) {
+            this.counts[i] += other.counts[i];
+        }
+        this.nbTrajectories += other.nbTrajectories;
+        this.potSum += other.potSum;
+        this.minPot = Math.min(this.minPot, other.minPot);
+        this.maxPot = Math.max(this.maxPot, other.maxPot);
+        this.nbRounds += other.nbRounds;
+        this.nbUnclaimedJackpots += other.nbUnclaimedJackpots;
+        return this;
+    }
+
+    /**
+     * @param percentile percentile, between 0 and 100
+     * @return the final pot under which percentile % of the trajectories end, within the histogram precision
+     * (clamped to the observed minimum and maximum)
+     */
+    public int getPotPercentile(final double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("The percentile is expected to be between 0 and 100");
+        }
+        if (this.nbTrajectories == 0) {
+            throw new IllegalStateException("No trajectory");
+        }
+        final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * this.nbTrajectories));
+        long cumulated = 0;
+        for (int i = 0; i < NB_BUCKETS; i++) {
+            cumulated += this.counts[i];
+            if (cumulated >= rank) {
+                return Math.min(this.maxPot, Math.max(this.minPot, lowestValue(i)));
+            }
+        }
+        return this.maxPot;
+    }
+
+    public long getNbTrajectories() {
+        return this.nbTrajectories;
+    }
+
+    public double getMeanPot() {
+        return this.nbTrajectories == 0 ? Double.NaN : this.potSum / this.nbTrajectories;
+    }
+
+    public int getMinPot() {
+        return this.minPot;
+    }
+
+    public int getMaxPot() {
+        return this.maxPot;
+    }
+
+    /**
+     * @return the probability that the jackpot (1st ball) of a round has no winner
+     */
+    public double getUnclaimedJackpotProbability() {
+        return this.nbRounds == 0 ? Double.NaN : (double) this.nbUnclaimedJackpots / this.nbRounds;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("trajectories: %d, pot mean: %.1f, min: %d, p5: %d, p50: %d, p95: %d, p99: %d, max: %d, unclaimed jackpot probability: %.4f",
+                this.nbTrajectories, this.getMeanPot(), this.minPot, this.getPotPercentile(5), this.getPotPercentile(50),
+                this.getPotPercentile(95), this.getPotPercentile(99), this.maxPot, this.getUnclaimedJackpotProbability());
+    }
+}
@@ -0,0 +1,106 @@
+package com.rros.silanislottery;
+
+import java.util.Arrays;
+
+/**
+ * Winning tickets of a pick-k draw, grouped into prize tiers
+ * <p>
+ * Tier t holds the tickets matching all the drawn numbers but t. Its prize pool is SingleLottery.computePrize() of the
+ * pot for rank t, shared equally between its winners: the remainder of the division, and the pool of a tier without
+ * winner, stay in the pot.
+ */
+public class PrizeTiers {
+
+    /**
+     * Winning tickets indexed by tier, in increasing order
+     */
+    private final int[][] winningTickets;
+
+    /**
+     * Prize of each winner indexed by tier
+     */
+    private final int[] prizes;
+
+    /**
+     * @param winningTickets winning tickets indexed by tier
+     */
+    PrizeTiers(final int[][] winningTickets) {
+        this.winningTickets = winningTickets;
+        this.prizes = new int[winningTickets.length];
+    }
+
+    /**
+     * Share the prize pools of the tiers between their winners
+     *
+     * @param pot pot before the draw
+     * @return the sum of the prizes
+     */
+    int award(final int pot) {
+        int total = 0;
+        for (int tier = 0; tier < this.winningTickets.length; tier++) {
+            final int nbWinners = this.winningTickets[tier].length;
+            if (nbWinners > 0) {
+                this.prizes[tier] = SingleLottery.computePrize(pot, tier) / nbWinners;
+                total += this.prizes[tier] * nbWinners;
+            }
+        }
+        return total;
+    }
+
+    public int getNbTiers() {
+        return this.winningTickets.length;
+    }
+
+    /**
+     * @param tier tier, 0 for the tickets matching every drawn number
+     * @return the number of winners of the tier
+     */
+    public int getNbWinners(final int tier) {
+        return this.winningTickets[tier].length;
+    }
+
+    /**
+     * @param tier tier, 0 for the tickets matching every drawn number
+     * @return a copy of the winning tickets of the tier, in increasing order
+     */
+    public int[] getWinningTickets(final int tier) {
+        return this.winningTickets[tier].clone();
+    }
+
+    /**
+     * @param tier tier, 0 for the tickets matching every drawn number
+     * @return the prize of each winner of the tier, 0 before award()
+     */
+    public int getPrize(final int tier) {
+        return this.prizes[tier];
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("PrizeTiers{");
+        for (int tier = 0; tier < this.winningTickets.length; tier++) {
+            if (tier > 0) {
+                builder.append(", ");
+            }
+            builder.append(tier).append('=').append(this.winningTickets[tier].length).append('x').append(this.prizes[tier]);
+        }
+        return builder.append('}').toString();
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PrizeTiers)) {
+            return false;
+        }
+        final PrizeTiers that = (PrizeTiers) o;
+        return Arrays.deepEquals(this.winningTickets, that.winningTickets) && Arrays.equals(this.prizes, that.prizes);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.deepHashCode(this.winningTickets) + Arrays.hashCode(this.prizes);
+    }
+}
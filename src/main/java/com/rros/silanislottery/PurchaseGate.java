@@ -0,0 +1,90 @@
+package com.rros.silanislottery;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Gate closing a lottery to purchases, so that it can be drawn once every ongoing purchase is over
+ * <p>
+ * Purchases enter and exit the gate without contending on a single counter: each thread counts its ongoing purchases
+ * in its own stripe (padded against false sharing). A thread always uses the same stripe, so every stripe is the
+ * number of purchases ongoing in its threads and closing only has to wait for all the stripes to be back to zero.
+ * <p>
+ * A purchase either enters before close() and is waited for, or sees the gate closed: stripes and the closed flag
+ * being volatile, a purchase cannot miss the flag while close() misses its stripe.
+ */
+class PurchaseGate {
+
+    /**
+     * Longs between two stripes: 128 bytes, two cache lines
+     */
+    private static final int PADDING = 16;
+
+    private final AtomicLongArray stripes;
+
+    /**
+     * Number of stripes - 1, the number of stripes being a power of two
+     */
+    private final int mask;
+
+    private volatile boolean closed;
+
+    PurchaseGate() {
+        final int nbStripes = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1;
+        this.stripes = new AtomicLongArray(nbStripes * PADDING);
+        this.mask = nbStripes - 1;
+    }
+
+    /**
+     * @return index of the stripe of the calling thread
+     */
+    private int stripe() {
+        return ((int) Thread.currentThread().getId() & this.mask) * PADDING;
+    }
+
+    /**
+     * Enter the gate for a purchase, exit() has to be called once the purchase is over
+     *
+     * @return false if the gate is closed, in which case exit() must not be called
+     */
+    boolean enter() {
+        final int stripe = this.stripe();
+        this.stripes.incrementAndGet(stripe);
+        if (this.closed) {
+            this.stripes.decrementAndGet(stripe);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Exit the gate at the end of a purchase
+     */
+    void exit() {
+        this.stripes.decrementAndGet(this.stripe());
+    }
+
+    /**
+     * Close the gate and wait for the ongoing purchases to be over
+     *
+     * @return false if the gate was already closed
+     */
+    synchronized boolean close() {
+        if (this.closed) {
+            return false;
+        }
+        this.closed = true;
+        for (int stripe = 0; stripe < this.stripes.length(); stripe += PADDING) {
+            while (this.stripes.get(stripe) != 0) {
+                Thread.onSpinWait();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the gate is closed
+     */
+    boolean isClosed() {
+        return this.closed;
+    }
+}
@@ -0,0 +1,37 @@
+package com.rros.silanislottery;
+
+/**
+ * Status codes returned by the non-throwing purchase methods (tryPurchaseTicket)
+ * <p>
+ * A successful purchase returns its ticket number, which is positive: failures are negative codes, so that a
+ * rejected purchase costs neither an exception nor an allocation.
+ */
+public final class PurchaseStatus {
+
+    /**
+     * The buyer's name is invalid, see InvalidBuyerNameException
+     */
+    public static final int INVALID_BUYER_NAME = -1;
+
+    /**
+     * No more ticket is available for the current draw, see NoAvailableTicketException
+     */
+    public static final int NO_AVAILABLE_TICKET = -2;
+
+    /**
+     * The lottery has already been drawn, see SingleLotteryAlreadyDrawnException
+     */
+    public static final int ALREADY_DRAWN = -3;
+
+    private PurchaseStatus() {
+        // private so this class cannot be instantiated
+    }
+
+    /**
+     * @param result result of a tryPurchaseTicket call
+     * @return true if result is a ticket number, false if it is a failure status
+     */
+    public static boolean isTicket(final int result) {
+        return result > 0;
+    }
+}
@@ -0,0 +1,101 @@
+package com.rros.silanislottery;
+
+import java.util.Arrays;
+
+/**
+ * Purchases of a round gathered from a snapshot and a journal, to be restored at once
+ * <p>
+ * A purchase read from a snapshot refers to its buyer by id in a BuyerDictionary, so that its name is not decoded;
+ * a purchase read from a journal holds its buyer's name.
+ */
+class RestoredRound {
+
+    /**
+     * Buyer id of the purchases holding their buyer's name
+     */
+    static final int NO_BUYER_ID = 0;
+
+    private int[] tickets = new int[16];
+
+    /**
+     * Buyer ids in buyers, NO_BUYER_ID where the name is in buyerNames
+     */
+    private int[] buyerIds = new int[16];
+
+    private String[] buyerNames = new String[16];
+
+    private int count;
+
+    /**
+     * Buyers of the purchases read from a snapshot, null if there is none
+     */
+    private BuyerDictionary buyers;
+
+    /**
+     * @param ticket    ticket number
+     * @param buyerName buyer's name
+     */
+    void addPurchase(final int ticket, final String buyerName) {
+        this.grow();
+        this.tickets[this.count] = ticket;
+        this.buyerIds[this.count] = NO_BUYER_ID;
+        this.buyerNames[this.count] = buyerName;
+        this.count++;
+    }
+
+    /**
+     * Set the purchases read from a snapshot, before any purchase is added
+     *
+     * @param tickets  ticket numbers
+     * @param buyerIds buyer ids in buyers, in the order of tickets
+     * @param buyers   buyers' names
+     */
+    void setSnapshotPurchases(final int[] tickets, final int[] buyerIds, final BuyerDictionary buyers) {
+        if (this.count > 0) {
+            throw new IllegalStateException("Snapshot purchases are expected to be set first");
+        }
+        this.tickets = tickets;
+        this.buyerIds = buyerIds;
+        this.buyerNames = new String[tickets.length];
+        this.count = tickets.length;
+        this.buyers = buyers;
+    }
+
+    /**
+     * Forget every purchase, e.g. once the round has been drawn
+     */
+    void clear() {
+        Arrays.fill(this.buyerNames, 0, this.count, null);
+        this.count = 0;
+        this.buyers = null;
+    }
+
+    int[] getTickets() {
+        return this.tickets;
+    }
+
+    int getBuyerId(final int i) {
+        return this.buyerIds[i];
+    }
+
+    String getBuyerName(final int i) {
+        return this.buyerNames[i];
+    }
+
+    int getCount() {
+        return this.count;
+    }
+
+    BuyerDictionary getBuyers() {
+        return this.buyers;
+    }
+
+    private void grow() {
+        if (this.count == this.tickets.length) {
+            final int capacity = Math.max(16, this.count * 2);
+            this.tickets = Arrays.copyOf(this.tickets, capacity);
+            this.buyerIds = Arrays.copyOf(this.buyerIds, capacity);
+            this.buyerNames = Arrays.copyOf(this.buyerNames, capacity);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.rros.silanislottery;
+
+import java.util.Arrays;
+
+/**
+ * Immutable results of a drawn lottery
+ * <p>
+ * A snapshot taken once a lottery is drawn: it can be read from any thread while the next lottery goes on.
+ */
+public final class RoundResult {
+
+    /**
+     * Round number, the first draw being round 1
+     */
+    private final long round;
+
+    /**
+     * Drawn balls, in draw order
+     */
+    private final int[] balls;
+
+    /**
+     * Winners, null elements for the balls which ticket was not purchased
+     */
+    private final Winner[] winners;
+
+    /**
+     * Prizes displayed for each ball
+     */
+    private final int[] prizes;
+
+    /**
+     * Pot after the prizes have been paid
+     */
+    private final int pot;
+
+    /**
+     * @param round   round number
+     * @param balls   drawn balls, in draw order
+     * @param winners winners, null elements for the balls which ticket was not purchased
+     * @param prizes  prizes displayed for each ball
+     * @param pot     pot after the prizes have been paid
+     */
+    public RoundResult(final long round, final int[] balls, final Winner[] winners, final int[] prizes, final int pot) {
+        this.round = round;
+        this.balls = balls.clone();
+        this.winners = winners.clone();
+        this.prizes = prizes.clone();
+        this.pot = pot;
+    }
+
+    /**
+     * Produce the string displaying the winners of this round, see SingleLottery.generateWinnersMessage()
+     *
+     * @return string displaying the winners
+     */
+    public String generateWinnersMessage() {
+        return SingleLottery.formatWinnersMessage(this.winners, this.prizes);
+    }
+
+    public long getRound() {
+        return round;
+    }
+
+    public int[] getBalls() {
+        return balls.clone();
+    }
+
+    public Winner[] getWinners() {
+        return winners.clone();
+    }
+
+    public int[] getPrizes() {
+        return prizes.clone();
+    }
+
+    public int getPot() {
+        return pot;
+    }
+
+    @Override
+    public String toString() {
+        return "Round " + this.round + ": " + Arrays.toString(this.balls);
+    }
+}
@@ -0,0 +1,415 @@
+package com.rros.silanislottery;
+
+import com.rros.draw.DrawableInteger;
+import com.rros.draw.FloydSampler;
+import com.rros.draw.RandomSource;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+/**
+ * Thread-safe Silanis Lottery which ticket range is split across independent shards
+ * <p>
+ * Each shard owns a contiguous part of the tickets, with its own DrawableInteger, TicketLedger, sales counter and
+ * lock: purchases landing on different shards never contend. A purchase picks its shard with a probability
+ * proportional to the tickets the shard has left, then draws a ticket in it: every remaining ticket of the whole range
+ * is equally likely (the counts read by the picker may be a purchase late under contention), and sold-out shards are
+ * never picked. A caller pinned to a shard (e.g. one worker thread per shard) can also purchase in it directly, its
+ * lock then being uncontended.
+ * <p>
+ * The draw locks every shard, draws the balls over the whole range, finds each winning ticket in the shard owning it,
+ * pays the prizes from the pot (the carried pot plus the sales of every shard) and resets the shards. Purchases wait
+ * for the draw, which costs O(nbShards + tickets sold).
+ */
+public class ShardedLottery implements Lottery {
+
+    /**
+     * First ticket of each shard minus one, in increasing order
+     */
+    private final int[] offsets;
+
+    private final Shard[] shards;
+
+    /**
+     * Sampler drawing the NB_WINNERS balls, only used by drawLottery()
+     */
+    private final FloydSampler ballSampler;
+
+    /**
+     * Generator of each purchasing thread, picking the shards
+     */
+    private final ThreadLocal<RandomGenerator> shardPickers;
+
+    private final int nbTickets;
+
+    /**
+     * Pot carried over from the previous draws, shard sales excluded
+     */
+    private volatile int carriedPot;
+
+    /**
+     * Results of the previous draw, null if there was no draw yet
+     */
+    private volatile RoundResult previousResult;
+
+    /**
+     * Number of draws so far, only updated by drawLottery()
+     */
+    private long round;
+
+    /**
+     * @param pot       input pot
+     * @param nbTickets number of tickets (and balls) of each lottery, at least NB_WINNERS
+     * @param nbShards  number of shards, between 1 and nbTickets
+     */
+    public ShardedLottery(final int pot, final int nbTickets, final int nbShards) {
+        this(pot, nbTickets, nbShards, RandomSource.SPLITTABLE);
+    }
+
+    /**
+     * @param pot          input pot
+     * @param nbTickets    number of tickets (and balls) of each lottery, at least NB_WINNERS
+     * @param nbShards     number of shards, between 1 and nbTickets
+     * @param randomSource source of the generators of the shards, of the balls and of the shard picker (one per
+     *                     purchasing thread)
+     */
+    public ShardedLottery(final int pot, final int nbTickets, final int nbShards, final RandomSource randomSource) {
+        this(pot, nbTickets, nbShards, randomSource::create);
+    }
+
+    /**
+     * This constructor is used so that every draw comes from a given generator, e.g. a seeded stream of a simulation:
+     * the shards, the balls and the shard picker of each purchasing thread draw from streams split from it, so a
+     * single-threaded run is reproducible.
+     *
+     * @param pot       input pot
+     * @param nbTickets number of tickets (and balls) of each lottery, at least NB_WINNERS
+     * @param nbShards  number of shards, between 1 and nbTickets
+     * @param random    generator the streams are split from
+     */
+    ShardedLottery(final int pot, final int nbTickets, final int nbShards, final RandomGenerator.SplittableGenerator random) {
+        this(pot, nbTickets, nbShards, () -> {
+            synchronized (random) {
+                return random.split();
+            }
+        });
+    }
+
+    /**
+     * @param generators supplier of the generators of the shards, of the balls and of the shard pickers
+     */
+    private ShardedLottery(final int pot, final int nbTickets, final int nbShards, final Supplier<RandomGenerator> generators) {
+        if (nbTickets < SilanisLottery.NB_WINNERS) {
+            throw new IllegalArgumentException("The number of tickets is expected to be at least " + SilanisLottery.NB_WINNERS);
+        }
+        if (nbShards < 1 || nbShards > nbTickets) {
+            throw new IllegalArgumentException("The number of shards is expected to be between 1 and the number of tickets");
+        }
+        this.nbTickets = nbTickets;
+        this.ballSampler = new FloydSampler(generators.get());
+        this.carriedPot = pot;
+        this.offsets = new int[nbShards];
+        this.shards = new Shard[nbShards];
+        for (int i = 0; i < nbShards; i++) {
+            // sizes differ by one at most
+            this.offsets[i] = (int) ((long) nbTickets * i / nbShards);
+            final int size = (int) ((long) nbTickets * (i + 1) / nbShards) - this.offsets[i];
+            this.shards[i] = new Shard(size, generators.get());
+        }
+        this.shardPickers = ThreadLocal.withInitial(generators);
+    }
+
+    /**
+     * Purchase a ticket. This will also update the pot.
+     *
+     * @param buyerName ticket buyer's first name, has to be not null, not empty, not a white-space only String.
+     * @return the ticket number
+     * @throws InvalidBuyerNameException  the provided buyer's name is invalid
+     * @throws NoAvailableTicketException no more ticket is available for this draw
+     */
+    @Override
+    public int purchaseTicket(final String buyerName) throws NoAvailableTicketException, InvalidBuyerNameException {
+        final int result = this.tryPurchaseTicket(buyerName);
+        switch (result) {
+            case PurchaseStatus.INVALID_BUYER_NAME:
+                throw new InvalidBuyerNameException("The buyer's name is expected to be a non-empty String");
+            case PurchaseStatus.NO_AVAILABLE_TICKET:
+                throw new NoAvailableTicketException();
+            default:
+                return result;
+        }
+    }
+
+    /**
+     * Purchase a ticket without throwing, in a shard picked with a probability proportional to its remaining tickets
+     *
+     * @param buyerName ticket buyer's first name, has to be not null, not empty, not a white-space only String.
+     * @return the ticket number if the purchase succeeded, a negative PurchaseStatus code otherwise
+     */
+    @Override
+    public int tryPurchaseTicket(final String buyerName) {
+        if (!SingleLottery.isValidBuyerName(buyerName)) {
+            return PurchaseStatus.INVALID_BUYER_NAME;
+        }
+        while (true) {
+            final int shardIndex = this.pickShard();
+            if (shardIndex < 0) {
+                return PurchaseStatus.NO_AVAILABLE_TICKET;
+            }
+            final int result = this.tryPurchaseTicket(shardIndex, buyerName);
+            // the shard may have been sold out since it was picked: pick again
+            if (result != PurchaseStatus.NO_AVAILABLE_TICKET) {
+                return result;
+            }
+        }
+    }
+
+    /**
+     * Purchase a ticket in a given shard without throwing, e.g. from a thread pinned to the shard. Tickets are
+     * uniformly drawn among the remaining ones of the shard only.
+     *
+     * @param shardIndex shard, between 0 and getNbShards() - 1
+     * @param buyerName  ticket buyer's first name, has to be not null, not empty, not a white-space only String.
+     * @return the ticket number if the purchase succeeded, a negative PurchaseStatus code otherwise
+     */
+    public int tryPurchaseTicket(final int shardIndex, final String buyerName) {
+        if (!SingleLottery.isValidBuyerName(buyerName)) {
+            return PurchaseStatus.INVALID_BUYER_NAME;
+        }
+        final Shard shard = this.shards[shardIndex];
+        shard.lock.lock();
+        try {
+            final int ticket = shard.drawableTickets.tryDraw();
+            if (ticket == DrawableInteger.NO_DRAW) {
+                return PurchaseStatus.NO_AVAILABLE_TICKET;
+            }
+            shard.record(ticket, buyerName);
+            return this.offsets[shardIndex] + ticket;
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Purchase one ticket per buyer in a single call: every shard is locked, so either every buyer gets a ticket or
+     * none does.
+     *
+     * @param buyerNames ticket buyers' first names, each one has to be not null, not empty, not a white-space only String.
+     * @return the ticket numbers, in the order of buyerNames
+     * @throws InvalidBuyerNameException  one of the provided buyers' names is invalid
+     * @throws NoAvailableTicketException not enough tickets are available for this draw
+     */
+    @Override
+    public int[] purchaseTickets(final List<String> buyerNames) throws NoAvailableTicketException, InvalidBuyerNameException {
+        for (final String buyerName : buyerNames) {
+            if (!SingleLottery.isValidBuyerName(buyerName)) {
+                throw new InvalidBuyerNameException("The buyer's name is expected to be a non-empty String");
+            }
+        }
+
+        this.lockAll();
+        try {
+            if (this.getRemaining() < buyerNames.size()) {
+                throw new NoAvailableTicketException();
+            }
+            final int[] tickets = new int[buyerNames.size()];
+            int i = 0;
+            for (final String buyerName : buyerNames) {
+                final int shardIndex = this.pickShard();
+                final Shard shard = this.shards[shardIndex];
+                final int ticket = shard.drawableTickets.tryDraw();
+                shard.record(ticket, buyerName);
+                tickets[i++] = this.offsets[shardIndex] + ticket;
+            }
+            return tickets;
+        } finally {
+            this.unlockAll();
+        }
+    }
+
+    /**
+     * Draw lottery: one global draw over every shard, then start the next lottery
+     *
+     * @return the values of the drawn balls
+     */
+    @Override
+    public synchronized int[] drawLottery() {
+        this.lockAll();
+        try {
+            int pot = this.carriedPot;
+            for (final Shard shard : this.shards) {
+                pot += shard.nbSold * SilanisLottery.TICKET_PRICE;
+            }
+
+            final int[] drawResults = new int[SilanisLottery.NB_WINNERS];
+            this.ballSampler.sample(this.nbTickets, SilanisLottery.NB_WINNERS, drawResults, 0);
+
+            final Winner[] winners = new Winner[SilanisLottery.NB_WINNERS];
+            final int[] prizes = SingleLottery.computePrizes(pot);
+            int paid = 0;
+            for (int i = 0; i < SilanisLottery.NB_WINNERS; i++) {
+                final int shardIndex = this.shardOf(drawResults[i]);
+                final String buyerName = this.shards[shardIndex].ticketLedger.getBuyerName(drawResults[i] - this.offsets[shardIndex]);
+                if (buyerName != null) {
+                    winners[i] = new Winner(buyerName, prizes[i]);
+                    paid += prizes[i];
+                }
+            }
+            pot -= paid;
+
+            for (final Shard shard : this.shards) {
+                shard.reset();
+            }
+            this.carriedPot = pot;
+            this.previousResult = new RoundResult(++this.round, drawResults, winners, SingleLottery.computePrizes(pot), pot);
+            return drawResults;
+        } finally {
+            this.unlockAll();
+        }
+    }
+
+    /**
+     * Produce the string displaying the winners of the latest draw
+     *
+     * @return string displaying the winners of the latest draw
+     * @throws NoPreviousDrawException if there was no previous draw
+     */
+    @Override
+    public String generateWinnersMessage() throws NoPreviousDrawException {
+        return this.getPreviousResult().generateWinnersMessage();
+    }
+
+    /**
+     * @return the results of the latest draw
+     * @throws NoPreviousDrawException if there was no previous draw
+     */
+    public RoundResult getPreviousResult() throws NoPreviousDrawException {
+        final RoundResult result = this.previousResult;
+        if (result == null) {
+            throw new NoPreviousDrawException();
+        }
+        return result;
+    }
+
+    /**
+     * @return the current pot value: the carried pot plus the sales of every shard
+     */
+    @Override
+    public int getPot() {
+        int pot = this.carriedPot;
+        for (final Shard shard : this.shards) {
+            pot += shard.nbSold * SilanisLottery.TICKET_PRICE;
+        }
+        return pot;
+    }
+
+    public int getNbShards() {
+        return this.shards.length;
+    }
+
+    /**
+     * @return the number of tickets left in the current lottery
+     */
+    public int getRemaining() {
+        int remaining = 0;
+        for (final Shard shard : this.shards) {
+            remaining += shard.remaining;
+        }
+        return remaining;
+    }
+
+    /**
+     * Pick a shard with a probability proportional to its remaining tickets
+     *
+     * @return the shard index, -1 if every shard is sold out
+     */
+    private int pickShard() {
+        final int remaining = this.getRemaining();
+        if (remaining <= 0) {
+            return -1;
+        }
+        int target = this.shardPickers.get().nextInt(remaining);
+        for (int i = 0; i < this.shards.length; i++) {
+            target -= this.shards[i].remaining;
+            if (target < 0) {
+                return i;
+            }
+        }
+        // remaining tickets sold meanwhile: any shard with tickets left
+        for (int i = 0; i < this.shards.length; i++) {
+            if (this.shards[i].remaining > 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param ticket ticket number, between 1 and nbTickets
+     * @return the index of the shard owning the ticket
+     */
+    private int shardOf(final int ticket) {
+        final int position = Arrays.binarySearch(this.offsets, ticket - 1);
+        // ticket - 1 is either the offset of its shard or falls between two offsets
+        return position >= 0 ? position : -position - 2;
+    }
+
+    /**
+     * Lock every shard, always in the same order
+     */
+    private void lockAll() {
+        for (final Shard shard : this.shards) {
+            shard.lock.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int i = this.shards.length - 1; i >= 0; i--) {
+            this.shards[i].lock.unlock();
+        }
+    }
+
+    /**
+     * Tickets of a shard, numbered from 1 to size, only touched under lock
+     */
+    private static final class Shard {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final DrawableInteger drawableTickets;
+
+        private final TicketLedger ticketLedger;
+
+        /**
+         * Number of tickets sold, read without lock by getPot()
+         */
+        private volatile int nbSold;
+
+        /**
+         * Number of tickets left, read without lock by the picker
+         */
+        private volatile int remaining;
+
+        private Shard(final int size, final RandomGenerator random) {
+            this.drawableTickets = new DrawableInteger(size, random);
+            this.ticketLedger = new TicketLedger(size);
+            this.remaining = size;
+        }
+
+        private void record(final int ticket, final String buyerName) {
+            this.ticketLedger.record(ticket, buyerName);
+            this.nbSold++;
+            this.remaining--;
+        }
+
+        private void reset() {
+            this.drawableTickets.reset();
+            this.ticketLedger.reset();
+            this.nbSold = 0;
+            this.remaining = this.drawableTickets.getSize();
+        }
+    }
+}
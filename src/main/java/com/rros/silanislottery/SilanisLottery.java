@@ -1,9 +1,16 @@
 package com.rros.silanislottery;
 
+import com.rros.draw.RandomSource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
 /**
  * Silanis Lottery
  */
-public class SilanisLottery {
+public class SilanisLottery implements Lottery {
 
     /**
      * Number of winners
@@ -24,6 +31,22 @@ public class SilanisLottery {
      * Ticket price
      */
     public final static int TICKET_PRICE = 10;
+    /**
+     * Number of tickets (and balls) of each lottery
+     */
+    private final int nbTickets;
+    /**
+     * Source of the generators used by each lottery
+     */
+    private final RandomSource randomSource;
+    /**
+     * Generator shared by each lottery, null if they use randomSource
+     */
+    private final RandomGenerator random;
+    /**
+     * History the results of each drawn lottery are recorded to, null if there is none
+     */
+    private final DrawHistory drawHistory;
     /**
      * Previous lottery
      */
@@ -46,7 +69,52 @@ public class SilanisLottery {
      * @param pot input pot
      */
     public SilanisLottery(final int pot) {
-        this(new SingleLottery(pot));
+        this(pot, MAX_BALL);
+    }
+
+    /**
+     * This constructor is used so that we can handle ticket ranges larger than MAX_BALL
+     *
+     * @param pot       input pot
+     * @param nbTickets number of tickets (and balls) of each lottery, at least NB_WINNERS
+     */
+    public SilanisLottery(final int pot, final int nbTickets) {
+        this(pot, nbTickets, RandomSource.LEGACY);
+    }
+
+    /**
+     * This constructor is used so that we can choose the random source of the draws
+     *
+     * @param pot          input pot
+     * @param nbTickets    number of tickets (and balls) of each lottery, at least NB_WINNERS
+     * @param randomSource source of the generators used by each lottery
+     */
+    public SilanisLottery(final int pot, final int nbTickets, final RandomSource randomSource) {
+        this(pot, nbTickets, randomSource, null);
+    }
+
+    /**
+     * This constructor is used so that we can keep the results of the lotteries older than the previous one
+     *
+     * @param pot          input pot
+     * @param nbTickets    number of tickets (and balls) of each lottery, at least NB_WINNERS
+     * @param randomSource source of the generators used by each lottery
+     * @param drawHistory  history the results of each drawn lottery are recorded to, null for none
+     */
+    public SilanisLottery(final int pot, final int nbTickets, final RandomSource randomSource, final DrawHistory drawHistory) {
+        this(new SingleLottery(pot, nbTickets, randomSource), nbTickets, randomSource, null, drawHistory);
+    }
+
+    /**
+     * This constructor is used so that every lottery draws from a given generator, e.g. a seeded stream of a
+     * simulation.
+     *
+     * @param pot       input pot
+     * @param nbTickets number of tickets (and balls) of each lottery, at least NB_WINNERS
+     * @param random    generator shared by each lottery
+     */
+    SilanisLottery(final int pot, final int nbTickets, final RandomGenerator random) {
+        this(new SingleLottery(pot, nbTickets, random), nbTickets, null, random, null);
     }
 
     /**
@@ -55,7 +123,15 @@ public class SilanisLottery {
      * @param currentLottery input current lottery
      */
     SilanisLottery(final SingleLottery currentLottery) {
+        this(currentLottery, MAX_BALL, RandomSource.LEGACY, null, null);
+    }
+
+    private SilanisLottery(final SingleLottery currentLottery, final int nbTickets, final RandomSource randomSource, final RandomGenerator random, final DrawHistory drawHistory) {
         this.currentLottery = currentLottery;
+        this.nbTickets = nbTickets;
+        this.randomSource = randomSource;
+        this.random = random;
+        this.drawHistory = drawHistory;
     }
 
     /**
@@ -68,25 +144,132 @@ public class SilanisLottery {
      * @throws InvalidBuyerNameException the provided buyer's name is invalid
      * @throws NoAvailableTicketException no more ticket is available for this draw
      */
+    @Override
     public int purchaseTicket(final String buyerName) throws NoAvailableTicketException, InvalidBuyerNameException {
         return this.currentLottery.purchaseTicket(buyerName);
     }
 
+    /**
+     * Purchase a ticket without throwing.
+     *
+     * Delegates to SingleLottery.tryPurchaseTicket() for the current lottery.
+     *
+     * @param buyerName ticket buyer's first name, has to be not null, not empty, not a white-space only String.
+     * @return the ticket number if the purchase succeeded, a negative PurchaseStatus code otherwise
+     */
+    @Override
+    public int tryPurchaseTicket(final String buyerName) {
+        return this.currentLottery.tryPurchaseTicket(buyerName);
+    }
+
+    /**
+     * Purchase a ticket chosen by the buyer.
+     *
+     * Delegates to SingleLottery.purchaseTicket(String, int) for the current lottery.
+     *
+     * @param buyerName ticket buyer's first name, has to be not null, not empty, not a white-space only String.
+     * @param ticket    chosen ticket number, between 1 and the number of tickets
+     * @return the ticket number
+     * @throws InvalidBuyerNameException the provided buyer's name is invalid
+     * @throws NoAvailableTicketException the ticket has already been purchased or does not exist
+     */
+    public int purchaseTicket(final String buyerName, final int ticket) throws NoAvailableTicketException, InvalidBuyerNameException {
+        return this.currentLottery.purchaseTicket(buyerName, ticket);
+    }
+
+    /**
+     * Purchase a ticket chosen by the buyer without throwing.
+     *
+     * Delegates to SingleLottery.tryPurchaseTicket(String, int) for the current lottery.
+     *
+     * @param buyerName ticket buyer's first name, has to be not null, not empty, not a white-space only String.
+     * @param ticket    chosen ticket number
+     * @return the ticket number if the purchase succeeded, a negative PurchaseStatus code otherwise
+     */
+    public int tryPurchaseTicket(final String buyerName, final int ticket) {
+        return this.currentLottery.tryPurchaseTicket(buyerName, ticket);
+    }
+
+    /**
+     * Purchase one ticket per buyer in a single call.
+     *
+     * Delegates to SingleLottery.purchaseTickets() for the current lottery.
+     *
+     * @param buyerNames ticket buyers' first names, each one has to be not null, not empty, not a white-space only String.
+     * @return the ticket numbers, in the order of buyerNames
+     * @throws InvalidBuyerNameException one of the provided buyers' names is invalid
+     * @throws NoAvailableTicketException not enough tickets are available for this draw
+     */
+    @Override
+    public int[] purchaseTickets(final List<String> buyerNames) throws NoAvailableTicketException, InvalidBuyerNameException {
+        return this.currentLottery.purchaseTickets(buyerNames);
+    }
+
     /**
      * Draw lottery.
      *
      * Delegates to SingleLottery.drawLottery() for the current lottery and
      * then saves the previous lottery and start anew the current one.
      *
+     * The results of the lottery drawn before the previous one cannot be
+     * read anymore: that lottery is reset and reused as the current one
+     * instead of allocating a new one for each round.
+     *
      * @return the values of the drawn balls
      */
+    @Override
     public int[] drawLottery() {
         final int[] lotteryResults = this.currentLottery.drawLottery();
-        this.previousLottery = this.currentLottery;
-        this.currentLottery = new SingleLottery(this.currentLottery.getPot());
+        this.startNextLottery();
         return lotteryResults;
     }
 
+    /**
+     * Restore tickets of the current lottery sold before a restart, see SingleLottery.restorePurchases()
+     *
+     * @param round sold tickets, distinct, and their buyers
+     */
+    void restorePurchases(final RestoredRound round) {
+        this.currentLottery.restorePurchases(round);
+    }
+
+    /**
+     * Restore a draw done before a restart: same as drawLottery() with the given balls
+     *
+     * @param drawResults values of the drawn balls, NB_WINNERS of them
+     */
+    void restoreDraw(final int[] drawResults) {
+        this.currentLottery.restoreDraw(drawResults);
+        this.startNextLottery();
+    }
+
+    /**
+     * Save the current lottery, once drawn, as the previous one and start anew the current one, then record the drawn
+     * lottery in the history, if any: a failed history write leaves the lottery ready for the next round
+     *
+     * @throws UncheckedIOException the drawn lottery could not be recorded in the history
+     */
+    private void startNextLottery() {
+        final SingleLottery recycledLottery = this.previousLottery;
+        this.previousLottery = this.currentLottery;
+        if (recycledLottery == null) {
+            this.currentLottery = this.random == null
+                    ? new SingleLottery(this.previousLottery.getPot(), this.nbTickets, this.randomSource)
+                    : new SingleLottery(this.previousLottery.getPot(), this.nbTickets, this.random);
+        } else {
+            recycledLottery.reset(this.previousLottery.getPot());
+            this.currentLottery = recycledLottery;
+        }
+
+        if (this.drawHistory != null) {
+            try {
+                this.drawHistory.record(this.previousLottery.getDrawResults(), this.previousLottery.getWinners(), this.previousLottery.getPot());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
     /**
      * Produce the string displaying the winners of the latest draw
      *
@@ -96,6 +279,7 @@ public class SilanisLottery {
      * @return string displaying the winners of the latest draw
      * @throws NoPreviousDrawException "You should draw first" if there was no previous draw
      */
+    @Override
     public String generateWinnersMessage() throws NoPreviousDrawException {
         if (this.previousLottery == null) {
             throw new NoPreviousDrawException();
@@ -112,6 +296,14 @@ public class SilanisLottery {
         return previousLottery;
     }
 
+    /**
+     * Used for snapshots
+     * @return the current lottery
+     */
+    SingleLottery getCurrentLottery() {
+        return this.currentLottery;
+    }
+
     /**
      * Used for test purposes
      * @return true if tickets are available for the current lottery, false otherwise
@@ -131,6 +323,7 @@ public class SilanisLottery {
     /**
      * @return the current pot value
      */
+    @Override
     public int getPot() {
         return this.currentLottery.getPot();
     }
@@ -1,9 +1,14 @@
 package com.rros.silanislottery;
 
 import com.rros.draw.DrawableInteger;
+import com.rros.draw.FloydSampler;
 import com.rros.draw.NoAvailableDrawWithoutReplacementException;
+import com.rros.draw.RandomSource;
 
-import java.util.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.random.RandomGenerator;
 
 /**
  * Class handling a single lottery
@@ -15,20 +20,86 @@ import java.util.*;
 public class SingleLottery {
     private int pot;
 
-    private DrawableInteger drawableTickets = new DrawableInteger();
+    /**
+     * Number of tickets (and balls) of this lottery
+     */
+    private final int nbTickets;
+
+    /**
+     * Source of the generators used to draw tickets and balls
+     */
+    private final RandomSource randomSource;
+
+    private final DrawableInteger drawableTickets;
+
+    /**
+     * Sampler drawing the NB_WINNERS balls
+     */
+    private final FloydSampler ballSampler;
+
+    /**
+     * Ledger from ticket to buyer's name
+     */
+    private final TicketLedger ticketLedger;
+
+    /**
+     * Lottery winners, reused from one round to the next when this is reset
+     */
+    private final Winner[] winners = new Winner[SilanisLottery.NB_WINNERS];
 
     /**
-     * Map from ticket to buyer's name
+     * Values of the drawn balls, meaningful once this has been drawn
      */
-    private Map<Integer, String> ticketBuyerNames = new HashMap<>();
+    private final int[] drawResults = new int[SilanisLottery.NB_WINNERS];
 
     /**
-     * Lottery winners
+     * true once this has been drawn
      */
-    private Winner[] winners;
+    private boolean drawn;
 
     public SingleLottery(int pot) {
+        this(pot, SilanisLottery.MAX_BALL);
+    }
+
+    /**
+     * @param pot       input pot
+     * @param nbTickets number of tickets (and balls), numbered from 1 to nbTickets, at least NB_WINNERS
+     */
+    public SingleLottery(int pot, int nbTickets) {
+        this(pot, nbTickets, RandomSource.LEGACY);
+    }
+
+    /**
+     * @param pot          input pot
+     * @param nbTickets    number of tickets (and balls), numbered from 1 to nbTickets, at least NB_WINNERS
+     * @param randomSource source of the generators used to draw tickets and balls
+     */
+    public SingleLottery(int pot, int nbTickets, RandomSource randomSource) {
+        this(pot, nbTickets, randomSource, new DrawableInteger(nbTickets, randomSource), new FloydSampler(randomSource));
+    }
+
+    /**
+     * This constructor is used so that tickets and balls are drawn from a given generator, e.g. a seeded stream of a
+     * simulation. getRandomSource() then returns null.
+     *
+     * @param pot       input pot
+     * @param nbTickets number of tickets (and balls), numbered from 1 to nbTickets, at least NB_WINNERS
+     * @param random    generator used to draw tickets and balls
+     */
+    SingleLottery(int pot, int nbTickets, RandomGenerator random) {
+        this(pot, nbTickets, null, new DrawableInteger(nbTickets, random), new FloydSampler(random));
+    }
+
+    private SingleLottery(int pot, int nbTickets, RandomSource randomSource, DrawableInteger drawableTickets, FloydSampler ballSampler) {
+        if (nbTickets < SilanisLottery.NB_WINNERS) {
+            throw new IllegalArgumentException("The number of tickets is expected to be at least " + SilanisLottery.NB_WINNERS);
+        }
         this.pot = pot;
+        this.nbTickets = nbTickets;
+        this.randomSource = randomSource;
+        this.drawableTickets = drawableTickets;
+        this.ticketLedger = new TicketLedger(nbTickets);
+        this.ballSampler = ballSampler;
     }
 
     /**
@@ -54,10 +125,10 @@ public class SingleLottery {
      * Purchase a ticket. This will also update the pot.
      * <p>
      * Given a ticket buyer's first name, this will return a random ticket number that still is available.
-     * Ticket number will be returned from 1 to 50.
+     * Ticket number will be returned from 1 to the number of tickets (50 by default).
      * The pot is incremented by TICKET_PRICE.
      * <p>
-     * Nice-to-have: similar function where the buyer chooses its ticket number.
+     * See purchaseTicket(String, int) for a ticket number chosen by the buyer.
      *
      * @param buyerName ticket buyer's first name, has to be not null, not empty, not a white-space only String.
      * @return the ticket number
@@ -65,34 +136,161 @@ public class SingleLottery {
      * @throws NoAvailableTicketException no more ticket is available for this draw
      */
     public int purchaseTicket(final String buyerName) throws NoAvailableTicketException, InvalidBuyerNameException {
+        final int result = this.tryPurchaseTicket(buyerName);
+        switch (result) {
+            case PurchaseStatus.ALREADY_DRAWN:
+                throw new SingleLotteryAlreadyDrawnException();
+            case PurchaseStatus.INVALID_BUYER_NAME:
+                throw new InvalidBuyerNameException("The buyer's name is expected to be a non-empty String");
+            case PurchaseStatus.NO_AVAILABLE_TICKET:
+                throw new NoAvailableTicketException();
+            default:
+                return result;
+        }
+    }
+
+    /**
+     * Purchase a ticket without throwing: same as purchaseTicket(), failures being reported as PurchaseStatus codes.
+     *
+     * @param buyerName ticket buyer's first name, has to be not null, not empty, not a white-space only String.
+     * @return the ticket number if the purchase succeeded, a negative PurchaseStatus code otherwise
+     */
+    public int tryPurchaseTicket(final String buyerName) {
         if (this.isAlreadyDrawn()) {
-            throw new SingleLotteryAlreadyDrawnException();
+            return PurchaseStatus.ALREADY_DRAWN;
         }
 
-        if (buyerName == null || buyerName.trim().isEmpty()) {
-            throw new InvalidBuyerNameException("The buyer's name is expected to be a non-empty String");
+        if (!SingleLottery.isValidBuyerName(buyerName)) {
+            return PurchaseStatus.INVALID_BUYER_NAME;
         }
 
         // draw ticket
-        final int ticket;
+        final int ticket = this.drawableTickets.tryDraw();
+        if (ticket == DrawableInteger.NO_DRAW) {
+            return PurchaseStatus.NO_AVAILABLE_TICKET;
+        }
+
+        // Store buyer, the ledger throws IllegalStateException if the ticket has already been bought: should not occur
+        // due to how DrawableInteger.tryDraw() is implemented
+        this.ticketLedger.record(ticket, buyerName);
+
+        // update pot
+        this.pot += SilanisLottery.TICKET_PRICE;
+
+        return ticket;
+    }
+
+    /**
+     * Purchase a ticket chosen by the buyer. This will also update the pot.
+     * <p>
+     * The ticket is taken out of the drawable tickets in O(1) (see DrawableInteger.remove()): the tickets purchased
+     * afterwards without a number stay uniformly drawn among the remaining ones.
+     *
+     * @param buyerName ticket buyer's first name, has to be not null, not empty, not a white-space only String.
+     * @param ticket    chosen ticket number, between 1 and the number of tickets
+     * @return the ticket number
+     * @throws InvalidBuyerNameException  the provided buyer's name is invalid
+     * @throws NoAvailableTicketException the ticket has already been purchased or does not exist
+     */
+    public int purchaseTicket(final String buyerName, final int ticket) throws NoAvailableTicketException, InvalidBuyerNameException {
+        final int result = this.tryPurchaseTicket(buyerName, ticket);
+        switch (result) {
+            case PurchaseStatus.ALREADY_DRAWN:
+                throw new SingleLotteryAlreadyDrawnException();
+            case PurchaseStatus.INVALID_BUYER_NAME:
+                throw new InvalidBuyerNameException("The buyer's name is expected to be a non-empty String");
+            case PurchaseStatus.NO_AVAILABLE_TICKET:
+                throw new NoAvailableTicketException();
+            default:
+                return result;
+        }
+    }
+
+    /**
+     * Purchase a ticket chosen by the buyer without throwing: same as purchaseTicket(String, int), failures being
+     * reported as PurchaseStatus codes.
+     *
+     * @param buyerName ticket buyer's first name, has to be not null, not empty, not a white-space only String.
+     * @param ticket    chosen ticket number
+     * @return the ticket number if the purchase succeeded, NO_AVAILABLE_TICKET if the ticket has already been
+     * purchased or does not exist, another negative PurchaseStatus code otherwise
+     */
+    public int tryPurchaseTicket(final String buyerName, final int ticket) {
+        if (this.isAlreadyDrawn()) {
+            return PurchaseStatus.ALREADY_DRAWN;
+        }
+
+        if (!SingleLottery.isValidBuyerName(buyerName)) {
+            return PurchaseStatus.INVALID_BUYER_NAME;
+        }
+
+        if (ticket < 1 || ticket > this.nbTickets || !this.drawableTickets.remove(ticket)) {
+            return PurchaseStatus.NO_AVAILABLE_TICKET;
+        }
+
+        this.ticketLedger.record(ticket, buyerName);
+        this.pot += SilanisLottery.TICKET_PRICE;
+
+        return ticket;
+    }
+
+    /**
+     * @param buyerName ticket buyer's first name
+     * @return true if buyerName is not null, not empty, not a white-space only String (checked without allocating)
+     */
+    static boolean isValidBuyerName(final String buyerName) {
+        if (buyerName == null) {
+            return false;
+        }
+        for (int i = 0; i < buyerName.length(); i++) {
+            // same characters as the ones String.trim() removes
+            if (buyerName.charAt(i) > ' ') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Purchase one ticket per buyer in a single call. This will also update the pot.
+     * <p>
+     * The batch is validated once and then all its tickets are drawn at once: either every buyer gets a ticket, or
+     * none does and the lottery is left untouched.
+     *
+     * @param buyerNames ticket buyers' first names, each one has to be not null, not empty, not a white-space only String.
+     * @return the ticket numbers, in the order of buyerNames
+     * @throws InvalidBuyerNameException  one of the provided buyers' names is invalid
+     * @throws NoAvailableTicketException not enough tickets are available for this draw
+     */
+    public int[] purchaseTickets(final List<String> buyerNames) throws NoAvailableTicketException, InvalidBuyerNameException {
+        if (this.isAlreadyDrawn()) {
+            throw new SingleLotteryAlreadyDrawnException();
+        }
+
+        for (final String buyerName : buyerNames) {
+            if (!SingleLottery.isValidBuyerName(buyerName)) {
+                throw new InvalidBuyerNameException("The buyer's name is expected to be a non-empty String");
+            }
+        }
+
+        // draw tickets
+        final int[] tickets = new int[buyerNames.size()];
         try {
-            ticket = this.drawableTickets.drawWithoutReplacement();
+            this.drawableTickets.drawWithoutReplacement(tickets.length, tickets, 0);
         } catch (NoAvailableDrawWithoutReplacementException e) {
             throw new NoAvailableTicketException();
         }
 
-        if (this.ticketBuyerNames.containsKey(ticket)) {
-            // Should not occur due to how DrawableInteger.drawWithoutReplacement() is implemented
-            throw new IllegalStateException("Ticket " + ticket + " has already been bought.");
+        // Store buyers, tickets are distinct due to how DrawableInteger.drawWithoutReplacement() is implemented
+        int i = 0;
+        for (final String buyerName : buyerNames) {
+            this.ticketLedger.record(tickets[i++], buyerName);
         }
 
-        // Store buyer
-        this.ticketBuyerNames.put(ticket, buyerName);
-
         // update pot
-        this.pot += SilanisLottery.TICKET_PRICE;
+        this.pot += SilanisLottery.TICKET_PRICE * tickets.length;
 
-        return ticket;
+        return tickets;
     }
 
     /**
@@ -114,39 +312,72 @@ public class SingleLottery {
             throw new SingleLotteryAlreadyDrawnException();
         }
 
-        final DrawableInteger drawableBalls = new DrawableInteger();
         final int[] drawResults = new int[SilanisLottery.NB_WINNERS];
 
-        final List<Winner> winnersList = new ArrayList<>();
-        final int[] prizes = this.computePrizes();
-        for (int i = 0; i < SilanisLottery.NB_WINNERS; i++) {
-            // 1- draw
-            final int drawResult;
-            try {
-                drawResult = drawableBalls.drawWithoutReplacement();
-            } catch (NoAvailableDrawWithoutReplacementException e) {
-                throw new IllegalStateException("Unexpected state occurs if there is not enough balls to draw up to NB_WINNERS", e);
-            }
+        // 1- draw: NB_WINNERS balls out of nbTickets do not need a whole bag of balls
+        this.ballSampler.sample(this.nbTickets, SilanisLottery.NB_WINNERS, drawResults, 0);
+
+        this.settleDraw(drawResults);
+        return drawResults;
+    }
+
+    /**
+     * Restore tickets sold before a restart, e.g. from a snapshot and a journal. This will also update the pot.
+     * <p>
+     * The tickets are taken out of the pool at once: this is only possible while no ticket has been sold.
+     *
+     * @param round sold tickets, distinct, and their buyers
+     * @throws IllegalStateException a ticket has already been sold in this lottery
+     */
+    void restorePurchases(final RestoredRound round) {
+        if (this.isAlreadyDrawn()) {
+            throw new SingleLotteryAlreadyDrawnException();
+        }
 
-            drawResults[i] = drawResult;
+        this.drawableTickets.exclude(round.getTickets(), 0, round.getCount());
+        this.ticketLedger.restore(round);
+        this.pot += SilanisLottery.TICKET_PRICE * round.getCount();
+    }
+
+    /**
+     * Restore a draw done before a restart, e.g. from a journal: same as drawLottery() with the given balls.
+     *
+     * @param drawResults values of the drawn balls, NB_WINNERS of them
+     */
+    void restoreDraw(final int[] drawResults) {
+        if (this.isAlreadyDrawn()) {
+            throw new SingleLotteryAlreadyDrawnException();
+        }
+        if (drawResults.length != SilanisLottery.NB_WINNERS) {
+            throw new IllegalArgumentException("Expected " + SilanisLottery.NB_WINNERS + " balls, got " + drawResults.length);
+        }
+        this.settleDraw(drawResults);
+    }
+
+    /**
+     * Define the winners of the drawn balls, pay their prizes and close this lottery
+     *
+     * @param drawResults values of the drawn balls
+     */
+    private void settleDraw(final int[] drawResults) {
+        // prizes are computed from the pot before the draw
+        final int potBeforeDraw = this.pot;
+        for (int i = 0; i < SilanisLottery.NB_WINNERS; i++) {
+            final int drawResult = drawResults[i];
 
-            // 2- add winner
-            if (!this.ticketBuyerNames.containsKey(drawResult)) {
-                winnersList.add(null);
-            } else {
-                winnersList.add(
-                        // prizes is supposed to have NB_WINNERS elements
-                        new Winner(this.ticketBuyerNames.get(drawResult), prizes[i])
-                );
+            // 2- add winner (null if the ticket was not purchased)
+            final String buyerName = this.ticketLedger.getBuyerName(drawResult);
+            if (buyerName != null) {
+                final int prize = SingleLottery.computePrize(potBeforeDraw, i);
+                this.winners[i] = new Winner(buyerName, prize);
 
                 // 3- update pot
-                this.pot -= prizes[i];
+                this.pot -= prize;
             }
 
         }
-        this.winners = winnersList.toArray(new Winner[SilanisLottery.NB_WINNERS]);
-        return drawResults;
-
+        System.arraycopy(drawResults, 0, this.drawResults, 0, SilanisLottery.NB_WINNERS);
+        this.drawn = true;
     }
 
     /**
@@ -155,7 +386,23 @@ public class SingleLottery {
      * @return true if this has already been drawn, false otherwise
      */
     private boolean isAlreadyDrawn() {
-        return this.winners != null;
+        return this.drawn;
+    }
+
+    /**
+     * Start this lottery anew, as if it was a new instance with the given pot.
+     * <p>
+     * The ticket pool, the buyers and the winners array are reused: only the tickets sold so far are undone. The
+     * winners array returned by getWinners() is cleared, so previous results have to be read before resetting.
+     *
+     * @param pot input pot
+     */
+    public void reset(final int pot) {
+        this.pot = pot;
+        this.drawableTickets.reset();
+        this.ticketLedger.reset();
+        Arrays.fill(this.winners, null);
+        this.drawn = false;
     }
 
     /**
@@ -166,7 +413,37 @@ public class SingleLottery {
      * @return Array of NB_WINNERS int corresponding to the prizes.
      */
     int[] computePrizes() {
-        return new int[]{this.pot / 2 * 3 / 4, this.pot / 2 * 3 / 20, this.pot / 20};
+        return SingleLottery.computePrizes(this.pot);
+    }
+
+    /**
+     * Compute the values of the prizes for a value of the pot.
+     *
+     * @param pot input pot
+     * @return Array of NB_WINNERS int corresponding to the prizes.
+     */
+    static int[] computePrizes(final int pot) {
+        return new int[]{SingleLottery.computePrize(pot, 0), SingleLottery.computePrize(pot, 1), SingleLottery.computePrize(pot, 2)};
+    }
+
+    /**
+     * Compute the value of one prize for a value of the pot, without allocating.
+     *
+     * @param pot  input pot
+     * @param rank rank of the ball, from 0 to NB_WINNERS - 1
+     * @return the prize of the ball
+     */
+    static int computePrize(final int pot, final int rank) {
+        switch (rank) {
+            case 0:
+                return pot / 2 * 3 / 4;
+            case 1:
+                return pot / 2 * 3 / 20;
+            case 2:
+                return pot / 20;
+            default:
+                throw new IllegalArgumentException("Unexpected ball rank: " + rank);
+        }
     }
 
     /**
@@ -174,7 +451,7 @@ public class SingleLottery {
      *
      * @return Array of NB_WINNERS Winner, one or more element might be null
      * if the corresponding winning ball's ticket has not been
-     * purchased.
+     * purchased. The array is cleared if this is reset.
      * @throws SingleLotteryNotDrawnException the lottery has not been drawn
      */
     public Winner[] getWinners() throws SingleLotteryNotDrawnException {
@@ -202,10 +479,20 @@ public class SingleLottery {
             throw new SingleLotteryNotDrawnException();
         }
 
+        return SingleLottery.formatWinnersMessage(this.winners, this.computePrizes());
+    }
+
+    /**
+     * Produce the string displaying winners, see generateWinnersMessage()
+     *
+     * @param winners winners, null elements for the balls which ticket was not purchased
+     * @param prizes  prizes displayed for each ball
+     * @return string displaying the winners
+     */
+    static String formatWinnersMessage(final Winner[] winners, final int[] prizes) {
         final StringJoiner firstLineSj = new StringJoiner("\t");
         final StringJoiner secondLineSj = new StringJoiner("\t");
-        final int[] prizes = this.computePrizes();
-        for (int i = 0; i < this.winners.length; i++) {
+        for (int i = 0; i < winners.length; i++) {
             firstLineSj.add(SingleLottery.ordinal(i + 1) + " ball");
             final String secondLinePart = winners[i] == null ? "No winner" : winners[i].getFirstName();
             secondLineSj.add(secondLinePart + ": " + prizes[i] + "$");
@@ -220,6 +507,42 @@ public class SingleLottery {
         return pot;
     }
 
+    /**
+     * @return the number of tickets (and balls) of this lottery
+     */
+    public int getNbTickets() {
+        return nbTickets;
+    }
+
+    /**
+     * @return the source of the generators used to draw tickets and balls
+     */
+    public RandomSource getRandomSource() {
+        return randomSource;
+    }
+
+    /**
+     * Used for snapshots
+     *
+     * @return the values of the drawn balls, in draw order
+     * @throws SingleLotteryNotDrawnException the lottery has not been drawn
+     */
+    int[] getDrawResults() throws SingleLotteryNotDrawnException {
+        if (!this.isAlreadyDrawn()) {
+            throw new SingleLotteryNotDrawnException();
+        }
+        return this.drawResults.clone();
+    }
+
+    /**
+     * Used for snapshots
+     *
+     * @return the ledger of the tickets sold in this lottery
+     */
+    TicketLedger getTicketLedger() {
+        return this.ticketLedger;
+    }
+
     /**
      * Used for test purposes
      * @return true if a ticket is available for the current draw, false otherwise
@@ -0,0 +1,307 @@
+package com.rros.silanislottery;
+
+import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Lottery run by a single thread, fed by any number of producer threads through a pre-allocated ring buffer
+ * <p>
+ * Producers claim a slot of the ring (one atomic increment), fill it and publish it; the engine thread applies the
+ * published commands in sequence order, as many as are available at once, then releases their slots. The lottery is
+ * only called by the engine thread: it does not need any lock and commands are applied in a deterministic order (the
+ * order of the claims). Results come back through CompletableFutures completed by the engine thread, so callers should
+ * neither run long actions nor submit commands in their non-async dependent stages.
+ * <p>
+ * When the ring is full, producers wait for the engine to release slots (back-pressure). How the engine waits for
+ * commands, and producers for free slots, is set by the WaitStrategy.
+ * <p>
+ * Commands have to be submitted before close(): the ones claimed before close() are applied, later submissions are
+ * rejected. close() flags the claimed sequence, so that producers and the engine agree on the last command.
+ */
+public class SingleWriterLottery implements Closeable {
+
+    /**
+     * How threads wait for each other
+     */
+    public enum WaitStrategy {
+        /**
+         * Spin: lowest latency, one core busy at all times. Only for machines with a core per engine and producer
+         * thread: with fewer cores, spinning threads hold the processor the others are waiting for
+         */
+        BUSY_SPIN,
+        /**
+         * Spin, yielding the processor between checks
+         */
+        YIELDING,
+        /**
+         * Park the engine thread when there is no command, producers waking it up: no CPU when idle, higher latency
+         */
+        BLOCKING
+    }
+
+    private static final int PURCHASE = 1;
+    private static final int DRAW = 2;
+    private static final int WINNERS = 3;
+    private static final int POT = 4;
+
+    /**
+     * Flag of claimedSequence once closed, far above any sequence
+     */
+    private static final long CLOSED = 1L << 62;
+
+    /**
+     * Time a producer parks for between two checks of a full ring, in nanoseconds (BLOCKING strategy)
+     */
+    private static final long PRODUCER_PARK_NANOS = 1_000;
+
+    private final Lottery lottery;
+
+    private final Slot[] ring;
+
+    /**
+     * ring.length - 1, ring.length being a power of two
+     */
+    private final int mask;
+
+    private final WaitStrategy waitStrategy;
+
+    /**
+     * Last sequence claimed by a producer, flagged with CLOSED once closed
+     */
+    private final AtomicLong claimedSequence = new AtomicLong(-1);
+
+    /**
+     * Last sequence to be applied, set by close()
+     */
+    private volatile long lastSequence = Long.MAX_VALUE;
+
+    /**
+     * Last sequence applied by the engine thread, its slot and the previous ones being free
+     */
+    private volatile long appliedSequence = -1;
+
+    /**
+     * True while the engine thread is (about to be) parked, BLOCKING strategy only
+     */
+    private volatile boolean engineParked;
+
+    private final Thread thread;
+
+    private SingleWriterLottery(final Lottery lottery, final int capacity, final WaitStrategy waitStrategy) {
+        this.lottery = lottery;
+        this.ring = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            this.ring[i] = new Slot();
+        }
+        this.mask = capacity - 1;
+        this.waitStrategy = waitStrategy;
+        this.thread = new Thread(this::run, "lottery-single-writer");
+    }
+
+    /**
+     * Start the engine thread of a lottery
+     *
+     * @param lottery      lottery, only called by the engine thread from now on
+     * @param capacity     number of slots of the ring, a power of two
+     * @param waitStrategy how the engine and the producers wait for each other
+     * @return the started engine, to be closed
+     */
+    public static SingleWriterLottery start(final Lottery lottery, final int capacity, final WaitStrategy waitStrategy) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("The capacity is expected to be a power of two");
+        }
+        final SingleWriterLottery engine = new SingleWriterLottery(lottery, capacity, waitStrategy);
+        engine.thread.start();
+        return engine;
+    }
+
+    /**
+     * Purchase a ticket for the current draw, see Lottery.tryPurchaseTicket()
+     *
+     * @param buyerName ticket buyer's first name
+     * @return the ticket number if the purchase succeeded, a negative PurchaseStatus code otherwise
+     */
+    public CompletableFuture<Integer> purchaseTicket(final String buyerName) {
+        final CompletableFuture<Integer> future = new CompletableFuture<>();
+        this.publish(PURCHASE, buyerName, future);
+        return future;
+    }
+
+    /**
+     * Draw the current lottery and start the next one, after the commands submitted before
+     *
+     * @return the values of the drawn balls
+     */
+    public CompletableFuture<int[]> drawLottery() {
+        final CompletableFuture<int[]> future = new CompletableFuture<>();
+        this.publish(DRAW, null, future);
+        return future;
+    }
+
+    /**
+     * @return the winners message of the latest draw, completed exceptionally with NoPreviousDrawException if there
+     * was none
+     */
+    public CompletableFuture<String> generateWinnersMessage() {
+        final CompletableFuture<String> future = new CompletableFuture<>();
+        this.publish(WINNERS, null, future);
+        return future;
+    }
+
+    /**
+     * @return the pot once the commands submitted before are applied
+     */
+    public CompletableFuture<Integer> getPot() {
+        final CompletableFuture<Integer> future = new CompletableFuture<>();
+        this.publish(POT, null, future);
+        return future;
+    }
+
+    /**
+     * Apply the commands claimed so far, then stop the engine thread
+     */
+    @Override
+    public void close() {
+        long claimed = this.claimedSequence.get();
+        while ((claimed & CLOSED) == 0 && !this.claimedSequence.compareAndSet(claimed, claimed | CLOSED)) {
+            claimed = this.claimedSequence.get();
+        }
+        if ((claimed & CLOSED) == 0) {
+            this.lastSequence = claimed;
+        }
+        LockSupport.unpark(this.thread);
+        try {
+            this.thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void publish(final int type, final String buyerName, final CompletableFuture<?> future) {
+        final long sequence = this.claimedSequence.incrementAndGet();
+        if ((sequence & CLOSED) != 0) {
+            // claimed after close(): the engine does not wait for this sequence
+            throw new IllegalStateException("The lottery engine is closed");
+        }
+
+        // back-pressure: wait for the engine to release the slot, used one lap earlier
+        final long wrapPoint = sequence - this.ring.length;
+        while (this.appliedSequence < wrapPoint) {
+            switch (this.waitStrategy) {
+                case BUSY_SPIN:
+                    Thread.onSpinWait();
+                    break;
+                case YIELDING:
+                    Thread.yield();
+                    break;
+                default:
+                    LockSupport.parkNanos(PRODUCER_PARK_NANOS);
+                    break;
+            }
+        }
+
+        final Slot slot = this.ring[(int) sequence & this.mask];
+        slot.type = type;
+        slot.buyerName = buyerName;
+        slot.future = future;
+        // publication: the fields above are visible to the engine thread once it reads this sequence
+        slot.sequence = sequence;
+
+        if (this.engineParked) {
+            LockSupport.unpark(this.thread);
+        }
+    }
+
+    /**
+     * Engine loop
+     */
+    private void run() {
+        long applied = -1;
+        while (true) {
+            // batch: every contiguous published command
+            long available = applied;
+            while (this.ring[(int) (available + 1) & this.mask].sequence == available + 1) {
+                available++;
+            }
+
+            if (available > applied) {
+                for (long sequence = applied + 1; sequence <= available; sequence++) {
+                    this.apply(this.ring[(int) sequence & this.mask]);
+                }
+                applied = available;
+                // releases the slots of the batch at once
+                this.appliedSequence = applied;
+            } else if (applied == this.lastSequence) {
+                return;
+            } else {
+                this.await(applied);
+            }
+        }
+    }
+
+    /**
+     * Wait for the command following applied to be published
+     */
+    private void await(final long applied) {
+        switch (this.waitStrategy) {
+            case BUSY_SPIN:
+                Thread.onSpinWait();
+                break;
+            case YIELDING:
+                Thread.yield();
+                break;
+            default:
+                this.engineParked = true;
+                // checked again after engineParked is set, so that a producer publishing meanwhile unparks this thread
+                if (applied != this.lastSequence && this.ring[(int) (applied + 1) & this.mask].sequence != applied + 1) {
+                    LockSupport.park(this);
+                }
+                this.engineParked = false;
+                break;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void apply(final Slot slot) {
+        final CompletableFuture<Object> future = (CompletableFuture<Object>) slot.future;
+        final int type = slot.type;
+        final String buyerName = slot.buyerName;
+        slot.future = null;
+        slot.buyerName = null;
+        try {
+            switch (type) {
+                case PURCHASE:
+                    future.complete(this.lottery.tryPurchaseTicket(buyerName));
+                    break;
+                case DRAW:
+                    future.complete(this.lottery.drawLottery());
+                    break;
+                case WINNERS:
+                    future.complete(this.lottery.generateWinnersMessage());
+                    break;
+                default:
+                    future.complete(this.lottery.getPot());
+                    break;
+            }
+        } catch (NoPreviousDrawException | RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Command of the ring, reused once applied
+     */
+    private static final class Slot {
+
+        /**
+         * Sequence of the command held, -1 before the first one: written last by the producer
+         */
+        private volatile long sequence = -1;
+
+        private int type;
+        private String buyerName;
+        private CompletableFuture<?> future;
+    }
+}
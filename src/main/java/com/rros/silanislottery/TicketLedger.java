@@ -0,0 +1,235 @@
+package com.rros.silanislottery;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ledger from ticket number to buyer's name
+ * <p>
+ * Tickets form a dense range from 1 to nbTickets: each ticket is mapped to the int id of its buyer in a paged array,
+ * the names being stored once per buyer in a dictionary. A ticket costs 4 bytes, without any boxing nor entry node,
+ * and a lookup is a single array access once the page is known.
+ * <p>
+ * Pages are allocated on the first sale of one of their tickets, so a ledger of millions of tickets is created in O(1).
+ * <p>
+ * A ledger restored from a snapshot keeps the restored buyers in a BuyerDictionary, decoded on demand: their ids come
+ * first, the buyers of later sales get ids after them. A buyer with sales on both sides of the restore gets two ids.
+ */
+class TicketLedger {
+
+    /**
+     * log2 of the number of tickets per page
+     */
+    private static final int PAGE_SHIFT = 10;
+    private static final int PAGE_MASK = (1 << PAGE_SHIFT) - 1;
+
+    /**
+     * Buyer id value of a ticket that has not been sold
+     */
+    private static final int NO_BUYER = 0;
+
+    /**
+     * Buyer ids indexed by ticket number, NO_BUYER for a ticket that has not been sold. A null page has no ticket sold.
+     */
+    private final int[][] pages;
+
+    /**
+     * Length of a page: small ranges (e.g. MAX_BALL tickets) do not need a whole page
+     */
+    private final int pageLength;
+
+    /**
+     * Buyers restored from a snapshot, ids 1 to restoredBuyers.size(), null if there is none
+     */
+    private BuyerDictionary restoredBuyers;
+
+    /**
+     * Number of buyers restored from a snapshot
+     */
+    private int nbRestoredBuyers;
+
+    /**
+     * Buyers' names indexed by buyer id - nbRestoredBuyers - 1
+     */
+    private final List<String> buyerNames = new ArrayList<>();
+
+    /**
+     * Buyer ids indexed by buyers' names
+     */
+    private final Map<String, Integer> buyerIds = new HashMap<>();
+
+    /**
+     * Number of tickets sold
+     */
+    private int nbSold;
+
+    /**
+     * @param nbTickets number of tickets, numbered from 1 to nbTickets
+     */
+    TicketLedger(final int nbTickets) {
+        this.pages = new int[(nbTickets >>> PAGE_SHIFT) + 1][];
+        this.pageLength = Math.min(PAGE_MASK + 1, nbTickets + 1);
+    }
+
+    /**
+     * Record the sale of a ticket
+     *
+     * @param ticket    ticket number
+     * @param buyerName buyer's name
+     * @throws IllegalStateException the ticket has already been sold
+     */
+    void record(final int ticket, final String buyerName) {
+        final int[] page = this.unsoldTicketPage(ticket);
+        page[ticket & PAGE_MASK] = this.buyerId(buyerName);
+        this.nbSold++;
+    }
+
+    /**
+     * Record the sales of a restored round, in a ledger where no ticket has been sold yet
+     *
+     * @param round restored purchases
+     * @throws IllegalStateException a ticket has already been sold
+     */
+    void restore(final RestoredRound round) {
+        if (this.nbSold > 0) {
+            throw new IllegalStateException("Sales can only be restored in an empty ledger");
+        }
+        this.restoredBuyers = round.getBuyers();
+        this.nbRestoredBuyers = this.restoredBuyers == null ? 0 : this.restoredBuyers.size();
+
+        final int[] tickets = round.getTickets();
+        for (int i = 0; i < round.getCount(); i++) {
+            final int buyerId = round.getBuyerId(i);
+            if (buyerId == RestoredRound.NO_BUYER_ID) {
+                this.record(tickets[i], round.getBuyerName(i));
+            } else {
+                this.recordBuyerId(tickets[i], buyerId);
+            }
+        }
+    }
+
+    /**
+     * Copy the sales, in ticket order
+     *
+     * @param tickets  array receiving the sold tickets, at least getNbSold() long
+     * @param buyerIds array receiving the buyer id of each ticket, at least getNbSold() long
+     */
+    void exportSales(final int[] tickets, final int[] buyerIds) {
+        int i = 0;
+        for (int p = 0; p < this.pages.length && i < this.nbSold; p++) {
+            final int[] page = this.pages[p];
+            if (page == null) {
+                continue;
+            }
+            for (int j = 0; j < page.length; j++) {
+                if (page[j] != NO_BUYER) {
+                    tickets[i] = (p << PAGE_SHIFT) | j;
+                    buyerIds[i] = page[j];
+                    i++;
+                }
+            }
+        }
+    }
+
+    /**
+     * @param ticket ticket number
+     * @return the name of the ticket buyer, null if the ticket has not been sold
+     */
+    String getBuyerName(final int ticket) {
+        final int[] page = this.pages[ticket >>> PAGE_SHIFT];
+        if (page == null) {
+            return null;
+        }
+        final int buyerId = page[ticket & PAGE_MASK];
+        return buyerId == NO_BUYER ? null : this.getBuyerNameById(buyerId);
+    }
+
+    /**
+     * @param buyerId buyer id, between 1 and getNbBuyers()
+     * @return the name of the buyer
+     */
+    String getBuyerNameById(final int buyerId) {
+        return buyerId <= this.nbRestoredBuyers
+                ? this.restoredBuyers.get(buyerId)
+                : this.buyerNames.get(buyerId - this.nbRestoredBuyers - 1);
+    }
+
+    /**
+     * @return number of tickets sold
+     */
+    int getNbSold() {
+        return this.nbSold;
+    }
+
+    /**
+     * @return number of distinct buyers
+     */
+    int getNbBuyers() {
+        return this.nbRestoredBuyers + this.buyerNames.size();
+    }
+
+    /**
+     * Forget every sale, the allocated pages are kept for the next round
+     */
+    void reset() {
+        if (this.nbSold == 0) {
+            return;
+        }
+        for (final int[] page : this.pages) {
+            if (page != null) {
+                Arrays.fill(page, NO_BUYER);
+            }
+        }
+        this.buyerNames.clear();
+        this.buyerIds.clear();
+        this.restoredBuyers = null;
+        this.nbRestoredBuyers = 0;
+        this.nbSold = 0;
+    }
+
+    /**
+     * @param buyerName buyer's name
+     * @return the id of the buyer, a new one if this is its first ticket
+     */
+    private int buyerId(final String buyerName) {
+        final Integer buyerId = this.buyerIds.get(buyerName);
+        if (buyerId != null) {
+            return buyerId;
+        }
+        this.buyerNames.add(buyerName);
+        final int newBuyerId = this.getNbBuyers();
+        this.buyerIds.put(buyerName, newBuyerId);
+        return newBuyerId;
+    }
+
+    /**
+     * @param ticket  ticket number
+     * @param buyerId id of its buyer
+     * @throws IllegalStateException the ticket has already been sold
+     */
+    private void recordBuyerId(final int ticket, final int buyerId) {
+        final int[] page = this.unsoldTicketPage(ticket);
+        page[ticket & PAGE_MASK] = buyerId;
+        this.nbSold++;
+    }
+
+    /**
+     * @param ticket ticket number
+     * @return the page of the ticket, allocated if needed
+     * @throws IllegalStateException the ticket has already been sold
+     */
+    private int[] unsoldTicketPage(final int ticket) {
+        int[] page = this.pages[ticket >>> PAGE_SHIFT];
+        if (page == null) {
+            page = new int[this.pageLength];
+            this.pages[ticket >>> PAGE_SHIFT] = page;
+        }
+        if (page[ticket & PAGE_MASK] != NO_BUYER) {
+            throw new IllegalStateException("Ticket " + ticket + " has already been bought.");
+        }
+        return page;
+    }
+}
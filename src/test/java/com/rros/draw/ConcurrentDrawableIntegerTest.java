@@ -0,0 +1,151 @@
+package com.rros.draw;
+
+import com.rros.silanislottery.SilanisLottery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Test class for com.rros.draw.ConcurrentDrawableInteger
+ */
+public class ConcurrentDrawableIntegerTest {
+
+    private static final int NB_THREADS = 8;
+
+    private ConcurrentDrawableInteger drawableInteger;
+
+    @BeforeEach
+    public void setUp() {
+        this.drawableInteger = new ConcurrentDrawableInteger(SilanisLottery.MAX_BALL);
+    }
+
+    @Test
+    public void testDraw() throws Exception {
+        final List<Integer> draws = new ArrayList<>();
+        while (this.drawableInteger.isDrawWithoutReplacementAvailable()) {
+            draws.add(this.drawableInteger.drawWithoutReplacement());
+        }
+        assertThat(draws)
+                .hasSize(SilanisLottery.MAX_BALL)
+                .doesNotHaveDuplicates()
+                .allMatch(draw -> draw >= 1 && draw <= SilanisLottery.MAX_BALL);
+        assertThatExceptionOfType(NoAvailableDrawWithoutReplacementException.class).isThrownBy(() -> this.drawableInteger.drawWithoutReplacement());
+    }
+
+    /**
+     * Test sizes around word and tree boundaries
+     */
+    @Test
+    public void testDrawSizes() throws Exception {
+        for (final int size : new int[]{0, 1, 63, 64, 65, 128, 129, 1000}) {
+            this.drawableInteger = new ConcurrentDrawableInteger(size);
+            final int[] draws = new int[size];
+            this.drawableInteger.drawWithoutReplacement(size, draws, 0);
+            assertThat(draws).as("Draws of a pool of %d values", size).doesNotHaveDuplicates();
+            for (final int draw : draws) {
+                assertThat(draw).isBetween(1, size);
+            }
+            assertThat(this.drawableInteger.isDrawWithoutReplacementAvailable()).isFalse();
+        }
+    }
+
+    @Test
+    public void testBulkDrawNoAvailableDrawException() throws Exception {
+        final int[] out = new int[SilanisLottery.MAX_BALL + 1];
+        assertThatExceptionOfType(NoAvailableDrawWithoutReplacementException.class).isThrownBy(() -> this.drawableInteger.drawWithoutReplacement(SilanisLottery.MAX_BALL + 1, out, 0));
+        assertThat(this.drawableInteger.getRemaining()).isEqualTo(SilanisLottery.MAX_BALL);
+    }
+
+    /**
+     * Test the first draw is uniformly distributed (chi-squared test, 49 degrees of freedom, 0.001 significance level)
+     */
+    @Test
+    public void testDrawIsUniform() throws Exception {
+        final int nbDraws = 100_000;
+        final long[] counts = new long[SilanisLottery.MAX_BALL];
+        for (int i = 0; i < nbDraws; i++) {
+            this.drawableInteger = new ConcurrentDrawableInteger(SilanisLottery.MAX_BALL);
+            // draw a few values first so the draw runs over a partially drawn pool
+            for (int j = 0; j < 5; j++) {
+                this.drawableInteger.drawWithoutReplacement();
+            }
+            counts[this.drawableInteger.drawWithoutReplacement() - 1]++;
+        }
+
+        final double expected = (double) nbDraws / SilanisLottery.MAX_BALL;
+        double chiSquared = 0;
+        for (final long count : counts) {
+            chiSquared += (count - expected) * (count - expected) / expected;
+        }
+        assertThat(chiSquared).isLessThan(85.35);
+    }
+
+    /**
+     * Test concurrent draws never draw a value twice nor more values than the pool size
+     */
+    @Test
+    @Timeout(10)
+    public void testConcurrentDrawsNeverOversell() throws Exception {
+        final int size = 100_000;
+        this.drawableInteger = new ConcurrentDrawableInteger(size);
+        final AtomicIntegerArray drawn = new AtomicIntegerArray(size + 1);
+        final ExecutorService executor = Executors.newFixedThreadPool(NB_THREADS);
+        final CyclicBarrier barrier = new CyclicBarrier(NB_THREADS);
+        final List<Future<Integer>> futures = new ArrayList<>();
+        for (int t = 0; t < NB_THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                barrier.await();
+                int nbDraws = 0;
+                final int[] bulk = new int[3];
+                // each thread tries to draw more than the whole pool
+                for (int i = 0; i < size; i++) {
+                    try {
+                        if (i % 2 == 0) {
+                            drawn.incrementAndGet(this.drawableInteger.drawWithoutReplacement());
+                            nbDraws++;
+                        } else {
+                            this.drawableInteger.drawWithoutReplacement(bulk.length, bulk, 0);
+                            for (final int draw : bulk) {
+                                drawn.incrementAndGet(draw);
+                            }
+                            nbDraws += bulk.length;
+                        }
+                    } catch (NoAvailableDrawWithoutReplacementException e) {
+                        // sold out, or less than 3 values left for a bulk draw
+                    }
+                }
+                return nbDraws;
+            }));
+        }
+
+        int nbDraws = 0;
+        for (final Future<Integer> future : futures) {
+            nbDraws += future.get();
+        }
+        executor.shutdown();
+
+        assertThat(nbDraws).isEqualTo(size);
+        assertThat(this.drawableInteger.getRemaining()).isZero();
+        for (int value = 1; value <= size; value++) {
+            assertThat(drawn.get(value)).as("Number of draws of %d", value).isEqualTo(1);
+        }
+    }
+
+    /**
+     * Test tryDraw() returns NO_DRAW instead of throwing when there is no more available draw
+     */
+    @Test
+    public void testTryDraw() {
+        for (int i = 0; i < SilanisLottery.MAX_BALL; i++) {
+            assertThat(this.drawableInteger.tryDraw()).isBetween(1, SilanisLottery.MAX_BALL);
+        }
+        assertThat(this.drawableInteger.tryDraw()).isEqualTo(ConcurrentDrawableInteger.NO_DRAW);
+    }
+}
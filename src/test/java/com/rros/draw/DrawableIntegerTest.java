@@ -127,4 +127,273 @@ public class DrawableIntegerTest {
         assertThatExceptionOfType(NoAvailableDrawWithoutReplacementException.class).isThrownBy(() -> this.drawableInteger.drawWithoutReplacement());
         // assertThatThrownBy(() -> this.drawableInteger.draw()).isInstanceOf(NoAvailableDrawWithoutReplacementException.class);
     }
+
+    /**
+     * Test every value of a size-parameterized pool is drawn exactly once
+     */
+    @Test
+    public void testDrawCustomSize() throws Exception {
+        final int size = 1000;
+        this.drawableInteger = new DrawableInteger(size);
+        assertThat(this.drawableInteger.getSize()).isEqualTo(size);
+
+        final List<Integer> draws = new ArrayList<>();
+        this.fillDraws(draws);
+        assertThat(draws)
+                .hasSize(size)
+                .doesNotHaveDuplicates()
+                .allMatch(draw -> draw >= 1 && draw <= size);
+        assertThat(this.drawableInteger.getRemaining()).isZero();
+        assertThat(this.drawableInteger.getDisplacedCount())
+                .as("No slot is left in the draw range")
+                .isZero();
+    }
+
+    /**
+     * Test a pool in the millions stores only the slots displaced by the draws
+     */
+    @Test
+    @Timeout(1)
+    public void testDrawLargeSizeIsSparse() throws Exception {
+        final int size = 100_000_000;
+        final int nbDraws = 10_000;
+        this.drawableInteger = new DrawableInteger(size);
+
+        final Set<Integer> draws = new HashSet<>();
+        for (int i = 0; i < nbDraws; i++) {
+            final int draw = this.drawableInteger.drawWithoutReplacement();
+            assertThat(draw).isBetween(1, size);
+            draws.add(draw);
+        }
+        assertThat(draws).hasSize(nbDraws);
+        assertThat(this.drawableInteger.getRemaining()).isEqualTo(size - nbDraws);
+        assertThat(this.drawableInteger.getDisplacedCount())
+                .as("At most one displaced slot per draw")
+                .isLessThanOrEqualTo(nbDraws);
+    }
+
+    /**
+     * Test an empty pool has no available draw
+     */
+    @Test
+    public void testDrawEmptySize() throws Exception {
+        this.drawableInteger = new DrawableInteger(0);
+        assertThat(this.drawableInteger.isDrawWithoutReplacementAvailable()).isFalse();
+        assertThatExceptionOfType(NoAvailableDrawWithoutReplacementException.class).isThrownBy(() -> this.drawableInteger.drawWithoutReplacement());
+        assertThatIllegalArgumentException().isThrownBy(() -> new DrawableInteger(-1));
+    }
+
+    /**
+     * Test every built-in random source draws every value exactly once
+     */
+    @Test
+    public void testDrawWithEachRandomSource() throws Exception {
+        for (final RandomSource randomSource : RandomSource.values()) {
+            this.drawableInteger = new DrawableInteger(SilanisLottery.MAX_BALL, randomSource);
+
+            final List<Integer> draws = new ArrayList<>();
+            this.fillDraws(draws);
+            assertThat(draws)
+                    .as("Draws with %s", randomSource)
+                    .hasSize(SilanisLottery.MAX_BALL)
+                    .doesNotHaveDuplicates();
+        }
+    }
+
+    /**
+     * Test the bulk draw gives the same values as consecutive single draws with the same seed
+     */
+    @Test
+    public void testBulkDraw() throws Exception {
+        final long seed = System.currentTimeMillis();
+        this.drawableInteger = new DrawableInteger(new Random(seed));
+        final List<Integer> draws = new ArrayList<>();
+        this.fillDraws(draws);
+
+        this.drawableInteger = new DrawableInteger(new Random(seed));
+        final int[] bulkDraws = new int[SilanisLottery.MAX_BALL + 2];
+        this.drawableInteger.drawWithoutReplacement(10, bulkDraws, 1);
+        this.drawableInteger.drawWithoutReplacement(SilanisLottery.MAX_BALL - 10, bulkDraws, 11);
+
+        assertThat(this.drawableInteger.isDrawWithoutReplacementAvailable()).isFalse();
+        assertThat(Arrays.copyOfRange(bulkDraws, 1, SilanisLottery.MAX_BALL + 1))
+                .containsExactly(draws.stream().mapToInt(Integer::intValue).toArray());
+        assertThat(bulkDraws[0]).as("Values before offset are left untouched").isZero();
+        assertThat(bulkDraws[SilanisLottery.MAX_BALL + 1]).as("Values after offset + k are left untouched").isZero();
+    }
+
+    /**
+     * Test the bulk draw draws nothing when less than k draws are available
+     */
+    @Test
+    public void testBulkDrawNoAvailableDrawException() throws Exception {
+        final int[] out = new int[SilanisLottery.MAX_BALL + 1];
+        assertThatExceptionOfType(NoAvailableDrawWithoutReplacementException.class).isThrownBy(() -> this.drawableInteger.drawWithoutReplacement(SilanisLottery.MAX_BALL + 1, out, 0));
+        assertThat(this.drawableInteger.getRemaining()).isEqualTo(SilanisLottery.MAX_BALL);
+        assertThat(out).containsOnly(0);
+
+        assertThatExceptionOfType(IndexOutOfBoundsException.class).isThrownBy(() -> this.drawableInteger.drawWithoutReplacement(2, out, SilanisLottery.MAX_BALL));
+        assertThatExceptionOfType(IndexOutOfBoundsException.class).isThrownBy(() -> this.drawableInteger.drawWithoutReplacement(-1, out, 0));
+    }
+
+    /**
+     * Test reset() puts every drawn value back in the bag
+     */
+    @Test
+    public void testReset() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            this.drawableInteger.drawWithoutReplacement();
+        }
+        this.drawableInteger.reset();
+        assertThat(this.drawableInteger.getRemaining()).isEqualTo(SilanisLottery.MAX_BALL);
+        assertThat(this.drawableInteger.getDisplacedCount()).isZero();
+
+        final List<Integer> draws = new ArrayList<>();
+        this.fillDraws(draws);
+        assertThat(draws)
+                .hasSize(SilanisLottery.MAX_BALL)
+                .doesNotHaveDuplicates();
+    }
+
+    /**
+     * Test tryDraw() returns NO_DRAW instead of throwing when there is no more available draw
+     */
+    @Test
+    public void testTryDraw() {
+        final Set<Integer> draws = new HashSet<>();
+        for (int i = 0; i < SilanisLottery.MAX_BALL; i++) {
+            draws.add(this.drawableInteger.tryDraw());
+        }
+        assertThat(draws)
+                .hasSize(SilanisLottery.MAX_BALL)
+                .doesNotContain(DrawableInteger.NO_DRAW);
+        assertThat(this.drawableInteger.tryDraw()).isEqualTo(DrawableInteger.NO_DRAW);
+        assertThat(this.drawableInteger.tryDraw()).isEqualTo(DrawableInteger.NO_DRAW);
+    }
+
+    /**
+     * Test excluded values are never drawn, and every other value is drawn exactly once
+     */
+    @Test
+    public void testExclude() throws Exception {
+        final int[] excluded = new int[]{1, 7, SilanisLottery.MAX_BALL, 44, 45};
+        this.drawableInteger.exclude(excluded, 0, excluded.length);
+        assertThat(this.drawableInteger.getRemaining()).isEqualTo(SilanisLottery.MAX_BALL - excluded.length);
+
+        final Set<Integer> draws = new HashSet<>();
+        while (this.drawableInteger.isDrawWithoutReplacementAvailable()) {
+            draws.add(this.drawableInteger.drawWithoutReplacement());
+        }
+        assertThat(draws)
+                .hasSize(SilanisLottery.MAX_BALL - excluded.length)
+                .doesNotContain(1, 7, SilanisLottery.MAX_BALL, 44, 45);
+    }
+
+    /**
+     * Test values cannot be excluded once the bag has been drawn, nor be out of range or duplicated
+     */
+    @Test
+    public void testExcludeInvalid() throws Exception {
+        assertThatIllegalArgumentException().isThrownBy(() -> this.drawableInteger.exclude(new int[]{0}, 0, 1));
+        assertThatIllegalArgumentException().isThrownBy(() -> this.drawableInteger.exclude(new int[]{3, 3}, 0, 2));
+
+        this.drawableInteger.drawWithoutReplacement();
+        assertThatIllegalStateException().isThrownBy(() -> this.drawableInteger.exclude(new int[]{3}, 0, 1));
+
+        this.drawableInteger.reset();
+        this.drawableInteger.exclude(new int[]{3}, 0, 1);
+        assertThat(this.drawableInteger.getRemaining()).isEqualTo(SilanisLottery.MAX_BALL - 1);
+    }
+
+    /**
+     * Test a given value is taken out of the bag once, whether it has been displaced by previous draws or not
+     */
+    @Test
+    public void testRemove() {
+        assertThat(this.drawableInteger.remove(17)).isTrue();
+        assertThat(this.drawableInteger.remove(17)).isFalse();
+        assertThat(this.drawableInteger.isDrawable(17)).isFalse();
+        assertThat(this.drawableInteger.getRemaining()).isEqualTo(SilanisLottery.MAX_BALL - 1);
+        assertThatIllegalArgumentException().isThrownBy(() -> this.drawableInteger.remove(0));
+        assertThatIllegalArgumentException().isThrownBy(() -> this.drawableInteger.remove(SilanisLottery.MAX_BALL + 1));
+
+        final Set<Integer> draws = new HashSet<>();
+        while (this.drawableInteger.isDrawWithoutReplacementAvailable()) {
+            draws.add(this.drawableInteger.tryDraw());
+        }
+        assertThat(draws).hasSize(SilanisLottery.MAX_BALL - 1).doesNotContain(17);
+    }
+
+    /**
+     * Test the values moved by exclude() are found by remove() and isDrawable() when their index was built before
+     */
+    @Test
+    public void testRemoveAfterExcludeIndexed() throws Exception {
+        final DrawableInteger drawable = new DrawableInteger(10, new Random(7));
+        assertThat(drawable.isDrawable(10)).isTrue();
+        drawable.exclude(new int[]{3}, 0, 1);
+
+        assertThat(drawable.isDrawable(3)).isFalse();
+        assertThat(drawable.isDrawable(10)).isTrue();
+        assertThat(drawable.remove(10)).isTrue();
+        assertThat(drawable.isDrawable(10)).isFalse();
+        assertThat(drawable.getRemaining()).isEqualTo(8);
+    }
+
+    /**
+     * Test removals interleaved with draws, exclusions and resets against a reference set of the remaining values
+     */
+    @Test
+    public void testRemoveInterleaved() {
+        final Random random = new Random(42);
+        final DrawableInteger drawable = new DrawableInteger(1000, new Random(7));
+        final Set<Integer> remaining = new HashSet<>();
+        for (int round = 0; round < 20; round++) {
+            drawable.reset();
+            remaining.clear();
+            for (int value = 1; value <= 1000; value++) {
+                remaining.add(value);
+            }
+            if (round % 2 == 1) {
+                final int[] excluded = {round, 500 + round, 1000 - round};
+                drawable.exclude(excluded, 0, excluded.length);
+                for (final int value : excluded) {
+                    remaining.remove(value);
+                }
+            }
+
+            while (!remaining.isEmpty()) {
+                if (random.nextBoolean()) {
+                    final int value = 1 + random.nextInt(1000);
+                    assertThat(drawable.isDrawable(value)).isEqualTo(remaining.contains(value));
+                    assertThat(drawable.remove(value)).isEqualTo(remaining.remove(value));
+                } else {
+                    final int draw = drawable.tryDraw();
+                    assertThat(remaining.remove(draw)).isTrue();
+                }
+                assertThat(drawable.getRemaining()).isEqualTo(remaining.size());
+            }
+            assertThat(drawable.tryDraw()).isEqualTo(DrawableInteger.NO_DRAW);
+            assertThat(drawable.getDisplacedCount()).isZero();
+        }
+    }
+
+    /**
+     * Test draws stay uniform over the remaining values once a value has been removed
+     */
+    @Test
+    public void testDrawUniformAfterRemove() {
+        final int nbDraws = 30_000;
+        final int[] counts = new int[5];
+        final DrawableInteger drawable = new DrawableInteger(4, new Random(42));
+        for (int i = 0; i < nbDraws; i++) {
+            drawable.reset();
+            drawable.remove(2);
+            counts[drawable.tryDraw()]++;
+        }
+        assertThat(counts[2]).isZero();
+        for (final int value : new int[]{1, 3, 4}) {
+            assertThat(counts[value]).isBetween(nbDraws / 3 - 500, nbDraws / 3 + 500);
+        }
+    }
 }
@@ -0,0 +1,151 @@
+package com.rros.draw;
+
+import com.rros.silanislottery.SilanisLottery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Test class for com.rros.draw.FloydSampler
+ * <p>
+ * The uniformity tests are chi-squared goodness-of-fit tests against the uniform distribution. The samplers are seeded
+ * so the tests are reproducible, the critical values are the ones of a 0.001 significance level.
+ */
+public class FloydSamplerTest {
+
+    private static final long SEED = 42L;
+
+    private FloydSampler sampler;
+
+    @BeforeEach
+    public void setUp() {
+        this.sampler = new FloydSampler(new SplittableRandom(SEED));
+    }
+
+    /**
+     * Chi-squared statistic of observed counts against a uniform distribution
+     *
+     * @param counts  observed counts, one per category
+     * @param nbDraws total number of observations
+     * @return the chi-squared statistic
+     */
+    private static double chiSquared(final long[] counts, final int nbDraws) {
+        final double expected = (double) nbDraws / counts.length;
+        double chiSquared = 0;
+        for (final long count : counts) {
+            chiSquared += (count - expected) * (count - expected) / expected;
+        }
+        return chiSquared;
+    }
+
+    @Test
+    public void testSample() {
+        final int[] out = new int[SilanisLottery.NB_WINNERS + 2];
+        for (int i = 0; i < 1000; i++) {
+            this.sampler.sample(SilanisLottery.MAX_BALL, SilanisLottery.NB_WINNERS, out, 1);
+            final int[] sample = Arrays.copyOfRange(out, 1, SilanisLottery.NB_WINNERS + 1);
+            assertThat(sample).doesNotHaveDuplicates();
+            for (final int value : sample) {
+                assertThat(value).isBetween(1, SilanisLottery.MAX_BALL);
+            }
+            assertThat(out[0]).as("Values before offset are left untouched").isZero();
+            assertThat(out[SilanisLottery.NB_WINNERS + 1]).as("Values after offset + k are left untouched").isZero();
+        }
+    }
+
+    /**
+     * Test k = n draws every value
+     */
+    @Test
+    public void testSampleAll() {
+        final int[] out = new int[SilanisLottery.MAX_BALL];
+        this.sampler.sample(SilanisLottery.MAX_BALL, SilanisLottery.MAX_BALL, out, 0);
+        Arrays.sort(out);
+        for (int i = 0; i < SilanisLottery.MAX_BALL; i++) {
+            assertThat(out[i]).isEqualTo(i + 1);
+        }
+    }
+
+    @Test
+    public void testSampleInvalidArguments() {
+        final int[] out = new int[SilanisLottery.NB_WINNERS];
+        assertThatIllegalArgumentException().isThrownBy(() -> this.sampler.sample(2, 3, out, 0));
+        assertThatExceptionOfType(IndexOutOfBoundsException.class).isThrownBy(() -> this.sampler.sample(SilanisLottery.MAX_BALL, 2, out, 2));
+    }
+
+    /**
+     * Test each draw position (1st, 2nd and 3rd ball) is uniformly distributed over the balls
+     */
+    @Test
+    public void testSampleEachPositionIsUniform() {
+        final int nbDraws = 200_000;
+        final long[][] counts = new long[SilanisLottery.NB_WINNERS][SilanisLottery.MAX_BALL];
+        final int[] out = new int[SilanisLottery.NB_WINNERS];
+        for (int i = 0; i < nbDraws; i++) {
+            this.sampler.sample(SilanisLottery.MAX_BALL, SilanisLottery.NB_WINNERS, out, 0);
+            for (int position = 0; position < SilanisLottery.NB_WINNERS; position++) {
+                counts[position][out[position] - 1]++;
+            }
+        }
+
+        // 49 degrees of freedom
+        for (int position = 0; position < SilanisLottery.NB_WINNERS; position++) {
+            assertThat(chiSquared(counts[position], nbDraws))
+                    .as("Chi-squared statistic of ball %d", position + 1)
+                    .isLessThan(85.35);
+        }
+    }
+
+    /**
+     * Test every ordered sample is equally likely: the draw order is random, not only the drawn set
+     */
+    @Test
+    public void testSampleOrderedSamplesAreUniform() {
+        final int n = 5;
+        final int k = 3;
+        final int nbDraws = 120_000;
+        final Map<String, Integer> categories = new HashMap<>();
+        final long[] counts = new long[n * (n - 1) * (n - 2)];
+        final int[] out = new int[k];
+        for (int i = 0; i < nbDraws; i++) {
+            this.sampler.sample(n, k, out, 0);
+            final int category = categories.computeIfAbsent(Arrays.toString(out), key -> categories.size());
+            counts[category]++;
+        }
+
+        assertThat(categories).as("Every ordered sample is drawn").hasSize(counts.length);
+        // 59 degrees of freedom
+        assertThat(chiSquared(counts, nbDraws)).isLessThan(99.61);
+    }
+
+    /**
+     * Test the sampler has the same distribution as DrawableInteger.drawWithoutReplacement() for the first ball
+     */
+    @Test
+    public void testSampleMatchesDrawableIntegerDistribution() throws Exception {
+        final int nbDraws = 100_000;
+        final long[] counts = new long[2 * SilanisLottery.MAX_BALL];
+        final int[] out = new int[SilanisLottery.NB_WINNERS];
+        final SplittableRandom random = new SplittableRandom(SEED + 1);
+        for (int i = 0; i < nbDraws; i++) {
+            this.sampler.sample(SilanisLottery.MAX_BALL, SilanisLottery.NB_WINNERS, out, 0);
+            counts[out[0] - 1]++;
+            counts[SilanisLottery.MAX_BALL + new DrawableInteger(SilanisLottery.MAX_BALL, random).drawWithoutReplacement() - 1]++;
+        }
+
+        // homogeneity of the two samples, 49 degrees of freedom
+        double chiSquared = 0;
+        for (int ball = 0; ball < SilanisLottery.MAX_BALL; ball++) {
+            final double expected = (counts[ball] + counts[SilanisLottery.MAX_BALL + ball]) / 2.;
+            chiSquared += (counts[ball] - expected) * (counts[ball] - expected) / expected;
+            chiSquared += (counts[SilanisLottery.MAX_BALL + ball] - expected) * (counts[SilanisLottery.MAX_BALL + ball] - expected) / expected;
+        }
+        assertThat(chiSquared).isLessThan(85.35);
+    }
+}
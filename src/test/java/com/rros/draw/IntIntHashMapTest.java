@@ -0,0 +1,91 @@
+package com.rros.draw;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for com.rros.draw.IntIntHashMap
+ */
+public class IntIntHashMapTest {
+
+    private static final int ABSENT = -1;
+
+    private IntIntHashMap map;
+
+    @BeforeEach
+    public void setUp() {
+        this.map = new IntIntHashMap();
+    }
+
+    @Test
+    public void testPutGet() {
+        assertThat(this.map.get(3, ABSENT)).isEqualTo(ABSENT);
+        this.map.put(3, 30);
+        this.map.put(0, 10);
+        assertThat(this.map.get(3, ABSENT)).isEqualTo(30);
+        assertThat(this.map.get(0, ABSENT)).isEqualTo(10);
+
+        this.map.put(3, 31);
+        assertThat(this.map.get(3, ABSENT)).isEqualTo(31);
+        assertThat(this.map.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void testRemoveAndClear() {
+        this.map.put(1, 1);
+        this.map.put(2, 2);
+        this.map.remove(1);
+        this.map.remove(42);
+        assertThat(this.map.get(1, ABSENT)).isEqualTo(ABSENT);
+        assertThat(this.map.get(2, ABSENT)).isEqualTo(2);
+        assertThat(this.map.size()).isEqualTo(1);
+
+        this.map.clear();
+        assertThat(this.map.get(2, ABSENT)).isEqualTo(ABSENT);
+        assertThat(this.map.size()).isZero();
+    }
+
+    /**
+     * Test a random sequence of operations against java.util.HashMap (exercises rehash and backward shift deletion)
+     */
+    @Test
+    public void testRandomOperations() {
+        final Map<Integer, Integer> expected = new HashMap<>();
+        final Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            final int key = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                this.map.remove(key);
+                expected.remove(key);
+            } else {
+                this.map.put(key, i);
+                expected.put(key, i);
+            }
+        }
+        assertThat(this.map.size()).isEqualTo(expected.size());
+        for (int key = 0; key < 2_000; key++) {
+            assertThat(this.map.get(key, ABSENT)).isEqualTo(expected.getOrDefault(key, ABSENT));
+        }
+    }
+
+    @Test
+    public void testForEach() {
+        final Map<Integer, Integer> expected = new HashMap<>();
+        for (int key = 0; key < 100; key += 3) {
+            this.map.put(key, -key);
+            expected.put(key, -key);
+        }
+        this.map.remove(42);
+        expected.remove(42);
+
+        final Map<Integer, Integer> visited = new HashMap<>();
+        this.map.forEach(visited::put);
+        assertThat(visited).isEqualTo(expected);
+    }
+}
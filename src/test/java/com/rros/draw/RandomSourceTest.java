@@ -0,0 +1,44 @@
+package com.rros.draw;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for com.rros.draw.RandomSource
+ */
+public class RandomSourceTest {
+
+    /**
+     * Test a THREAD_LOCAL generator created by a thread and used by fresh ones draws from the state of the calling
+     * thread: the ThreadLocalRandom instance itself, used by a thread which never called current(), draws values only
+     * depending on the thread id
+     */
+    @Test
+    public void testThreadLocalUsedFromFreshThreads() throws Exception {
+        final RandomGenerator random = RandomSource.THREAD_LOCAL.create();
+        assertThat(random).isNotInstanceOf(ThreadLocalRandom.class);
+        final long[] values = new long[3];
+        for (int i = 0; i < values.length; i++) {
+            final int index = i;
+            final Thread thread = new Thread(() -> values[index] = random.nextLong());
+            thread.start();
+            thread.join();
+        }
+        assertThat(values).doesNotHaveDuplicates();
+    }
+
+    /**
+     * Test every source creates a working generator
+     */
+    @Test
+    public void testCreate() {
+        for (final RandomSource source : RandomSource.values()) {
+            final int value = source.create().nextInt(10);
+            assertThat(value).as(source.name()).isBetween(0, 9);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.rros.silanislottery;
+
+import com.rros.draw.RandomSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for com.rros.silanislottery.AsyncLottery
+ */
+public class AsyncLotteryTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Drain tasks waiting to be run by the test
+     */
+    private List<Runnable> tasks;
+
+    @BeforeEach
+    public void setUp() {
+        this.tasks = new ArrayList<>();
+    }
+
+    private void runTasks() {
+        while (!this.tasks.isEmpty()) {
+            this.tasks.remove(0).run();
+        }
+    }
+
+    /**
+     * Test purchases queued while no drain runs are applied with a single purchaseTickets() call
+     */
+    @Test
+    public void testCoalescing() throws Exception {
+        final SilanisLottery lottery = spy(new SilanisLottery(200, 100));
+        final AsyncLottery asyncLottery = new AsyncLottery(lottery, this.tasks::add);
+
+        final List<CompletableFuture<Integer>> purchases = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            purchases.add(asyncLottery.purchaseTicketAsync("Buyer " + i));
+        }
+        assertThat(this.tasks).hasSize(1);
+        assertThat(purchases).noneMatch(CompletableFuture::isDone);
+
+        this.runTasks();
+
+        final Set<Integer> tickets = new HashSet<>();
+        for (final CompletableFuture<Integer> purchase : purchases) {
+            assertThat(tickets.add(purchase.join())).isTrue();
+        }
+        assertThat(asyncLottery.getNbBatches()).isEqualTo(1);
+        verify(lottery, times(1)).purchaseTickets(anyList());
+        verify(lottery, never()).purchaseTicket(anyString());
+    }
+
+    /**
+     * Test calls are applied in order, a draw splitting the purchases in two batches
+     */
+    @Test
+    public void testOrdering() throws Exception {
+        final AsyncLottery asyncLottery = new AsyncLottery(new SilanisLottery(200, SilanisLottery.NB_WINNERS), this.tasks::add);
+
+        final CompletableFuture<String> noWinners = asyncLottery.winnersAsync();
+        final CompletableFuture<int[]> purchases = asyncLottery.purchaseTicketsAsync(Arrays.asList("Dave", "Remy"));
+        final CompletableFuture<Integer> purchase = asyncLottery.purchaseTicketAsync("Greg");
+        final CompletableFuture<Integer> soldOut = asyncLottery.purchaseTicketAsync("Tommy");
+        final CompletableFuture<Integer> potBeforeDraw = asyncLottery.getPotAsync();
+        final CompletableFuture<int[]> draw = asyncLottery.drawLotteryAsync();
+        final CompletableFuture<Integer> nextRound = asyncLottery.purchaseTicketAsync("Tommy");
+        final CompletableFuture<String> winners = asyncLottery.winnersAsync();
+        this.runTasks();
+
+        assertThatExceptionOfType(CompletionException.class).isThrownBy(noWinners::join).withCauseInstanceOf(NoPreviousDrawException.class);
+        assertThat(purchases.join()).hasSize(2);
+        assertThat(purchase.join()).isBetween(1, SilanisLottery.NB_WINNERS);
+        assertThatExceptionOfType(CompletionException.class).isThrownBy(soldOut::join).withCauseInstanceOf(NoAvailableTicketException.class);
+        assertThat(potBeforeDraw.join()).isEqualTo(230);
+        assertThat(draw.join()).hasSize(SilanisLottery.NB_WINNERS);
+        assertThat(nextRound.join()).isBetween(1, SilanisLottery.NB_WINNERS);
+        assertThat(winners.join()).contains("Dave", "Remy", "Greg");
+        assertThat(asyncLottery.getNbBatches()).isEqualTo(2);
+    }
+
+    /**
+     * Test an invalid name only fails its own purchase
+     */
+    @Test
+    public void testInvalidNameInBatch() {
+        final AsyncLottery asyncLottery = new AsyncLottery(new SilanisLottery(200, 100), this.tasks::add);
+
+        final CompletableFuture<Integer> valid = asyncLottery.purchaseTicketAsync("Dave");
+        final CompletableFuture<Integer> invalid = asyncLottery.purchaseTicketAsync(" ");
+        final CompletableFuture<int[]> invalidBatch = asyncLottery.purchaseTicketsAsync(Arrays.asList("Remy", null));
+        this.runTasks();
+
+        assertThat(valid.join()).isBetween(1, 100);
+        assertThatExceptionOfType(CompletionException.class).isThrownBy(invalid::join).withCauseInstanceOf(InvalidBuyerNameException.class);
+        assertThatExceptionOfType(CompletionException.class).isThrownBy(invalidBatch::join).withCauseInstanceOf(InvalidBuyerNameException.class);
+    }
+
+    /**
+     * Test a batch failing after its tickets were sold (journal write) fails every purchase without selling them again
+     */
+    @Test
+    public void testBatchFailingAfterPurchases() throws Exception {
+        final JournaledLottery lottery = JournaledLottery.open(this.tempDir.resolve("journal"), 200, 100, RandomSource.LEGACY, 1);
+        // every journal write fails from now on
+        lottery.close();
+        final AsyncLottery asyncLottery = new AsyncLottery(lottery, this.tasks::add);
+
+        final List<CompletableFuture<Integer>> purchases = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            purchases.add(asyncLottery.purchaseTicketAsync("Buyer " + i));
+        }
+        this.runTasks();
+
+        for (final CompletableFuture<Integer> purchase : purchases) {
+            assertThatExceptionOfType(CompletionException.class).isThrownBy(purchase::join).withCauseInstanceOf(UncheckedIOException.class);
+        }
+        assertThat(lottery.getPot()).isEqualTo(200 + 3 * SilanisLottery.TICKET_PRICE);
+    }
+
+    /**
+     * Test concurrent callers on a thread pool, the lottery not being thread-safe
+     */
+    @Test
+    public void testConcurrentCallers() throws Exception {
+        final int nbThreads = 4;
+        final int nbPurchasesPerThread = 2_500;
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final AsyncLottery asyncLottery = new AsyncLottery(new SilanisLottery(200, nbThreads * nbPurchasesPerThread), executor);
+            final List<List<CompletableFuture<Integer>>> futures = new ArrayList<>();
+            final List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < nbThreads; t++) {
+                final List<CompletableFuture<Integer>> threadFutures = new ArrayList<>();
+                futures.add(threadFutures);
+                threads.add(new Thread(() -> {
+                    for (int i = 0; i < nbPurchasesPerThread; i++) {
+                        threadFutures.add(asyncLottery.purchaseTicketAsync("Buyer"));
+                    }
+                }));
+            }
+            threads.forEach(Thread::start);
+            for (final Thread thread : threads) {
+                thread.join();
+            }
+
+            final Set<Integer> tickets = new HashSet<>();
+            for (final List<CompletableFuture<Integer>> threadFutures : futures) {
+                for (final CompletableFuture<Integer> future : threadFutures) {
+                    assertThat(tickets.add(future.join())).isTrue();
+                }
+            }
+            assertThat(tickets).hasSize(nbThreads * nbPurchasesPerThread);
+            assertThat(asyncLottery.getPotAsync().join()).isEqualTo(200 + SilanisLottery.TICKET_PRICE * nbThreads * nbPurchasesPerThread);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.rros.silanislottery;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for com.rros.silanislottery.CommandDispatcher
+ */
+public class CommandDispatcherTest {
+
+    private static final String NEW_LINE = System.lineSeparator();
+
+    private Lottery mockLottery;
+
+    private CommandDispatcher dispatcher;
+
+    private StringBuilder out;
+
+    @BeforeEach
+    public void setUp() {
+        this.mockLottery = mock(Lottery.class);
+        this.dispatcher = new CommandDispatcher(this.mockLottery);
+        this.out = new StringBuilder();
+    }
+
+    /**
+     * Test the buyer's name is the trimmed rest of the line
+     */
+    @Test
+    public void testPurchase() {
+        when(this.mockLottery.tryPurchaseTicket("Remy Martin")).thenReturn(12);
+
+        assertThat(this.dispatcher.dispatch("  purchase \t Remy Martin  ", this.out)).isTrue();
+
+        verify(this.mockLottery, times(1)).tryPurchaseTicket("Remy Martin");
+        verifyNoMoreInteractions(this.mockLottery);
+        assertThat(this.out.toString()).isEqualTo("Ticket 12 was purchased by Remy Martin." + NEW_LINE);
+    }
+
+    @Test
+    public void testPurchaseRejected() {
+        when(this.mockLottery.tryPurchaseTicket("")).thenReturn(PurchaseStatus.INVALID_BUYER_NAME);
+        when(this.mockLottery.tryPurchaseTicket("Dave")).thenReturn(PurchaseStatus.NO_AVAILABLE_TICKET);
+
+        this.dispatcher.dispatch("purchase", this.out);
+        this.dispatcher.dispatch("purchase Dave", this.out);
+
+        assertThat(this.out.toString()).isEqualTo("The buyer's name is expected to be a non-empty String" + NEW_LINE
+                + "There is no more available ticket for the current draw." + NEW_LINE);
+    }
+
+    /**
+     * Test a draw command draws the lottery once
+     */
+    @Test
+    public void testDraw() {
+        when(this.mockLottery.drawLottery()).thenReturn(new int[]{4, 8, 15});
+
+        assertThat(this.dispatcher.dispatch("draw", this.out)).isTrue();
+
+        verify(this.mockLottery, times(1)).drawLottery();
+        verifyNoMoreInteractions(this.mockLottery);
+        assertThat(this.out.toString()).startsWith("Lottery draw: [4, 8, 15]" + NEW_LINE);
+    }
+
+    @Test
+    public void testWinners() throws Exception {
+        when(this.mockLottery.generateWinnersMessage()).thenReturn("WINNERS").thenThrow(new NoPreviousDrawException());
+
+        this.dispatcher.dispatch("winners", this.out);
+        this.dispatcher.dispatch("winners", this.out);
+
+        assertThat(this.out.toString()).isEqualTo("WINNERS" + NEW_LINE + new NoPreviousDrawException().getMessage() + NEW_LINE);
+    }
+
+    /**
+     * Test exit and the end of the input close the session
+     */
+    @Test
+    public void testExit() {
+        when(this.mockLottery.getPot()).thenReturn(210);
+
+        assertThat(this.dispatcher.dispatch("exit", this.out)).isFalse();
+        assertThat(this.dispatcher.dispatch(null, this.out)).isFalse();
+
+        assertThat(this.out.toString()).isEqualTo("Closing the application, the current pot is: 210$" + NEW_LINE
+                + "Closing the application, the current pot is: 210$" + NEW_LINE);
+    }
+
+    /**
+     * Test names are matched as whole tokens
+     */
+    @Test
+    public void testUnknownAndEmpty() {
+        assertThat(this.dispatcher.dispatch("", this.out)).isTrue();
+        assertThat(this.dispatcher.dispatch("   ", this.out)).isTrue();
+        assertThat(this.dispatcher.dispatch("purchaseDave", this.out)).isTrue();
+        assertThat(this.dispatcher.dispatch("dra", this.out)).isTrue();
+
+        verifyNoInteractions(this.mockLottery);
+        assertThat(this.out.toString()).isEqualTo("Unknown command: \"purchaseDave\"" + NEW_LINE + "Unknown command: \"dra\"" + NEW_LINE);
+    }
+
+    @Test
+    public void testRegister() {
+        this.dispatcher.register("pot", "", "Display the pot", (lottery, argument, out) -> {
+            out.append(lottery.getPot()).append('/').append(argument);
+            return true;
+        });
+        when(this.mockLottery.getPot()).thenReturn(200);
+
+        this.dispatcher.dispatch("pot  now ", this.out);
+        assertThat(this.out.toString()).isEqualTo("200/now");
+
+        this.out.setLength(0);
+        this.dispatcher.appendHelp(this.out);
+        assertThat(this.out.toString()).contains("purchase %buyer's first name%\tPurchase a ticket (10$)" + NEW_LINE)
+                .endsWith("pot\tDisplay the pot" + NEW_LINE);
+
+        assertThatIllegalArgumentException().isThrownBy(() -> this.dispatcher.register("two words", "", "", (lottery, argument, out) -> true));
+    }
+}
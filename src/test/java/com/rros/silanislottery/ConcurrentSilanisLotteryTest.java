@@ -0,0 +1,221 @@
+package com.rros.silanislottery;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Test class for com.rros.silanislottery.ConcurrentSilanisLottery
+ */
+public class ConcurrentSilanisLotteryTest {
+
+    public static final String TEST_BUYER_NAME = "TEST_BUYER_NAME";
+
+    private static final int NB_THREADS = 8;
+
+    private ConcurrentSilanisLottery lottery;
+
+    @BeforeEach
+    public void setUp() {
+        this.lottery = new ConcurrentSilanisLottery();
+    }
+
+    /**
+     * Sum of the prizes of the latest draw
+     */
+    private int paidPrizes() throws NoPreviousDrawException {
+        int prizes = 0;
+        for (final Winner winner : this.lottery.getWinners()) {
+            if (winner != null) {
+                prizes += winner.getPrize();
+            }
+        }
+        return prizes;
+    }
+
+    @Test
+    public void testPurchaseTicketAndDraw() throws Exception {
+        final List<Integer> tickets = new ArrayList<>();
+        while (this.lottery.isTicketAvailable()) {
+            tickets.add(this.lottery.purchaseTicket(TEST_BUYER_NAME));
+        }
+        assertThat(tickets)
+                .hasSize(SilanisLottery.MAX_BALL)
+                .doesNotHaveDuplicates();
+        assertThat(this.lottery.getPot()).isEqualTo(SilanisLottery.INITIAL_POT + SilanisLottery.MAX_BALL * SilanisLottery.TICKET_PRICE);
+        assertThatExceptionOfType(NoAvailableTicketException.class).isThrownBy(() -> this.lottery.purchaseTicket(TEST_BUYER_NAME));
+
+        final int potBeforeDraw = this.lottery.getPot();
+        assertThat(this.lottery.drawLottery()).hasSize(SilanisLottery.NB_WINNERS).doesNotHaveDuplicates();
+        assertThat(this.lottery.getWinners()).doesNotContainNull();
+        assertThat(this.lottery.getPot()).isEqualTo(potBeforeDraw - this.paidPrizes());
+        assertThat(this.lottery.generateWinnersMessage()).contains(TEST_BUYER_NAME);
+        assertThat(this.lottery.isTicketAvailable()).isTrue();
+    }
+
+    @Test
+    public void testGenerateWinnersMessageThrowsNoPreviousDrawException() throws Exception {
+        assertThatExceptionOfType(NoPreviousDrawException.class)
+                .isThrownBy(() -> this.lottery.generateWinnersMessage());
+    }
+
+    @Test
+    public void testPurchaseTicketInvalidBuyerName() throws Exception {
+        assertThatExceptionOfType(InvalidBuyerNameException.class)
+                .isThrownBy(() -> this.lottery.purchaseTicket(" "));
+        assertThatExceptionOfType(InvalidBuyerNameException.class)
+                .isThrownBy(() -> this.lottery.purchaseTickets(List.of(TEST_BUYER_NAME, "")));
+    }
+
+    /**
+     * Test concurrent purchases never oversell a lottery and every sold ticket is in the pot
+     */
+    @Test
+    @Timeout(10)
+    public void testConcurrentPurchasesNeverOversell() throws Exception {
+        final int nbTickets = 10_000;
+        this.lottery = new ConcurrentSilanisLottery(0, nbTickets);
+        final ExecutorService executor = Executors.newFixedThreadPool(NB_THREADS);
+        final List<Future<Integer>> futures = new ArrayList<>();
+        for (int t = 0; t < NB_THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                int nbPurchases = 0;
+                for (int i = 0; i < nbTickets; i++) {
+                    try {
+                        this.lottery.purchaseTicket(TEST_BUYER_NAME);
+                        nbPurchases++;
+                    } catch (NoAvailableTicketException e) {
+                        // sold out
+                    }
+                }
+                return nbPurchases;
+            }));
+        }
+
+        int nbPurchases = 0;
+        for (final Future<Integer> future : futures) {
+            nbPurchases += future.get();
+        }
+        executor.shutdown();
+
+        assertThat(nbPurchases).isEqualTo(nbTickets);
+        assertThat(this.lottery.getPot()).isEqualTo(nbTickets * SilanisLottery.TICKET_PRICE);
+    }
+
+    /**
+     * Test the pot accounts for every purchase and every prize while draws happen during concurrent purchases
+     */
+    @Test
+    @Timeout(20)
+    public void testConcurrentPurchasesAndDraws() throws Exception {
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicLong nbPurchases = new AtomicLong();
+        final ExecutorService executor = Executors.newFixedThreadPool(NB_THREADS);
+        final List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < NB_THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                while (running.get()) {
+                    try {
+                        this.lottery.purchaseTicket(TEST_BUYER_NAME);
+                        nbPurchases.incrementAndGet();
+                    } catch (NoAvailableTicketException e) {
+                        Thread.yield();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long paidPrizes = 0;
+        for (int i = 0; i < 1_000; i++) {
+            this.lottery.drawLottery();
+            paidPrizes += this.paidPrizes();
+        }
+        running.set(false);
+        for (final Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertThat((long) this.lottery.getPot())
+                .isEqualTo(SilanisLottery.INITIAL_POT + nbPurchases.get() * SilanisLottery.TICKET_PRICE - paidPrizes);
+    }
+
+    /**
+     * Test the next lottery includes the pot of its predecessor before and after the predecessor is drawn
+     */
+    @Test
+    public void testNextLotteryCarriesOverPot() throws Exception {
+        // Test initialisation
+        final ConcurrentSingleLottery closingLottery = new ConcurrentSingleLottery(SilanisLottery.INITIAL_POT);
+        closingLottery.purchaseTickets(List.of(TEST_BUYER_NAME, TEST_BUYER_NAME));
+        final ConcurrentSingleLottery nextLottery = new ConcurrentSingleLottery(closingLottery);
+
+        // Test body
+        nextLottery.purchaseTicket(TEST_BUYER_NAME);
+        assertThat(nextLottery.getPot()).isEqualTo(SilanisLottery.INITIAL_POT + 3 * SilanisLottery.TICKET_PRICE);
+
+        closingLottery.drawLottery();
+        nextLottery.carryOverPot();
+        assertThat(nextLottery.getPot()).isEqualTo(closingLottery.getPot() + SilanisLottery.TICKET_PRICE);
+        assertThatExceptionOfType(SingleLotteryAlreadyDrawnException.class)
+                .as("The closed lottery does not accept purchases anymore")
+                .isThrownBy(() -> closingLottery.purchaseTicket(TEST_BUYER_NAME));
+    }
+
+    /**
+     * Test the results of a draw are an immutable snapshot
+     */
+    @Test
+    public void testPreviousResultIsImmutable() throws Exception {
+        // Test initialisation
+        while (this.lottery.isTicketAvailable()) {
+            this.lottery.purchaseTicket(TEST_BUYER_NAME);
+        }
+        final int[] balls = this.lottery.drawLottery();
+        final RoundResult result = this.lottery.getPreviousResult();
+        final String message = this.lottery.generateWinnersMessage();
+
+        // Test body
+        assertThat(result.getRound()).isEqualTo(1);
+        assertThat(result.getBalls()).isEqualTo(balls);
+        assertThat(result.getPot()).isEqualTo(this.lottery.getPot());
+        result.getWinners()[0] = null;
+        result.getBalls()[0] = 0;
+        assertThat(result.getWinners()).doesNotContainNull();
+        assertThat(result.getBalls()).isEqualTo(balls);
+
+        this.lottery.purchaseTicket(TEST_BUYER_NAME);
+        assertThat(result.generateWinnersMessage())
+                .as("Purchases in the next lottery do not change the results")
+                .isEqualTo(message);
+        this.lottery.drawLottery();
+        assertThat(this.lottery.getPreviousResult().getRound()).isEqualTo(2);
+    }
+
+    /**
+     * Test tryPurchaseTicket() reports failures as PurchaseStatus codes
+     */
+    @Test
+    public void testTryPurchaseTicket() throws Exception {
+        assertThat(this.lottery.tryPurchaseTicket("")).isEqualTo(PurchaseStatus.INVALID_BUYER_NAME);
+        for (int i = 0; i < SilanisLottery.MAX_BALL; i++) {
+            assertThat(this.lottery.tryPurchaseTicket(TEST_BUYER_NAME)).isBetween(1, SilanisLottery.MAX_BALL);
+        }
+        assertThat(this.lottery.tryPurchaseTicket(TEST_BUYER_NAME)).isEqualTo(PurchaseStatus.NO_AVAILABLE_TICKET);
+
+        this.lottery.drawLottery();
+        assertThat(PurchaseStatus.isTicket(this.lottery.tryPurchaseTicket(TEST_BUYER_NAME)))
+                .as("The purchase is made in the next lottery")
+                .isTrue();
+    }
+}
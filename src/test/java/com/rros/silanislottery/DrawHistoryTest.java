@@ -0,0 +1,132 @@
+package com.rros.silanislottery;
+
+import com.rros.draw.RandomSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Test class for com.rros.silanislottery.DrawHistory
+ */
+public class DrawHistoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Record a round which prizes are paid from potBeforeDraw, as SingleLottery.drawLottery() does
+     *
+     * @return the pot after the draw
+     */
+    private static int record(final DrawHistory history, final int[] balls, final int potBeforeDraw, final String... winnerNames) throws Exception {
+        final int[] prizes = SingleLottery.computePrizes(potBeforeDraw);
+        final Winner[] winners = new Winner[SilanisLottery.NB_WINNERS];
+        int pot = potBeforeDraw;
+        for (int i = 0; i < winners.length; i++) {
+            if (winnerNames[i] != null) {
+                winners[i] = new Winner(winnerNames[i], prizes[i]);
+                pot -= prizes[i];
+            }
+        }
+        history.record(balls, winners, pot);
+        return pot;
+    }
+
+    /**
+     * Test a round read from the history gives the same winners message as the lottery it was recorded from
+     */
+    @Test
+    public void testRecordedByLottery() throws Exception {
+        final DrawHistory history = new DrawHistory(10);
+        final SilanisLottery lottery = new SilanisLottery(SilanisLottery.INITIAL_POT, SilanisLottery.MAX_BALL, RandomSource.LEGACY, history);
+        final String[] messages = new String[3];
+        for (int round = 0; round < messages.length; round++) {
+            lottery.purchaseTickets(Collections.nCopies(SilanisLottery.MAX_BALL / 2, "Dave"));
+            final int[] balls = lottery.drawLottery();
+            messages[round] = lottery.generateWinnersMessage();
+            assertThat(history.getRound(round + 1).getBalls()).containsExactly(balls);
+        }
+
+        assertThat(history.getLatestRound()).isEqualTo(3);
+        for (int round = 0; round < messages.length; round++) {
+            assertThat(history.getRound(round + 1).generateWinnersMessage()).isEqualTo(messages[round]);
+        }
+        assertThat(history.getRound(4)).isNull();
+        assertThat(history.getRound(3).getPot()).isEqualTo(lottery.getPot());
+    }
+
+    /**
+     * Test the buyer index lists each round won once, and forgets evicted rounds and their winners
+     */
+    @Test
+    public void testRoundsWonBy() throws Exception {
+        final DrawHistory history = new DrawHistory(2);
+        record(history, new int[]{1, 2, 3}, SilanisLottery.INITIAL_POT, "Dave", null, "Dave");
+        record(history, new int[]{4, 5, 6}, SilanisLottery.INITIAL_POT, "Remy", "Dave", null);
+        assertThat(history.getRoundsWonBy("Dave")).containsExactly(1, 2);
+        assertThat(history.getRoundsWonBy("Remy")).containsExactly(2);
+        assertThat(history.getRoundsWonBy("Greg")).isEmpty();
+
+        record(history, new int[]{7, 8, 9}, SilanisLottery.INITIAL_POT, null, null, "Greg");
+        assertThat(history.getRoundsWonBy("Dave")).containsExactly(2);
+        assertThat(history.getRound(1)).as("Evicted round without spill").isNull();
+        assertThat(history.getOldestRound()).isEqualTo(2);
+
+        record(history, new int[]{10, 11, 12}, SilanisLottery.INITIAL_POT, null, null, null);
+        assertThat(history.getRoundsWonBy("Dave")).isEmpty();
+        assertThat(history.getRoundsWonBy("Greg")).containsExactly(3);
+        assertThat(history.getNbIndexedBuyers()).isEqualTo(1);
+    }
+
+    /**
+     * Test a buyer winning several balls of an evicted round releases a single id, not shared by later winners
+     */
+    @Test
+    public void testEvictBuyerWinningSeveralBalls() throws Exception {
+        final DrawHistory history = new DrawHistory(1);
+        record(history, new int[]{1, 2, 3}, SilanisLottery.INITIAL_POT, "Alice", "Alice", null);
+        record(history, new int[]{4, 5, 6}, SilanisLottery.INITIAL_POT, "Bob", "Carol", null);
+
+        final RoundResult round = history.getRound(2);
+        assertThat(round.getWinners()[0].getFirstName()).isEqualTo("Bob");
+        assertThat(round.getWinners()[1].getFirstName()).isEqualTo("Carol");
+        assertThat(history.getRoundsWonBy("Bob")).containsExactly(2);
+        assertThat(history.getRoundsWonBy("Carol")).containsExactly(2);
+        assertThat(history.getRoundsWonBy("Alice")).isEmpty();
+        assertThat(history.getNbIndexedBuyers()).isEqualTo(2);
+    }
+
+    /**
+     * Test evicted rounds are read back from the spill files
+     */
+    @Test
+    public void testSpill() throws Exception {
+        try (DrawHistory history = new DrawHistory(1, this.tempDir)) {
+            final int firstPot = record(history, new int[]{1, 2, 3}, 500, "Dave", null, "Remy");
+            record(history, new int[]{4, 5, 6}, 600, null, "Greg", null);
+            record(history, new int[]{7, 8, 9}, 700, null, null, null);
+
+            final RoundResult first = history.getRound(1);
+            assertThat(first.getRound()).isEqualTo(1);
+            assertThat(first.getBalls()).containsExactly(1, 2, 3);
+            assertThat(first.getPot()).isEqualTo(firstPot);
+            assertThat(first.getWinners()[0].getPrize()).isEqualTo(SingleLottery.computePrizes(500)[0]);
+            assertThat(first.getWinners()[0].getFirstName()).isEqualTo("Dave");
+            assertThat(first.getWinners()[1]).isNull();
+            assertThat(first.getWinners()[2].getFirstName()).isEqualTo("Remy");
+            assertThat(history.getRound(2).getWinners()[1].getFirstName()).isEqualTo("Greg");
+            assertThat(history.getRound(3).getPot()).isEqualTo(700);
+            assertThat(history.getRoundsWonBy("Dave")).isEmpty();
+        }
+    }
+
+    @Test
+    public void testInvalidCapacity() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new DrawHistory(0));
+    }
+}
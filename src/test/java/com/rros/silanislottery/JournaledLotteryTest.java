@@ -0,0 +1,148 @@
+package com.rros.silanislottery;
+
+import com.rros.draw.RandomSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Test class for com.rros.silanislottery.JournaledLottery
+ */
+public class JournaledLotteryTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Test reopening a journal restores the pot, the previous winners and the tickets sold in the current round
+     */
+    @Test
+    public void testReplay() throws Exception {
+        final Path path = this.tempDir.resolve("lottery.journal");
+        final String winnersMessage;
+        final int pot;
+        final int[] soldTickets = new int[2];
+        try (JournaledLottery lottery = JournaledLottery.open(path, SilanisLottery.INITIAL_POT, SilanisLottery.MAX_BALL, RandomSource.LEGACY, 4)) {
+            for (int i = 0; i < 30; i++) {
+                lottery.purchaseTicket("Buyer" + i);
+            }
+            lottery.drawLottery();
+            winnersMessage = lottery.generateWinnersMessage();
+            soldTickets[0] = lottery.purchaseTicket("Dave");
+            soldTickets[1] = lottery.tryPurchaseTicket("Remy");
+            pot = lottery.getPot();
+        }
+
+        try (JournaledLottery lottery = JournaledLottery.open(path, 0, 0, RandomSource.LEGACY, 4)) {
+            assertThat(lottery.getPot()).isEqualTo(pot);
+            assertThat(lottery.generateWinnersMessage()).isEqualTo(winnersMessage);
+
+            // the two tickets sold before the restart cannot be sold again
+            final int[] tickets = lottery.purchaseTickets(Collections.nCopies(SilanisLottery.MAX_BALL - 2, "Greg"));
+            assertThat(tickets).doesNotContain(soldTickets);
+            assertThat(lottery.tryPurchaseTicket("Greg")).isEqualTo(PurchaseStatus.NO_AVAILABLE_TICKET);
+        }
+    }
+
+    /**
+     * Test a record cut by a crash is dropped, and the following events are appended after the last valid record
+     */
+    @Test
+    public void testReplayTornRecord() throws Exception {
+        final Path path = this.tempDir.resolve("lottery.journal");
+        try (JournaledLottery lottery = JournaledLottery.open(path, SilanisLottery.INITIAL_POT, SilanisLottery.MAX_BALL, RandomSource.LEGACY, 1)) {
+            lottery.purchaseTicket("Dave");
+        }
+        final long validLength = Files.size(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.APPEND)) {
+            // record prefix announcing 20 bytes of payload, followed by only 3 of them
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 20, 1, 2, 3, 4, 1, 0, 0}));
+        }
+
+        try (JournaledLottery lottery = JournaledLottery.open(path, SilanisLottery.INITIAL_POT, SilanisLottery.MAX_BALL, RandomSource.LEGACY, 1)) {
+            assertThat(lottery.getPot()).isEqualTo(SilanisLottery.INITIAL_POT + SilanisLottery.TICKET_PRICE);
+            assertThat(Files.size(path)).isEqualTo(validLength);
+            lottery.purchaseTicket("Remy");
+        }
+
+        try (JournaledLottery lottery = JournaledLottery.open(path, SilanisLottery.INITIAL_POT, SilanisLottery.MAX_BALL, RandomSource.LEGACY, 1)) {
+            assertThat(lottery.getPot()).isEqualTo(SilanisLottery.INITIAL_POT + 2 * SilanisLottery.TICKET_PRICE);
+        }
+    }
+
+    /**
+     * Test events are written once per batch, and a draw commits the batch at once
+     */
+    @Test
+    public void testGroupCommit() throws Exception {
+        final Path path = this.tempDir.resolve("lottery.journal");
+        try (JournaledLottery lottery = JournaledLottery.open(path, SilanisLottery.INITIAL_POT, SilanisLottery.MAX_BALL, RandomSource.LEGACY, 3)) {
+            final long headerLength = Files.size(path);
+            lottery.purchaseTicket("Dave");
+            lottery.purchaseTicket("Remy");
+            assertThat(Files.size(path)).isEqualTo(headerLength);
+
+            lottery.purchaseTicket("Greg");
+            final long batchLength = Files.size(path);
+            assertThat(batchLength).isGreaterThan(headerLength);
+
+            lottery.purchaseTicket("Dave");
+            lottery.drawLottery();
+            assertThat(Files.size(path)).isGreaterThan(batchLength);
+        }
+    }
+
+    @Test
+    public void testOpenNotAJournal() throws IOException {
+        final Path path = this.tempDir.resolve("lottery.journal");
+        Files.write(path, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12});
+        assertThatIOException().isThrownBy(() -> JournaledLottery.open(path, SilanisLottery.INITIAL_POT, SilanisLottery.MAX_BALL, RandomSource.LEGACY, 1));
+    }
+
+    /**
+     * Test a lottery reopened from a snapshot and the events journaled after it matches the one reopened from the
+     * whole journal
+     */
+    @Test
+    public void testReplayFromSnapshot() throws Exception {
+        final Path path = this.tempDir.resolve("lottery.journal");
+        final String winnersMessage;
+        final int pot;
+        try (JournaledLottery lottery = JournaledLottery.open(path, SilanisLottery.INITIAL_POT, SilanisLottery.MAX_BALL, RandomSource.LEGACY, 1, 7)) {
+            for (int round = 0; round < 3; round++) {
+                for (int i = 0; i < 20; i++) {
+                    lottery.purchaseTicket("Buyer" + i);
+                }
+                lottery.drawLottery();
+            }
+            lottery.purchaseTicket("Dave");
+            lottery.purchaseTicket("Remy");
+            winnersMessage = lottery.generateWinnersMessage();
+            pot = lottery.getPot();
+        }
+        final Path snapshotPath = this.tempDir.resolve("lottery.journal.snapshot");
+        assertThat(snapshotPath).exists();
+
+        try (JournaledLottery lottery = JournaledLottery.open(path, 0, 0, RandomSource.LEGACY, 1, 7)) {
+            assertThat(lottery.getPot()).isEqualTo(pot);
+            assertThat(lottery.generateWinnersMessage()).isEqualTo(winnersMessage);
+            assertThat(lottery.getLottery().getCurrentLottery().getTicketLedger().getNbSold()).isEqualTo(2);
+        }
+
+        // same state without the snapshot
+        Files.delete(snapshotPath);
+        try (JournaledLottery lottery = JournaledLottery.open(path, 0, 0, RandomSource.LEGACY, 1)) {
+            assertThat(lottery.getPot()).isEqualTo(pot);
+            assertThat(lottery.generateWinnersMessage()).isEqualTo(winnersMessage);
+        }
+    }
+}
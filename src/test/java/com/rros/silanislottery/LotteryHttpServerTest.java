@@ -0,0 +1,83 @@
+package com.rros.silanislottery;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for com.rros.silanislottery.LotteryHttpServer
+ */
+public class LotteryHttpServerTest {
+
+    private LotteryHttpServer server;
+
+    private HttpClient client;
+
+    private URI uri;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        this.server = LotteryHttpServer.start(new ConcurrentSilanisLottery(200, SilanisLottery.NB_WINNERS),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2);
+        this.client = HttpClient.newHttpClient();
+        this.uri = URI.create("http://localhost:" + this.server.getAddress().getPort());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.server.close();
+    }
+
+    private HttpResponse<String> post(final String path, final String body) throws Exception {
+        return this.client.send(HttpRequest.newBuilder(this.uri.resolve(path)).POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> get(final String path) throws Exception {
+        return this.client.send(HttpRequest.newBuilder(this.uri.resolve(path)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    public void testLotteryCycle() throws Exception {
+        assertThat(this.get(LotteryHttpServer.POT_PATH).body()).isEqualTo("{\"pot\":200}");
+        assertThat(this.get(LotteryHttpServer.WINNERS_PATH).statusCode()).isEqualTo(409);
+
+        for (int i = 0; i < SilanisLottery.NB_WINNERS; i++) {
+            final HttpResponse<String> response = this.post(LotteryHttpServer.TICKETS_PATH, "Rémy \"R\"");
+            assertThat(response.statusCode()).isEqualTo(200);
+            assertThat(response.body()).matches("\\{\"ticket\":[1-3]}");
+        }
+        assertThat(this.post(LotteryHttpServer.TICKETS_PATH, "Dave").statusCode()).isEqualTo(409);
+        assertThat(this.post(LotteryHttpServer.TICKETS_PATH, " ").statusCode()).isEqualTo(400);
+        assertThat(this.get(LotteryHttpServer.POT_PATH).body()).isEqualTo("{\"pot\":230}");
+
+        final HttpResponse<String> draw = this.post(LotteryHttpServer.DRAW_PATH, "");
+        assertThat(draw.statusCode()).isEqualTo(200);
+        assertThat(draw.body()).matches("\\{\"balls\":\\[[1-3],[1-3],[1-3]]}");
+
+        final HttpResponse<String> winners = this.get(LotteryHttpServer.WINNERS_PATH);
+        assertThat(winners.statusCode()).isEqualTo(200);
+        assertThat(winners.body()).startsWith("{\"winners\":\"").contains("Rémy \\\"R\\\"");
+    }
+
+    @Test
+    public void testInvalidRequests() throws Exception {
+        assertThat(this.get(LotteryHttpServer.DRAW_PATH).statusCode()).isEqualTo(405);
+        assertThat(this.post(LotteryHttpServer.POT_PATH, "").statusCode()).isEqualTo(405);
+        assertThat(this.get(LotteryHttpServer.POT_PATH + "/other").statusCode()).isEqualTo(404);
+    }
+
+    @Test
+    public void testToJsonString() {
+        assertThat(LotteryHttpServer.toJsonString("a\"b\\c\td\u0001")).isEqualTo("\"a\\\"b\\\\c\\td\\u0001\"");
+    }
+}
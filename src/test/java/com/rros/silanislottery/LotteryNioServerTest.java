@@ -0,0 +1,194 @@
+package com.rros.silanislottery;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for com.rros.silanislottery.LotteryNioServer
+ */
+public class LotteryNioServerTest {
+
+    private LotteryNioServer server;
+
+    private SocketChannel channel;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        this.server = LotteryNioServer.start(new SilanisLottery(200, 100), new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        this.channel = SocketChannel.open(this.server.getAddress());
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        this.channel.close();
+        this.server.close();
+    }
+
+    private void send(final ByteBuffer requests) throws IOException {
+        requests.flip();
+        while (requests.hasRemaining()) {
+            this.channel.write(requests);
+        }
+    }
+
+    /**
+     * @return the next reply frame, length field excluded
+     */
+    private ByteBuffer receive() throws IOException {
+        final ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+        this.readFully(length);
+        final ByteBuffer frame = ByteBuffer.allocate(length.getInt(0));
+        this.readFully(frame);
+        return frame.flip();
+    }
+
+    private void readFully(final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            assertThat(this.channel.read(buffer)).isNotNegative();
+        }
+    }
+
+    /**
+     * Test pipelined purchases are answered in order by TICKETS frames, until the lottery is sold out
+     */
+    @Test
+    public void testPipelinedPurchases() throws Exception {
+        final ByteBuffer requests = ByteBuffer.allocate(1 << 12);
+        for (int i = 0; i < 101; i++) {
+            LotteryProtocol.putPurchase(requests, ("Buyer " + i).getBytes(StandardCharsets.UTF_8));
+        }
+        LotteryProtocol.putPurchase(requests, " ".getBytes(StandardCharsets.UTF_8));
+        LotteryProtocol.putRequest(requests, LotteryProtocol.POT);
+        this.send(requests);
+
+        final boolean[] sold = new boolean[101];
+        int nbResults = 0;
+        int lastResult = 0;
+        while (nbResults < 102) {
+            final ByteBuffer frame = this.receive();
+            assertThat(frame.get()).isEqualTo(LotteryProtocol.TICKETS);
+            final int count = frame.getInt();
+            assertThat(frame.remaining()).isEqualTo(count * Integer.BYTES);
+            for (int i = 0; i < count; i++, nbResults++) {
+                lastResult = frame.getInt();
+                if (nbResults < 100) {
+                    assertThat(lastResult).isBetween(1, 100);
+                    assertThat(sold[lastResult]).isFalse();
+                    sold[lastResult] = true;
+                } else if (nbResults == 100) {
+                    assertThat(lastResult).isEqualTo(PurchaseStatus.NO_AVAILABLE_TICKET);
+                }
+            }
+        }
+        assertThat(lastResult).isEqualTo(PurchaseStatus.INVALID_BUYER_NAME);
+
+        final ByteBuffer pot = this.receive();
+        assertThat(pot.get()).isEqualTo(LotteryProtocol.POT);
+        assertThat(pot.getInt()).isEqualTo(1200);
+    }
+
+    @Test
+    public void testDraw() throws Exception {
+        final ByteBuffer requests = ByteBuffer.allocate(64);
+        LotteryProtocol.putPurchase(requests, "Dave".getBytes(StandardCharsets.UTF_8));
+        LotteryProtocol.putRequest(requests, LotteryProtocol.DRAW);
+        LotteryProtocol.putPurchase(requests, "Remy".getBytes(StandardCharsets.UTF_8));
+        this.send(requests);
+
+        final ByteBuffer tickets = this.receive();
+        assertThat(tickets.get()).isEqualTo(LotteryProtocol.TICKETS);
+        assertThat(tickets.getInt()).isEqualTo(1);
+
+        final ByteBuffer balls = this.receive();
+        assertThat(balls.get()).isEqualTo(LotteryProtocol.BALLS);
+        assertThat(balls.getInt()).isEqualTo(SilanisLottery.NB_WINNERS);
+        for (int i = 0; i < SilanisLottery.NB_WINNERS; i++) {
+            assertThat(balls.getInt()).isBetween(1, 100);
+        }
+
+        // the purchase after the draw belongs to the next round
+        final ByteBuffer nextTickets = this.receive();
+        assertThat(nextTickets.get()).isEqualTo(LotteryProtocol.TICKETS);
+        assertThat(nextTickets.getInt()).isEqualTo(1);
+        assertThat(nextTickets.getInt()).isBetween(1, 100);
+    }
+
+    /**
+     * Test replies larger than the output buffer are written once the client reads them
+     */
+    @Test
+    public void testBackPressure() throws Exception {
+        final int nbRequests = 100_000;
+        final ByteBuffer requests = ByteBuffer.allocate(nbRequests * LotteryProtocol.FRAME_HEADER_LENGTH);
+        for (int i = 0; i < nbRequests; i++) {
+            LotteryProtocol.putRequest(requests, LotteryProtocol.POT);
+        }
+        final Thread sender = new Thread(() -> {
+            try {
+                this.send(requests);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        sender.start();
+
+        for (int i = 0; i < nbRequests; i++) {
+            final ByteBuffer pot = this.receive();
+            assertThat(pot.get()).isEqualTo(LotteryProtocol.POT);
+            assertThat(pot.getInt()).isEqualTo(200);
+        }
+        sender.join();
+    }
+
+    /**
+     * Test a lottery failure only drops the client of the failing request, the server keeping serving the others
+     */
+    @Test
+    public void testLotteryFailure() throws Exception {
+        final Lottery lottery = mock(Lottery.class);
+        when(lottery.tryPurchaseTicket("Boom")).thenThrow(new IllegalStateException("The lottery engine is closed"));
+        when(lottery.tryPurchaseTicket("Dave")).thenReturn(7);
+        try (LotteryNioServer failingServer = LotteryNioServer.start(lottery, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+             SocketChannel failingChannel = SocketChannel.open(failingServer.getAddress());
+             SocketChannel otherChannel = SocketChannel.open(failingServer.getAddress())) {
+            this.channel.close();
+            this.channel = failingChannel;
+            final ByteBuffer failing = ByteBuffer.allocate(64);
+            LotteryProtocol.putPurchase(failing, "Boom".getBytes(StandardCharsets.UTF_8));
+            this.send(failing);
+            assertThat(this.channel.read(ByteBuffer.allocate(1))).isEqualTo(-1);
+
+            this.channel = otherChannel;
+            final ByteBuffer request = ByteBuffer.allocate(64);
+            LotteryProtocol.putPurchase(request, "Dave".getBytes(StandardCharsets.UTF_8));
+            this.send(request);
+            final ByteBuffer frame = this.receive();
+            assertThat(frame.get()).isEqualTo(LotteryProtocol.TICKETS);
+            assertThat(frame.getInt()).isEqualTo(1);
+            assertThat(frame.getInt()).isEqualTo(7);
+        }
+    }
+
+    /**
+     * Test an invalid frame closes the connection
+     */
+    @Test
+    public void testInvalidFrame() throws Exception {
+        final ByteBuffer requests = ByteBuffer.allocate(8);
+        requests.putInt(LotteryProtocol.MAX_REQUEST_LENGTH + 1);
+        this.send(requests);
+
+        assertThat(this.channel.read(ByteBuffer.allocate(1))).isEqualTo(-1);
+    }
+}
@@ -0,0 +1,120 @@
+package com.rros.silanislottery;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Test class for com.rros.silanislottery.LotteryRegistry
+ */
+public class LotteryRegistryTest {
+
+    public static final String TEST_BUYER_NAME = "TEST_BUYER_NAME";
+
+    private LotteryRegistry registry;
+
+    @BeforeEach
+    public void setUp() {
+        this.registry = new LotteryRegistry(4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.registry.close();
+    }
+
+    @Test
+    public void testLotteryLifecycle() throws Exception {
+        assertThat(this.registry.createLottery("quebec-classic", SilanisLottery.INITIAL_POT, SilanisLottery.MAX_BALL).join()).isTrue();
+        assertThat(this.registry.createLottery("quebec-classic", 0, SilanisLottery.MAX_BALL).join()).isFalse();
+        assertThatIllegalArgumentException().isThrownBy(() -> this.registry.createLottery("too-small", 0, 2));
+
+        for (int i = 0; i < SilanisLottery.MAX_BALL; i++) {
+            assertThat(this.registry.purchaseTicket("quebec-classic", TEST_BUYER_NAME).join()).isBetween(1, SilanisLottery.MAX_BALL);
+        }
+        assertThat(this.registry.purchaseTicket("quebec-classic", TEST_BUYER_NAME).join()).isEqualTo(PurchaseStatus.NO_AVAILABLE_TICKET);
+        assertThat(this.registry.getPot("quebec-classic").join()).isEqualTo(SilanisLottery.INITIAL_POT + SilanisLottery.MAX_BALL * SilanisLottery.TICKET_PRICE);
+
+        assertThat(this.registry.drawLottery("quebec-classic").join()).hasSize(SilanisLottery.NB_WINNERS);
+        assertThat(this.registry.generateWinnersMessage("quebec-classic").join()).contains(TEST_BUYER_NAME);
+
+        assertThat(this.registry.removeLottery("quebec-classic").join()).isTrue();
+        assertThat(this.registry.removeLottery("quebec-classic").join()).isFalse();
+        assertThat(this.registry.size().join()).isZero();
+    }
+
+    @Test
+    public void testFailures() {
+        this.registry.createLottery("ontario-daily", SilanisLottery.INITIAL_POT, SilanisLottery.MAX_BALL).join();
+
+        assertThatExceptionOfType(CompletionException.class)
+                .isThrownBy(() -> this.registry.getPot("unknown").join())
+                .withCauseInstanceOf(IllegalArgumentException.class);
+        assertThatExceptionOfType(CompletionException.class)
+                .isThrownBy(() -> this.registry.generateWinnersMessage("ontario-daily").join())
+                .withCauseInstanceOf(NoPreviousDrawException.class);
+        assertThat(this.registry.purchaseTicket("ontario-daily", " ").join()).isEqualTo(PurchaseStatus.INVALID_BUYER_NAME);
+
+        this.registry.close();
+        assertThatExceptionOfType(RejectedExecutionException.class).isThrownBy(() -> this.registry.getPot("ontario-daily"));
+    }
+
+    /**
+     * Test a lottery is always called from the thread of its partition
+     */
+    @Test
+    public void testLotteriesArePinned() {
+        final int nbLotteries = 1000;
+        final List<CompletableFuture<Boolean>> creations = new ArrayList<>();
+        for (int i = 0; i < nbLotteries; i++) {
+            creations.add(this.registry.createLottery("region-" + i, 0, SilanisLottery.MAX_BALL));
+        }
+        creations.forEach(CompletableFuture::join);
+
+        final int[] lotteriesPerPartition = new int[this.registry.getNbPartitions()];
+        for (int i = 0; i < nbLotteries; i++) {
+            final String id = "region-" + i;
+            final String expectedThread = "lottery-partition-" + this.registry.partitionIndexOf(id);
+            lotteriesPerPartition[this.registry.partitionIndexOf(id)]++;
+            assertThat(this.registry.submit(id, lottery -> Thread.currentThread().getName()).join()).isEqualTo(expectedThread);
+        }
+        // ids are spread over every partition
+        for (final int nbLotteriesInPartition : lotteriesPerPartition) {
+            assertThat(nbLotteriesInPartition).isBetween(nbLotteries / 8, nbLotteries / 2);
+        }
+    }
+
+    @Test
+    public void testDrawAll() {
+        final int nbLotteries = 2000;
+        for (int i = 0; i < nbLotteries; i++) {
+            this.registry.createLottery("product-" + i, SilanisLottery.INITIAL_POT, SilanisLottery.MAX_BALL);
+            for (int purchase = 0; purchase < i % 5; purchase++) {
+                this.registry.purchaseTicket("product-" + i, TEST_BUYER_NAME);
+            }
+        }
+        assertThat(this.registry.size().join()).isEqualTo(nbLotteries);
+
+        final Map<String, int[]> draws = this.registry.drawAll().join();
+
+        assertThat(draws).hasSize(nbLotteries);
+        assertThat(draws.values()).allSatisfy(balls -> assertThat(balls).hasSize(SilanisLottery.NB_WINNERS).doesNotHaveDuplicates());
+        for (int i = 0; i < nbLotteries; i++) {
+            // every lottery has been drawn: there are winners messages for each of them
+            assertThat(this.registry.generateWinnersMessage("product-" + i).join()).isNotEmpty();
+        }
+        // no ticket was purchased for product-0: the pot is unchanged
+        assertThat(this.registry.getPot("product-0").join()).isEqualTo(SilanisLottery.INITIAL_POT);
+    }
+}
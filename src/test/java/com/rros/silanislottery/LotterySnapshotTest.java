@@ -0,0 +1,87 @@
+package com.rros.silanislottery;
+
+import com.rros.draw.RandomSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+
+/**
+ * Test class for com.rros.silanislottery.LotterySnapshot
+ */
+public class LotterySnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Test a restored lottery has the same pot, previous winners and sold tickets as the snapshotted one
+     */
+    @Test
+    public void testWriteRead() throws Exception {
+        final SilanisLottery lottery = new SilanisLottery(SilanisLottery.INITIAL_POT, SilanisLottery.MAX_BALL, RandomSource.LEGACY);
+        lottery.purchaseTickets(Collections.nCopies(SilanisLottery.MAX_BALL, "Dave"));
+        lottery.drawLottery();
+        final int[] tickets = new int[]{lottery.purchaseTicket("Remy"), lottery.purchaseTicket("Greg"), lottery.purchaseTicket("Remy")};
+
+        final Path path = this.tempDir.resolve("lottery.snapshot");
+        LotterySnapshot.write(lottery, 1234, path);
+        final LotterySnapshot.Restored restored = LotterySnapshot.read(path, RandomSource.LEGACY);
+        assertThat(restored.getJournalLength()).isEqualTo(1234);
+        assertThat(restored.getRound().getCount()).isEqualTo(tickets.length);
+
+        final SilanisLottery restoredLottery = restored.getLottery();
+        restoredLottery.restorePurchases(restored.getRound());
+        assertThat(restoredLottery.getPot()).isEqualTo(lottery.getPot());
+        assertThat(restoredLottery.generateWinnersMessage()).isEqualTo(lottery.generateWinnersMessage());
+        assertThat(restoredLottery.getPreviousLottery().getDrawResults()).containsExactly(lottery.getPreviousLottery().getDrawResults());
+
+        final TicketLedger ledger = restoredLottery.getCurrentLottery().getTicketLedger();
+        assertThat(ledger.getBuyerName(tickets[0])).isEqualTo("Remy");
+        assertThat(ledger.getBuyerName(tickets[1])).isEqualTo("Greg");
+        assertThat(ledger.getBuyerName(tickets[2])).isEqualTo("Remy");
+        assertThat(ledger.getNbBuyers()).isEqualTo(2);
+
+        // the restored tickets cannot be sold again
+        final int[] newTickets = restoredLottery.purchaseTickets(Collections.nCopies(SilanisLottery.MAX_BALL - tickets.length, "Dave"));
+        assertThat(newTickets).doesNotContain(tickets);
+        assertThat(restoredLottery.isTicketAvailable()).isFalse();
+        assertThat(ledger.getBuyerName(newTickets[0])).isEqualTo("Dave");
+    }
+
+    /**
+     * Test a snapshot taken before any draw restores the pot of the current round
+     */
+    @Test
+    public void testWriteReadNoPreviousDraw() throws Exception {
+        final SilanisLottery lottery = new SilanisLottery(SilanisLottery.INITIAL_POT, 10_000_000, RandomSource.SPLITTABLE);
+        lottery.purchaseTicket("Dave");
+
+        final Path path = this.tempDir.resolve("lottery.snapshot");
+        LotterySnapshot.write(lottery, 0, path);
+        final LotterySnapshot.Restored restored = LotterySnapshot.read(path, RandomSource.SPLITTABLE);
+        restored.getLottery().restorePurchases(restored.getRound());
+
+        assertThat(restored.getLottery().getPot()).isEqualTo(lottery.getPot());
+        assertThat(restored.getLottery().getPreviousLottery()).isNull();
+    }
+
+    @Test
+    public void testReadCorrupted() throws Exception {
+        final SilanisLottery lottery = new SilanisLottery();
+        lottery.purchaseTicket("Dave");
+        final Path path = this.tempDir.resolve("lottery.snapshot");
+        LotterySnapshot.write(lottery, 0, path);
+
+        final byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(path, bytes, StandardOpenOption.TRUNCATE_EXISTING);
+        assertThatIOException().isThrownBy(() -> LotterySnapshot.read(path, RandomSource.LEGACY));
+    }
+}
@@ -0,0 +1,97 @@
+package com.rros.silanislottery;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test class for com.rros.silanislottery.PickLottery
+ */
+public class PickLotteryTest {
+
+    @Test
+    public void testNoPreviousDraw() {
+        final PickLottery lottery = new PickLottery(200, 3);
+
+        assertThatThrownBy(lottery::getPrizeTiers).isInstanceOf(NoPreviousDrawException.class);
+        assertThatThrownBy(lottery::generateWinnersMessage).isInstanceOf(NoPreviousDrawException.class);
+    }
+
+    @Test
+    public void testDrawPaysTiers() throws InvalidBuyerNameException, NoPreviousDrawException {
+        for (final PickLottery.Resolution resolution : PickLottery.Resolution.values()) {
+            this.assertDrawPaysTiers(new PickLottery(200, 3, 5, new SplittableRandom(7), resolution));
+        }
+    }
+
+    private void assertDrawPaysTiers(final PickLottery lottery) throws InvalidBuyerNameException, NoPreviousDrawException {
+        // every combination of 3 numbers out of 5: whatever the draw, 1 ticket matches 3 numbers, 6 match 2 and 3
+        // match 1
+        for (int a = 1; a <= 5; a++) {
+            for (int b = a + 1; b <= 5; b++) {
+                for (int c = b + 1; c <= 5; c++) {
+                    lottery.purchaseTicket("Buyer " + a + b + c, a, b, c);
+                }
+            }
+        }
+        assertThat(lottery.getPot()).isEqualTo(300);
+
+        final int[] balls = lottery.drawLottery();
+        final PrizeTiers tiers = lottery.getPrizeTiers();
+
+        assertThat(balls).hasSize(3).doesNotHaveDuplicates();
+        assertThat(tiers.getNbWinners(0)).isEqualTo(1);
+        assertThat(tiers.getNbWinners(1)).isEqualTo(6);
+        assertThat(tiers.getNbWinners(2)).isEqualTo(3);
+        assertThat(tiers.getPrize(0)).isEqualTo(SingleLottery.computePrize(300, 0));
+        assertThat(tiers.getPrize(1)).isEqualTo(SingleLottery.computePrize(300, 1) / 6);
+        assertThat(tiers.getPrize(2)).isEqualTo(SingleLottery.computePrize(300, 2) / 3);
+        assertThat(lottery.getPot()).isEqualTo(300 - tiers.getPrize(0) - 6 * tiers.getPrize(1) - 3 * tiers.getPrize(2));
+
+        final int[] sortedBalls = balls.clone();
+        Arrays.sort(sortedBalls);
+        assertThat(lottery.getStore().getSize()).isZero();
+        assertThat(lottery.getWinnerNames(0)).containsExactly("Buyer " + sortedBalls[0] + sortedBalls[1] + sortedBalls[2]);
+        assertThat(lottery.getWinnerNames(1)).hasSize(6).allMatch(name -> name.chars().filter(c -> Arrays.binarySearch(sortedBalls, c - '0') >= 0).count() == 2);
+        assertThat(lottery.generateWinnersMessage()).isEqualTo("Balls: " + sortedBalls[0] + " " + sortedBalls[1] + " " + sortedBalls[2]
+                + " - 3 matches: 1 winner(s), " + tiers.getPrize(0) + "$ each (" + lottery.getWinnerNames(0)[0] + ")"
+                + " - 2 matches: 6 winner(s), " + tiers.getPrize(1) + "$ each (" + String.join(", ", lottery.getWinnerNames(1)) + ")"
+                + " - 1 matches: 3 winner(s), " + tiers.getPrize(2) + "$ each (" + String.join(", ", lottery.getWinnerNames(2)) + ")");
+
+        // the winners of the latest draw are still named while tickets are sold for the next one
+        lottery.purchaseTicket("Next", 1, 2, 3);
+        assertThat(lottery.getWinnerNames(0)).containsExactly("Buyer " + sortedBalls[0] + sortedBalls[1] + sortedBalls[2]);
+    }
+
+    @Test
+    public void testUnclaimedPoolsStayInPot() throws NoPreviousDrawException {
+        final PickLottery lottery = new PickLottery(200, 6);
+
+        lottery.drawLottery();
+
+        assertThat(lottery.getPot()).isEqualTo(200);
+        assertThat(lottery.generateWinnersMessage()).endsWith("6 matches: none - 5 matches: none - 4 matches: none");
+    }
+
+    @Test
+    public void testResolutionsAgree() throws InvalidBuyerNameException, NoPreviousDrawException {
+        final PickLottery scan = new PickLottery(200, 5, 20, new SplittableRandom(3), PickLottery.Resolution.SCAN);
+        final PickLottery index = new PickLottery(200, 5, 20, new SplittableRandom(3), PickLottery.Resolution.INVERTED_INDEX);
+        final SplittableRandom random = new SplittableRandom(11);
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 20_000; i++) {
+                final int[] numbers = random.ints(1, 21).distinct().limit(5).toArray();
+                scan.purchaseTicket("Buyer", numbers);
+                index.purchaseTicket("Buyer", numbers);
+            }
+
+            assertThat(index.drawLottery()).isEqualTo(scan.drawLottery());
+            assertThat(index.getPrizeTiers()).isEqualTo(scan.getPrizeTiers());
+            assertThat(index.getPot()).isEqualTo(scan.getPot());
+        }
+    }
+}
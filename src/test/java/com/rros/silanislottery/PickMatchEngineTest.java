@@ -0,0 +1,84 @@
+package com.rros.silanislottery;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Test class for com.rros.silanislottery.PickMatchEngine
+ */
+public class PickMatchEngineTest {
+
+    @Test
+    public void testTiers() throws InvalidBuyerNameException {
+        final PickTicketStore store = new PickTicketStore(3, 50);
+        store.purchase("Alice", 1, 2, 3);
+        store.purchase("Bob", 1, 2, 4);
+        store.purchase("Carol", 1, 5, 6);
+        store.purchase("Dave", 7, 8, 9);
+        store.purchase("Eve", 3, 2, 1);
+
+        final PrizeTiers tiers = new PickMatchEngine().match(store, store.toCombination(1, 2, 3), 3);
+
+        assertThat(tiers.getNbTiers()).isEqualTo(3);
+        assertThat(tiers.getWinningTickets(0)).containsExactly(1, 5);
+        assertThat(tiers.getWinningTickets(1)).containsExactly(2);
+        assertThat(tiers.getWinningTickets(2)).containsExactly(3);
+    }
+
+    @Test
+    public void testEmptyStore() {
+        final PrizeTiers tiers = new PickMatchEngine().match(new PickTicketStore(6, 49), 0b111111, 3);
+
+        for (int tier = 0; tier < 3; tier++) {
+            assertThat(tiers.getNbWinners(tier)).isZero();
+        }
+    }
+
+    @Test
+    public void testInvalidNbTiers() {
+        final PickTicketStore store = new PickTicketStore(2, 50);
+
+        assertThatIllegalArgumentException().isThrownBy(() -> new PickMatchEngine().match(store, 0b11, 0));
+        assertThatIllegalArgumentException().isThrownBy(() -> new PickMatchEngine().match(store, 0b11, 3));
+    }
+
+    @Test
+    public void testParallelSameAsSequential() throws InvalidBuyerNameException {
+        // large enough to be split in several ranges
+        final PickTicketStore store = new PickTicketStore(6, 49);
+        final SplittableRandom random = new SplittableRandom(42);
+        final int[] numbers = new int[6];
+        for (int i = 0; i < 300_000; i++) {
+            final int[] picks = random.ints(1, 50).distinct().limit(6).toArray();
+            System.arraycopy(picks, 0, numbers, 0, 6);
+            store.purchase("Buyer", numbers);
+        }
+        final long drawnMask = store.toCombination(3, 11, 19, 27, 35, 43);
+
+        final ForkJoinPool singleThreadPool = new ForkJoinPool(1);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final PrizeTiers sequential = new PickMatchEngine(singleThreadPool).match(store, drawnMask, 3);
+            final PrizeTiers parallel = new PickMatchEngine(pool).match(store, drawnMask, 3);
+
+            assertThat(parallel).isEqualTo(sequential);
+            // brute force check of the 4 matches tier
+            int expected = 0;
+            for (int ticket = 1; ticket <= store.getSize(); ticket++) {
+                if (Long.bitCount(store.getCombination(ticket) & drawnMask) == 4) {
+                    expected++;
+                }
+            }
+            assertThat(parallel.getNbWinners(2)).isEqualTo(expected).isPositive();
+            assertThat(parallel.getWinningTickets(2)).isSorted();
+        } finally {
+            singleThreadPool.shutdown();
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.rros.silanislottery;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Test class for com.rros.silanislottery.PickTicketIndex
+ */
+public class PickTicketIndexTest {
+
+    @Test
+    public void testTiers() throws InvalidBuyerNameException {
+        final PickTicketStore store = new PickTicketStore(3, 50);
+        final PickTicketIndex index = new PickTicketIndex(3, 50);
+        final int[][] tickets = {{1, 2, 3}, {1, 2, 4}, {1, 5, 6}, {7, 8, 9}, {3, 2, 1}};
+        for (final int[] numbers : tickets) {
+            index.add(store.purchase("Buyer", numbers), store.toCombination(numbers));
+        }
+
+        final PrizeTiers tiers = index.match(new int[]{3, 1, 2}, 3);
+
+        assertThat(tiers.getWinningTickets(0)).containsExactly(1, 5);
+        assertThat(tiers.getWinningTickets(1)).containsExactly(2);
+        assertThat(tiers.getWinningTickets(2)).containsExactly(3);
+
+        index.clear();
+        assertThat(index.match(new int[]{3, 1, 2}, 3).getNbWinners(0)).isZero();
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        final PickTicketIndex index = new PickTicketIndex(2, 10);
+
+        assertThatIllegalArgumentException().isThrownBy(() -> index.add(1, 0b111));
+        assertThatIllegalArgumentException().isThrownBy(() -> index.add(1, 1L << 10 | 1));
+        assertThatIllegalArgumentException().isThrownBy(() -> index.match(new int[]{1}, 1));
+        assertThatIllegalArgumentException().isThrownBy(() -> index.match(new int[]{1, 2}, 3));
+    }
+
+    /**
+     * Test the index finds the same winners as the scan of every ticket
+     */
+    @Test
+    public void testSameAsMatchEngine() throws InvalidBuyerNameException {
+        final SplittableRandom random = new SplittableRandom(42);
+        for (final int nbPicks : new int[]{1, 2, 6}) {
+            final PickTicketStore store = new PickTicketStore(nbPicks, 49);
+            final PickTicketIndex index = new PickTicketIndex(nbPicks, 49);
+            for (int i = 0; i < 200_000; i++) {
+                final int[] numbers = random.ints(1, 50).distinct().limit(nbPicks).toArray();
+                index.add(store.purchase("Buyer", numbers), store.toCombination(numbers));
+            }
+            final int[] balls = random.ints(1, 50).distinct().limit(nbPicks).toArray();
+            final int nbTiers = Math.min(SilanisLottery.NB_WINNERS, nbPicks);
+
+            assertThat(index.match(balls, nbTiers)).isEqualTo(new PickMatchEngine().match(store, store.toCombination(balls), nbTiers));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.rros.silanislottery;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test class for com.rros.silanislottery.PickTicketStore
+ */
+public class PickTicketStoreTest {
+
+    @Test
+    public void testPurchase() throws InvalidBuyerNameException {
+        final PickTicketStore store = new PickTicketStore(3, 50);
+
+        assertThat(store.purchase("Alice", 1, 25, 50)).isEqualTo(1);
+        assertThat(store.purchase("Bob", 7, 3, 12)).isEqualTo(2);
+        assertThat(store.purchase("Alice", 4, 5, 6)).isEqualTo(3);
+
+        assertThat(store.getSize()).isEqualTo(3);
+        assertThat(store.getCombination(1)).isEqualTo(1L | 1L << 24 | 1L << 49);
+        assertThat(PickTicketStore.toNumbers(store.getCombination(2))).containsExactly(3, 7, 12);
+        assertThat(store.getBuyerName(1)).isEqualTo("Alice");
+        assertThat(store.getBuyerName(2)).isEqualTo("Bob");
+        assertThat(store.getBuyerName(3)).isEqualTo("Alice");
+    }
+
+    @Test
+    public void testInvalidPurchase() {
+        final PickTicketStore store = new PickTicketStore(3, 50);
+
+        assertThatThrownBy(() -> store.purchase(" ", 1, 2, 3)).isInstanceOf(InvalidBuyerNameException.class);
+        assertThatIllegalArgumentException().isThrownBy(() -> store.purchase("Alice", 1, 2));
+        assertThatIllegalArgumentException().isThrownBy(() -> store.purchase("Alice", 1, 2, 51));
+        assertThatIllegalArgumentException().isThrownBy(() -> store.purchase("Alice", 0, 2, 3));
+        assertThatIllegalArgumentException().isThrownBy(() -> store.purchase("Alice", 2, 2, 3));
+        assertThat(store.getSize()).isZero();
+    }
+
+    @Test
+    public void testInvalidGame() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new PickTicketStore(0, 50));
+        assertThatIllegalArgumentException().isThrownBy(() -> new PickTicketStore(6, 5));
+        assertThatIllegalArgumentException().isThrownBy(() -> new PickTicketStore(6, 65));
+    }
+
+    @Test
+    public void testGrowAndClear() throws InvalidBuyerNameException {
+        final PickTicketStore store = new PickTicketStore(2, 64);
+        for (int i = 1; i <= 5000; i++) {
+            store.purchase("Buyer " + (i % 7), 1 + i % 63, 64);
+        }
+
+        assertThat(store.getSize()).isEqualTo(5000);
+        assertThat(PickTicketStore.toNumbers(store.getCombination(4000))).containsExactly(1 + 4000 % 63, 64);
+        assertThat(store.getBuyerName(4000)).isEqualTo("Buyer " + (4000 % 7));
+
+        store.clear();
+        assertThat(store.getSize()).isZero();
+        assertThatIllegalArgumentException().isThrownBy(() -> store.getCombination(1));
+        assertThat(store.purchase("Carol", 63, 64)).isEqualTo(1);
+    }
+}
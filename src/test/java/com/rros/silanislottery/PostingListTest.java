@@ -0,0 +1,95 @@
+package com.rros.silanislottery;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Test class for com.rros.silanislottery.PostingList
+ */
+public class PostingListTest {
+
+    /**
+     * Random list, each id below maxId being added with the given probability
+     */
+    private static PostingList randomList(final SplittableRandom random, final int maxId, final double density, final TreeSet<Integer> expected) {
+        final PostingList list = new PostingList();
+        for (int id = 0; id < maxId; id++) {
+            if (random.nextDouble() < density) {
+                list.add(id);
+                expected.add(id);
+            }
+        }
+        return list;
+    }
+
+    private static int[] toArray(final TreeSet<Integer> set) {
+        return set.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Test
+    public void testAdd() {
+        final PostingList list = new PostingList();
+        list.add(3);
+        list.add(70_000);
+        list.add(70_001);
+
+        assertThat(list.getCardinality()).isEqualTo(3);
+        assertThat(list.toArray()).containsExactly(3, 70_000, 70_001);
+        assertThatIllegalArgumentException().isThrownBy(() -> list.add(70_001));
+        assertThatIllegalArgumentException().isThrownBy(() -> list.add(5));
+        assertThatIllegalArgumentException().isThrownBy(() -> new PostingList().add(-1));
+
+        list.clear();
+        assertThat(list.getCardinality()).isZero();
+        list.add(1);
+        assertThat(list.toArray()).containsExactly(1);
+    }
+
+    @Test
+    public void testDenseChunkBecomesBitmap() {
+        final PostingList list = new PostingList();
+        final TreeSet<Integer> expected = new TreeSet<>();
+        for (int id = 0; id < 3 * PostingList.ARRAY_MAX_CARDINALITY; id += 2) {
+            list.add(id);
+            expected.add(id);
+        }
+
+        assertThat(list.getCardinality()).isEqualTo(expected.size());
+        assertThat(list.toArray()).containsExactly(PostingListTest.toArray(expected));
+    }
+
+    /**
+     * Test intersections and differences of sparse and dense lists, spanning several chunks, against sorted sets
+     */
+    @Test
+    public void testAndAndNot() {
+        final SplittableRandom random = new SplittableRandom(42);
+        final double[] densities = {0.001, 0.05, 0.3};
+        for (final double aDensity : densities) {
+            for (final double bDensity : densities) {
+                final TreeSet<Integer> aIds = new TreeSet<>();
+                final TreeSet<Integer> bIds = new TreeSet<>();
+                final PostingList a = PostingListTest.randomList(random, 300_000, aDensity, aIds);
+                final PostingList b = PostingListTest.randomList(random, 250_000, bDensity, bIds);
+
+                final TreeSet<Integer> and = new TreeSet<>(aIds);
+                and.retainAll(bIds);
+                final TreeSet<Integer> andNot = new TreeSet<>(aIds);
+                andNot.removeAll(bIds);
+
+                final PostingList actualAnd = PostingList.and(a, b);
+                assertThat(actualAnd.getCardinality()).isEqualTo(and.size());
+                assertThat(actualAnd.toArray()).containsExactly(PostingListTest.toArray(and));
+                assertThat(PostingList.and(b, a).toArray()).containsExactly(PostingListTest.toArray(and));
+                final PostingList actualAndNot = PostingList.andNot(a, b);
+                assertThat(actualAndNot.getCardinality()).isEqualTo(andNot.size());
+                assertThat(actualAndNot.toArray()).containsExactly(PostingListTest.toArray(andNot));
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.rros.silanislottery;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Test class for com.rros.silanislottery.PotSimulation
+ */
+public class PotSimulationTest {
+
+    @Test
+    public void testDeterministic() {
+        final PotSimulation simulation = new PotSimulation(200, 50, 20, 0.5, PotSimulation.Engine.LOTTERY);
+        final ForkJoinPool singleThreadPool = new ForkJoinPool(1);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final PotStatistics sequential = simulation.run(2000, 42, singleThreadPool);
+            final PotStatistics parallel = simulation.run(2000, 42, pool);
+
+            assertThat(parallel.getNbTrajectories()).isEqualTo(2000);
+            assertThat(parallel.getMeanPot()).isEqualTo(sequential.getMeanPot());
+            assertThat(parallel.getPotPercentile(50)).isEqualTo(sequential.getPotPercentile(50));
+            assertThat(parallel.getUnclaimedJackpotProbability()).isEqualTo(sequential.getUnclaimedJackpotProbability());
+        } finally {
+            singleThreadPool.shutdown();
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testNoSales() {
+        for (final PotSimulation.Engine engine : PotSimulation.Engine.values()) {
+            final PotStatistics statistics = new PotSimulation(200, 50, 10, 0, engine).run(100, 1);
+
+            assertThat(statistics.getMinPot()).isEqualTo(200);
+            assertThat(statistics.getMaxPot()).isEqualTo(200);
+            assertThat(statistics.getUnclaimedJackpotProbability()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void testAllSold() {
+        // every ball wins: the pot is the same for every trajectory
+        int pot = 200;
+        for (int round = 0; round < 5; round++) {
+            pot += SilanisLottery.TICKET_PRICE * 50;
+            final int potBeforeDraw = pot;
+            for (int rank = 0; rank < SilanisLottery.NB_WINNERS; rank++) {
+                pot -= SingleLottery.computePrize(potBeforeDraw, rank);
+            }
+        }
+
+        for (final PotSimulation.Engine engine : PotSimulation.Engine.values()) {
+            final PotStatistics statistics = new PotSimulation(200, 50, 5, 1, engine).run(100, 1);
+
+            assertThat(statistics.getMinPot()).isEqualTo(pot);
+            assertThat(statistics.getMaxPot()).isEqualTo(pot);
+            assertThat(statistics.getUnclaimedJackpotProbability()).isEqualTo(0);
+        }
+    }
+
+    @Test
+    public void testEnginesAgree() {
+        final PotStatistics lottery = new PotSimulation(200, 50, 20, 0.3, PotSimulation.Engine.LOTTERY).run(20000, 7);
+        final PotStatistics model = new PotSimulation(200, 50, 20, 0.3, PotSimulation.Engine.MODEL).run(20000, 7);
+
+        // the jackpot is unclaimed with probability 1 - salesRate
+        assertThat(lottery.getUnclaimedJackpotProbability()).isCloseTo(0.7, within(0.01));
+        assertThat(model.getUnclaimedJackpotProbability()).isCloseTo(0.7, within(0.01));
+        assertThat(model.getMeanPot()).isCloseTo(lottery.getMeanPot(), within(lottery.getMeanPot() * 0.02));
+    }
+
+    @Test
+    public void testInvalidParameters() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new PotSimulation(-1, 50, 10, 0.5, PotSimulation.Engine.MODEL));
+        assertThatIllegalArgumentException().isThrownBy(() -> new PotSimulation(200, 2, 10, 0.5, PotSimulation.Engine.MODEL));
+        assertThatIllegalArgumentException().isThrownBy(() -> new PotSimulation(200, 50, -1, 0.5, PotSimulation.Engine.MODEL));
+        assertThatIllegalArgumentException().isThrownBy(() -> new PotSimulation(200, 50, 10, 1.5, PotSimulation.Engine.MODEL));
+        assertThatIllegalArgumentException().isThrownBy(() -> new PotSimulation(200, 50, 10, Double.NaN, PotSimulation.Engine.MODEL));
+
+        final PotSimulation simulation = new PotSimulation(200, 50, 10, 0.5, PotSimulation.Engine.MODEL);
+        assertThatIllegalArgumentException().isThrownBy(() -> simulation.run(0, 42));
+        assertThatIllegalArgumentException().isThrownBy(() -> simulation.run(-5, 42));
+    }
+}
@@ -0,0 +1,72 @@
+package com.rros.silanislottery;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Test class for com.rros.silanislottery.PotStatistics
+ */
+public class PotStatisticsTest {
+
+    @Test
+    public void testBucket() {
+        for (final int pot : new int[]{0, 1, 127, 128, 129, 255, 256, 1000, 123456, Integer.MAX_VALUE}) {
+            final int bucket = PotStatistics.bucket(pot);
+            final int lowestValue = PotStatistics.lowestValue(bucket);
+            assertThat(lowestValue).isLessThanOrEqualTo(pot);
+            // under 1.6% of relative error
+            assertThat(pot - lowestValue).isLessThanOrEqualTo(pot / 64);
+            assertThat(PotStatistics.bucket(lowestValue)).isEqualTo(bucket);
+        }
+        assertThat(PotStatistics.bucket(127)).isEqualTo(127);
+        assertThat(PotStatistics.bucket(128)).isEqualTo(128);
+        assertThat(PotStatistics.bucket(129)).isEqualTo(128);
+        assertThat(PotStatistics.bucket(130)).isEqualTo(129);
+    }
+
+    @Test
+    public void testPercentiles() {
+        final PotStatistics statistics = new PotStatistics();
+        for (int pot = 1; pot <= 100; pot++) {
+            statistics.addTrajectory(pot);
+            statistics.addRound(pot % 4 == 0);
+        }
+
+        assertThat(statistics.getNbTrajectories()).isEqualTo(100);
+        assertThat(statistics.getMinPot()).isEqualTo(1);
+        assertThat(statistics.getMaxPot()).isEqualTo(100);
+        assertThat(statistics.getMeanPot()).isCloseTo(50.5, within(1e-9));
+        assertThat(statistics.getPotPercentile(0)).isEqualTo(1);
+        assertThat(statistics.getPotPercentile(50)).isEqualTo(50);
+        assertThat(statistics.getPotPercentile(99)).isEqualTo(99);
+        assertThat(statistics.getPotPercentile(100)).isEqualTo(100);
+        assertThat(statistics.getUnclaimedJackpotProbability()).isCloseTo(0.25, within(1e-9));
+
+        assertThatIllegalArgumentException().isThrownBy(() -> statistics.getPotPercentile(101));
+        assertThatIllegalStateException().isThrownBy(() -> new PotStatistics().getPotPercentile(50));
+    }
+
+    @Test
+    public void testMerge() {
+        final PotStatistics low = new PotStatistics();
+        final PotStatistics high = new PotStatistics();
+        for (int i = 0; i < 10; i++) {
+            low.addTrajectory(100);
+            low.addRound(true);
+            high.addTrajectory(10000);
+            high.addRound(false);
+        }
+
+        assertThat(low.merge(high)).isSameAs(low);
+        assertThat(low.getNbTrajectories()).isEqualTo(20);
+        assertThat(low.getMinPot()).isEqualTo(100);
+        assertThat(low.getMaxPot()).isEqualTo(10000);
+        assertThat(low.getPotPercentile(50)).isEqualTo(100);
+        assertThat(low.getPotPercentile(51)).isCloseTo(10000, within(10000 / 64));
+        assertThat(low.getUnclaimedJackpotProbability()).isCloseTo(0.5, within(1e-9));
+    }
+}
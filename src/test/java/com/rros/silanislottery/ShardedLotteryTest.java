@@ -0,0 +1,182 @@
+package com.rros.silanislottery;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Test class for com.rros.silanislottery.ShardedLottery
+ */
+public class ShardedLotteryTest {
+
+    public static final String TEST_BUYER_NAME = "TEST_BUYER_NAME";
+
+    @Test
+    public void testInvalidArguments() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new ShardedLottery(200, 2, 1));
+        assertThatIllegalArgumentException().isThrownBy(() -> new ShardedLottery(200, 50, 0));
+        assertThatIllegalArgumentException().isThrownBy(() -> new ShardedLottery(200, 50, 51));
+    }
+
+    @Test
+    public void testPurchaseEveryTicket() throws Exception {
+        final ShardedLottery lottery = new ShardedLottery(SilanisLottery.INITIAL_POT, SilanisLottery.MAX_BALL, 7);
+        final Set<Integer> tickets = new HashSet<>();
+        for (int i = 0; i < SilanisLottery.MAX_BALL; i++) {
+            tickets.add(lottery.purchaseTicket(TEST_BUYER_NAME));
+        }
+
+        assertThat(tickets).hasSize(SilanisLottery.MAX_BALL).allMatch(ticket -> ticket >= 1 && ticket <= SilanisLottery.MAX_BALL);
+        assertThat(lottery.getRemaining()).isZero();
+        assertThat(lottery.getPot()).isEqualTo(SilanisLottery.INITIAL_POT + SilanisLottery.MAX_BALL * SilanisLottery.TICKET_PRICE);
+        assertThat(lottery.tryPurchaseTicket(TEST_BUYER_NAME)).isEqualTo(PurchaseStatus.NO_AVAILABLE_TICKET);
+        assertThat(lottery.tryPurchaseTicket(" ")).isEqualTo(PurchaseStatus.INVALID_BUYER_NAME);
+        assertThatExceptionOfType(NoAvailableTicketException.class).isThrownBy(() -> lottery.purchaseTicket(TEST_BUYER_NAME));
+        assertThatExceptionOfType(InvalidBuyerNameException.class).isThrownBy(() -> lottery.purchaseTicket(null));
+    }
+
+    /**
+     * Test the picker keeps tickets uniform over the whole range, even once a shard has been partly sold directly
+     */
+    @Test
+    public void testPickerIsUniform() {
+        final int nbLotteries = 30_000;
+        final int[] counts = new int[11];
+        for (int i = 0; i < nbLotteries; i++) {
+            final ShardedLottery lottery = new ShardedLottery(0, 10, 3);
+            // shards hold tickets 1-3, 4-6 and 7-10: sell 2 tickets of the first one directly
+            lottery.tryPurchaseTicket(0, TEST_BUYER_NAME);
+            lottery.tryPurchaseTicket(0, TEST_BUYER_NAME);
+            final int ticket = lottery.tryPurchaseTicket(TEST_BUYER_NAME);
+            counts[ticket]++;
+        }
+
+        // 8 tickets left, each one is drawn with probability 1/8, the first shard's last ticket included
+        int firstShard = 0;
+        for (int ticket = 1; ticket <= 3; ticket++) {
+            firstShard += counts[ticket];
+        }
+        assertThat(firstShard).isBetween(nbLotteries / 8 - 400, nbLotteries / 8 + 400);
+        for (int ticket = 4; ticket <= 10; ticket++) {
+            assertThat(counts[ticket]).isBetween(nbLotteries / 8 - 400, nbLotteries / 8 + 400);
+        }
+    }
+
+    @Test
+    public void testPurchaseTicketsIsAllOrNothing() throws Exception {
+        final ShardedLottery lottery = new ShardedLottery(SilanisLottery.INITIAL_POT, 10, 3);
+        final List<String> buyerNames = List.of("Alice", "Bob", "Carol", "Dave", "Eve", "Frank", "Grace");
+
+        final int[] tickets = lottery.purchaseTickets(buyerNames);
+        assertThat(tickets).hasSize(7).doesNotHaveDuplicates();
+        assertThatExceptionOfType(NoAvailableTicketException.class).isThrownBy(() -> lottery.purchaseTickets(buyerNames));
+        assertThatExceptionOfType(InvalidBuyerNameException.class).isThrownBy(() -> lottery.purchaseTickets(List.of("Alice", "")));
+        assertThat(lottery.getRemaining()).isEqualTo(3);
+        assertThat(lottery.getPot()).isEqualTo(SilanisLottery.INITIAL_POT + 7 * SilanisLottery.TICKET_PRICE);
+    }
+
+    @Test
+    public void testDrawLottery() throws Exception {
+        final ShardedLottery lottery = new ShardedLottery(SilanisLottery.INITIAL_POT, SilanisLottery.MAX_BALL, 4);
+        assertThatExceptionOfType(NoPreviousDrawException.class).isThrownBy(lottery::generateWinnersMessage);
+        for (int i = 0; i < SilanisLottery.MAX_BALL; i++) {
+            lottery.purchaseTicket("Buyer " + i);
+        }
+        final int potBeforeDraw = lottery.getPot();
+
+        final int[] balls = lottery.drawLottery();
+
+        final RoundResult result = lottery.getPreviousResult();
+        assertThat(balls).hasSize(SilanisLottery.NB_WINNERS).doesNotHaveDuplicates();
+        assertThat(result.getRound()).isEqualTo(1);
+        assertThat(result.getBalls()).isEqualTo(balls);
+        assertThat(result.getWinners()).doesNotContainNull();
+        int paid = 0;
+        for (int i = 0; i < SilanisLottery.NB_WINNERS; i++) {
+            assertThat(result.getWinners()[i].getPrize()).isEqualTo(SingleLottery.computePrize(potBeforeDraw, i));
+            paid += result.getWinners()[i].getPrize();
+        }
+        assertThat(lottery.getPot()).isEqualTo(potBeforeDraw - paid).isEqualTo(result.getPot());
+        assertThat(lottery.generateWinnersMessage()).isEqualTo(result.generateWinnersMessage());
+
+        // next lottery: every ticket is available again, the pot is carried over
+        assertThat(lottery.getRemaining()).isEqualTo(SilanisLottery.MAX_BALL);
+        lottery.purchaseTicket(TEST_BUYER_NAME);
+        assertThat(lottery.getPot()).isEqualTo(result.getPot() + SilanisLottery.TICKET_PRICE);
+    }
+
+    /**
+     * Test a seeded generator gives the same tickets (shard picks included) and balls on every run
+     */
+    @Test
+    public void testSeededIsReproducible() throws Exception {
+        final ShardedLottery first = new ShardedLottery(SilanisLottery.INITIAL_POT, 1000, 8, new SplittableRandom(42));
+        final ShardedLottery second = new ShardedLottery(SilanisLottery.INITIAL_POT, 1000, 8, new SplittableRandom(42));
+        for (int i = 0; i < 500; i++) {
+            assertThat(second.purchaseTicket(TEST_BUYER_NAME)).isEqualTo(first.purchaseTicket(TEST_BUYER_NAME));
+        }
+        assertThat(second.drawLottery()).containsExactly(first.drawLottery());
+
+        final ShardedLottery other = new ShardedLottery(SilanisLottery.INITIAL_POT, 1000, 8, new SplittableRandom(43));
+        final List<Integer> firstTickets = new ArrayList<>();
+        final List<Integer> otherTickets = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            firstTickets.add(first.purchaseTicket(TEST_BUYER_NAME));
+            otherTickets.add(other.purchaseTicket(TEST_BUYER_NAME));
+        }
+        assertThat(otherTickets).isNotEqualTo(firstTickets);
+    }
+
+    @Test
+    public void testDrawWithoutSales() throws Exception {
+        final ShardedLottery lottery = new ShardedLottery(SilanisLottery.INITIAL_POT, SilanisLottery.MAX_BALL, 4);
+
+        lottery.drawLottery();
+
+        assertThat(lottery.getPreviousResult().getWinners()).containsOnlyNulls();
+        assertThat(lottery.getPot()).isEqualTo(SilanisLottery.INITIAL_POT);
+    }
+
+    @Test
+    @Timeout(30)
+    public void testConcurrentPurchases() throws Exception {
+        final int nbTickets = 100_000;
+        final ShardedLottery lottery = new ShardedLottery(0, nbTickets, 8);
+        final ConcurrentLinkedQueue<Integer> tickets = new ConcurrentLinkedQueue<>();
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                futures.add(executor.submit(() -> {
+                    int ticket;
+                    while (PurchaseStatus.isTicket(ticket = lottery.tryPurchaseTicket(TEST_BUYER_NAME))) {
+                        tickets.add(ticket);
+                    }
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+
+        assertThat(tickets).hasSize(nbTickets).doesNotHaveDuplicates();
+        assertThat(lottery.getPot()).isEqualTo(nbTickets * SilanisLottery.TICKET_PRICE);
+    }
+}
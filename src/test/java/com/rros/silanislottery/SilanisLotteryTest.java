@@ -1,8 +1,11 @@
 package com.rros.silanislottery;
 
+import com.rros.draw.RandomSource;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -38,6 +41,39 @@ public class SilanisLotteryTest {
         verify(this.mockCurrentSingleLottery, times(1)).purchaseTicket(TEST_BUYER_NAME);
     }
 
+    /**
+     * Test tryPurchaseTicket() is delegated to SingleLottery
+     */
+    @Test
+    public void testTryPurchaseTicket() throws Exception {
+        this.lottery.tryPurchaseTicket(TEST_BUYER_NAME);
+        // expect strictly one call to SingleLottery.tryPurchaseTicket(String)
+        verify(this.mockCurrentSingleLottery, times(1)).tryPurchaseTicket(TEST_BUYER_NAME);
+    }
+
+    /**
+     * Test purchaseTicket() of a chosen ticket is delegated to SingleLottery
+     */
+    @Test
+    public void testPurchaseChosenTicket() throws Exception {
+        this.lottery.purchaseTicket(TEST_BUYER_NAME, 17);
+        this.lottery.tryPurchaseTicket(TEST_BUYER_NAME, 18);
+        // expect strictly one call to each SingleLottery method
+        verify(this.mockCurrentSingleLottery, times(1)).purchaseTicket(TEST_BUYER_NAME, 17);
+        verify(this.mockCurrentSingleLottery, times(1)).tryPurchaseTicket(TEST_BUYER_NAME, 18);
+    }
+
+    /**
+     * Test purchaseTickets() is delegated to SingleLottery
+     */
+    @Test
+    public void testPurchaseTickets() throws Exception {
+        final List<String> buyerNames = List.of(TEST_BUYER_NAME, TEST_BUYER_NAME);
+        this.lottery.purchaseTickets(buyerNames);
+        // expect strictly one call to SingleLottery.purchaseTickets(List)
+        verify(this.mockCurrentSingleLottery, times(1)).purchaseTickets(buyerNames);
+    }
+
     /** Test drawLottery() */
     @Test
     public void testDrawLottery() throws Exception {
@@ -72,6 +108,29 @@ public class SilanisLotteryTest {
                 .isNotEqualTo(this.mockCurrentSingleLottery);
     }
 
+    /**
+     * Test drawLottery() reuses the lottery drawn before the previous one as the current one
+     */
+    @Test
+    public void testDrawLotteryRecyclesLottery() throws Exception {
+        // Test initialisation: does not use the mock
+        this.lottery = new SilanisLottery();
+        this.lottery.purchaseTicket(TEST_BUYER_NAME);
+        this.lottery.drawLottery();
+        final SingleLottery firstLottery = this.lottery.getPreviousLottery();
+        this.lottery.drawLottery();
+        final SingleLottery secondLottery = this.lottery.getPreviousLottery();
+
+        // Test body
+        this.lottery.drawLottery();
+        assertThat(this.lottery.getPreviousLottery())
+                .as("The first lottery has been reset and drawn as the third one")
+                .isSameAs(firstLottery);
+        this.lottery.drawLottery();
+        assertThat(this.lottery.getPreviousLottery()).isSameAs(secondLottery);
+        assertThat(this.lottery.getWinners()).containsOnlyNulls();
+    }
+
     /**
      * Test the pot is updated correctly after multiple lotteries
      */
@@ -152,6 +211,23 @@ public class SilanisLotteryTest {
         verify(this.mockCurrentSingleLottery, times(1)).generateWinnersMessage();
     }
 
+    /**
+     * Test a failed history write fails the draw but leaves the next round open
+     */
+    @Test
+    public void testDrawLotteryHistoryFailure() throws Exception {
+        final DrawHistory drawHistory = mock(DrawHistory.class);
+        when(drawHistory.record(any(), any(), anyInt())).thenThrow(new IOException("Disk full")).thenReturn(2L);
+        final SilanisLottery lottery = new SilanisLottery(SilanisLottery.INITIAL_POT, SilanisLottery.MAX_BALL, RandomSource.LEGACY, drawHistory);
+        lottery.purchaseTicket(TEST_BUYER_NAME);
+
+        assertThatExceptionOfType(UncheckedIOException.class).isThrownBy(lottery::drawLottery);
+        assertThat(lottery.generateWinnersMessage()).isNotEmpty();
+        assertThat(lottery.tryPurchaseTicket(TEST_BUYER_NAME)).matches(PurchaseStatus::isTicket);
+        lottery.drawLottery();
+        verify(drawHistory, times(2)).record(any(), any(), anyInt());
+    }
+
     /**
      * Test generateWinnersMessage() throws NoPreviousDrawException
      */
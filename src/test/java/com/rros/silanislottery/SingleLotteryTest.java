@@ -396,4 +396,186 @@ public class SingleLotteryTest {
             assertThat(splitLine[0]).isEqualTo("1st ball");
         }
     }
+
+    /**
+     * Test purchaseTicket() and drawLottery() over a ticket range larger than MAX_BALL
+     */
+    @Test
+    public void testLargeTicketRange() throws Exception {
+        // Test initialisation
+        final int nbTickets = 10_000_000;
+        this.lottery = new SingleLottery(SilanisLottery.INITIAL_POT, nbTickets);
+
+        // Test body
+        assertThat(this.lottery.getNbTickets()).isEqualTo(nbTickets);
+        assertThat(this.lottery.purchaseTicket(TEST_BUYER_NAME)).isBetween(1, nbTickets);
+        final int[] currentDraw = this.lottery.drawLottery();
+        assertThat(currentDraw)
+                .hasSize(SilanisLottery.NB_WINNERS)
+                .doesNotHaveDuplicates();
+        for (final int ball : currentDraw) {
+            assertThat(ball).isBetween(1, nbTickets);
+        }
+    }
+
+    /**
+     * Test the ticket range cannot be smaller than NB_WINNERS
+     */
+    @Test
+    public void testTooFewTickets() throws Exception {
+        assertThatIllegalArgumentException().isThrownBy(() -> new SingleLottery(SilanisLottery.INITIAL_POT, SilanisLottery.NB_WINNERS - 1));
+    }
+
+    /**
+     * Test purchaseTickets()
+     */
+    @Test
+    public void testPurchaseTickets() throws Exception {
+        // Test initialisation
+        final int initialPot = this.lottery.getPot();
+        final List<String> buyerNames = List.of("BUYER1", "BUYER2", "BUYER3");
+
+        // Test body
+        final int[] tickets = this.lottery.purchaseTickets(buyerNames);
+        assertThat(tickets)
+                .hasSize(buyerNames.size())
+                .doesNotHaveDuplicates();
+        for (final int ticket : tickets) {
+            assertThat(ticket).isBetween(1, SilanisLottery.MAX_BALL);
+        }
+        assertThat(this.lottery.getPot())
+                .as("Pot value was updated consecutively to tickets purchase")
+                .isEqualTo(initialPot + buyerNames.size() * SilanisLottery.TICKET_PRICE);
+    }
+
+    /**
+     * Test purchaseTickets() sells every ticket and the buyers are the winners
+     */
+    @Test
+    public void testPurchaseTicketsAllTickets() throws Exception {
+        // Test initialisation
+        final List<String> buyerNames = new ArrayList<>();
+        for (int i = 1; i <= SilanisLottery.MAX_BALL; i++) {
+            buyerNames.add("BUYER" + i);
+        }
+        final int[] tickets = this.lottery.purchaseTickets(buyerNames);
+        final Map<Integer, String> ticketBuyer = new HashMap<>();
+        for (int i = 0; i < tickets.length; i++) {
+            ticketBuyer.put(tickets[i], buyerNames.get(i));
+        }
+
+        // Test body
+        assertThat(this.lottery.isTicketAvailable()).isFalse();
+        final int[] results = this.lottery.drawLottery();
+        assertThat(this.lottery.getWinners()).extracting("firstName")
+                .containsExactly(ticketBuyer.get(results[0]), ticketBuyer.get(results[1]), ticketBuyer.get(results[2]));
+    }
+
+    /**
+     * Test purchaseTickets() purchases nothing if one of the names is invalid or if there are not enough tickets
+     */
+    @Test
+    public void testPurchaseTicketsIsAllOrNothing() throws Exception {
+        // Test initialisation
+        final int initialPot = this.lottery.getPot();
+        final List<String> tooManyBuyers = new ArrayList<>();
+        for (int i = 0; i <= SilanisLottery.MAX_BALL; i++) {
+            tooManyBuyers.add(TEST_BUYER_NAME);
+        }
+
+        // Test body
+        assertThatExceptionOfType(InvalidBuyerNameException.class)
+                .isThrownBy(() -> this.lottery.purchaseTickets(List.of(TEST_BUYER_NAME, " ")));
+        assertThatExceptionOfType(NoAvailableTicketException.class)
+                .isThrownBy(() -> this.lottery.purchaseTickets(tooManyBuyers));
+        assertThat(this.lottery.getPot()).isEqualTo(initialPot);
+        assertThat(this.lottery.purchaseTickets(tooManyBuyers.subList(0, SilanisLottery.MAX_BALL)))
+                .hasSize(SilanisLottery.MAX_BALL);
+    }
+
+    /**
+     * Test reset() starts the lottery anew
+     */
+    @Test
+    public void testReset() throws Exception {
+        // Test initialisation
+        final int[] tickets = new int[SilanisLottery.MAX_BALL];
+        for (int i = 0; i < SilanisLottery.MAX_BALL; i++) {
+            tickets[i] = this.lottery.purchaseTicket(TEST_BUYER_NAME);
+        }
+        this.lottery.drawLottery();
+        assertThat(this.lottery.getWinners()).doesNotContainNull();
+
+        // Test body
+        final int newPot = 42;
+        this.lottery.reset(newPot);
+        assertThat(this.lottery.getPot()).isEqualTo(newPot);
+        assertThat(this.lottery.isTicketAvailable()).isTrue();
+        assertThatExceptionOfType(SingleLotteryNotDrawnException.class)
+                .isThrownBy(() -> this.lottery.getWinners());
+
+        this.lottery.drawLottery();
+        assertThat(this.lottery.getWinners())
+                .as("Tickets sold before reset() do not win anymore")
+                .containsOnlyNulls();
+        assertThat(this.lottery.getPot()).isEqualTo(newPot);
+    }
+
+    /**
+     * Test tryPurchaseTicket() reports failures as PurchaseStatus codes
+     */
+    @Test
+    public void testTryPurchaseTicket() throws Exception {
+        assertThat(this.lottery.tryPurchaseTicket(null)).isEqualTo(PurchaseStatus.INVALID_BUYER_NAME);
+        assertThat(this.lottery.tryPurchaseTicket(" \t")).isEqualTo(PurchaseStatus.INVALID_BUYER_NAME);
+        assertThat(this.lottery.getPot()).isEqualTo(SilanisLottery.INITIAL_POT);
+
+        for (int i = 0; i < SilanisLottery.MAX_BALL; i++) {
+            final int result = this.lottery.tryPurchaseTicket(TEST_BUYER_NAME);
+            assertThat(PurchaseStatus.isTicket(result)).isTrue();
+            assertThat(result).isBetween(1, SilanisLottery.MAX_BALL);
+        }
+        assertThat(this.lottery.tryPurchaseTicket(TEST_BUYER_NAME)).isEqualTo(PurchaseStatus.NO_AVAILABLE_TICKET);
+        assertThat(this.lottery.getPot()).isEqualTo(SilanisLottery.INITIAL_POT + SilanisLottery.MAX_BALL * SilanisLottery.TICKET_PRICE);
+
+        this.lottery.drawLottery();
+        assertThat(this.lottery.tryPurchaseTicket(TEST_BUYER_NAME)).isEqualTo(PurchaseStatus.ALREADY_DRAWN);
+    }
+
+    /**
+     * Test purchaseTicket() of a chosen ticket: the ticket is sold once and never drawn for another buyer
+     */
+    @Test
+    public void testPurchaseChosenTicket() throws Exception {
+        assertThat(this.lottery.purchaseTicket("Alice", 17)).isEqualTo(17);
+        assertThat(this.lottery.getPot()).isEqualTo(SilanisLottery.INITIAL_POT + SilanisLottery.TICKET_PRICE);
+        assertThat(this.lottery.getTicketLedger().getBuyerName(17)).isEqualTo("Alice");
+        assertThatExceptionOfType(NoAvailableTicketException.class).isThrownBy(() -> this.lottery.purchaseTicket("Bob", 17));
+        assertThatExceptionOfType(InvalidBuyerNameException.class).isThrownBy(() -> this.lottery.purchaseTicket(" ", 18));
+
+        for (int i = 1; i < SilanisLottery.MAX_BALL; i++) {
+            assertThat(this.lottery.purchaseTicket(TEST_BUYER_NAME)).isNotEqualTo(17);
+        }
+        assertThat(this.lottery.tryPurchaseTicket(TEST_BUYER_NAME)).isEqualTo(PurchaseStatus.NO_AVAILABLE_TICKET);
+        assertThat(this.lottery.getTicketLedger().getBuyerName(17)).isEqualTo("Alice");
+    }
+
+    /**
+     * Test tryPurchaseTicket() of a chosen ticket reports failures as PurchaseStatus codes
+     */
+    @Test
+    public void testTryPurchaseChosenTicket() throws Exception {
+        this.lottery.purchaseTicket(TEST_BUYER_NAME);
+        final int freeTicket = this.lottery.getTicketLedger().getBuyerName(1) == null ? 1 : 2;
+
+        assertThat(this.lottery.tryPurchaseTicket(null, freeTicket)).isEqualTo(PurchaseStatus.INVALID_BUYER_NAME);
+        assertThat(this.lottery.tryPurchaseTicket(TEST_BUYER_NAME, 0)).isEqualTo(PurchaseStatus.NO_AVAILABLE_TICKET);
+        assertThat(this.lottery.tryPurchaseTicket(TEST_BUYER_NAME, SilanisLottery.MAX_BALL + 1)).isEqualTo(PurchaseStatus.NO_AVAILABLE_TICKET);
+        assertThat(this.lottery.tryPurchaseTicket(TEST_BUYER_NAME, freeTicket)).isEqualTo(freeTicket);
+        assertThat(this.lottery.tryPurchaseTicket(TEST_BUYER_NAME, freeTicket)).isEqualTo(PurchaseStatus.NO_AVAILABLE_TICKET);
+        assertThat(this.lottery.getPot()).isEqualTo(SilanisLottery.INITIAL_POT + 2 * SilanisLottery.TICKET_PRICE);
+
+        this.lottery.drawLottery();
+        assertThat(this.lottery.tryPurchaseTicket(TEST_BUYER_NAME, 3)).isEqualTo(PurchaseStatus.ALREADY_DRAWN);
+    }
 }
@@ -0,0 +1,148 @@
+package com.rros.silanislottery;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Test class for com.rros.silanislottery.SingleWriterLottery
+ */
+public class SingleWriterLotteryTest {
+
+    /**
+     * Test commands are applied in submission order
+     */
+    @Test
+    public void testOrdering() throws Exception {
+        try (SingleWriterLottery engine = SingleWriterLottery.start(new SilanisLottery(200, SilanisLottery.NB_WINNERS), 4, SingleWriterLottery.WaitStrategy.BLOCKING)) {
+            assertThatExceptionOfType(CompletionException.class).isThrownBy(() -> engine.generateWinnersMessage().join())
+                    .withCauseInstanceOf(NoPreviousDrawException.class);
+
+            final List<CompletableFuture<Integer>> purchases = new ArrayList<>();
+            for (int i = 0; i < SilanisLottery.NB_WINNERS + 1; i++) {
+                purchases.add(engine.purchaseTicket("Buyer " + i));
+            }
+            final CompletableFuture<Integer> potBeforeDraw = engine.getPot();
+            final CompletableFuture<int[]> draw = engine.drawLottery();
+            final CompletableFuture<Integer> purchaseAfterDraw = engine.purchaseTicket("Dave");
+
+            for (int i = 0; i < SilanisLottery.NB_WINNERS; i++) {
+                assertThat(purchases.get(i).join()).isBetween(1, SilanisLottery.NB_WINNERS);
+            }
+            assertThat(purchases.get(SilanisLottery.NB_WINNERS).join()).isEqualTo(PurchaseStatus.NO_AVAILABLE_TICKET);
+            assertThat(potBeforeDraw.join()).isEqualTo(230);
+            assertThat(draw.join()).hasSize(SilanisLottery.NB_WINNERS);
+            assertThat(purchaseAfterDraw.join()).isBetween(1, SilanisLottery.NB_WINNERS);
+            assertThat(engine.generateWinnersMessage().join()).contains("Buyer");
+        }
+    }
+
+    /**
+     * Test concurrent producers through a small ring (back-pressure) get distinct tickets
+     */
+    @Test
+    public void testConcurrentProducers() throws Exception {
+        this.testConcurrentProducers(SingleWriterLottery.WaitStrategy.YIELDING);
+        this.testConcurrentProducers(SingleWriterLottery.WaitStrategy.BLOCKING);
+        // spinning threads need a core each
+        if (Runtime.getRuntime().availableProcessors() > 4) {
+            this.testConcurrentProducers(SingleWriterLottery.WaitStrategy.BUSY_SPIN);
+        }
+    }
+
+    private void testConcurrentProducers(final SingleWriterLottery.WaitStrategy waitStrategy) throws Exception {
+        final int nbThreads = 4;
+        final int nbPurchasesPerThread = 2_500;
+        try (SingleWriterLottery engine = SingleWriterLottery.start(new SilanisLottery(200, nbThreads * nbPurchasesPerThread), 8, waitStrategy)) {
+            final List<List<CompletableFuture<Integer>>> futures = new ArrayList<>();
+            final List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < nbThreads; t++) {
+                final List<CompletableFuture<Integer>> threadFutures = new ArrayList<>();
+                futures.add(threadFutures);
+                threads.add(new Thread(() -> {
+                    for (int i = 0; i < nbPurchasesPerThread; i++) {
+                        threadFutures.add(engine.purchaseTicket("Buyer"));
+                    }
+                }));
+            }
+            threads.forEach(Thread::start);
+            for (final Thread thread : threads) {
+                thread.join();
+            }
+
+            final Set<Integer> tickets = new HashSet<>();
+            for (final List<CompletableFuture<Integer>> threadFutures : futures) {
+                for (final CompletableFuture<Integer> future : threadFutures) {
+                    assertThat(tickets.add(future.join())).isTrue();
+                }
+            }
+            assertThat(tickets).hasSize(nbThreads * nbPurchasesPerThread).allMatch(PurchaseStatus::isTicket);
+            assertThat(engine.getPot().join()).isEqualTo(200 + SilanisLottery.TICKET_PRICE * nbThreads * nbPurchasesPerThread);
+        }
+    }
+
+    /**
+     * Test close applies the published commands and rejects later ones
+     */
+    @Test
+    public void testClose() {
+        final SingleWriterLottery engine = SingleWriterLottery.start(new SilanisLottery(), 1024, SingleWriterLottery.WaitStrategy.YIELDING);
+        final List<CompletableFuture<Integer>> purchases = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            purchases.add(engine.purchaseTicket("Buyer"));
+        }
+        engine.close();
+
+        assertThat(purchases).allMatch(CompletableFuture::isDone);
+        assertThatIllegalStateException().isThrownBy(() -> engine.purchaseTicket("Buyer"));
+    }
+
+    /**
+     * Test a close racing with producers: every submission is either rejected or applied, even through a full ring
+     */
+    @Test
+    public void testCloseWhilePublishing() throws Exception {
+        final SingleWriterLottery engine = SingleWriterLottery.start(new SilanisLottery(200, 1_000_000), 4, SingleWriterLottery.WaitStrategy.YIELDING);
+        final List<List<CompletableFuture<Integer>>> futures = new ArrayList<>();
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final List<CompletableFuture<Integer>> threadFutures = new ArrayList<>();
+            futures.add(threadFutures);
+            threads.add(new Thread(() -> {
+                try {
+                    while (true) {
+                        threadFutures.add(engine.purchaseTicket("Buyer"));
+                    }
+                } catch (IllegalStateException e) {
+                    // closed
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        Thread.sleep(20);
+        engine.close();
+        for (final Thread thread : threads) {
+            thread.join(10_000);
+            assertThat(thread.isAlive()).isFalse();
+        }
+
+        for (final List<CompletableFuture<Integer>> threadFutures : futures) {
+            assertThat(threadFutures).allMatch(CompletableFuture::isDone);
+        }
+    }
+
+    @Test
+    public void testInvalidCapacity() {
+        assertThatIllegalArgumentException().isThrownBy(() -> SingleWriterLottery.start(new SilanisLottery(), 6, SingleWriterLottery.WaitStrategy.BUSY_SPIN));
+    }
+}
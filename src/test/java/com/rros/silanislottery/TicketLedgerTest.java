@@ -0,0 +1,105 @@
+package com.rros.silanislottery;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Test class for com.rros.silanislottery.TicketLedger
+ */
+public class TicketLedgerTest {
+
+    private TicketLedger ledger;
+
+    @BeforeEach
+    public void setUp() {
+        this.ledger = new TicketLedger(SilanisLottery.MAX_BALL);
+    }
+
+    @Test
+    public void testRecord() {
+        assertThat(this.ledger.getBuyerName(1)).isNull();
+
+        this.ledger.record(1, "Dave");
+        this.ledger.record(SilanisLottery.MAX_BALL, "Remy");
+        this.ledger.record(7, "Dave");
+
+        assertThat(this.ledger.getBuyerName(1)).isEqualTo("Dave");
+        assertThat(this.ledger.getBuyerName(7)).isEqualTo("Dave");
+        assertThat(this.ledger.getBuyerName(SilanisLottery.MAX_BALL)).isEqualTo("Remy");
+        assertThat(this.ledger.getBuyerName(2)).isNull();
+        assertThat(this.ledger.getNbSold()).isEqualTo(3);
+        assertThat(this.ledger.getNbBuyers())
+                .as("Buyers' names are stored once")
+                .isEqualTo(2);
+    }
+
+    @Test
+    public void testRecordTwiceThrowsIllegalStateException() {
+        this.ledger.record(3, "Dave");
+        assertThatIllegalStateException().isThrownBy(() -> this.ledger.record(3, "Remy"));
+        assertThat(this.ledger.getBuyerName(3)).isEqualTo("Dave");
+    }
+
+    /**
+     * Test a range of millions of tickets spanning several pages
+     */
+    @Test
+    public void testRecordLargeRange() {
+        final int nbTickets = 10_000_000;
+        this.ledger = new TicketLedger(nbTickets);
+        this.ledger.record(nbTickets, "Dave");
+        this.ledger.record(1024, "Remy");
+        this.ledger.record(1023, "Greg");
+
+        assertThat(this.ledger.getBuyerName(nbTickets)).isEqualTo("Dave");
+        assertThat(this.ledger.getBuyerName(1024)).isEqualTo("Remy");
+        assertThat(this.ledger.getBuyerName(1023)).isEqualTo("Greg");
+        assertThat(this.ledger.getBuyerName(nbTickets / 2)).isNull();
+    }
+
+    @Test
+    public void testReset() {
+        this.ledger.record(3, "Dave");
+        this.ledger.reset();
+
+        assertThat(this.ledger.getBuyerName(3)).isNull();
+        assertThat(this.ledger.getNbSold()).isZero();
+        assertThat(this.ledger.getNbBuyers()).isZero();
+        this.ledger.record(3, "Remy");
+        assertThat(this.ledger.getBuyerName(3)).isEqualTo("Remy");
+    }
+
+    /**
+     * Test restored buyers are resolved from their dictionary, and later buyers get ids after them
+     */
+    @Test
+    public void testRestoreExportSales() {
+        final byte[] names = "DaveRemy".getBytes(StandardCharsets.UTF_8);
+        final RestoredRound round = new RestoredRound();
+        round.setSnapshotPurchases(new int[]{3, 40}, new int[]{2, 1},
+                new BuyerDictionary(ByteBuffer.wrap(names), new int[]{0, 4, 8}));
+        round.addPurchase(7, "Greg");
+
+        this.ledger.restore(round);
+        this.ledger.record(9, "Greg");
+        assertThat(this.ledger.getBuyerName(3)).isEqualTo("Remy");
+        assertThat(this.ledger.getBuyerName(40)).isEqualTo("Dave");
+        assertThat(this.ledger.getBuyerName(7)).isEqualTo("Greg");
+        assertThat(this.ledger.getBuyerName(9)).isEqualTo("Greg");
+        assertThat(this.ledger.getNbBuyers()).isEqualTo(3);
+
+        final int[] tickets = new int[4];
+        final int[] buyerIds = new int[4];
+        this.ledger.exportSales(tickets, buyerIds);
+        assertThat(tickets).containsExactly(3, 7, 9, 40);
+        assertThat(buyerIds).containsExactly(2, 3, 3, 1);
+
+        assertThatIllegalStateException().isThrownBy(() -> this.ledger.restore(new RestoredRound()));
+    }
+}